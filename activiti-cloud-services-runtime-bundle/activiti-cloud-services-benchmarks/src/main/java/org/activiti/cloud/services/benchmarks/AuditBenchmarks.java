@@ -0,0 +1,40 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs audit event production benchmarks with GC profiler to report allocation rate per operation.
+ * 
+ * Usage: <code>java -jar target/benchmarks.jar [JMH options]</code>  
+ */
+public class AuditBenchmarks {
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder().parent(new CommandLineOptions(args))
+                                              .include(AuditBenchmarks.class.getPackage().getName() + ".*Benchmark")
+                                              .addProfiler(GCProfiler.class)
+                                              .build();
+
+        new Runner(options).run();
+    }
+
+}
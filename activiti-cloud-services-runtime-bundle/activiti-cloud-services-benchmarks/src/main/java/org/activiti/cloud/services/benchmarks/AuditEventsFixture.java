@@ -0,0 +1,70 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.benchmarks;
+
+import java.util.UUID;
+
+import org.activiti.api.runtime.model.impl.ProcessInstanceImpl;
+import org.activiti.cloud.services.events.configuration.RuntimeBundleProperties;
+import org.activiti.cloud.services.events.converter.RuntimeBundleInfoAppender;
+import org.activiti.cloud.services.events.converter.ToCloudProcessRuntimeEventConverter;
+import org.activiti.runtime.api.event.impl.ProcessCreatedEventImpl;
+import org.activiti.runtime.api.event.impl.ProcessStartedEventImpl;
+
+/**
+ * Shared runtime bundle configuration and engine events used by benchmarks 
+ */
+class AuditEventsFixture {
+
+    static final String APP_NAME = "benchmark-app";
+    static final String SERVICE_NAME = "benchmark-rb";
+    static final String PROCESS_DEFINITION_KEY = "benchmark";
+
+    static RuntimeBundleProperties runtimeBundleProperties() {
+        RuntimeBundleProperties properties = new RuntimeBundleProperties();
+
+        properties.setAppName(APP_NAME);
+        properties.setRbSpringAppName(SERVICE_NAME);
+        properties.setServiceType("runtime-bundle");
+        properties.setServiceVersion("1");
+
+        return properties;
+    }
+
+    static ToCloudProcessRuntimeEventConverter processRuntimeEventConverter(RuntimeBundleProperties properties) {
+        return new ToCloudProcessRuntimeEventConverter(new RuntimeBundleInfoAppender(properties));
+    }
+
+    static ProcessInstanceImpl processInstance(String processInstanceId) {
+        ProcessInstanceImpl processInstance = new ProcessInstanceImpl();
+
+        processInstance.setId(processInstanceId);
+        processInstance.setProcessDefinitionId(PROCESS_DEFINITION_KEY + ":1:" + UUID.randomUUID());
+        processInstance.setProcessDefinitionKey(PROCESS_DEFINITION_KEY);
+        processInstance.setBusinessKey("businessKey");
+        processInstance.setName("Benchmark process");
+
+        return processInstance;
+    }
+
+    static ProcessStartedEventImpl processStartedEvent(ProcessInstanceImpl processInstance) {
+        return new ProcessStartedEventImpl(processInstance);
+    }
+
+    static ProcessCreatedEventImpl processCreatedEvent(ProcessInstanceImpl processInstance) {
+        return new ProcessCreatedEventImpl(processInstance);
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.benchmarks;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.activiti.cloud.services.events.configuration.RuntimeBundleProperties;
+import org.activiti.cloud.services.events.message.AuditProducerRoutingKeyResolver;
+import org.activiti.cloud.services.events.message.RuntimeBundleInfoMessageBuilderAppender;
+import org.activiti.cloud.services.events.message.RuntimeBundleInfoMessageHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+/**
+ * Compares runtime bundle info headers and audit routing key resolution against the previous implementation, 
+ * i.e. per message header lookups and <code>Stream</code> based routing keys. 
+ * 
+ * Run with <code>AuditBenchmarks</code> or <code>-prof gc</code> to compare <code>gc.alloc.rate.norm</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuditHeadersBenchmark {
+
+    private RuntimeBundleProperties properties;
+    private RuntimeBundleInfoMessageBuilderAppender appender;
+    private AuditProducerRoutingKeyResolver routingKeyResolver;
+    private StreamRoutingKeyResolver streamRoutingKeyResolver;
+    private Map<String, Object> headers;
+
+    @Setup
+    public void setUp() {
+        properties = AuditEventsFixture.runtimeBundleProperties();
+        appender = new RuntimeBundleInfoMessageBuilderAppender(properties);
+        routingKeyResolver = new AuditProducerRoutingKeyResolver();
+        streamRoutingKeyResolver = new StreamRoutingKeyResolver();
+        headers = appender.getHeaders();
+    }
+
+    @Benchmark
+    public Message<String> appendRuntimeBundleHeaders() {
+        return appender.apply(MessageBuilder.withPayload("payload"))
+                       .build();
+    }
+
+    @Benchmark
+    public Message<String> appendRuntimeBundleHeadersPerMessage() {
+        return MessageBuilder.withPayload("payload")
+                             .setHeader(RuntimeBundleInfoMessageHeaders.APP_NAME, properties.getAppName())
+                             .setHeader(RuntimeBundleInfoMessageHeaders.SERVICE_NAME, properties.getServiceName())
+                             .setHeader(RuntimeBundleInfoMessageHeaders.SERVICE_FULL_NAME, properties.getServiceFullName())
+                             .setHeader(RuntimeBundleInfoMessageHeaders.SERVICE_TYPE, properties.getServiceType())
+                             .setHeader(RuntimeBundleInfoMessageHeaders.SERVICE_VERSION, properties.getServiceVersion())
+                             .build();
+    }
+
+    @Benchmark
+    public String resolveRoutingKey() {
+        return routingKeyResolver.resolve(headers);
+    }
+
+    @Benchmark
+    public String resolveRoutingKeyWithStream() {
+        return streamRoutingKeyResolver.resolve(headers);
+    }
+
+    // Routing key resolver as it was before memoization 
+    static class StreamRoutingKeyResolver {
+
+        private static final String[] HEADER_KEYS = {RuntimeBundleInfoMessageHeaders.SERVICE_NAME,
+                                                     RuntimeBundleInfoMessageHeaders.APP_NAME};
+
+        String resolve(Map<String, Object> headers) {
+            return "engineEvents" + "." + Stream.of(HEADER_KEYS)
+                                                .map(headers::get)
+                                                .map(Optional::ofNullable)
+                                                .map(this::mapNullOrEmptyValue)
+                                                .collect(Collectors.joining("."));
+        }
+
+        private String mapNullOrEmptyValue(Optional<Object> obj) {
+            return obj.map(Object::toString)
+                      .filter(value -> !value.isEmpty())
+                      .map(value -> value.replaceAll("[\\t\\s\\.*#:]", "-"))
+                      .orElse("_");
+        }
+    }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.activiti.api.runtime.model.impl.ProcessInstanceImpl;
+import org.activiti.cloud.services.events.configuration.RuntimeBundleProperties;
+import org.activiti.cloud.services.events.converter.RuntimeBundleInfoAppender;
+import org.activiti.cloud.services.events.converter.ToCloudProcessRuntimeEventConverter;
+import org.activiti.cloud.services.events.listeners.MessageProducerCommandContextCloseListener;
+import org.activiti.cloud.services.events.listeners.ProcessEngineEventsAggregator;
+import org.activiti.cloud.services.events.message.ExecutionContextMessageBuilderFactory;
+import org.activiti.cloud.services.events.message.ProcessDefinitionHeadersCache;
+import org.activiti.engine.ManagementService;
+import org.activiti.engine.ProcessEngine;
+import org.activiti.engine.ProcessEngineConfiguration;
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.runtime.ProcessInstance;
+import org.activiti.runtime.api.event.impl.ProcessStartedEventImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the whole audit event production path inside an engine command context backed by in-memory H2: 
+ * event conversion, <code>ProcessEngineEventsAggregator.add</code> with execution context lookup, 
+ * message building on command context close and JSON serialization in an in-memory binder.
+ * 
+ * Scores are reported per audit event.  
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuditPipelineBenchmark {
+
+    private static final int EVENTS_PER_COMMAND = 10;
+
+    private static final String PROCESS_MODEL = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<definitions xmlns=\"http://www.omg.org/spec/BPMN/20100524/MODEL\" targetNamespace=\"benchmark\">"
+            + "<process id=\"" + AuditEventsFixture.PROCESS_DEFINITION_KEY + "\" name=\"Benchmark\" isExecutable=\"true\">"
+            + "<startEvent id=\"start\"/>"
+            + "<sequenceFlow id=\"flow1\" sourceRef=\"start\" targetRef=\"wait\"/>"
+            + "<userTask id=\"wait\"/>"
+            + "<sequenceFlow id=\"flow2\" sourceRef=\"wait\" targetRef=\"end\"/>"
+            + "<endEvent id=\"end\"/>"
+            + "</process>"
+            + "</definitions>";
+
+    @Param({"false", "true"})
+    private boolean processDefinitionHeadersCache;
+
+    private ProcessEngine processEngine;
+    private ManagementService managementService;
+    private InMemoryProcessEngineChannels channels;
+    private ToCloudProcessRuntimeEventConverter converter;
+    private ProcessEngineEventsAggregator aggregator;
+    private ProcessStartedEventImpl processStartedEvent;
+
+    @Setup
+    public void setUp() {
+        processEngine = ProcessEngineConfiguration.createStandaloneInMemProcessEngineConfiguration()
+                                                  .setJdbcUrl("jdbc:h2:mem:benchmarks;DB_CLOSE_DELAY=-1")
+                                                  .setAsyncExecutorActivate(false)
+                                                  .buildProcessEngine();
+        managementService = processEngine.getManagementService();
+
+        processEngine.getRepositoryService()
+                     .createDeployment()
+                     .name("benchmark")
+                     .addString("benchmark.bpmn20.xml", PROCESS_MODEL)
+                     .deploy();
+
+        ProcessInstance processInstance = processEngine.getRuntimeService()
+                                                       .startProcessInstanceByKey(AuditEventsFixture.PROCESS_DEFINITION_KEY,
+                                                                                  "businessKey");
+
+        RuntimeBundleProperties properties = AuditEventsFixture.runtimeBundleProperties();
+
+        channels = new InMemoryProcessEngineChannels();
+        converter = AuditEventsFixture.processRuntimeEventConverter(properties);
+        aggregator = new ProcessEngineEventsAggregator(new MessageProducerCommandContextCloseListener(channels,
+                                                                                                      new ExecutionContextMessageBuilderFactory(properties,
+                                                                                                                                                processDefinitionHeadersCache ? new ProcessDefinitionHeadersCache(100) : null),
+                                                                                                      new RuntimeBundleInfoAppender(properties)));
+
+        ProcessInstanceImpl model = AuditEventsFixture.processInstance(processInstance.getId());
+        model.setProcessDefinitionId(processInstance.getProcessDefinitionId());
+
+        processStartedEvent = AuditEventsFixture.processStartedEvent(model);
+    }
+
+    @TearDown
+    public void tearDown() {
+        processEngine.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS_PER_COMMAND)
+    public long produceAuditEvents() {
+        managementService.executeCommand((Command<Void>) commandContext -> {
+            for (int i = 0; i < EVENTS_PER_COMMAND; i++) {
+                aggregator.add(converter.from(processStartedEvent));
+            }
+            return null;
+        });
+
+        return channels.getSentBytes();
+    }
+
+}
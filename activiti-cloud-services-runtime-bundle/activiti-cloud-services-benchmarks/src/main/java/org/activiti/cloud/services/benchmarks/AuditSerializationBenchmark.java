@@ -0,0 +1,72 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.activiti.api.runtime.model.impl.ProcessInstanceImpl;
+import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
+import org.activiti.cloud.services.events.converter.ToCloudProcessRuntimeEventConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures JSON serialization of <code>CloudRuntimeEvent[]</code> audit batches 
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuditSerializationBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int batchSize;
+
+    private ObjectMapper objectMapper;
+    private CloudRuntimeEvent<?, ?>[] payload;
+
+    @Setup
+    public void setUp() {
+        ToCloudProcessRuntimeEventConverter converter = AuditEventsFixture.processRuntimeEventConverter(AuditEventsFixture.runtimeBundleProperties());
+
+        objectMapper = new ObjectMapper();
+        payload = new CloudRuntimeEvent<?, ?>[batchSize];
+
+        for (int i = 0; i < batchSize; i++) {
+            ProcessInstanceImpl processInstance = AuditEventsFixture.processInstance("processInstanceId" + i);
+
+            payload[i] = converter.from(AuditEventsFixture.processStartedEvent(processInstance));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeAuditBatch() throws Exception {
+        return objectMapper.writeValueAsBytes(payload);
+    }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.activiti.api.runtime.model.impl.ProcessInstanceImpl;
+import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
+import org.activiti.cloud.services.events.converter.ToCloudProcessRuntimeEventConverter;
+import org.activiti.runtime.api.event.impl.ProcessCreatedEventImpl;
+import org.activiti.runtime.api.event.impl.ProcessStartedEventImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures <code>ToCloud*EventConverter</code> conversion of engine events into cloud runtime events
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventConversionBenchmark {
+
+    private ToCloudProcessRuntimeEventConverter converter;
+    private ProcessStartedEventImpl processStartedEvent;
+    private ProcessCreatedEventImpl processCreatedEvent;
+
+    @Setup
+    public void setUp() {
+        ProcessInstanceImpl processInstance = AuditEventsFixture.processInstance("processInstanceId");
+
+        converter = AuditEventsFixture.processRuntimeEventConverter(AuditEventsFixture.runtimeBundleProperties());
+        processStartedEvent = AuditEventsFixture.processStartedEvent(processInstance);
+        processCreatedEvent = AuditEventsFixture.processCreatedEvent(processInstance);
+    }
+
+    @Benchmark
+    public CloudRuntimeEvent<?, ?> convertProcessStartedEvent() {
+        return converter.from(processStartedEvent);
+    }
+
+    @Benchmark
+    public CloudRuntimeEvent<?, ?> convertProcessCreatedEvent() {
+        return converter.from(processCreatedEvent);
+    }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.benchmarks;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.activiti.cloud.services.events.ProcessEngineChannels;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+
+/**
+ * In-memory binder stand-in that serializes audit message payloads to JSON 
+ * the same way the binder message converter does, and discards them.  
+ */
+class InMemoryProcessEngineChannels implements ProcessEngineChannels {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SubscribableChannel commandConsumer = new ExecutorSubscribableChannel();
+    private final AtomicLong sentMessages = new AtomicLong();
+    private final AtomicLong sentBytes = new AtomicLong();
+
+    private final MessageChannel auditProducer = new MessageChannel() {
+
+        @Override
+        public boolean send(Message<?> message, long timeout) {
+            try {
+                sentBytes.addAndGet(objectMapper.writeValueAsBytes(message.getPayload()).length);
+                sentMessages.incrementAndGet();
+
+                return true;
+            } catch (JsonProcessingException cause) {
+                throw new MessageDeliveryException(message, cause);
+            }
+        }
+    };
+
+    @Override
+    public SubscribableChannel commandConsumer() {
+        return commandConsumer;
+    }
+
+    @Override
+    public MessageChannel commandResults() {
+        return auditProducer;
+    }
+
+    @Override
+    public MessageChannel auditProducer() {
+        return auditProducer;
+    }
+
+    long getSentMessages() {
+        return sentMessages.get();
+    }
+
+    long getSentBytes() {
+        return sentBytes.get();
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.activiti.api.runtime.model.impl.ProcessInstanceImpl;
+import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
+import org.activiti.cloud.services.events.configuration.RuntimeBundleProperties;
+import org.activiti.cloud.services.events.converter.ToCloudProcessRuntimeEventConverter;
+import org.activiti.cloud.services.events.message.ExecutionContextMessageBuilderFactory;
+import org.activiti.cloud.services.events.message.ProcessDefinitionHeadersCache;
+import org.activiti.engine.impl.context.ExecutionContext;
+import org.activiti.engine.impl.persistence.entity.DeploymentEntity;
+import org.activiti.engine.impl.persistence.entity.DeploymentEntityImpl;
+import org.activiti.engine.impl.persistence.entity.ExecutionEntity;
+import org.activiti.engine.impl.persistence.entity.ExecutionEntityImpl;
+import org.activiti.engine.impl.persistence.entity.ProcessDefinitionEntityImpl;
+import org.activiti.engine.repository.ProcessDefinition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.messaging.Message;
+
+/**
+ * Measures audit message building through <code>MessageBuilderAppenderChain</code> with execution context headers, 
+ * with and without process definition headers cache.  
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageBuilderBenchmark {
+
+    private ExecutionContextMessageBuilderFactory messageBuilderFactory;
+    private ExecutionContextMessageBuilderFactory cachingMessageBuilderFactory;
+    private ExecutionContext executionContext;
+    private CloudRuntimeEvent<?, ?>[] payload;
+
+    @Setup
+    public void setUp() {
+        RuntimeBundleProperties properties = AuditEventsFixture.runtimeBundleProperties();
+        ToCloudProcessRuntimeEventConverter converter = AuditEventsFixture.processRuntimeEventConverter(properties);
+        ProcessInstanceImpl processInstance = AuditEventsFixture.processInstance("processInstanceId");
+
+        messageBuilderFactory = new ExecutionContextMessageBuilderFactory(properties);
+        cachingMessageBuilderFactory = new ExecutionContextMessageBuilderFactory(properties,
+                                                                                 new ProcessDefinitionHeadersCache(100));
+        executionContext = new DetachedExecutionContext(processInstance);
+        payload = new CloudRuntimeEvent<?, ?>[] {
+            converter.from(AuditEventsFixture.processCreatedEvent(processInstance)),
+            converter.from(AuditEventsFixture.processStartedEvent(processInstance))
+        };
+    }
+
+    @Benchmark
+    public Message<CloudRuntimeEvent<?, ?>[]> buildAuditMessage() {
+        return messageBuilderFactory.create(executionContext)
+                                    .withPayload(payload)
+                                    .build();
+    }
+
+    @Benchmark
+    public Message<CloudRuntimeEvent<?, ?>[]> buildAuditMessageWithProcessDefinitionHeadersCache() {
+        return cachingMessageBuilderFactory.create(executionContext)
+                                           .withPayload(payload)
+                                           .build();
+    }
+
+    @Benchmark
+    public Message<CloudRuntimeEvent<?, ?>[]> buildAuditMessageWithoutExecutionContext() {
+        return messageBuilderFactory.create(null)
+                                    .withPayload(payload)
+                                    .build();
+    }
+
+    // Execution context with preloaded entities, so that there is no command context required
+    static class DetachedExecutionContext extends ExecutionContext {
+
+        private final ExecutionEntityImpl processInstance;
+        private final ProcessDefinitionEntityImpl processDefinition;
+        private final DeploymentEntityImpl deployment;
+
+        DetachedExecutionContext(ProcessInstanceImpl model) {
+            this(newProcessInstance(model));
+        }
+
+        private DetachedExecutionContext(ExecutionEntityImpl processInstance) {
+            super(processInstance);
+
+            this.processInstance = processInstance;
+
+            this.processDefinition = new ProcessDefinitionEntityImpl();
+            processDefinition.setId(processInstance.getProcessDefinitionId());
+            processDefinition.setKey(AuditEventsFixture.PROCESS_DEFINITION_KEY);
+            processDefinition.setName("Benchmark");
+            processDefinition.setVersion(1);
+            processDefinition.setDeploymentId("deploymentId");
+
+            this.deployment = new DeploymentEntityImpl();
+            deployment.setId("deploymentId");
+            deployment.setName("benchmark");
+            deployment.setVersion(1);
+        }
+
+        private static ExecutionEntityImpl newProcessInstance(ProcessInstanceImpl model) {
+            ExecutionEntityImpl processInstance = ExecutionEntityImpl.createWithEmptyRelationshipCollections();
+
+            processInstance.setId(model.getId());
+            processInstance.setProcessInstanceId(model.getId());
+            processInstance.setProcessDefinitionId(model.getProcessDefinitionId());
+            processInstance.setBusinessKey(model.getBusinessKey());
+            processInstance.setName(model.getName());
+
+            return processInstance;
+        }
+
+        @Override
+        public ExecutionEntity getExecution() {
+            return processInstance;
+        }
+
+        @Override
+        public ExecutionEntity getProcessInstance() {
+            return processInstance;
+        }
+
+        @Override
+        public ProcessDefinition getProcessDefinition() {
+            return processDefinition;
+        }
+
+        @Override
+        public DeploymentEntity getDeployment() {
+            return deployment;
+        }
+    }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.services.connectors;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.activiti.cloud.api.process.model.IntegrationRequest;
+import org.activiti.cloud.services.events.configuration.RuntimeBundleProperties;
+import org.activiti.cloud.services.events.converter.RuntimeBundleInfoAppender;
+import org.activiti.services.connectors.message.IntegrationContextMessageBuilderFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.core.DestinationResolver;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Collects all integration requests of one transaction and sends them from a single synchronization 
+ * after commit, grouped by connector destination, so that each destination is resolved once.
+ * 
+ * Integration requested audit events are merged into one audit message per group of integration 
+ * contexts with the same message headers, i.e. per process instance and connector, instead of one 
+ * message per integration request.  
+ */
+public class BatchingIntegrationRequestSender extends IntegrationRequestSender {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchingIntegrationRequestSender.class);
+
+    public BatchingIntegrationRequestSender(RuntimeBundleProperties runtimeBundleProperties,
+                                            MessageChannel auditProducer,
+                                            DestinationResolver<MessageChannel> resolver,
+                                            RuntimeBundleInfoAppender runtimeBundleInfoAppender,
+                                            IntegrationContextMessageBuilderFactory messageBuilderFactory) {
+        super(runtimeBundleProperties,
+              auditProducer,
+              resolver,
+              runtimeBundleInfoAppender,
+              messageBuilderFactory);
+    }
+
+    @Override
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void sendIntegrationRequest(IntegrationRequest event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            super.sendIntegrationRequest(event);
+            return;
+        }
+
+        IntegrationRequestBatchTransactionSynchronization batch = (IntegrationRequestBatchTransactionSynchronization) TransactionSynchronizationManager.getResource(this);
+
+        // Let's register only one synchronization per transaction
+        if (batch == null) {
+            batch = new IntegrationRequestBatchTransactionSynchronization();
+
+            TransactionSynchronizationManager.bindResource(this, batch);
+            TransactionSynchronizationManager.registerSynchronization(batch);
+        }
+
+        batch.add(event);
+    }
+
+    class IntegrationRequestBatchTransactionSynchronization implements TransactionSynchronization {
+
+        private final Map<String, List<Message<IntegrationRequest>>> messages = new LinkedHashMap<>();
+        private final List<IntegrationRequest> integrationRequests = new ArrayList<>();
+
+        public void add(IntegrationRequest integrationRequest) {
+            messages.computeIfAbsent(integrationRequest.getIntegrationContext().getConnectorType(), key -> new ArrayList<>())
+                    .add(buildIntegrationRequestMessage(integrationRequest));
+
+            integrationRequests.add(integrationRequest);
+        }
+
+        @Override
+        public void afterCommit() {
+            logger.debug("Sending integration requests for {} connectors", messages.size());
+
+            messages.forEach(BatchingIntegrationRequestSender.this::sendIntegrationRequestMessages);
+            sendAuditEvents(integrationRequests);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(BatchingIntegrationRequestSender.this);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.services.connectors;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.activiti.api.process.model.events.ProcessDeployedEvent;
+import org.activiti.api.runtime.event.impl.ProcessDeployedEvents;
+import org.activiti.bpmn.model.BpmnModel;
+import org.activiti.bpmn.model.ImplementationType;
+import org.activiti.bpmn.model.Process;
+import org.activiti.bpmn.model.ServiceTask;
+import org.activiti.cloud.services.events.message.CachingDestinationResolver;
+import org.activiti.core.common.model.connector.ActionDefinition;
+import org.activiti.core.common.model.connector.ConnectorDefinition;
+import org.activiti.engine.RepositoryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.util.StringUtils;
+
+/**
+ * Warms up connector destinations when process definitions are deployed, so that the first integration 
+ * request of a connector does not pay the channel lookup and binding cost.   
+ * 
+ * Connector types are taken from service task implementations of deployed process definitions and from 
+ * actions of connector definitions. Service tasks implemented by local connector beans are skipped.
+ */
+public class ConnectorDestinationCacheWarmer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConnectorDestinationCacheWarmer.class);
+
+    private static final List<String> NON_CONNECTOR_IMPLEMENTATION_TYPES = Arrays.asList(ImplementationType.IMPLEMENTATION_TYPE_CLASS,
+                                                                                         ImplementationType.IMPLEMENTATION_TYPE_EXPRESSION,
+                                                                                         ImplementationType.IMPLEMENTATION_TYPE_DELEGATEEXPRESSION,
+                                                                                         ImplementationType.IMPLEMENTATION_TYPE_WEBSERVICE);
+
+    private final CachingDestinationResolver destinationResolver;
+    private final RepositoryService repositoryService;
+    private final List<ConnectorDefinition> connectorDefinitions;
+    private final BeanFactory beanFactory;
+
+    public ConnectorDestinationCacheWarmer(CachingDestinationResolver destinationResolver,
+                                           RepositoryService repositoryService,
+                                           List<ConnectorDefinition> connectorDefinitions,
+                                           BeanFactory beanFactory) {
+        this.destinationResolver = destinationResolver;
+        this.repositoryService = repositoryService;
+        this.connectorDefinitions = connectorDefinitions;
+        this.beanFactory = beanFactory;
+    }
+
+    @EventListener
+    public void warmUp(ProcessDeployedEvents processDeployedEvents) {
+        Set<String> connectorTypes = new LinkedHashSet<>(getConnectorTypes(connectorDefinitions));
+
+        for (ProcessDeployedEvent processDeployedEvent : processDeployedEvents.getProcessDeployedEvents()) {
+            BpmnModel bpmnModel = repositoryService.getBpmnModel(processDeployedEvent.getEntity().getId());
+
+            if (bpmnModel != null) {
+                connectorTypes.addAll(getConnectorTypes(bpmnModel));
+            }
+        }
+
+        // Local connector beans are executed in process, so there is no destination to resolve
+        connectorTypes.removeIf(beanFactory::containsBean);
+
+        int resolved = destinationResolver.warmUp(connectorTypes);
+
+        logger.info("Warmed up {} connector destinations of {} connector types", resolved, connectorTypes.size());
+    }
+
+    protected Set<String> getConnectorTypes(BpmnModel bpmnModel) {
+        Set<String> connectorTypes = new LinkedHashSet<>();
+
+        for (Process process : bpmnModel.getProcesses()) {
+            for (ServiceTask serviceTask : process.findFlowElementsOfType(ServiceTask.class)) {
+                if (StringUtils.hasText(serviceTask.getImplementation())
+                        && !NON_CONNECTOR_IMPLEMENTATION_TYPES.contains(serviceTask.getImplementationType())) {
+                    connectorTypes.add(serviceTask.getImplementation());
+                }
+            }
+        }
+
+        return connectorTypes;
+    }
+
+    protected Set<String> getConnectorTypes(Collection<ConnectorDefinition> connectorDefinitions) {
+        Set<String> connectorTypes = new LinkedHashSet<>();
+
+        for (ConnectorDefinition connectorDefinition : connectorDefinitions) {
+            if (!StringUtils.hasText(connectorDefinition.getName())) {
+                continue;
+            }
+
+            // Service task implementations refer to connector actions as <connector name>.<action name>
+            if (connectorDefinition.getActions() == null || connectorDefinition.getActions().isEmpty()) {
+                connectorTypes.add(connectorDefinition.getName());
+            } else {
+                for (ActionDefinition actionDefinition : connectorDefinition.getActions().values()) {
+                    connectorTypes.add(connectorDefinition.getName() + "." + actionDefinition.getName());
+                }
+            }
+        }
+
+        return connectorTypes;
+    }
+
+}
@@ -15,17 +15,25 @@
  */
 package org.activiti.services.connectors;
 
-import java.util.stream.Stream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
+import org.activiti.api.process.model.IntegrationContext;
 import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
 import org.activiti.cloud.api.process.model.IntegrationRequest;
 import org.activiti.cloud.api.process.model.impl.events.CloudIntegrationRequestedEventImpl;
 import org.activiti.cloud.services.events.configuration.RuntimeBundleProperties;
 import org.activiti.cloud.services.events.converter.RuntimeBundleInfoAppender;
 import org.activiti.services.connectors.message.IntegrationContextMessageBuilderFactory;
-import org.springframework.cloud.stream.binding.BinderAwareChannelResolver;
+import org.activiti.services.connectors.message.IntegrationContextMessageHeaders;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.core.DestinationResolver;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.transaction.event.TransactionPhase;
 import org.springframework.transaction.event.TransactionalEventListener;
@@ -35,13 +43,13 @@ public class IntegrationRequestSender {
     
     private final RuntimeBundleProperties runtimeBundleProperties;
     private final MessageChannel auditProducer;
-    private final BinderAwareChannelResolver resolver;
+    private final DestinationResolver<MessageChannel> resolver;
     private final RuntimeBundleInfoAppender runtimeBundleInfoAppender;
     private final IntegrationContextMessageBuilderFactory messageBuilderFactory;
 
     public IntegrationRequestSender(RuntimeBundleProperties runtimeBundleProperties,
                                     MessageChannel auditProducer,
-                                    BinderAwareChannelResolver resolver,
+                                    DestinationResolver<MessageChannel> resolver,
                                     RuntimeBundleInfoAppender runtimeBundleInfoAppender,
                                     IntegrationContextMessageBuilderFactory messageBuilderFactory) {
         this.runtimeBundleProperties = runtimeBundleProperties;
@@ -54,24 +62,84 @@ public class IntegrationRequestSender {
     @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
     public void sendIntegrationRequest(IntegrationRequest event) {
 
-        resolver.resolveDestination(event.getIntegrationContext().getConnectorType()).send(buildIntegrationRequestMessage(event));
+        sendIntegrationRequestMessage(event.getIntegrationContext().getConnectorType(), buildIntegrationRequestMessage(event));
         sendAuditEvent(event);
     }
 
+    protected void sendIntegrationRequestMessage(String connectorType, Message<IntegrationRequest> message) {
+        resolver.resolveDestination(connectorType).send(message);
+    }
+
+    protected void sendAuditMessage(Message<CloudRuntimeEvent<?, ?>[]> message) {
+        auditProducer.send(message);
+    }
+
+    protected void sendIntegrationRequestMessages(String connectorType, List<Message<IntegrationRequest>> messages) {
+        // Let's resolve destination once for all messages of the same connector
+        MessageChannel destination = resolver.resolveDestination(connectorType);
+
+        messages.forEach(destination::send);
+    }
+
     private void sendAuditEvent(IntegrationRequest integrationRequest) {
-        if (runtimeBundleProperties.getEventsProperties().isIntegrationAuditEventsEnabled()) {
-            CloudIntegrationRequestedEventImpl integrationRequested = new CloudIntegrationRequestedEventImpl(integrationRequest.getIntegrationContext());
-            runtimeBundleInfoAppender.appendRuntimeBundleInfoTo(integrationRequested);
+        sendAuditEvents(Collections.singletonList(integrationRequest));
+    }
 
-            Message<CloudRuntimeEvent<?, ?>[]> message = messageBuilderFactory.create(integrationRequest.getIntegrationContext()).withPayload(Stream.of(integrationRequested)
-                                                                                        .toArray(CloudRuntimeEvent<?, ?>[]::new))
-                .build();
-            
-            auditProducer.send(message);
+    /**
+     * Sends integration requested events of the given requests in one audit message per group of 
+     * integration contexts with the same message headers, i.e. the same process instance and connector
+     */
+    protected void sendAuditEvents(List<IntegrationRequest> integrationRequests) {
+        if (runtimeBundleProperties.getEventsProperties().isIntegrationAuditEventsEnabled() && !integrationRequests.isEmpty()) {
+            Map<List<Object>, List<IntegrationRequest>> groups = new LinkedHashMap<>();
+
+            integrationRequests.forEach(integrationRequest -> groups.computeIfAbsent(auditHeadersKey(integrationRequest.getIntegrationContext()), 
+                                                                                     key -> new ArrayList<>())
+                                                                    .add(integrationRequest));
+
+            groups.values()
+                  .forEach(group -> sendAuditMessage(buildAuditMessage(group)));
+        }
+    }
+
+    protected Message<CloudRuntimeEvent<?, ?>[]> buildAuditMessage(List<IntegrationRequest> integrationRequests) {
+        CloudRuntimeEvent<?, ?>[] payload = integrationRequests.stream()
+                                                               .map(integrationRequest -> {
+                                                                   CloudIntegrationRequestedEventImpl integrationRequested = new CloudIntegrationRequestedEventImpl(integrationRequest.getIntegrationContext());
+                                                                   runtimeBundleInfoAppender.appendRuntimeBundleInfoTo(integrationRequested);
+                                                                   return integrationRequested;
+                                                               })
+                                                               .toArray(CloudRuntimeEvent<?, ?>[]::new);
+
+        IntegrationContext integrationContext = integrationRequests.get(0).getIntegrationContext();
+
+        MessageBuilder<CloudRuntimeEvent<?, ?>[]> messageBuilder = messageBuilderFactory.create(integrationContext)
+                                                                                       .withPayload(payload);
+
+        // Integration context id of merged events is only available in their payload
+        boolean merged = integrationRequests.stream()
+                                            .anyMatch(integrationRequest -> !Objects.equals(integrationContext.getId(),
+                                                                                            integrationRequest.getIntegrationContext().getId()));
+        if (merged) {
+            messageBuilder.removeHeader(IntegrationContextMessageHeaders.INTEGRATION_CONTEXT_ID);
         }
+
+        return messageBuilder.build();
+    }
+
+    // All integration context values set as audit message headers, except integration context id
+    private List<Object> auditHeadersKey(IntegrationContext integrationContext) {
+        return Arrays.asList(integrationContext.getConnectorType(),
+                             integrationContext.getBusinessKey(),
+                             integrationContext.getProcessInstanceId(),
+                             integrationContext.getProcessDefinitionId(),
+                             integrationContext.getProcessDefinitionKey(),
+                             integrationContext.getProcessDefinitionVersion(),
+                             integrationContext.getParentProcessInstanceId(),
+                             integrationContext.getAppVersion());
     }
 
-    private Message<IntegrationRequest> buildIntegrationRequestMessage(IntegrationRequest event) {
+    protected Message<IntegrationRequest> buildIntegrationRequestMessage(IntegrationRequest event) {
         return messageBuilderFactory.create(event.getIntegrationContext())
                 .withPayload(event)
                 .build();
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.services.connectors;
+
+import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
+import org.activiti.cloud.api.process.model.IntegrationRequest;
+import org.activiti.cloud.services.events.ProcessEngineChannels;
+import org.activiti.cloud.services.events.configuration.RuntimeBundleProperties;
+import org.activiti.cloud.services.events.converter.RuntimeBundleInfoAppender;
+import org.activiti.cloud.services.events.outbox.MessageOutbox;
+import org.activiti.services.connectors.message.IntegrationContextMessageBuilderFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.core.DestinationResolver;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Writes integration requests and their audit events into the outbox before the engine transaction commits,
+ * so that they are sent by the outbox relay only if the transaction succeeds.
+ */
+public class OutboxIntegrationRequestSender extends IntegrationRequestSender {
+
+    private final MessageOutbox outbox;
+
+    public OutboxIntegrationRequestSender(RuntimeBundleProperties runtimeBundleProperties,
+                                          MessageChannel auditProducer,
+                                          DestinationResolver<MessageChannel> resolver,
+                                          RuntimeBundleInfoAppender runtimeBundleInfoAppender,
+                                          IntegrationContextMessageBuilderFactory messageBuilderFactory,
+                                          MessageOutbox outbox) {
+        super(runtimeBundleProperties,
+              auditProducer,
+              resolver,
+              runtimeBundleInfoAppender,
+              messageBuilderFactory);
+        this.outbox = outbox;
+    }
+
+    @Override
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void sendIntegrationRequest(IntegrationRequest event) {
+        super.sendIntegrationRequest(event);
+    }
+
+    @Override
+    protected void sendIntegrationRequestMessage(String connectorType, Message<IntegrationRequest> message) {
+        outbox.append(connectorType, message);
+    }
+
+    @Override
+    protected void sendAuditMessage(Message<CloudRuntimeEvent<?, ?>[]> message) {
+        outbox.append(ProcessEngineChannels.AUDIT_PRODUCER, message);
+    }
+}
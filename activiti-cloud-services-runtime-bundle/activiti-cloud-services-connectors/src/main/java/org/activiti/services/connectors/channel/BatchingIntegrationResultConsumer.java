@@ -0,0 +1,355 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.services.connectors.channel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.activiti.cloud.api.process.model.IntegrationResult;
+import org.activiti.cloud.services.events.configuration.IntegrationResultProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.messaging.MessagingException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Buffers integration results received on binder listener threads and applies them in batches.
+ * 
+ * Each listener thread waits until its result is committed, so that the binder acknowledges the result 
+ * only then and redelivers failed results. A batch therefore holds at most one result per listener thread, 
+ * i.e. at most the smaller of <code>batchSize</code> and the consumer concurrency of the binding. A batch is 
+ * applied as soon as it is full, or <code>batchTimeout</code> after its first result otherwise.
+ * 
+ * A failed batch is rolled back as a whole and its results are applied again one by one, so that 
+ * a failing result does not affect other results of the batch.
+ * 
+ * The flusher thread is started before and stopped after the input bindings. Results still pending 
+ * when the flusher does not terminate within <code>shutdownTimeout</code> are failed, so that the 
+ * binder redelivers them.
+ */
+public class BatchingIntegrationResultConsumer implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchingIntegrationResultConsumer.class);
+
+    public static final String BATCH_SIZE = "activiti.integration.results.batch.size";
+
+    public static final String BATCH_FALLBACKS = "activiti.integration.results.batch.fallbacks";
+
+    public static final String FAILED_RESULTS = "activiti.integration.results.failed";
+
+    private static final String THREAD_NAME_PREFIX = "integration-result-batcher-";
+
+    private static final long POLL_TIMEOUT = 100;
+
+    // Let's start before and stop after the input bindings
+    public static final int PHASE = Integer.MAX_VALUE - 2000;
+
+    private final BlockingQueue<PendingResult> queue;
+    private final int batchSize;
+    private final long batchTimeout;
+    private final long shutdownTimeout;
+    private final DistributionSummary batchSizes;
+    private final Counter batchFallbacks;
+    private final Counter failedResults;
+    private final CustomizableThreadFactory threadFactory;
+
+    private volatile List<PendingResult> inFlight = Collections.emptyList();
+    private volatile Thread flusher;
+    private volatile boolean running = false;
+
+    public BatchingIntegrationResultConsumer(IntegrationResultProperties properties,
+                                             int listenerConcurrency,
+                                             MeterRegistry meterRegistry) {
+        Assert.isTrue(properties.getBatchSize() > 0, "batchSize must be greater than zero");
+        Assert.isTrue(properties.getQueueCapacity() > 0, "queueCapacity must be greater than zero");
+        Assert.isTrue(listenerConcurrency > 0, "listenerConcurrency must be greater than zero");
+
+        this.queue = new LinkedBlockingQueue<>(properties.getQueueCapacity());
+        // No more results can arrive while every listener thread waits for its result 
+        this.batchSize = Math.min(properties.getBatchSize(), listenerConcurrency);
+        this.batchTimeout = properties.getBatchTimeout().toNanos();
+        this.shutdownTimeout = properties.getShutdownTimeout().toMillis();
+        this.batchSizes = DistributionSummary.builder(BATCH_SIZE)
+                                             .description("Number of integration results applied per transaction")
+                                             .register(meterRegistry);
+        this.batchFallbacks = Counter.builder(BATCH_FALLBACKS)
+                                     .description("Number of failed integration result batches applied again one by one")
+                                     .register(meterRegistry);
+        this.failedResults = Counter.builder(FAILED_RESULTS)
+                                    .description("Number of integration results failed in single processing")
+                                    .register(meterRegistry);
+
+        this.threadFactory = new CustomizableThreadFactory(THREAD_NAME_PREFIX);
+        this.threadFactory.setDaemon(true);
+    }
+
+    /**
+     * Buffers given integration result and blocks until it is applied with the batch handler, 
+     * or with the single handler when its batch failed. Failures are rethrown to the caller.
+     */
+    public void add(IntegrationResult integrationResult,
+                    Consumer<List<IntegrationResult>> batchHandler,
+                    Consumer<IntegrationResult> singleHandler) {
+        if (!running) {
+            throw new IllegalStateException("Integration result batch consumer is not running");
+        }
+
+        PendingResult pending = new PendingResult(integrationResult, batchHandler, singleHandler);
+
+        try {
+            queue.put(pending);
+
+            // Let's not leave the result behind when stopped concurrently
+            if (!running && queue.remove(pending)) {
+                throw new IllegalStateException("Integration result batch consumer is not running");
+            }
+
+            pending.future.join();
+        } catch (InterruptedException cause) {
+            Thread.currentThread().interrupt();
+
+            throw new MessagingException("Interrupted while waiting for integration result batch consumer", cause);
+        } catch (CompletionException | CancellationException cause) {
+            Throwable failure = cause.getCause() != null ? cause.getCause() : cause;
+
+            if (failure instanceof MessagingException) {
+                throw (MessagingException) failure;
+            }
+
+            throw new MessagingException("Failed to apply integration result " + integrationResult.getIntegrationContext().getId(), failure);
+        }
+    }
+
+    protected void run() {
+        while (running || !queue.isEmpty()) {
+            try {
+                List<PendingResult> batch = nextBatch();
+
+                if (!batch.isEmpty()) {
+                    inFlight = batch;
+
+                    try {
+                        // Results of one handler are applied together
+                        batch.stream()
+                             .collect(Collectors.groupingBy(pending -> pending.batchHandler, 
+                                                            LinkedHashMap::new, 
+                                                            Collectors.toList()))
+                             .forEach(this::flush);
+                    } catch (Throwable cause) {
+                        fail(batch, cause);
+                    } finally {
+                        inFlight = Collections.emptyList();
+                    }
+                }
+            } catch (InterruptedException cause) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    protected List<PendingResult> nextBatch() throws InterruptedException {
+        List<PendingResult> batch = new ArrayList<>(batchSize);
+
+        PendingResult first = queue.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+
+        if (first == null) {
+            return batch;
+        }
+
+        batch.add(first);
+
+        long deadline = System.nanoTime() + batchTimeout;
+
+        while (batch.size() < batchSize) {
+            // Let's take buffered results without waiting first
+            if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                continue;
+            }
+
+            long remaining = deadline - System.nanoTime();
+
+            if (remaining <= 0) {
+                break;
+            }
+
+            PendingResult next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+
+            if (next == null) {
+                break;
+            }
+
+            batch.add(next);
+        }
+
+        return batch;
+    }
+
+    protected void flush(Consumer<List<IntegrationResult>> batchHandler, List<PendingResult> batch) {
+        batchSizes.record(batch.size());
+
+        try {
+            batchHandler.accept(batch.stream()
+                                     .map(pending -> pending.integrationResult)
+                                     .collect(Collectors.toList()));
+        } catch (Exception cause) {
+            batchFallbacks.increment();
+
+            logger.warn("Batch of {} integration results failed due to error: {}, applying results one by one",
+                        batch.size(),
+                        cause.getMessage());
+
+            batch.forEach(this::applySingle);
+            return;
+        }
+
+        batch.forEach(pending -> pending.future.complete(null));
+    }
+
+    protected void applySingle(PendingResult pending) {
+        try {
+            pending.singleHandler.accept(pending.integrationResult);
+        } catch (Exception cause) {
+            failedResults.increment();
+
+            logger.error("Exception '{}' when processing integration result {}",
+                         cause.getMessage(),
+                         pending.integrationResult.getIntegrationContext().getId(),
+                         cause);
+
+            pending.future.completeExceptionally(cause);
+            return;
+        }
+
+        pending.future.complete(null);
+    }
+
+    private void fail(List<PendingResult> pending, Throwable cause) {
+        pending.forEach(result -> result.future.completeExceptionally(cause));
+    }
+
+    public int getQueued() {
+        return queue.size();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+
+        running = true;
+
+        flusher = threadFactory.newThread(this::run);
+        flusher.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+
+        Thread current = flusher;
+
+        if (current == null) {
+            return;
+        }
+
+        try {
+            // Let's apply buffered results before shutdown
+            current.join(shutdownTimeout);
+        } catch (InterruptedException cause) {
+            Thread.currentThread().interrupt();
+        }
+
+        boolean terminated = !current.isAlive();
+
+        List<PendingResult> pending = new ArrayList<>();
+
+        if (!terminated) {
+            pending.addAll(inFlight);
+        }
+
+        // Results added while stopping are not applied by the flusher any more
+        queue.drainTo(pending);
+
+        if (!pending.isEmpty()) {
+            logger.warn("Integration result batch consumer did not terminate in time, {} results are failed", pending.size());
+
+            // Let's hand pending results back to the binder for redelivery
+            fail(pending, new MessagingException("Integration result batch consumer stopped before applying integration result"));
+        }
+
+        if (!terminated) {
+            current.interrupt();
+        }
+
+        flusher = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return true;
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        stop();
+        callback.run();
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    protected static class PendingResult {
+
+        private final IntegrationResult integrationResult;
+        private final Consumer<List<IntegrationResult>> batchHandler;
+        private final Consumer<IntegrationResult> singleHandler;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private PendingResult(IntegrationResult integrationResult,
+                              Consumer<List<IntegrationResult>> batchHandler,
+                              Consumer<IntegrationResult> singleHandler) {
+            this.integrationResult = integrationResult;
+            this.batchHandler = batchHandler;
+            this.singleHandler = singleHandler;
+        }
+    }
+
+}
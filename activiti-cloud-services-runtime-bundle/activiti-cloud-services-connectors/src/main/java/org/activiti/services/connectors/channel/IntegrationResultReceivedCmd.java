@@ -0,0 +1,101 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.services.connectors.channel;
+
+import static org.activiti.runtime.api.impl.MappingExecutionContext.buildMappingExecutionContext;
+
+import java.util.Map;
+
+import org.activiti.api.process.model.IntegrationContext;
+import org.activiti.cloud.api.process.model.IntegrationResult;
+import org.activiti.cloud.api.process.model.impl.events.CloudIntegrationResultReceivedEventImpl;
+import org.activiti.cloud.services.events.listeners.ProcessEngineEventsAggregator;
+import org.activiti.engine.impl.cmd.TriggerCmd;
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.persistence.entity.ExecutionEntity;
+import org.activiti.engine.impl.persistence.entity.integration.IntegrationContextEntity;
+import org.activiti.engine.impl.persistence.entity.integration.IntegrationContextManager;
+import org.activiti.runtime.api.impl.VariablesMappingProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+
+/**
+ * Finds and deletes the integration context of an integration result, maps outbound variables and 
+ * triggers the waiting execution in a single command context, i.e. in one transaction.
+ * 
+ * The integration result received audit event is added to the command context events, so that it is sent 
+ * together with the events of the triggered execution. Returns the deleted integration context 
+ * or null if there is no integration context for the result.
+ */
+public class IntegrationResultReceivedCmd implements Command<IntegrationContextEntity> {
+
+    private static final Logger logger = LoggerFactory.getLogger(IntegrationResultReceivedCmd.class);
+
+    private final IntegrationResult integrationResult;
+    private final VariablesMappingProvider outboundVariablesProvider;
+    private final ProcessEngineEventsAggregator eventsAggregator;
+
+    public IntegrationResultReceivedCmd(IntegrationResult integrationResult,
+                                        VariablesMappingProvider outboundVariablesProvider,
+                                        @Nullable ProcessEngineEventsAggregator eventsAggregator) {
+        this.integrationResult = integrationResult;
+        this.outboundVariablesProvider = outboundVariablesProvider;
+        this.eventsAggregator = eventsAggregator;
+    }
+
+    @Override
+    public IntegrationContextEntity execute(CommandContext commandContext) {
+        IntegrationContext integrationContext = integrationResult.getIntegrationContext();
+        IntegrationContextManager integrationContextManager = commandContext.getProcessEngineConfiguration()
+                                                                            .getIntegrationContextManager();
+
+        IntegrationContextEntity integrationContextEntity = integrationContextManager.findById(integrationContext.getId());
+
+        if (integrationContextEntity == null) {
+            return null;
+        }
+
+        integrationContextManager.delete(integrationContextEntity);
+
+        // Let's add audit event while the execution still exists to resolve its execution context
+        if (eventsAggregator != null) {
+            eventsAggregator.add(new CloudIntegrationResultReceivedEventImpl(integrationContext));
+        }
+
+        ExecutionEntity execution = commandContext.getExecutionEntityManager()
+                                                  .findById(integrationContextEntity.getExecutionId());
+
+        if (execution != null) {
+            Map<String, Object> variables = outboundVariablesProvider.calculateOutPutVariables(buildMappingExecutionContext(integrationContext.getProcessDefinitionId(),
+                                                                                                                            execution.getActivityId()),
+                                                                                               integrationContext.getOutBoundVariables());
+
+            new TriggerCmd(integrationContextEntity.getExecutionId(), variables).execute(commandContext);
+        } else {
+            logger.debug("No task is in this RB is waiting for integration result with execution id `{}`, flow node id `{}`. " +
+                         "The integration result for the integration context `{}` will be ignored.",
+                         integrationContextEntity.getExecutionId(),
+                         integrationContext.getClientId(),
+                         integrationContext.getId());
+        }
+
+        return integrationContextEntity;
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.services.connectors.channel;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.activiti.cloud.api.process.model.IntegrationResult;
+import org.activiti.cloud.services.events.listeners.ProcessEngineEventsAggregator;
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.runtime.api.impl.VariablesMappingProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+
+/**
+ * Applies a batch of integration results in a single command context, so that integration context deletes, 
+ * variable updates and triggered executions of all results are flushed in one transaction.
+ * 
+ * Duplicate results of the same integration context are applied only once. Returns the results 
+ * which had an integration context.
+ */
+public class IntegrationResultsReceivedCmd implements Command<List<IntegrationResult>> {
+
+    private static final Logger logger = LoggerFactory.getLogger(IntegrationResultsReceivedCmd.class);
+
+    private final List<IntegrationResult> integrationResults;
+    private final VariablesMappingProvider outboundVariablesProvider;
+    private final ProcessEngineEventsAggregator eventsAggregator;
+
+    public IntegrationResultsReceivedCmd(List<IntegrationResult> integrationResults,
+                                         VariablesMappingProvider outboundVariablesProvider,
+                                         @Nullable ProcessEngineEventsAggregator eventsAggregator) {
+        this.integrationResults = integrationResults;
+        this.outboundVariablesProvider = outboundVariablesProvider;
+        this.eventsAggregator = eventsAggregator;
+    }
+
+    @Override
+    public List<IntegrationResult> execute(CommandContext commandContext) {
+        List<IntegrationResult> handled = new ArrayList<>();
+        Set<String> integrationContextIds = new HashSet<>();
+
+        for (IntegrationResult integrationResult : integrationResults) {
+            String integrationContextId = integrationResult.getIntegrationContext().getId();
+
+            // Deleted integration contexts are still in the entity cache, so let's not trigger an execution twice
+            if (!integrationContextIds.add(integrationContextId)) {
+                logger.debug("Ignoring duplicate integration result for the integration context `{}`", integrationContextId);
+                continue;
+            }
+
+            if (new IntegrationResultReceivedCmd(integrationResult,
+                                                 outboundVariablesProvider,
+                                                 eventsAggregator).execute(commandContext) != null) {
+                handled.add(integrationResult);
+            }
+        }
+
+        return handled;
+    }
+
+}
@@ -0,0 +1,309 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.services.connectors.channel;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.activiti.api.process.model.IntegrationContext;
+import org.activiti.cloud.api.process.model.IntegrationResult;
+import org.activiti.cloud.services.events.configuration.IntegrationResultProperties;
+import org.activiti.engine.ActivitiOptimisticLockingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.Lifecycle;
+import org.springframework.messaging.MessagingException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Hands integration results over from binder listener threads to a pool of single threaded lanes. 
+ * 
+ * Results are assigned to lanes by process instance id, so results of one process instance are processed 
+ * one after another in arrival order and do not compete for the same executions, while results of different 
+ * process instances are processed concurrently. Listener threads block when the lane queue is full. 
+ * 
+ * Results conflicting with a concurrent update of the process instance are applied again at most 
+ * <code>maxLockRetries</code> times. Each submission returns a future completed once the result is processed, 
+ * so that the binder acknowledges the result only then and redelivers failed results. As each listener thread 
+ * waits for its result, the consumer concurrency of the binding is set to the number of lanes, see 
+ * {@link org.conf.activiti.services.connectors.IntegrationResultsConsumerConcurrencyPostProcessor}. Results still 
+ * queued when the lanes do not terminate within <code>shutdownTimeout</code> on stop are cancelled, so that the 
+ * binder redelivers them as well.
+ * 
+ * Processed results are timed by <code>activiti.integration.results.processed</code> with <code>outcome</code> tag, 
+ * optimistic locking failures are counted by <code>activiti.integration.results.lock.conflicts</code>.
+ */
+public class OrderedIntegrationResultExecutor implements Lifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderedIntegrationResultExecutor.class);
+
+    public static final String PROCESSED_RESULTS = "activiti.integration.results.processed";
+
+    public static final String LOCK_CONFLICTS = "activiti.integration.results.lock.conflicts";
+
+    public static final String QUEUED_RESULTS = "activiti.integration.results.queued";
+
+    private static final String THREAD_NAME_PREFIX = "integration-result-executor-";
+
+    private final ExecutorService[] lanes;
+    private final Semaphore[] admissions;
+    private final long shutdownTimeout;
+    private final int maxLockRetries;
+    private final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(THREAD_NAME_PREFIX);
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Timer succeeded;
+    private final Timer conflicted;
+    private final Timer failed;
+    private final Counter lockConflicts;
+
+    private volatile boolean running = true;
+
+    public OrderedIntegrationResultExecutor(IntegrationResultProperties properties,
+                                            MeterRegistry meterRegistry) {
+        Assert.isTrue(properties.getConcurrency() > 0, "concurrency must be greater than zero");
+        Assert.isTrue(properties.getQueueCapacity() > 0, "queueCapacity must be greater than zero");
+        Assert.isTrue(properties.getMaxLockRetries() >= 0, "maxLockRetries must not be negative");
+
+        this.lanes = new ExecutorService[properties.getConcurrency()];
+        this.admissions = new Semaphore[properties.getConcurrency()];
+        this.shutdownTimeout = properties.getShutdownTimeout().toMillis();
+        this.maxLockRetries = properties.getMaxLockRetries();
+
+        for (int lane = 0; lane < lanes.length; lane++) {
+            lanes[lane] = Executors.newSingleThreadExecutor(threadFactory);
+            admissions[lane] = new Semaphore(properties.getQueueCapacity());
+        }
+
+        this.succeeded = processedTimer("success", meterRegistry);
+        this.conflicted = processedTimer("lock-conflict", meterRegistry);
+        this.failed = processedTimer("failure", meterRegistry);
+        this.lockConflicts = Counter.builder(LOCK_CONFLICTS)
+                                    .description("Number of integration results failed due to concurrent process instance updates")
+                                    .register(meterRegistry);
+
+        Gauge.builder(QUEUED_RESULTS, queued, AtomicInteger::get)
+             .description("Number of integration results waiting for or being processed")
+             .register(meterRegistry);
+    }
+
+    /**
+     * Submits given integration result to the lane of its process instance, the returned future 
+     * completes exceptionally when the result could not be processed
+     */
+    public CompletableFuture<Void> execute(IntegrationResult integrationResult, Consumer<IntegrationResult> handler) {
+        if (!running) {
+            throw new IllegalStateException("Integration result executor is not running");
+        }
+
+        int lane = laneOf(integrationResult);
+
+        try {
+            admissions[lane].acquire();
+        } catch (InterruptedException cause) {
+            Thread.currentThread().interrupt();
+
+            throw new MessagingException("Interrupted while waiting for integration result executor", cause);
+        }
+
+        queued.incrementAndGet();
+
+        Submission submission = new Submission(integrationResult, handler, lane);
+
+        try {
+            lanes[lane].execute(submission);
+        } catch (RejectedExecutionException cause) {
+            release(lane);
+
+            throw new MessagingException("Integration result executor rejected integration result", cause);
+        }
+
+        return submission.future;
+    }
+
+    protected void process(IntegrationResult integrationResult, Consumer<IntegrationResult> handler) {
+        long start = System.nanoTime();
+        Timer outcome = failed;
+
+        try {
+            for (int attempt = 0; ; attempt++) {
+                try {
+                    handler.accept(integrationResult);
+                    outcome = succeeded;
+                    return;
+                } catch (ActivitiOptimisticLockingException cause) {
+                    lockConflicts.increment();
+
+                    if (attempt >= maxLockRetries) {
+                        outcome = conflicted;
+
+                        logger.warn("Integration result {} conflicted with concurrent update {} times: {}",
+                                    integrationResult.getIntegrationContext().getId(),
+                                    attempt + 1,
+                                    cause.getMessage());
+                        throw cause;
+                    }
+
+                    logger.debug("Integration result {} conflicted with concurrent update, applying it again: {}",
+                                 integrationResult.getIntegrationContext().getId(),
+                                 cause.getMessage());
+                }
+            }
+        } catch (ActivitiOptimisticLockingException cause) {
+            throw cause;
+        } catch (RuntimeException cause) {
+            logger.error("Exception '{}' when processing integration result {}",
+                         cause.getMessage(),
+                         integrationResult.getIntegrationContext().getId(),
+                         cause);
+            throw cause;
+        } finally {
+            outcome.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    protected int laneOf(IntegrationResult integrationResult) {
+        IntegrationContext integrationContext = integrationResult.getIntegrationContext();
+
+        String key = integrationContext.getProcessInstanceId() != null ? integrationContext.getProcessInstanceId() 
+                                                                       : integrationContext.getId();
+
+        return key != null ? Math.floorMod(key.hashCode(), lanes.length) : 0;
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    @Override
+    public synchronized void start() {
+        for (int lane = 0; lane < lanes.length; lane++) {
+            if (lanes[lane].isShutdown()) {
+                lanes[lane] = Executors.newSingleThreadExecutor(threadFactory);
+            }
+        }
+
+        running = true;
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+
+        boolean terminated = true;
+
+        try {
+            long deadline = System.currentTimeMillis() + shutdownTimeout;
+
+            for (ExecutorService lane : lanes) {
+                if (!lane.awaitTermination(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)) {
+                    terminated = false;
+                    break;
+                }
+            }
+        } catch (InterruptedException cause) {
+            Thread.currentThread().interrupt();
+            terminated = false;
+        }
+
+        if (!terminated) {
+            logger.warn("Integration result executor did not terminate in time, {} results are cancelled", queued.get());
+
+            // Let's hand queued results back to the binder for redelivery
+            for (ExecutorService lane : lanes) {
+                for (Runnable pending : lane.shutdownNow()) {
+                    if (pending instanceof Submission) {
+                        ((Submission) pending).cancel();
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void release(int lane) {
+        queued.decrementAndGet();
+        admissions[lane].release();
+    }
+
+    private Timer processedTimer(String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder(PROCESSED_RESULTS)
+                    .description("Integration results processed by integration result executor")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+    }
+
+    private class Submission implements Runnable {
+
+        private final IntegrationResult integrationResult;
+        private final Consumer<IntegrationResult> handler;
+        private final int lane;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private Submission(IntegrationResult integrationResult,
+                           Consumer<IntegrationResult> handler,
+                           int lane) {
+            this.integrationResult = integrationResult;
+            this.handler = handler;
+            this.lane = lane;
+        }
+
+        @Override
+        public void run() {
+            Throwable failure = null;
+
+            try {
+                process(integrationResult, handler);
+            } catch (Throwable cause) {
+                failure = cause;
+            } finally {
+                release(lane);
+            }
+
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                future.complete(null);
+            }
+        }
+
+        private void cancel() {
+            release(lane);
+            future.completeExceptionally(new MessagingException("Integration result executor stopped before processing integration result "
+                                                                    + integrationResult.getIntegrationContext().getId()));
+        }
+    }
+
+}
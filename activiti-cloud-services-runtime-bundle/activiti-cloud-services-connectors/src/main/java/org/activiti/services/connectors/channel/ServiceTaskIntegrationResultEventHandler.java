@@ -19,6 +19,9 @@ package org.activiti.services.connectors.channel;
 import static org.activiti.runtime.api.impl.MappingExecutionContext.buildMappingExecutionContext;
 
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import org.activiti.api.process.model.IntegrationContext;
@@ -27,6 +30,8 @@ import org.activiti.cloud.api.process.model.IntegrationResult;
 import org.activiti.cloud.api.process.model.impl.events.CloudIntegrationResultReceivedEventImpl;
 import org.activiti.cloud.services.events.configuration.RuntimeBundleProperties;
 import org.activiti.cloud.services.events.converter.RuntimeBundleInfoAppender;
+import org.activiti.cloud.services.events.listeners.ProcessEngineEventsAggregator;
+import org.activiti.engine.ManagementService;
 import org.activiti.engine.RuntimeService;
 import org.activiti.engine.impl.persistence.entity.integration.IntegrationContextEntity;
 import org.activiti.engine.integration.IntegrationContextService;
@@ -35,8 +40,10 @@ import org.activiti.runtime.api.impl.VariablesMappingProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cloud.stream.annotation.StreamListener;
+import org.springframework.lang.Nullable;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
 import org.springframework.messaging.support.MessageBuilder;
 
 public class ServiceTaskIntegrationResultEventHandler {
@@ -49,6 +56,12 @@ public class ServiceTaskIntegrationResultEventHandler {
     private final RuntimeBundleProperties runtimeBundleProperties;
     private final RuntimeBundleInfoAppender runtimeBundleInfoAppender;
     private final VariablesMappingProvider outboundVariablesProvider;
+    private final ManagementService managementService;
+    private final ProcessEngineEventsAggregator eventsAggregator;
+    private final OrderedIntegrationResultExecutor integrationResultExecutor;
+    private final BatchingIntegrationResultConsumer integrationResultBatchConsumer;
+    private final Consumer<List<IntegrationResult>> batchHandler = this::handleBatch;
+    private final Consumer<IntegrationResult> singleHandler = this::handle;
 
     public ServiceTaskIntegrationResultEventHandler(RuntimeService runtimeService,
                                                     IntegrationContextService integrationContextService,
@@ -56,16 +69,100 @@ public class ServiceTaskIntegrationResultEventHandler {
                                                     RuntimeBundleProperties runtimeBundleProperties,
                                                     RuntimeBundleInfoAppender runtimeBundleInfoAppender,
                                                     VariablesMappingProvider outboundVariablesProvider) {
+        this(runtimeService,
+             integrationContextService,
+             auditProducer,
+             runtimeBundleProperties,
+             runtimeBundleInfoAppender,
+             outboundVariablesProvider,
+             null,
+             null);
+    }
+
+    public ServiceTaskIntegrationResultEventHandler(RuntimeService runtimeService,
+                                                    IntegrationContextService integrationContextService,
+                                                    MessageChannel auditProducer,
+                                                    RuntimeBundleProperties runtimeBundleProperties,
+                                                    RuntimeBundleInfoAppender runtimeBundleInfoAppender,
+                                                    VariablesMappingProvider outboundVariablesProvider,
+                                                    @Nullable ManagementService managementService,
+                                                    @Nullable ProcessEngineEventsAggregator eventsAggregator) {
+        this(runtimeService,
+             integrationContextService,
+             auditProducer,
+             runtimeBundleProperties,
+             runtimeBundleInfoAppender,
+             outboundVariablesProvider,
+             managementService,
+             eventsAggregator,
+             null,
+             null);
+    }
+
+    /**
+     * Processes integration results on worker threads of the given executor instead of the binder 
+     * listener thread, or buffers and applies them in batches with the given batch consumer, 
+     * which takes precedence over the executor
+     */
+    public ServiceTaskIntegrationResultEventHandler(RuntimeService runtimeService,
+                                                    IntegrationContextService integrationContextService,
+                                                    MessageChannel auditProducer,
+                                                    RuntimeBundleProperties runtimeBundleProperties,
+                                                    RuntimeBundleInfoAppender runtimeBundleInfoAppender,
+                                                    VariablesMappingProvider outboundVariablesProvider,
+                                                    @Nullable ManagementService managementService,
+                                                    @Nullable ProcessEngineEventsAggregator eventsAggregator,
+                                                    @Nullable OrderedIntegrationResultExecutor integrationResultExecutor,
+                                                    @Nullable BatchingIntegrationResultConsumer integrationResultBatchConsumer) {
         this.runtimeService = runtimeService;
         this.integrationContextService = integrationContextService;
         this.auditProducer = auditProducer;
         this.runtimeBundleProperties = runtimeBundleProperties;
         this.runtimeBundleInfoAppender = runtimeBundleInfoAppender;
         this.outboundVariablesProvider = outboundVariablesProvider;
+        this.managementService = managementService;
+        this.eventsAggregator = eventsAggregator;
+        this.integrationResultExecutor = integrationResultExecutor;
+        this.integrationResultBatchConsumer = integrationResultBatchConsumer;
     }
 
     @StreamListener(ProcessEngineIntegrationChannels.INTEGRATION_RESULTS_CONSUMER)
     public void receive(IntegrationResult integrationResult) {
+        if (integrationResultBatchConsumer != null) {
+            // Let's apply results of connectors replying in bursts in a few transactions
+            integrationResultBatchConsumer.add(integrationResult, batchHandler, singleHandler);
+        } else if (integrationResultExecutor != null) {
+            // Let's process results of different process instances concurrently
+            awaitProcessed(integrationResult, integrationResultExecutor);
+        } else {
+            handle(integrationResult);
+        }
+    }
+
+    /**
+     * Blocks the listener thread until the result is processed, so that the binder acknowledges 
+     * the result only then and redelivers it when processing failed
+     */
+    protected void awaitProcessed(IntegrationResult integrationResult, OrderedIntegrationResultExecutor integrationResultExecutor) {
+        try {
+            integrationResultExecutor.execute(integrationResult, singleHandler).join();
+        } catch (CompletionException | CancellationException cause) {
+            Throwable failure = cause.getCause() != null ? cause.getCause() : cause;
+
+            if (failure instanceof MessagingException) {
+                throw (MessagingException) failure;
+            }
+
+            throw new MessagingException("Failed to process integration result " + integrationResult.getIntegrationContext().getId(), failure);
+        }
+    }
+
+    public void handle(IntegrationResult integrationResult) {
+        if (managementService != null) {
+            handleInSingleCommand(integrationResult);
+            return;
+        }
+
         IntegrationContext integrationContext = integrationResult.getIntegrationContext();
         IntegrationContextEntity integrationContextEntity = integrationContextService.findById(integrationContext.getId());
 
@@ -89,6 +186,40 @@ public class ServiceTaskIntegrationResultEventHandler {
         }
     }
 
+    protected void handleInSingleCommand(IntegrationResult integrationResult) {
+        boolean auditEventsEnabled = runtimeBundleProperties.getEventsProperties().isIntegrationAuditEventsEnabled();
+
+        IntegrationContextEntity integrationContextEntity = managementService.executeCommand(new IntegrationResultReceivedCmd(integrationResult,
+                                                                                                                              outboundVariablesProvider,
+                                                                                                                              auditEventsEnabled ? eventsAggregator : null));
+
+        // Audit event has already been sent with the command events, unless there is no events aggregator
+        if (integrationContextEntity != null && auditEventsEnabled && eventsAggregator == null) {
+            sendAuditMessage(integrationResult);
+        }
+    }
+
+    /**
+     * Applies given integration results in a single transaction, failures are propagated 
+     * to the caller, so that results can be applied again one by one  
+     */
+    public void handleBatch(List<IntegrationResult> integrationResults) {
+        if (managementService == null) {
+            integrationResults.forEach(this::handle);
+            return;
+        }
+
+        boolean auditEventsEnabled = runtimeBundleProperties.getEventsProperties().isIntegrationAuditEventsEnabled();
+
+        List<IntegrationResult> handled = managementService.executeCommand(new IntegrationResultsReceivedCmd(integrationResults,
+                                                                                                              outboundVariablesProvider,
+                                                                                                              auditEventsEnabled ? eventsAggregator : null));
+
+        if (auditEventsEnabled && eventsAggregator == null) {
+            handled.forEach(this::sendAuditMessage);
+        }
+    }
+
     private void sendAuditMessage(IntegrationResult integrationResult) {
         if (runtimeBundleProperties.getEventsProperties().isIntegrationAuditEventsEnabled()) {
             CloudIntegrationResultReceivedEventImpl integrationResultReceived = new CloudIntegrationResultReceivedEventImpl(integrationResult.getIntegrationContext());
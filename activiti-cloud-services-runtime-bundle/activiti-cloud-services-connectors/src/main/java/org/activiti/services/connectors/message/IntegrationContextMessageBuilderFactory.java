@@ -25,12 +25,13 @@ import org.springframework.util.Assert;
 public class IntegrationContextMessageBuilderFactory
         implements MessageBuilderChainFactory<IntegrationContext> {
 
-    private final RuntimeBundleProperties properties;
+    private final RuntimeBundleInfoMessageBuilderAppender runtimeBundleInfoMessageBuilderAppender;
+    private final IntegrationContextRoutingKeyResolver routingKeyResolver = new IntegrationContextRoutingKeyResolver();
 
     public IntegrationContextMessageBuilderFactory(RuntimeBundleProperties properties) {
         Assert.notNull(properties, "properties must not be null");
 
-        this.properties = properties;
+        this.runtimeBundleInfoMessageBuilderAppender = new RuntimeBundleInfoMessageBuilderAppender(properties);
     }
 
     @Override
@@ -38,8 +39,8 @@ public class IntegrationContextMessageBuilderFactory
         Assert.notNull(integrationContext, "integrationContext must not be null");
         
         return new MessageBuilderAppenderChain()
-                .routingKeyResolver(new IntegrationContextRoutingKeyResolver())
-                .chain(new RuntimeBundleInfoMessageBuilderAppender(properties))
+                .routingKeyResolver(routingKeyResolver)
+                .chain(runtimeBundleInfoMessageBuilderAppender)
                 .chain(new IntegrationContextMessageBuilderAppender(integrationContext));
     }
 
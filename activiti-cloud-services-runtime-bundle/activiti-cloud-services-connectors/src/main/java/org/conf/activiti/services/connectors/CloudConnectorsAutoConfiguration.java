@@ -16,8 +16,19 @@
 
 package org.conf.activiti.services.connectors;
 
+import java.util.Collections;
+import java.util.List;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 import org.activiti.cloud.services.events.configuration.RuntimeBundleProperties;
 import org.activiti.cloud.services.events.converter.RuntimeBundleInfoAppender;
+import org.activiti.cloud.services.events.listeners.ProcessEngineEventsAggregator;
+import org.activiti.cloud.services.events.message.CachingDestinationResolver;
+import org.activiti.cloud.services.events.outbox.MessageOutbox;
+import org.activiti.core.common.model.connector.ConnectorDefinition;
+import org.activiti.engine.ManagementService;
+import org.activiti.engine.RepositoryService;
 import org.activiti.engine.RuntimeService;
 import org.activiti.engine.impl.bpmn.parser.factory.DefaultActivityBehaviorFactory;
 import org.activiti.engine.impl.persistence.entity.integration.IntegrationContextManager;
@@ -26,13 +37,20 @@ import org.activiti.runtime.api.conf.ConnectorsAutoConfiguration;
 import org.activiti.runtime.api.connector.DefaultServiceTaskBehavior;
 import org.activiti.runtime.api.connector.IntegrationContextBuilder;
 import org.activiti.runtime.api.impl.VariablesMappingProvider;
+import org.activiti.services.connectors.BatchingIntegrationRequestSender;
+import org.activiti.services.connectors.ConnectorDestinationCacheWarmer;
 import org.activiti.services.connectors.IntegrationRequestSender;
+import org.activiti.services.connectors.OutboxIntegrationRequestSender;
 import org.activiti.services.connectors.behavior.MQServiceTaskBehavior;
+import org.activiti.services.connectors.channel.BatchingIntegrationResultConsumer;
+import org.activiti.services.connectors.channel.OrderedIntegrationResultExecutor;
 import org.activiti.services.connectors.channel.ProcessEngineIntegrationChannels;
 import org.activiti.services.connectors.channel.ServiceTaskIntegrationResultEventHandler;
 import org.activiti.services.connectors.message.IntegrationContextMessageBuilderFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cloud.stream.annotation.EnableBinding;
 import org.springframework.cloud.stream.binding.BinderAwareChannelResolver;
 import org.springframework.context.ApplicationContext;
@@ -40,7 +58,9 @@ import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.env.Environment;
 import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.core.DestinationResolver;
 
 @Configuration
 @AutoConfigureBefore(value = ConnectorsAutoConfiguration.class)
@@ -49,7 +69,23 @@ import org.springframework.messaging.MessageChannel;
 public class CloudConnectorsAutoConfiguration {
 
     private static final String LOCAL_SERVICE_TASK_BEHAVIOUR_BEAN_NAME = "localServiceTaskBehaviour";
+
+    private static final String SINGLE_COMMAND_ENABLED = IntegrationResultsConsumerConcurrencyPostProcessor.INTEGRATION_RESULTS_PREFIX 
+                                                         + ".single-command-enabled";
+
+    private static final String BATCH_ENABLED = IntegrationResultsConsumerConcurrencyPostProcessor.INTEGRATION_RESULTS_PREFIX 
+                                                + ".batch-enabled";
     
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "activiti.cloud.runtime-bundle.events-properties.integration-results.parallel-enabled", havingValue = "true")
+    public OrderedIntegrationResultExecutor orderedIntegrationResultExecutor(RuntimeBundleProperties runtimeBundleProperties,
+                                                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        return new OrderedIntegrationResultExecutor(runtimeBundleProperties.getEventsProperties()
+                                                                           .getIntegrationResults(),
+                                                    meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
     @Bean
     @ConditionalOnMissingBean
     public ServiceTaskIntegrationResultEventHandler serviceTaskIntegrationResultEventHandler(RuntimeService runtimeService,
@@ -57,30 +93,113 @@ public class CloudConnectorsAutoConfiguration {
                                                                                              MessageChannel auditProducer,
                                                                                              RuntimeBundleProperties runtimeBundleProperties,
                                                                                              RuntimeBundleInfoAppender runtimeBundleInfoAppender,
-                                                                                             VariablesMappingProvider outboundVariablesProvider) {
+                                                                                             VariablesMappingProvider outboundVariablesProvider,
+                                                                                             ManagementService managementService,
+                                                                                             ObjectProvider<ProcessEngineEventsAggregator> eventsAggregator,
+                                                                                             ObjectProvider<OrderedIntegrationResultExecutor> integrationResultExecutor,
+                                                                                             ObjectProvider<BatchingIntegrationResultConsumer> integrationResultBatchConsumer,
+                                                                                             Environment environment) {
+        // Let's apply integration results in a single command only when opted in, batches need it to share a transaction
+        boolean singleCommandEnabled = environment.getProperty(SINGLE_COMMAND_ENABLED, Boolean.class, false)
+                                       || environment.getProperty(BATCH_ENABLED, Boolean.class, false);
+
         return new ServiceTaskIntegrationResultEventHandler(runtimeService,
                                                             integrationContextService,
                                                             auditProducer,
                                                             runtimeBundleProperties,
                                                             runtimeBundleInfoAppender,
-                                                            outboundVariablesProvider);
+                                                            outboundVariablesProvider,
+                                                            singleCommandEnabled ? managementService : null,
+                                                            eventsAggregator.getIfAvailable(),
+                                                            integrationResultExecutor.getIfAvailable(),
+                                                            integrationResultBatchConsumer.getIfAvailable());
     }
     
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "activiti.cloud.runtime-bundle.events-properties.integration-results.batch-enabled", havingValue = "true")
+    public BatchingIntegrationResultConsumer batchingIntegrationResultConsumer(RuntimeBundleProperties runtimeBundleProperties,
+                                                                               ObjectProvider<MeterRegistry> meterRegistry,
+                                                                               Environment environment) {
+        int listenerConcurrency = environment.getProperty(IntegrationResultsConsumerConcurrencyPostProcessor.CONSUMER_CONCURRENCY, 
+                                                          Integer.class, 
+                                                          1);
+
+        if (listenerConcurrency < 2) {
+            throw new IllegalStateException("Batching integration results requires more than one listener thread, set " 
+                                            + IntegrationResultsConsumerConcurrencyPostProcessor.CONSUMER_CONCURRENCY 
+                                            + " greater than 1 or disable " + BATCH_ENABLED);
+        }
+
+        return new BatchingIntegrationResultConsumer(runtimeBundleProperties.getEventsProperties()
+                                                                            .getIntegrationResults(),
+                                                     listenerConcurrency,
+                                                     meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "activiti.cloud.runtime-bundle.outbox.enabled", havingValue = "true")
+    public IntegrationRequestSender outboxIntegrationRequestSender(RuntimeBundleProperties runtimeBundleProperties,
+                                                                   MessageChannel auditProducer,
+                                                                   BinderAwareChannelResolver resolver,
+                                                                   ObjectProvider<CachingDestinationResolver> cachingDestinationResolver,
+                                                                   RuntimeBundleInfoAppender runtimeBundleInfoAppender,
+                                                                   IntegrationContextMessageBuilderFactory messageBuilderFactory,
+                                                                   MessageOutbox messageOutbox) {
+        return new OutboxIntegrationRequestSender(runtimeBundleProperties, 
+                                                  auditProducer, 
+                                                  destinationResolver(resolver, cachingDestinationResolver), 
+                                                  runtimeBundleInfoAppender, 
+                                                  messageBuilderFactory,
+                                                  messageOutbox);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "activiti.cloud.runtime-bundle.events-properties.integration-request-batching-enabled", havingValue = "true")
+    public IntegrationRequestSender batchingIntegrationRequestSender(RuntimeBundleProperties runtimeBundleProperties,
+                                                                     MessageChannel auditProducer,
+                                                                     BinderAwareChannelResolver resolver,
+                                                                     ObjectProvider<CachingDestinationResolver> cachingDestinationResolver,
+                                                                     RuntimeBundleInfoAppender runtimeBundleInfoAppender,
+                                                                     IntegrationContextMessageBuilderFactory messageBuilderFactory) {
+        return new BatchingIntegrationRequestSender(runtimeBundleProperties,
+                                                    auditProducer,
+                                                    destinationResolver(resolver, cachingDestinationResolver),
+                                                    runtimeBundleInfoAppender,
+                                                    messageBuilderFactory);
+    }
+
     @Bean
     @ConditionalOnMissingBean
     public IntegrationRequestSender integrationRequestSender(RuntimeBundleProperties runtimeBundleProperties,
                                                              MessageChannel auditProducer,
                                                              BinderAwareChannelResolver resolver,
+                                                             ObjectProvider<CachingDestinationResolver> cachingDestinationResolver,
                                                              RuntimeBundleInfoAppender runtimeBundleInfoAppender,
                                                              IntegrationContextMessageBuilderFactory messageBuilderFactory) {
         return new IntegrationRequestSender(runtimeBundleProperties, 
                                             auditProducer, 
-                                            resolver, 
+                                            destinationResolver(resolver, cachingDestinationResolver), 
                                             runtimeBundleInfoAppender, 
                                             messageBuilderFactory);
     }
     
 
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "activiti.cloud.runtime-bundle.events-properties.destination-cache-enabled", havingValue = "true")
+    public ConnectorDestinationCacheWarmer connectorDestinationCacheWarmer(CachingDestinationResolver cachingDestinationResolver,
+                                                                           RepositoryService repositoryService,
+                                                                           ObjectProvider<List<ConnectorDefinition>> connectorDefinitions,
+                                                                           ApplicationContext applicationContext) {
+        return new ConnectorDestinationCacheWarmer(cachingDestinationResolver,
+                                                   repositoryService,
+                                                   connectorDefinitions.getIfAvailable(Collections::emptyList),
+                                                   applicationContext);
+    }
+
     @Bean
     @ConditionalOnMissingBean
     public IntegrationContextMessageBuilderFactory integrationContextMessageBuilderFactory(RuntimeBundleProperties properties) {
@@ -117,4 +236,12 @@ public class CloudConnectorsAutoConfiguration {
                                          runtimeBundleInfoAppender,
                                          defaultServiceTaskBehavior);
     }
+
+    private DestinationResolver<MessageChannel> destinationResolver(BinderAwareChannelResolver resolver,
+                                                                    ObjectProvider<CachingDestinationResolver> cachingDestinationResolver) {
+        // Let's send integration requests via warmed destination cache, if enabled
+        CachingDestinationResolver destinationResolver = cachingDestinationResolver.getIfAvailable();
+
+        return destinationResolver != null ? destinationResolver : resolver;
+    }
 }
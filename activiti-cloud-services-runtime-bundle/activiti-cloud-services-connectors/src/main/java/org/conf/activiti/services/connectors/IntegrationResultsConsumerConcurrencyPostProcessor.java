@@ -0,0 +1,66 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.conf.activiti.services.connectors;
+
+import java.util.Collections;
+
+import org.activiti.cloud.services.events.configuration.IntegrationResultProperties;
+import org.activiti.services.connectors.channel.ProcessEngineIntegrationChannels;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+/**
+ * Sets the consumer concurrency of the integration results binding to <code>integration-results.concurrency</code> 
+ * when integration results are processed in parallel or in batches, unless the binding concurrency is configured 
+ * explicitly. 
+ * 
+ * As each listener thread waits until its result is processed, so that the binder acknowledges results only 
+ * once they are applied, lanes can only be busy at the same time and batches can only hold as many results 
+ * as there are listener threads.
+ */
+public class IntegrationResultsConsumerConcurrencyPostProcessor implements EnvironmentPostProcessor {
+
+    public static final String INTEGRATION_RESULTS_PREFIX = "activiti.cloud.runtime-bundle.events-properties.integration-results";
+
+    public static final String CONSUMER_CONCURRENCY = "spring.cloud.stream.bindings." + ProcessEngineIntegrationChannels.INTEGRATION_RESULTS_CONSUMER 
+                                                      + ".consumer.concurrency";
+
+    private static final String PROPERTY_SOURCE_NAME = "integrationResultsConsumerConcurrency";
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment,
+                                       SpringApplication application) {
+        if (environment.containsProperty(CONSUMER_CONCURRENCY)) {
+            return;
+        }
+
+        IntegrationResultProperties properties = Binder.get(environment)
+                                                       .bind(INTEGRATION_RESULTS_PREFIX, IntegrationResultProperties.class)
+                                                       .orElseGet(IntegrationResultProperties::new);
+
+        if (properties.isParallelEnabled() || properties.isBatchEnabled()) {
+            environment.getPropertySources()
+                       .addLast(new MapPropertySource(PROPERTY_SOURCE_NAME,
+                                                      Collections.singletonMap(CONSUMER_CONCURRENCY,
+                                                                               properties.getConcurrency())));
+        }
+    }
+
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2018 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.services.connectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.activiti.api.process.model.ProcessDefinition;
+import org.activiti.api.runtime.event.impl.ProcessDeployedEventImpl;
+import org.activiti.api.runtime.event.impl.ProcessDeployedEvents;
+import org.activiti.bpmn.model.BpmnModel;
+import org.activiti.bpmn.model.ImplementationType;
+import org.activiti.bpmn.model.Process;
+import org.activiti.bpmn.model.ServiceTask;
+import org.activiti.cloud.services.events.message.CachingDestinationResolver;
+import org.activiti.core.common.model.connector.ActionDefinition;
+import org.activiti.core.common.model.connector.ConnectorDefinition;
+import org.activiti.engine.RepositoryService;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.core.DestinationResolver;
+
+public class ConnectorDestinationCacheWarmerTest {
+
+    private DestinationResolver<MessageChannel> delegate;
+
+    private RepositoryService repositoryService;
+
+    private BeanFactory beanFactory;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private CachingDestinationResolver destinationResolver;
+
+    private ConnectorDestinationCacheWarmer subject;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        delegate = mock(DestinationResolver.class);
+        repositoryService = mock(RepositoryService.class);
+        beanFactory = mock(BeanFactory.class);
+        meterRegistry = new SimpleMeterRegistry();
+
+        given(delegate.resolveDestination(anyString())).willAnswer(invocation -> mock(MessageChannel.class));
+        given(beanFactory.containsBean("localConnector")).willReturn(true);
+        given(repositoryService.getBpmnModel("processDefinitionId")).willReturn(bpmnModel());
+
+        destinationResolver = new CachingDestinationResolver(delegate, meterRegistry);
+        subject = new ConnectorDestinationCacheWarmer(destinationResolver,
+                                                      repositoryService,
+                                                      Collections.singletonList(connectorDefinition()),
+                                                      beanFactory);
+    }
+
+    @Test
+    public void warmUpShouldResolveConnectorDestinationsOfDeployedProcessesAndConnectorDefinitions() {
+        // when
+        subject.warmUp(processDeployedEvents());
+
+        // then
+        assertThat(destinationResolver.contains("remoteConnector")).isTrue();
+        assertThat(destinationResolver.contains("connector.send")).isTrue();
+        assertThat(destinationResolver.contains("connector.receive")).isTrue();
+        assertThat(destinationResolver.size()).isEqualTo(3);
+    }
+
+    @Test
+    public void warmUpShouldSkipLocalConnectorsAndNonConnectorImplementations() {
+        // when
+        subject.warmUp(processDeployedEvents());
+
+        // then
+        assertThat(destinationResolver.contains("localConnector")).isFalse();
+        assertThat(destinationResolver.contains("${expression}")).isFalse();
+        verify(delegate, never()).resolveDestination("localConnector");
+        verify(delegate, never()).resolveDestination("${expression}");
+    }
+
+    @Test
+    public void resolveDestinationShouldResolveAndTimeCacheMissOfDestinationNotWarmedUp() {
+        // given
+        subject.warmUp(processDeployedEvents());
+
+        // when
+        MessageChannel messageChannel = destinationResolver.resolveDestination("otherConnector");
+
+        // then
+        assertThat(messageChannel).isNotNull();
+        assertThat(destinationResolver.resolveDestination("otherConnector")).isSameAs(messageChannel);
+        verify(delegate).resolveDestination("otherConnector");
+        assertThat(meterRegistry.get(CachingDestinationResolver.CACHE_MISSES)
+                                .tag("destination", "otherConnector")
+                                .timer()
+                                .count()).isEqualTo(1);
+    }
+
+    private static ProcessDeployedEvents processDeployedEvents() {
+        ProcessDefinition processDefinition = mock(ProcessDefinition.class);
+        given(processDefinition.getId()).willReturn("processDefinitionId");
+
+        return new ProcessDeployedEvents(Collections.singletonList(new ProcessDeployedEventImpl(processDefinition,
+                                                                                                "content")));
+    }
+
+    private static BpmnModel bpmnModel() {
+        Process process = new Process();
+        process.addFlowElement(serviceTask("remote", "remoteConnector", null));
+        process.addFlowElement(serviceTask("local", "localConnector", null));
+        process.addFlowElement(serviceTask("expression", "${expression}", ImplementationType.IMPLEMENTATION_TYPE_EXPRESSION));
+
+        BpmnModel bpmnModel = new BpmnModel();
+        bpmnModel.addProcess(process);
+        return bpmnModel;
+    }
+
+    private static ServiceTask serviceTask(String id, String implementation, String implementationType) {
+        ServiceTask serviceTask = new ServiceTask();
+        serviceTask.setId(id);
+        serviceTask.setImplementation(implementation);
+        serviceTask.setImplementationType(implementationType);
+        return serviceTask;
+    }
+
+    private static ConnectorDefinition connectorDefinition() {
+        Map<String, ActionDefinition> actions = new LinkedHashMap<>();
+        for (String name : Arrays.asList("send", "receive")) {
+            ActionDefinition action = new ActionDefinition();
+            action.setName(name);
+            actions.put(name, action);
+        }
+
+        ConnectorDefinition connectorDefinition = new ConnectorDefinition();
+        connectorDefinition.setName("connector");
+        connectorDefinition.setActions(actions);
+        return connectorDefinition;
+    }
+}
@@ -19,11 +19,13 @@ import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 
 import org.activiti.api.process.model.IntegrationContext;
+import org.activiti.api.runtime.model.impl.IntegrationContextImpl;
 import org.activiti.bpmn.model.ServiceTask;
 import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
 import org.activiti.cloud.api.process.model.IntegrationRequest;
@@ -52,6 +54,9 @@ import org.mockito.Spy;
 import org.springframework.cloud.stream.binding.BinderAwareChannelResolver;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
 
 public class IntegrationRequestSenderTest {
 
@@ -121,6 +126,9 @@ public class IntegrationRequestSenderTest {
         initMocks(this);
 
         configureDeploymentManager();
+        // Runtime bundle headers are frozen when the message builder factory is created
+        configureProperties();
+
         messageBuilderFactory = new IntegrationContextMessageBuilderFactory(runtimeBundleProperties);
 
         integrationRequestSender = new IntegrationRequestSender(runtimeBundleProperties,
@@ -131,7 +139,6 @@ public class IntegrationRequestSenderTest {
 
         when(resolver.resolveDestination(CONNECTOR_TYPE)).thenReturn(integrationProducer);
 
-        configureProperties();
         configureExecution();
         configureIntegrationContext();
 
@@ -252,4 +259,92 @@ public class IntegrationRequestSenderTest {
         assertThat(integrationRequested.getEntity().getProcessDefinitionId()).isEqualTo(PROC_DEF_ID);
         verify(runtimeBundleInfoAppender).appendRuntimeBundleInfoTo(integrationRequested);
     }
+
+    @Test
+    public void batchingSenderShouldSendIntegrationRequestsOfTransactionAfterCommitWithMergedAuditMessage() {
+        //given
+        given(eventsProperties.isIntegrationAuditEventsEnabled()).willReturn(true);
+        BatchingIntegrationRequestSender batchingSender = new BatchingIntegrationRequestSender(runtimeBundleProperties,
+                                                                                               auditProducer,
+                                                                                               resolver,
+                                                                                               runtimeBundleInfoAppender,
+                                                                                               messageBuilderFactory);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            //when
+            batchingSender.sendIntegrationRequest(integrationRequest);
+            batchingSender.sendIntegrationRequest(integrationRequest);
+
+            //then
+            verify(integrationProducer, never()).send(ArgumentMatchers.any());
+            verify(auditProducer, never()).send(ArgumentMatchers.any());
+
+            //when
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        //then
+        verify(resolver).resolveDestination(CONNECTOR_TYPE);
+        verify(integrationProducer, times(2)).send(ArgumentMatchers.any());
+        verify(auditProducer).send(auditMessageArgumentCaptor.capture());
+        Assertions.assertThat(auditMessageArgumentCaptor.getValue().getPayload()).hasSize(2);
+        Assertions.assertThat(auditMessageArgumentCaptor.getValue().getHeaders()).containsEntry("processInstanceId", PROC_INST_ID);
+        Assertions.assertThat(TransactionSynchronizationManager.getResource(batchingSender)).isNull();
+    }
+
+    @Test
+    public void batchingSenderShouldSendOneAuditMessagePerIntegrationContextHeaders() {
+        //given
+        given(eventsProperties.isIntegrationAuditEventsEnabled()).willReturn(true);
+        BatchingIntegrationRequestSender batchingSender = new BatchingIntegrationRequestSender(runtimeBundleProperties,
+                                                                                               auditProducer,
+                                                                                               resolver,
+                                                                                               runtimeBundleInfoAppender,
+                                                                                               messageBuilderFactory);
+        IntegrationRequestImpl otherProcessInstanceRequest = integrationRequest("otherIntContextId", "otherProcInstId", "other-business-key");
+        IntegrationRequestImpl sameProcessInstanceRequest = integrationRequest("anotherIntContextId", "otherProcInstId", "other-business-key");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            //when
+            batchingSender.sendIntegrationRequest(integrationRequest);
+            batchingSender.sendIntegrationRequest(otherProcessInstanceRequest);
+            batchingSender.sendIntegrationRequest(sameProcessInstanceRequest);
+
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        //then
+        verify(auditProducer, times(2)).send(auditMessageArgumentCaptor.capture());
+
+        Message<CloudRuntimeEvent<?, ?>[]> first = auditMessageArgumentCaptor.getAllValues().get(0);
+        Assertions.assertThat(first.getPayload()).hasSize(1);
+        Assertions.assertThat(first.getHeaders()).containsEntry("processInstanceId", PROC_INST_ID)
+                                                 .containsEntry("businessKey", BUSINESS_KEY)
+                                                 .containsEntry("integrationContextId", INTEGRATION_CONTEXT_ID);
+
+        Message<CloudRuntimeEvent<?, ?>[]> second = auditMessageArgumentCaptor.getAllValues().get(1);
+        Assertions.assertThat(second.getPayload()).hasSize(2);
+        Assertions.assertThat(second.getHeaders()).containsEntry("processInstanceId", "otherProcInstId")
+                                                  .containsEntry("businessKey", "other-business-key")
+                                                  .doesNotContainKey("integrationContextId");
+        Assertions.assertThat(second.getHeaders().get("routingKey").toString()).contains("otherProcInstId");
+    }
+
+    private IntegrationRequestImpl integrationRequest(String integrationContextId, String processInstanceId, String businessKey) {
+        IntegrationContextImpl integrationContext = new IntegrationContextImpl();
+        integrationContext.setId(integrationContextId);
+        integrationContext.setProcessInstanceId(processInstanceId);
+        integrationContext.setBusinessKey(businessKey);
+        integrationContext.setConnectorType(CONNECTOR_TYPE);
+        integrationContext.setProcessDefinitionId(PROC_DEF_ID);
+
+        return new IntegrationRequestImpl(integrationContext);
+    }
 }
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.services.connectors.channel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.activiti.api.runtime.model.impl.IntegrationContextImpl;
+import org.activiti.cloud.api.process.model.IntegrationResult;
+import org.activiti.cloud.api.process.model.impl.IntegrationRequestImpl;
+import org.activiti.cloud.api.process.model.impl.IntegrationResultImpl;
+import org.activiti.cloud.services.events.configuration.IntegrationResultProperties;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.messaging.MessagingException;
+
+public class BatchingIntegrationResultConsumerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private IntegrationResultProperties properties;
+
+    private ExecutorService listeners;
+
+    private BatchingIntegrationResultConsumer subject;
+
+    @Before
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new IntegrationResultProperties();
+        properties.setBatchSize(10);
+        properties.setBatchTimeout(Duration.ofMillis(50));
+        listeners = Executors.newFixedThreadPool(25);
+    }
+
+    @After
+    public void tearDown() {
+        if (subject != null) {
+            subject.stop();
+        }
+        listeners.shutdownNow();
+    }
+
+    @Test
+    public void addShouldApplyResultsInBatchesOfAtMostBatchSize() throws Exception {
+        // given
+        List<List<IntegrationResult>> batches = Collections.synchronizedList(new ArrayList<>());
+        Consumer<List<IntegrationResult>> batchHandler = batches::add;
+        subject = new BatchingIntegrationResultConsumer(properties, 25, meterRegistry);
+        subject.start();
+
+        // when
+        List<Future<?>> received = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            IntegrationResult integrationResult = integrationResult("id-" + i);
+            received.add(listeners.submit(() -> subject.add(integrationResult,
+                                                            batchHandler,
+                                                            result -> { })));
+        }
+
+        // then
+        for (Future<?> future : received) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        assertThat(batches).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(10));
+        assertThat(batches.stream().mapToInt(List::size).sum()).isEqualTo(25);
+        assertThat(meterRegistry.get(BatchingIntegrationResultConsumer.BATCH_SIZE)
+                                .summary()
+                                .totalAmount()).isEqualTo(25);
+    }
+
+    @Test
+    public void addShouldApplyBatchWithoutWaitingForTimeoutWhenEveryListenerThreadWaits() throws Exception {
+        // given
+        properties.setBatchTimeout(Duration.ofSeconds(1));
+        List<List<IntegrationResult>> batches = Collections.synchronizedList(new ArrayList<>());
+        Consumer<List<IntegrationResult>> batchHandler = batches::add;
+        subject = new BatchingIntegrationResultConsumer(properties, 1, meterRegistry);
+        subject.start();
+
+        // when
+        Future<?> received = listeners.submit(() -> {
+            for (int i = 0; i < 20; i++) {
+                subject.add(integrationResult("id-" + i), batchHandler, result -> { });
+            }
+        });
+
+        // then
+        received.get(5, TimeUnit.SECONDS);
+        assertThat(batches).hasSize(20)
+                           .allSatisfy(batch -> assertThat(batch).hasSize(1));
+    }
+
+    @Test
+    public void addShouldApplyResultsOneByOneAndRethrowFailureWhenBatchFails() throws Exception {
+        // given
+        List<String> applied = Collections.synchronizedList(new ArrayList<>());
+        Consumer<IntegrationResult> singleHandler = integrationResult -> {
+            if ("failing".equals(integrationResult.getIntegrationContext().getId())) {
+                throw new IllegalStateException("integration context is broken");
+            }
+            applied.add(integrationResult.getIntegrationContext().getId());
+        };
+        Consumer<List<IntegrationResult>> batchHandler = batch -> {
+            throw new IllegalStateException("batch transaction rolled back");
+        };
+        subject = new BatchingIntegrationResultConsumer(properties, 25, meterRegistry);
+        subject.start();
+
+        // when
+        Future<?> first = listeners.submit(() -> subject.add(integrationResult("first"), batchHandler, singleHandler));
+        Future<?> failing = listeners.submit(() -> subject.add(integrationResult("failing"), batchHandler, singleHandler));
+        Future<?> second = listeners.submit(() -> subject.add(integrationResult("second"), batchHandler, singleHandler));
+
+        // then
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+        assertThat(catchThrowable(() -> failing.get(10, TimeUnit.SECONDS))).hasCauseInstanceOf(MessagingException.class)
+                                                                          .hasRootCauseInstanceOf(IllegalStateException.class);
+        assertThat(applied).containsExactlyInAnyOrder("first", "second");
+        assertThat(meterRegistry.get(BatchingIntegrationResultConsumer.BATCH_FALLBACKS)
+                                .counter()
+                                .count()).isGreaterThanOrEqualTo(1);
+        assertThat(meterRegistry.get(BatchingIntegrationResultConsumer.FAILED_RESULTS)
+                                .counter()
+                                .count()).isEqualTo(1);
+    }
+
+    @Test
+    public void stopShouldFailPendingResultsWhenFlusherDoesNotTerminateInTime() throws Exception {
+        // given
+        properties.setShutdownTimeout(Duration.ofMillis(50));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Consumer<List<IntegrationResult>> batchHandler = batch -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException cause) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        subject = new BatchingIntegrationResultConsumer(properties, 25, meterRegistry);
+        subject.start();
+
+        Future<?> pending = listeners.submit(() -> subject.add(integrationResult("pending"), batchHandler, result -> { }));
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // when
+        subject.stop();
+
+        // then
+        assertThat(catchThrowable(() -> pending.get(10, TimeUnit.SECONDS))).hasCauseInstanceOf(MessagingException.class);
+        release.countDown();
+    }
+
+    @Test
+    public void addShouldFailWhenNotStarted() {
+        // given
+        subject = new BatchingIntegrationResultConsumer(properties, 25, meterRegistry);
+
+        // when
+        Throwable thrown = catchThrowable(() -> subject.add(integrationResult("id"), batch -> { }, result -> { }));
+
+        // then
+        assertThat(thrown).isInstanceOf(IllegalStateException.class);
+    }
+
+    private IntegrationResult integrationResult(String id) {
+        IntegrationContextImpl integrationContext = new IntegrationContextImpl();
+        integrationContext.setId(id);
+
+        return new IntegrationResultImpl(new IntegrationRequestImpl(), integrationContext);
+    }
+
+}
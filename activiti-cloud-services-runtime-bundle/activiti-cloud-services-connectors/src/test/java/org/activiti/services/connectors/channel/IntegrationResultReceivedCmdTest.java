@@ -0,0 +1,129 @@
+/*
+ * Copyright 2017 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.services.connectors.channel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+import org.activiti.api.runtime.model.impl.IntegrationContextImpl;
+import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
+import org.activiti.cloud.api.process.model.impl.IntegrationRequestImpl;
+import org.activiti.cloud.api.process.model.impl.IntegrationResultImpl;
+import org.activiti.cloud.api.process.model.impl.events.CloudIntegrationResultReceivedEventImpl;
+import org.activiti.cloud.services.events.listeners.ProcessEngineEventsAggregator;
+import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.persistence.entity.ExecutionEntityManager;
+import org.activiti.engine.impl.persistence.entity.integration.IntegrationContextEntity;
+import org.activiti.engine.impl.persistence.entity.integration.IntegrationContextEntityImpl;
+import org.activiti.engine.impl.persistence.entity.integration.IntegrationContextManager;
+import org.activiti.runtime.api.impl.VariablesMappingProvider;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+
+public class IntegrationResultReceivedCmdTest {
+
+    private static final String ENTITY_ID = "entityId";
+    private static final String EXECUTION_ID = "execId";
+    private static final String PROC_INST_ID = "procInstId";
+
+    @Mock
+    private CommandContext commandContext;
+
+    @Mock
+    private ProcessEngineConfigurationImpl processEngineConfiguration;
+
+    @Mock
+    private IntegrationContextManager integrationContextManager;
+
+    @Mock
+    private ExecutionEntityManager executionEntityManager;
+
+    @Mock
+    private VariablesMappingProvider outboundVariablesProvider;
+
+    @Mock
+    private ProcessEngineEventsAggregator eventsAggregator;
+
+    @Captor
+    private ArgumentCaptor<CloudRuntimeEvent<?, ?>> eventCaptor;
+
+    @Before
+    public void setUp() {
+        initMocks(this);
+        given(commandContext.getProcessEngineConfiguration()).willReturn(processEngineConfiguration);
+        given(processEngineConfiguration.getIntegrationContextManager()).willReturn(integrationContextManager);
+        given(commandContext.getExecutionEntityManager()).willReturn(executionEntityManager);
+    }
+
+    @Test
+    public void executeShouldDoNothingWhenIntegrationContextDoesNotExist() {
+        //given
+        given(integrationContextManager.findById(ENTITY_ID)).willReturn(null);
+
+        //when
+        IntegrationContextEntity result = new IntegrationResultReceivedCmd(integrationResult(),
+                                                                           outboundVariablesProvider,
+                                                                           eventsAggregator).execute(commandContext);
+
+        //then
+        assertThat(result).isNull();
+        verify(integrationContextManager, never()).delete(any(IntegrationContextEntity.class));
+        verify(eventsAggregator, never()).add(any());
+    }
+
+    @Test
+    public void executeShouldDeleteIntegrationContextAndAddAuditEventWhenExecutionDoesNotExist() {
+        //given
+        IntegrationContextEntityImpl integrationContextEntity = new IntegrationContextEntityImpl();
+        integrationContextEntity.setId(ENTITY_ID);
+        integrationContextEntity.setExecutionId(EXECUTION_ID);
+        given(integrationContextManager.findById(ENTITY_ID)).willReturn(integrationContextEntity);
+        given(executionEntityManager.findById(EXECUTION_ID)).willReturn(null);
+
+        //when
+        IntegrationContextEntity result = new IntegrationResultReceivedCmd(integrationResult(),
+                                                                           outboundVariablesProvider,
+                                                                           eventsAggregator).execute(commandContext);
+
+        //then
+        assertThat(result).isSameAs(integrationContextEntity);
+        verify(integrationContextManager).delete(integrationContextEntity);
+        verify(eventsAggregator).add(eventCaptor.capture());
+        CloudIntegrationResultReceivedEventImpl event = (CloudIntegrationResultReceivedEventImpl) eventCaptor.getValue();
+        assertThat(event.getEntity().getId()).isEqualTo(ENTITY_ID);
+        assertThat(event.getEntity().getProcessInstanceId()).isEqualTo(PROC_INST_ID);
+        verify(outboundVariablesProvider, never()).calculateOutPutVariables(any(), anyMap());
+    }
+
+    private IntegrationResultImpl integrationResult() {
+        IntegrationContextImpl integrationContext = new IntegrationContextImpl();
+        integrationContext.setId(ENTITY_ID);
+        integrationContext.setProcessInstanceId(PROC_INST_ID);
+
+        return new IntegrationResultImpl(new IntegrationRequestImpl(), integrationContext);
+    }
+
+}
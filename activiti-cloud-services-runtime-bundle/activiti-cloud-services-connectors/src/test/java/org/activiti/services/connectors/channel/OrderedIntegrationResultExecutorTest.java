@@ -0,0 +1,274 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.services.connectors.channel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.activiti.api.runtime.model.impl.IntegrationContextImpl;
+import org.activiti.cloud.api.process.model.IntegrationResult;
+import org.activiti.cloud.api.process.model.impl.IntegrationRequestImpl;
+import org.activiti.cloud.api.process.model.impl.IntegrationResultImpl;
+import org.activiti.cloud.services.events.configuration.IntegrationResultProperties;
+import org.activiti.engine.ActivitiOptimisticLockingException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.messaging.MessagingException;
+
+public class OrderedIntegrationResultExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private OrderedIntegrationResultExecutor subject;
+
+    @Before
+    public void setUp() {
+        IntegrationResultProperties properties = new IntegrationResultProperties();
+        properties.setConcurrency(4);
+        properties.setQueueCapacity(100);
+
+        meterRegistry = new SimpleMeterRegistry();
+        subject = new OrderedIntegrationResultExecutor(properties, meterRegistry);
+    }
+
+    @After
+    public void tearDown() {
+        subject.stop();
+    }
+
+    @Test
+    public void executeShouldKeepOrderOfResultsOfSameProcessInstance() throws Exception {
+        // given
+        Map<String, List<String>> processed = new ConcurrentHashMap<>();
+        CountDownLatch done = new CountDownLatch(60);
+
+        // when
+        for (int i = 0; i < 20; i++) {
+            for (String processInstanceId : new String[]{"first", "second", "third"}) {
+                subject.execute(integrationResult(processInstanceId + "-" + i, processInstanceId),
+                                integrationResult -> {
+                                    IntegrationContextImpl integrationContext = (IntegrationContextImpl) integrationResult.getIntegrationContext();
+                                    processed.computeIfAbsent(integrationContext.getProcessInstanceId(), key -> Collections.synchronizedList(new ArrayList<>()))
+                                             .add(integrationContext.getId());
+                                    done.countDown();
+                                });
+            }
+        }
+
+        // then
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        for (String processInstanceId : new String[]{"first", "second", "third"}) {
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                expected.add(processInstanceId + "-" + i);
+            }
+            assertThat(processed.get(processInstanceId)).containsExactlyElementsOf(expected);
+        }
+        assertThat(meterRegistry.get(OrderedIntegrationResultExecutor.PROCESSED_RESULTS)
+                                .tag("outcome", "success")
+                                .timer()
+                                .count()).isEqualTo(60);
+    }
+
+    @Test
+    public void executeShouldKeepAllLanesBusyWithOneListenerThreadPerLane() throws Exception {
+        // given
+        List<IntegrationResult> integrationResults = new ArrayList<>();
+        boolean[] assigned = new boolean[4];
+        for (int i = 0; integrationResults.size() < 4; i++) {
+            IntegrationResult integrationResult = integrationResult("id-" + i, "processInstanceId-" + i);
+            int lane = subject.laneOf(integrationResult);
+            if (!assigned[lane]) {
+                assigned[lane] = true;
+                integrationResults.add(integrationResult);
+            }
+        }
+        // Let's let handlers pass only when all lanes are busy at the same time
+        CyclicBarrier allLanesBusy = new CyclicBarrier(4);
+        ExecutorService listeners = Executors.newFixedThreadPool(4);
+
+        try {
+            // when
+            List<Future<?>> received = new ArrayList<>();
+            for (IntegrationResult integrationResult : integrationResults) {
+                received.add(listeners.submit(() -> subject.execute(integrationResult,
+                                                                    result -> {
+                                                                        try {
+                                                                            allLanesBusy.await(10, TimeUnit.SECONDS);
+                                                                        } catch (Exception cause) {
+                                                                            throw new IllegalStateException(cause);
+                                                                        }
+                                                                    })
+                                                           .join()));
+            }
+
+            // then
+            for (Future<?> future : received) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+            assertThat(meterRegistry.get(OrderedIntegrationResultExecutor.PROCESSED_RESULTS)
+                                    .tag("outcome", "success")
+                                    .timer()
+                                    .count()).isEqualTo(4);
+        } finally {
+            listeners.shutdownNow();
+        }
+    }
+
+    @Test
+    public void executeShouldApplyResultAgainWhenItConflictsWithConcurrentUpdate() {
+        // given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // when
+        subject.execute(integrationResult("id", "processInstanceId"),
+                        integrationResult -> {
+                            if (attempts.incrementAndGet() == 1) {
+                                throw new ActivitiOptimisticLockingException("execution was updated by another transaction");
+                            }
+                        })
+               .join();
+
+        // then
+        assertThat(attempts.get()).isEqualTo(2);
+        assertThat(meterRegistry.get(OrderedIntegrationResultExecutor.LOCK_CONFLICTS)
+                                .counter()
+                                .count()).isEqualTo(1);
+        assertThat(meterRegistry.get(OrderedIntegrationResultExecutor.PROCESSED_RESULTS)
+                                .tag("outcome", "success")
+                                .timer()
+                                .count()).isEqualTo(1);
+    }
+
+    @Test
+    public void executeShouldCountLockConflictsAndFailWhenRetriesAreExhausted() {
+        // given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // when
+        Throwable thrown = catchThrowable(() -> subject.execute(integrationResult("id", "processInstanceId"),
+                                                                integrationResult -> {
+                                                                    attempts.incrementAndGet();
+                                                                    throw new ActivitiOptimisticLockingException("execution was updated by another transaction");
+                                                                })
+                                                       .join());
+
+        // then
+        assertThat(thrown).isInstanceOf(CompletionException.class)
+                          .hasCauseInstanceOf(ActivitiOptimisticLockingException.class);
+        assertThat(attempts.get()).isEqualTo(4);
+        assertThat(meterRegistry.get(OrderedIntegrationResultExecutor.LOCK_CONFLICTS)
+                                .counter()
+                                .count()).isEqualTo(4);
+        assertThat(meterRegistry.get(OrderedIntegrationResultExecutor.PROCESSED_RESULTS)
+                                .tag("outcome", "lock-conflict")
+                                .timer()
+                                .count()).isEqualTo(1);
+        assertThat(subject.getQueued()).isZero();
+    }
+
+    @Test
+    public void executeShouldFailWithoutRetryWhenHandlerFails() {
+        // given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // when
+        Throwable thrown = catchThrowable(() -> subject.execute(integrationResult("id", "processInstanceId"),
+                                                                integrationResult -> {
+                                                                    attempts.incrementAndGet();
+                                                                    throw new IllegalStateException("integration context is broken");
+                                                                })
+                                                       .join());
+
+        // then
+        assertThat(thrown).isInstanceOf(CompletionException.class)
+                          .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(attempts.get()).isEqualTo(1);
+        assertThat(meterRegistry.get(OrderedIntegrationResultExecutor.PROCESSED_RESULTS)
+                                .tag("outcome", "failure")
+                                .timer()
+                                .count()).isEqualTo(1);
+        assertThat(subject.getQueued()).isZero();
+    }
+
+    @Test
+    public void stopShouldCancelQueuedResultsWhenLanesDoNotTerminateInTime() throws Exception {
+        // given
+        IntegrationResultProperties properties = new IntegrationResultProperties();
+        properties.setConcurrency(1);
+        properties.setShutdownTimeout(Duration.ofMillis(50));
+        OrderedIntegrationResultExecutor executor = new OrderedIntegrationResultExecutor(properties, meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Void> blocking = executor.execute(integrationResult("blocking", "processInstanceId"),
+                                                            integrationResult -> {
+                                                                started.countDown();
+                                                                try {
+                                                                    release.await();
+                                                                } catch (InterruptedException cause) {
+                                                                    Thread.currentThread().interrupt();
+                                                                }
+                                                            });
+        CompletableFuture<Void> queued = executor.execute(integrationResult("queued", "processInstanceId"),
+                                                          integrationResult -> { });
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // when
+        executor.stop();
+
+        // then
+        assertThat(queued).isCompletedExceptionally();
+        assertThat(catchThrowable(queued::join)).hasCauseInstanceOf(MessagingException.class);
+        release.countDown();
+        blocking.get(10, TimeUnit.SECONDS);
+        assertThat(executor.getQueued()).isZero();
+
+        // and lanes are recreated on start
+        executor.start();
+        executor.execute(integrationResult("restarted", "processInstanceId"), integrationResult -> { })
+                .get(10, TimeUnit.SECONDS);
+        executor.stop();
+    }
+
+    private IntegrationResult integrationResult(String id, String processInstanceId) {
+        IntegrationContextImpl integrationContext = new IntegrationContextImpl();
+        integrationContext.setId(id);
+        integrationContext.setProcessInstanceId(processInstanceId);
+
+        return new IntegrationResultImpl(new IntegrationRequestImpl(), integrationContext);
+    }
+
+}
@@ -18,8 +18,10 @@ package org.activiti.services.connectors.channel;
 
 import static org.activiti.runtime.api.impl.MappingExecutionContext.buildMappingExecutionContext;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -29,6 +31,7 @@ import static org.mockito.MockitoAnnotations.initMocks;
 
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.activiti.api.runtime.model.impl.IntegrationContextImpl;
 import org.activiti.bpmn.model.ServiceTask;
@@ -39,6 +42,9 @@ import org.activiti.cloud.api.process.model.impl.IntegrationResultImpl;
 import org.activiti.cloud.api.process.model.impl.events.CloudIntegrationResultReceivedEventImpl;
 import org.activiti.cloud.services.events.configuration.RuntimeBundleProperties;
 import org.activiti.cloud.services.events.converter.RuntimeBundleInfoAppender;
+import org.activiti.cloud.services.events.listeners.ProcessEngineEventsAggregator;
+import org.activiti.engine.ActivitiOptimisticLockingException;
+import org.activiti.engine.ManagementService;
 import org.activiti.engine.RuntimeService;
 import org.activiti.engine.impl.persistence.entity.integration.IntegrationContextEntityImpl;
 import org.activiti.engine.integration.IntegrationContextService;
@@ -53,6 +59,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
 
 public class ServiceTaskIntegrationResultEventHandlerTest {
 
@@ -230,4 +237,60 @@ public class ServiceTaskIntegrationResultEventHandlerTest {
         verify(auditProducer,
                 never()).send(any(Message.class));
     }
+
+    @Test
+    public void receiveShouldHandleIntegrationResultInSingleCommandWhenManagementServiceIsAvailable() {
+        //given
+        ManagementService managementService = mock(ManagementService.class);
+        ProcessEngineEventsAggregator eventsAggregator = mock(ProcessEngineEventsAggregator.class);
+        ServiceTaskIntegrationResultEventHandler singleCommandHandler = new ServiceTaskIntegrationResultEventHandler(runtimeService,
+                                                                                                                     integrationContextService,
+                                                                                                                     auditProducer,
+                                                                                                                     runtimeBundleProperties,
+                                                                                                                     runtimeBundleInfoAppender,
+                                                                                                                     outboundVariablesProvider,
+                                                                                                                     managementService,
+                                                                                                                     eventsAggregator);
+        given(eventsProperties.isIntegrationAuditEventsEnabled()).willReturn(true);
+        given(managementService.executeCommand(isA(IntegrationResultReceivedCmd.class))).willReturn(new IntegrationContextEntityImpl());
+
+        IntegrationContextImpl integrationContext = buildIntegrationContext(Collections.emptyMap());
+
+        //when
+        singleCommandHandler.receive(new IntegrationResultImpl(new IntegrationRequestImpl(), integrationContext));
+
+        //then
+        verify(managementService).executeCommand(isA(IntegrationResultReceivedCmd.class));
+        verify(integrationContextService, never()).findById(anyString());
+        verify(runtimeService, never()).trigger(anyString(), any());
+        verify(auditProducer, never()).send(any(Message.class));
+    }
+
+    @Test
+    public void receiveShouldRethrowFailureOfIntegrationResultExecutorToBinder() {
+        //given
+        OrderedIntegrationResultExecutor integrationResultExecutor = mock(OrderedIntegrationResultExecutor.class);
+        CompletableFuture<Void> processed = new CompletableFuture<>();
+        processed.completeExceptionally(new ActivitiOptimisticLockingException("execution was updated by another transaction"));
+        given(integrationResultExecutor.execute(any(), any())).willReturn(processed);
+        ServiceTaskIntegrationResultEventHandler parallelHandler = new ServiceTaskIntegrationResultEventHandler(runtimeService,
+                                                                                                                integrationContextService,
+                                                                                                                auditProducer,
+                                                                                                                runtimeBundleProperties,
+                                                                                                                runtimeBundleInfoAppender,
+                                                                                                                outboundVariablesProvider,
+                                                                                                                null,
+                                                                                                                null,
+                                                                                                                integrationResultExecutor,
+                                                                                                                null);
+
+        IntegrationContextImpl integrationContext = buildIntegrationContext(Collections.emptyMap());
+
+        //when
+        Throwable thrown = catchThrowable(() -> parallelHandler.receive(new IntegrationResultImpl(new IntegrationRequestImpl(), integrationContext)));
+
+        //then
+        assertThat(thrown).isInstanceOf(MessagingException.class)
+                          .hasCauseInstanceOf(ActivitiOptimisticLockingException.class);
+    }
 }
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.services.connectors.conf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.conf.activiti.services.connectors.IntegrationResultsConsumerConcurrencyPostProcessor.CONSUMER_CONCURRENCY;
+
+import org.conf.activiti.services.connectors.IntegrationResultsConsumerConcurrencyPostProcessor;
+import org.junit.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.mock.env.MockEnvironment;
+
+public class IntegrationResultsConsumerConcurrencyPostProcessorTest {
+
+    private static final String INTEGRATION_RESULTS = "activiti.cloud.runtime-bundle.events-properties.integration-results.";
+
+    private IntegrationResultsConsumerConcurrencyPostProcessor subject = new IntegrationResultsConsumerConcurrencyPostProcessor();
+
+    @Test
+    public void shouldSetConsumerConcurrencyToLaneCountWhenParallelProcessingIsEnabled() {
+        // given
+        MockEnvironment environment = new MockEnvironment().withProperty(INTEGRATION_RESULTS + "parallel-enabled", "true")
+                                                           .withProperty(INTEGRATION_RESULTS + "concurrency", "8");
+
+        // when
+        subject.postProcessEnvironment(environment, new SpringApplication());
+
+        // then
+        assertThat(environment.getProperty(CONSUMER_CONCURRENCY, Integer.class)).isEqualTo(8);
+    }
+
+    @Test
+    public void shouldSetConsumerConcurrencyWhenBatchingIsEnabled() {
+        // given
+        MockEnvironment environment = new MockEnvironment().withProperty(INTEGRATION_RESULTS + "batch-enabled", "true");
+
+        // when
+        subject.postProcessEnvironment(environment, new SpringApplication());
+
+        // then
+        assertThat(environment.getProperty(CONSUMER_CONCURRENCY, Integer.class)).isEqualTo(4);
+    }
+
+    @Test
+    public void shouldKeepExplicitConsumerConcurrency() {
+        // given
+        MockEnvironment environment = new MockEnvironment().withProperty(INTEGRATION_RESULTS + "parallel-enabled", "true")
+                                                           .withProperty(CONSUMER_CONCURRENCY, "2");
+
+        // when
+        subject.postProcessEnvironment(environment, new SpringApplication());
+
+        // then
+        assertThat(environment.getProperty(CONSUMER_CONCURRENCY, Integer.class)).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldNotSetConsumerConcurrencyByDefault() {
+        // given
+        MockEnvironment environment = new MockEnvironment();
+
+        // when
+        subject.postProcessEnvironment(environment, new SpringApplication());
+
+        // then
+        assertThat(environment.containsProperty(CONSUMER_CONCURRENCY)).isFalse();
+    }
+
+}
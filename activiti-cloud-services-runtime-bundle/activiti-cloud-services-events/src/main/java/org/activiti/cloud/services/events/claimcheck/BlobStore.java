@@ -0,0 +1,31 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.claimcheck;
+
+import java.util.Optional;
+
+/**
+ * Stores offloaded payloads by content hash. Content stored under a key never changes, 
+ * so implementations may skip writes of already existing keys.  
+ */
+public interface BlobStore {
+
+    void put(String key, byte[] content);
+
+    Optional<byte[]> get(String key);
+
+    boolean contains(String key);
+}
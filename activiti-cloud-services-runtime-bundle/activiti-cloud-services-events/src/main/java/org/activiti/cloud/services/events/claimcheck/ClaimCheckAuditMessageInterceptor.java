@@ -0,0 +1,189 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.claimcheck;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.activiti.api.model.shared.model.VariableInstance;
+import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
+import org.activiti.cloud.api.process.model.events.CloudProcessDeployedEvent;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.Assert;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * Offloads process model content and variable values exceeding configured threshold to a {@link BlobStore}
+ * and replaces them with {@link ClaimCheckReference} strings. Messages with offloaded values are sent 
+ * as serialized JSON with the number of references in <code>claimChecks</code> header.
+ * 
+ * Blobs are keyed by content hash, so unchanged models of repeated deployments are stored only once. 
+ */
+public class ClaimCheckAuditMessageInterceptor implements ChannelInterceptor {
+
+    public static final String CLAIM_CHECKS = "claimChecks";
+
+    public static final String OFFLOADED_VALUES = "activiti.audit.claim.check.offloaded";
+
+    private static final String PROCESS_MODEL_CONTENT = "processModelContent";
+    private static final String EVENT_TYPE = "eventType";
+    private static final String ENTITY = "entity";
+    private static final String VALUE = "value";
+    private static final String VARIABLE_EVENT_PREFIX = "VARIABLE_";
+
+    // Worst case number of bytes per character in UTF-8 and escaped JSON strings
+    private static final int MAX_BYTES_PER_CHAR = 6;
+
+    private final ObjectMapper objectMapper;
+    private final BlobStore blobStore;
+    private final int threshold;
+    private final Counter offloadedValues;
+
+    public ClaimCheckAuditMessageInterceptor(ObjectMapper objectMapper,
+                                             BlobStore blobStore,
+                                             int threshold,
+                                             MeterRegistry meterRegistry) {
+        Assert.notNull(objectMapper, "objectMapper must not be null");
+        Assert.notNull(blobStore, "blobStore must not be null");
+        Assert.isTrue(threshold >= 0, "threshold must not be negative");
+
+        this.objectMapper = objectMapper;
+        this.blobStore = blobStore;
+        this.threshold = threshold;
+        this.offloadedValues = Counter.builder(OFFLOADED_VALUES)
+                                      .description("Number of audit event values offloaded to claim check blob store")
+                                      .register(meterRegistry);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (!(message.getPayload() instanceof CloudRuntimeEvent[]) || !hasCandidates((CloudRuntimeEvent<?, ?>[]) message.getPayload())) {
+            return message;
+        }
+
+        ArrayNode events = objectMapper.valueToTree(message.getPayload());
+        int offloaded = 0;
+
+        for (JsonNode event : events) {
+            if (event instanceof ObjectNode) {
+                offloaded += offload((ObjectNode) event);
+            }
+        }
+
+        if (offloaded == 0) {
+            return message;
+        }
+
+        offloadedValues.increment(offloaded);
+
+        return MessageBuilder.withPayload(serialize(message, events))
+                             .copyHeaders(message.getHeaders())
+                             .setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON_VALUE)
+                             .setHeader(CLAIM_CHECKS, offloaded)
+                             .build();
+    }
+
+    // Let's avoid JSON tree conversion for the vast majority of messages without big values  
+    protected boolean hasCandidates(CloudRuntimeEvent<?, ?>[] events) {
+        for (CloudRuntimeEvent<?, ?> event : events) {
+            if (event instanceof CloudProcessDeployedEvent) {
+                if (isCandidate(((CloudProcessDeployedEvent) event).getProcessModelContent())) {
+                    return true;
+                }
+            } else if (event.getEntity() instanceof VariableInstance) {
+                Object value = ((VariableInstance) event.getEntity()).getValue();
+
+                if (value instanceof String ? isCandidate((String) value) : isCandidate(value)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private boolean isCandidate(String value) {
+        return value != null && (long) value.length() * MAX_BYTES_PER_CHAR > threshold;
+    }
+
+    private boolean isCandidate(Object value) {
+        return value != null && !(value instanceof Number || value instanceof Boolean || value instanceof Date);
+    }
+
+    protected int offload(ObjectNode event) {
+        int offloaded = 0;
+
+        JsonNode processModelContent = event.get(PROCESS_MODEL_CONTENT);
+
+        if (processModelContent != null && processModelContent.isTextual()) {
+            byte[] content = processModelContent.textValue().getBytes(StandardCharsets.UTF_8);
+
+            if (content.length > threshold) {
+                event.put(PROCESS_MODEL_CONTENT, store(content));
+                offloaded++;
+            }
+        }
+
+        JsonNode entity = event.get(ENTITY);
+
+        if (entity instanceof ObjectNode && entity.hasNonNull(VALUE) && event.path(EVENT_TYPE).asText().startsWith(VARIABLE_EVENT_PREFIX)) {
+            byte[] content = writeValueAsBytes(entity.get(VALUE));
+
+            if (content.length > threshold) {
+                ((ObjectNode) entity).put(VALUE, store(content));
+                offloaded++;
+            }
+        }
+
+        return offloaded;
+    }
+
+    protected String store(byte[] content) {
+        String hash = ClaimCheckReference.sha256(content);
+
+        blobStore.put(hash, content);
+
+        return ClaimCheckReference.of(hash);
+    }
+
+    private byte[] writeValueAsBytes(JsonNode value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException cause) {
+            throw new MessageConversionException("Could not serialize variable value", cause);
+        }
+    }
+
+    private byte[] serialize(Message<?> message, ArrayNode events) {
+        try {
+            return objectMapper.writeValueAsBytes(events);
+        } catch (JsonProcessingException cause) {
+            throw new MessageConversionException(message, "Could not serialize audit message", cause);
+        }
+    }
+}
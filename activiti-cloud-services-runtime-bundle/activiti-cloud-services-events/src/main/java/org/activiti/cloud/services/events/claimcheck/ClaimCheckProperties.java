@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.claimcheck;
+
+public class ClaimCheckProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Size in bytes above which model content and variable values are offloaded to the blob store
+     */
+    private int threshold = 256 * 1024;
+
+    private StoreType store = StoreType.FILESYSTEM;
+
+    /**
+     * Directory of filesystem store, required when it is used. It must be a volume shared with the consumers 
+     * resolving claim check references, e.g. a persistent volume mounted by every replica.
+     */
+    private String directory;
+
+    /**
+     * Creates blob table on startup for H2, PostgreSQL and MySQL. 
+     * Other databases need the table to be created upfront.
+     */
+    private boolean initializeSchema = true;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public void setThreshold(int threshold) {
+        this.threshold = threshold;
+    }
+
+    public StoreType getStore() {
+        return store;
+    }
+
+    public void setStore(StoreType store) {
+        this.store = store;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public boolean isInitializeSchema() {
+        return initializeSchema;
+    }
+
+    public void setInitializeSchema(boolean initializeSchema) {
+        this.initializeSchema = initializeSchema;
+    }
+
+    public enum StoreType {
+        FILESYSTEM,
+        JDBC
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.claimcheck;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Claim check references replace offloaded values in audit messages with 
+ * <code>activiti-claim-check:sha256:{hash}</code> strings, where hash is the blob store key 
+ * of the SHA-256 content hash.   
+ */
+public final class ClaimCheckReference {
+
+    public static final String PREFIX = "activiti-claim-check:sha256:";
+
+    private ClaimCheckReference() {
+    }
+
+    public static String of(String hash) {
+        return PREFIX + hash;
+    }
+
+    public static boolean isReference(Object value) {
+        return value instanceof String && ((String) value).startsWith(PREFIX);
+    }
+
+    public static String hashOf(String reference) {
+        if (!isReference(reference)) {
+            throw new IllegalArgumentException("Not a claim check reference: " + reference);
+        }
+
+        return reference.substring(PREFIX.length());
+    }
+
+    public static String sha256(byte[] content) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+
+            for (byte value : hash) {
+                hex.append(Character.forDigit((value >> 4) & 0xF, 16))
+                   .append(Character.forDigit(value & 0xF, 16));
+            }
+
+            return hex.toString();
+        } catch (NoSuchAlgorithmException cause) {
+            throw new IllegalStateException("SHA-256 is not supported by this JVM", cause);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.claimcheck;
+
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.util.Assert;
+
+/**
+ * Fetches offloaded content for consumers of audit messages flagged with <code>claimChecks</code> header. 
+ * Process model content is stored as UTF-8 text, variable values are stored as JSON.  
+ */
+public class ClaimCheckResolver {
+
+    private final BlobStore blobStore;
+
+    public ClaimCheckResolver(BlobStore blobStore) {
+        Assert.notNull(blobStore, "blobStore must not be null");
+
+        this.blobStore = blobStore;
+    }
+
+    public byte[] fetch(String reference) {
+        String hash = ClaimCheckReference.hashOf(reference);
+
+        return blobStore.get(hash)
+                        .orElseThrow(() -> new IllegalStateException("Claim check content " + hash + " is not available"));
+    }
+
+    /**
+     * @return offloaded content if value is a claim check reference, value itself otherwise 
+     */
+    public String resolve(String value) {
+        if (!ClaimCheckReference.isReference(value)) {
+            return value;
+        }
+
+        return new String(fetch(value), StandardCharsets.UTF_8);
+    }
+}
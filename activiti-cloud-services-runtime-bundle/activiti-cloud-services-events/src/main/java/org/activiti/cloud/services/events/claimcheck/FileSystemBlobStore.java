@@ -0,0 +1,94 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.claimcheck;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+import org.springframework.util.Assert;
+
+/**
+ * Stores blobs as files in a shared directory, using the first two key characters as sub-directory. 
+ */
+public class FileSystemBlobStore implements BlobStore {
+
+    private final Path directory;
+
+    public FileSystemBlobStore(Path directory) {
+        Assert.notNull(directory, "directory must not be null");
+
+        this.directory = directory;
+    }
+
+    @Override
+    public void put(String key, byte[] content) {
+        Path file = resolve(key);
+
+        if (Files.exists(file)) {
+            return;
+        }
+
+        try {
+            Files.createDirectories(file.getParent());
+
+            // Let's write to a temporary file first, so that readers never see partial content
+            Path temporaryFile = Files.createTempFile(file.getParent(), key, ".tmp");
+            try {
+                Files.write(temporaryFile, content);
+                Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException cause) {
+                // Same content has been stored concurrently
+            } finally {
+                Files.deleteIfExists(temporaryFile);
+            }
+        } catch (IOException cause) {
+            throw new UncheckedIOException("Could not store blob " + key, cause);
+        }
+    }
+
+    @Override
+    public Optional<byte[]> get(String key) {
+        Path file = resolve(key);
+
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(Files.readAllBytes(file));
+        } catch (IOException cause) {
+            throw new UncheckedIOException("Could not read blob " + key, cause);
+        }
+    }
+
+    @Override
+    public boolean contains(String key) {
+        return Files.exists(resolve(key));
+    }
+
+    protected Path resolve(String key) {
+        Assert.isTrue(key != null && key.length() > 2 && key.chars().allMatch(Character::isLetterOrDigit),
+                      "key must be alphanumeric");
+
+        return directory.resolve(key.substring(0, 2))
+                        .resolve(key);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.claimcheck;
+
+import java.util.List;
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import org.activiti.cloud.services.events.jdbc.PlatformSchemaInitializer;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Stores blobs in <code>ACT_CLOUD_BLOB</code> table, so that no shared file system is needed 
+ * between runtime bundle and consumers of the same database.  
+ * 
+ * Blobs are put within the engine transaction, so that the same blob stored concurrently is ignored by the database 
+ * on H2, PostgreSQL and MySQL instead of failing the statement, which would abort the transaction on PostgreSQL.
+ */
+public class JdbcBlobStore implements BlobStore {
+
+    public static final String TABLE_NAME = "ACT_CLOUD_BLOB";
+
+    public static final String SCHEMA_LOCATION = "org/activiti/cloud/services/events/claimcheck/schema-@@platform@@.sql";
+
+    private static final String INSERT = "INSERT INTO " + TABLE_NAME + " (ID_, SIZE_, CONTENT_) VALUES (?, ?, ?)";
+    private static final String MERGE_H2 = "MERGE INTO " + TABLE_NAME + " (ID_, SIZE_, CONTENT_) KEY (ID_) VALUES (?, ?, ?)";
+    private static final String INSERT_POSTGRESQL = INSERT + " ON CONFLICT (ID_) DO NOTHING";
+    private static final String INSERT_MYSQL = "INSERT IGNORE INTO " + TABLE_NAME + " (ID_, SIZE_, CONTENT_) VALUES (?, ?, ?)";
+    private static final String SELECT = "SELECT CONTENT_ FROM " + TABLE_NAME + " WHERE ID_ = ?";
+    private static final String COUNT = "SELECT COUNT(*) FROM " + TABLE_NAME + " WHERE ID_ = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final String insert;
+
+    public JdbcBlobStore(DataSource dataSource) {
+        this(dataSource, PlatformSchemaInitializer.getPlatform(dataSource));
+    }
+
+    public JdbcBlobStore(DataSource dataSource, String platform) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.insert = insertFor(platform);
+    }
+
+    @Override
+    public void put(String key, byte[] content) {
+        if (contains(key)) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.update(insert, key, content.length, content);
+        } catch (DuplicateKeyException cause) {
+            // Same content has been stored concurrently on a database without upsert support
+        }
+    }
+
+    @Override
+    public Optional<byte[]> get(String key) {
+        List<byte[]> content = jdbcTemplate.query(SELECT,
+                                                  (rs, rowNum) -> rs.getBytes("CONTENT_"),
+                                                  key);
+
+        return content.stream().findFirst();
+    }
+
+    @Override
+    public boolean contains(String key) {
+        Integer count = jdbcTemplate.queryForObject(COUNT, Integer.class, key);
+
+        return count != null && count > 0;
+    }
+
+    private static String insertFor(String platform) {
+        switch (platform) {
+            case "h2":
+                return MERGE_H2;
+            case "postgresql":
+                return INSERT_POSTGRESQL;
+            case "mysql":
+            case "mariadb":
+                return INSERT_MYSQL;
+            default:
+                return INSERT;
+        }
+    }
+}
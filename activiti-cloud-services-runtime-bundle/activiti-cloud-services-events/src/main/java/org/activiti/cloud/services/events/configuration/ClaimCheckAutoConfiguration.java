@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.configuration;
+
+import java.nio.file.Paths;
+
+import javax.sql.DataSource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.activiti.cloud.services.events.ProcessEngineChannels;
+import org.activiti.cloud.services.events.claimcheck.BlobStore;
+import org.activiti.cloud.services.events.claimcheck.ClaimCheckAuditMessageInterceptor;
+import org.activiti.cloud.services.events.claimcheck.ClaimCheckProperties;
+import org.activiti.cloud.services.events.claimcheck.ClaimCheckResolver;
+import org.activiti.cloud.services.events.claimcheck.FileSystemBlobStore;
+import org.activiti.cloud.services.events.claimcheck.JdbcBlobStore;
+import org.activiti.cloud.services.events.jdbc.PlatformSchemaInitializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.config.GlobalChannelInterceptor;
+import org.springframework.util.StringUtils;
+
+@Configuration
+@ConditionalOnProperty(name = "activiti.cloud.runtime-bundle.claim-check.enabled", havingValue = "true")
+public class ClaimCheckAutoConfiguration {
+
+    @Configuration
+    @ConditionalOnProperty(name = "activiti.cloud.runtime-bundle.claim-check.store", havingValue = "jdbc")
+    static class JdbcBlobStoreConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(name = "claimCheckSchemaInitializer")
+        @ConditionalOnProperty(name = "activiti.cloud.runtime-bundle.claim-check.initialize-schema", havingValue = "true", matchIfMissing = true)
+        public PlatformSchemaInitializer claimCheckSchemaInitializer(DataSource dataSource) {
+            return new PlatformSchemaInitializer(dataSource,
+                                                 JdbcBlobStore.SCHEMA_LOCATION,
+                                                 JdbcBlobStore.TABLE_NAME);
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        public BlobStore jdbcBlobStore(DataSource dataSource,
+                                       @Qualifier("claimCheckSchemaInitializer") ObjectProvider<PlatformSchemaInitializer> claimCheckSchemaInitializer) {
+            claimCheckSchemaInitializer.getIfAvailable();
+
+            return new JdbcBlobStore(dataSource);
+        }
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConfigurationProperties(prefix = "activiti.cloud.runtime-bundle.claim-check")
+    public ClaimCheckProperties claimCheckProperties() {
+        return new ClaimCheckProperties();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public BlobStore fileSystemBlobStore(ClaimCheckProperties claimCheckProperties) {
+        if (!StringUtils.hasText(claimCheckProperties.getDirectory())) {
+            throw new IllegalStateException("activiti.cloud.runtime-bundle.claim-check.directory is required for filesystem store, "
+                                            + "please set it to a volume shared with audit consumers or use jdbc store");
+        }
+
+        return new FileSystemBlobStore(Paths.get(claimCheckProperties.getDirectory()));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ClaimCheckResolver claimCheckResolver(BlobStore blobStore) {
+        return new ClaimCheckResolver(blobStore);
+    }
+
+    // Let's offload values before audit messages get serialized and compressed
+    @Bean
+    @GlobalChannelInterceptor(patterns = ProcessEngineChannels.AUDIT_PRODUCER, order = -1)
+    @ConditionalOnMissingBean
+    public ClaimCheckAuditMessageInterceptor claimCheckAuditMessageInterceptor(BlobStore blobStore,
+                                                                               ClaimCheckProperties claimCheckProperties,
+                                                                               ObjectProvider<ObjectMapper> objectMapper,
+                                                                               ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ClaimCheckAuditMessageInterceptor(objectMapper.getIfAvailable(ObjectMapper::new),
+                                                     blobStore,
+                                                     claimCheckProperties.getThreshold(),
+                                                     meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+}
@@ -16,11 +16,23 @@
 
 package org.activiti.cloud.services.events.configuration;
 
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 import org.activiti.cloud.services.events.ProcessEngineChannels;
 import org.activiti.cloud.services.events.converter.RuntimeBundleInfoAppender;
 import org.activiti.cloud.services.events.converter.ToCloudProcessRuntimeEventConverter;
 import org.activiti.cloud.services.events.converter.ToCloudTaskRuntimeEventConverter;
 import org.activiti.cloud.services.events.converter.ToCloudVariableEventConverter;
+import org.activiti.cloud.services.events.deployment.JdbcPublishedProcessModelRegistry;
+import org.activiti.cloud.services.events.deployment.PublishedProcessModelRegistry;
+import org.activiti.cloud.services.events.jdbc.PlatformSchemaInitializer;
+import org.activiti.cloud.services.events.listeners.AuditEventThrottle;
 import org.activiti.cloud.services.events.listeners.CloudActivityCancelledProducer;
 import org.activiti.cloud.services.events.listeners.CloudActivityCompletedProducer;
 import org.activiti.cloud.services.events.listeners.CloudActivityStartedProducer;
@@ -60,15 +72,36 @@ import org.activiti.cloud.services.events.listeners.CloudVariableCreatedProducer
 import org.activiti.cloud.services.events.listeners.CloudVariableDeletedProducer;
 import org.activiti.cloud.services.events.listeners.CloudVariableUpdatedProducer;
 import org.activiti.cloud.services.events.listeners.MessageProducerCommandContextCloseListener;
+import org.activiti.cloud.services.events.listeners.OutboxMessageProducerCommandContextCloseListener;
+import org.activiti.cloud.services.events.listeners.IncludeExcludeRuntimeEventFilter;
+import org.activiti.cloud.services.events.listeners.PrefetchingProcessEngineEventsAggregator;
 import org.activiti.cloud.services.events.listeners.ProcessEngineEventsAggregator;
+import org.activiti.cloud.services.events.listeners.RuntimeEventFilter;
+import org.activiti.cloud.services.events.listeners.TransactionScopedMessageProducerCommandContextCloseListener;
+import org.activiti.cloud.services.events.message.AsyncAuditMessagePublisher;
+import org.activiti.cloud.services.events.message.CachingDestinationResolver;
 import org.activiti.cloud.services.events.message.CloudRuntimeEventMessageBuilderFactory;
+import org.activiti.cloud.services.events.message.CompactAuditMessageConverter;
+import org.activiti.cloud.services.events.message.CompressingAuditMessageInterceptor;
 import org.activiti.cloud.services.events.message.ExecutionContextMessageBuilderFactory;
+import org.activiti.cloud.services.events.message.PartitionedExecutionContextMessageBuilderFactory;
+import org.activiti.cloud.services.events.message.ProcessDefinitionHeadersCache;
 import org.activiti.cloud.services.events.message.RuntimeBundleMessageBuilderFactory;
+import org.activiti.cloud.services.events.outbox.MessageOutbox;
+import org.activiti.engine.RuntimeService;
+import org.activiti.engine.delegate.event.ActivitiEventType;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.stream.annotation.StreamMessageConverter;
+import org.springframework.cloud.stream.binding.BinderAwareChannelResolver;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.context.annotation.PropertySources;
+import org.springframework.integration.config.GlobalChannelInterceptor;
 
 @Configuration
 @PropertySources(value={
@@ -91,8 +124,65 @@ public class CloudEventsAutoConfiguration {
     
     @Bean
     @ConditionalOnMissingBean
-    public ExecutionContextMessageBuilderFactory executionContextMessageBuilderFactory(RuntimeBundleProperties properties) {
-        return new ExecutionContextMessageBuilderFactory(properties);
+    @ConditionalOnProperty(name = "activiti.cloud.runtime-bundle.events-properties.process-definition-headers-cache-enabled", havingValue = "true", matchIfMissing = true)
+    public ProcessDefinitionHeadersCache processDefinitionHeadersCache(RuntimeBundleProperties properties) {
+        return new ProcessDefinitionHeadersCache(properties.getEventsProperties()
+                                                           .getProcessDefinitionHeadersCacheSize());
+    }
+
+    @Bean
+    public SmartInitializingSingleton processDefinitionHeadersCacheEvictionRegistrar(ObjectProvider<ProcessDefinitionHeadersCache> processDefinitionHeadersCache,
+                                                                                     ObjectProvider<RuntimeService> runtimeService) {
+        // Let's register engine listener once all singletons are created to avoid circular references with the process engine
+        return () -> processDefinitionHeadersCache.ifAvailable(cache -> runtimeService.ifAvailable(it -> it.addEventListener(cache,
+                                                                                                                            ActivitiEventType.ENTITY_DELETED)));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "activiti.cloud.runtime-bundle.events-properties.destination-cache-enabled", havingValue = "true")
+    public CachingDestinationResolver cachingDestinationResolver(BinderAwareChannelResolver resolver,
+                                                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        return new CachingDestinationResolver(resolver,
+                                              meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "activiti.cloud.runtime-bundle.events-properties.group-by-process-instance-enabled", havingValue = "true")
+    public ExecutionContextMessageBuilderFactory partitionedExecutionContextMessageBuilderFactory(RuntimeBundleProperties properties,
+                                                                                                  ObjectProvider<ProcessDefinitionHeadersCache> processDefinitionHeadersCache) {
+        return new PartitionedExecutionContextMessageBuilderFactory(properties,
+                                                                    processDefinitionHeadersCache.getIfAvailable());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ExecutionContextMessageBuilderFactory executionContextMessageBuilderFactory(RuntimeBundleProperties properties,
+                                                                                       ObjectProvider<ProcessDefinitionHeadersCache> processDefinitionHeadersCache) {
+        return new ExecutionContextMessageBuilderFactory(properties,
+                                                         processDefinitionHeadersCache.getIfAvailable());
+    }
+
+    @Bean
+    @StreamMessageConverter
+    @ConditionalOnMissingBean
+    public CompactAuditMessageConverter compactAuditMessageConverter(ObjectProvider<Module> modules) {
+        return new CompactAuditMessageConverter(CompactAuditMessageConverter.createObjectMapper(modules.orderedStream()
+                                                                                                       .collect(Collectors.toList())));
+    }
+
+    @Bean
+    @GlobalChannelInterceptor(patterns = ProcessEngineChannels.AUDIT_PRODUCER)
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "activiti.cloud.runtime-bundle.events-properties.compression-enabled", havingValue = "true")
+    public CompressingAuditMessageInterceptor compressingAuditMessageInterceptor(RuntimeBundleProperties runtimeBundleProperties,
+                                                                                 ObjectProvider<ObjectMapper> objectMapper,
+                                                                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        return new CompressingAuditMessageInterceptor(objectMapper.getIfAvailable(ObjectMapper::new),
+                                                      runtimeBundleProperties.getEventsProperties()
+                                                                             .getCompressionThreshold(),
+                                                      meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
     }
 
     @Bean
@@ -107,20 +197,118 @@ public class CloudEventsAutoConfiguration {
         return new ToCloudTaskRuntimeEventConverter(runtimeBundleInfoAppender);
     }
 
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "activiti.cloud.runtime-bundle.events-properties.async-publisher.enabled", havingValue = "true")
+    public AsyncAuditMessagePublisher asyncAuditMessagePublisher(ProcessEngineChannels processEngineChannels,
+                                                                 RuntimeBundleProperties runtimeBundleProperties,
+                                                                 ObjectProvider<ObjectMapper> objectMapper,
+                                                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        return new AsyncAuditMessagePublisher(processEngineChannels,
+                                              runtimeBundleProperties.getEventsProperties()
+                                                                     .getAsyncPublisher(),
+                                              objectMapper.getIfAvailable(ObjectMapper::new),
+                                              meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "activiti.cloud.runtime-bundle.outbox.enabled", havingValue = "true")
+    public MessageProducerCommandContextCloseListener outboxMessageProducerCommandContextCloseListener(ProcessEngineChannels processEngineChannels,
+                                                                                                      ExecutionContextMessageBuilderFactory executionContextMessageBuilderFactory,
+                                                                                                      RuntimeBundleInfoAppender runtimeBundleInfoAppender,
+                                                                                                      RuntimeBundleProperties runtimeBundleProperties,
+                                                                                                      MessageOutbox messageOutbox) {
+        // Outbox appends audit messages within the engine transaction, so they cannot be aggregated after commit as well
+        if (runtimeBundleProperties.getEventsProperties().isTransactionAggregationEnabled()) {
+            throw new IllegalStateException("activiti.cloud.runtime-bundle.outbox.enabled and "
+                                            + "activiti.cloud.runtime-bundle.events-properties.transaction-aggregation-enabled "
+                                            + "cannot be enabled together, please disable one of them");
+        }
+
+        MessageProducerCommandContextCloseListener listener = new OutboxMessageProducerCommandContextCloseListener(processEngineChannels,
+                                                                                                                   executionContextMessageBuilderFactory,
+                                                                                                                   runtimeBundleInfoAppender,
+                                                                                                                   messageOutbox);
+        listener.setGroupByProcessInstance(runtimeBundleProperties.getEventsProperties()
+                                                                  .isGroupByProcessInstanceEnabled());
+        return listener;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "activiti.cloud.runtime-bundle.events-properties.transaction-aggregation-enabled", havingValue = "true")
+    public MessageProducerCommandContextCloseListener transactionScopedMessageProducerCommandContextCloseListener(ProcessEngineChannels processEngineChannels,
+                                                                                                                  ExecutionContextMessageBuilderFactory executionContextMessageBuilderFactory,
+                                                                                                                  RuntimeBundleInfoAppender runtimeBundleInfoAppender,
+                                                                                                                  RuntimeBundleProperties runtimeBundleProperties,
+                                                                                                                  ObjectProvider<AsyncAuditMessagePublisher> asyncAuditMessagePublisher) {
+        MessageProducerCommandContextCloseListener listener = new TransactionScopedMessageProducerCommandContextCloseListener(processEngineChannels,
+                                                                                                                              executionContextMessageBuilderFactory,
+                                                                                                                              runtimeBundleInfoAppender,
+                                                                                                                              asyncAuditMessagePublisher.getIfAvailable(),
+                                                                                                                              runtimeBundleProperties.getEventsProperties()
+                                                                                                                                                     .getTransactionAggregationMaxEvents());
+        listener.setGroupByProcessInstance(runtimeBundleProperties.getEventsProperties()
+                                                                  .isGroupByProcessInstanceEnabled());
+        return listener;
+    }
+
     @Bean
     @ConditionalOnMissingBean
     public MessageProducerCommandContextCloseListener apiMessageProducerCommandContextCloseListener(ProcessEngineChannels processEngineChannels,
                                                                                                     ExecutionContextMessageBuilderFactory executionContextMessageBuilderFactory,
-                                                                                                    RuntimeBundleInfoAppender runtimeBundleInfoAppender) {
-        return new MessageProducerCommandContextCloseListener(processEngineChannels,
-                                                              executionContextMessageBuilderFactory,
-                                                              runtimeBundleInfoAppender);
+                                                                                                    RuntimeBundleInfoAppender runtimeBundleInfoAppender,
+                                                                                                    RuntimeBundleProperties runtimeBundleProperties,
+                                                                                                    ObjectProvider<AsyncAuditMessagePublisher> asyncAuditMessagePublisher) {
+        MessageProducerCommandContextCloseListener listener = new MessageProducerCommandContextCloseListener(processEngineChannels,
+                                                                                                             executionContextMessageBuilderFactory,
+                                                                                                             runtimeBundleInfoAppender,
+                                                                                                             asyncAuditMessagePublisher.getIfAvailable());
+        listener.setGroupByProcessInstance(runtimeBundleProperties.getEventsProperties()
+                                                                  .isGroupByProcessInstanceEnabled());
+        return listener;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "activiti.cloud.runtime-bundle.events-properties.filter.enabled", havingValue = "true")
+    public RuntimeEventFilter runtimeEventFilter(RuntimeBundleProperties runtimeBundleProperties) {
+        return new IncludeExcludeRuntimeEventFilter(runtimeBundleProperties.getEventsProperties()
+                                                                           .getFilter());
     }
 
     @Bean
     @ConditionalOnMissingBean
-    public ProcessEngineEventsAggregator apiProcessEngineEventsAggregator(MessageProducerCommandContextCloseListener closeListener) {
-        return new ProcessEngineEventsAggregator(closeListener);
+    @ConditionalOnProperty(name = "activiti.cloud.runtime-bundle.events-properties.throttle.enabled", havingValue = "true")
+    public AuditEventThrottle auditEventThrottle(RuntimeBundleProperties runtimeBundleProperties,
+                                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        return new AuditEventThrottle(runtimeBundleProperties.getEventsProperties()
+                                                             .getThrottle(),
+                                      meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "activiti.cloud.runtime-bundle.events-properties.execution-context-prefetch-enabled", havingValue = "true")
+    public ProcessEngineEventsAggregator prefetchingProcessEngineEventsAggregator(MessageProducerCommandContextCloseListener closeListener,
+                                                                                  ObjectProvider<RuntimeEventFilter> runtimeEventFilter,
+                                                                                  ObjectProvider<AuditEventThrottle> auditEventThrottle) {
+        ProcessEngineEventsAggregator aggregator = new PrefetchingProcessEngineEventsAggregator(closeListener);
+        aggregator.setEventFilter(runtimeEventFilter.getIfAvailable());
+        aggregator.setEventThrottle(auditEventThrottle.getIfAvailable());
+        return aggregator;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ProcessEngineEventsAggregator apiProcessEngineEventsAggregator(MessageProducerCommandContextCloseListener closeListener,
+                                                                          ObjectProvider<RuntimeEventFilter> runtimeEventFilter,
+                                                                          ObjectProvider<AuditEventThrottle> auditEventThrottle) {
+        ProcessEngineEventsAggregator aggregator = new ProcessEngineEventsAggregator(closeListener);
+        aggregator.setEventFilter(runtimeEventFilter.getIfAvailable());
+        aggregator.setEventThrottle(auditEventThrottle.getIfAvailable());
+        return aggregator;
     }
 
     @Bean
@@ -385,14 +573,43 @@ public class CloudEventsAutoConfiguration {
                                                   eventsAggregator);
     }
 
+    @Configuration
+    @ConditionalOnProperty(name = "activiti.cloud.runtime-bundle.events-properties.process-model-tracking-enabled", havingValue = "true")
+    static class PublishedProcessModelRegistryConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(name = "publishedProcessModelSchemaInitializer")
+        @ConditionalOnProperty(name = "activiti.cloud.runtime-bundle.events-properties.process-model-tracking-initialize-schema", havingValue = "true", matchIfMissing = true)
+        public PlatformSchemaInitializer publishedProcessModelSchemaInitializer(DataSource dataSource) {
+            return new PlatformSchemaInitializer(dataSource,
+                                                 JdbcPublishedProcessModelRegistry.SCHEMA_LOCATION,
+                                                 JdbcPublishedProcessModelRegistry.TABLE_NAME);
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        public PublishedProcessModelRegistry publishedProcessModelRegistry(DataSource dataSource,
+                                                                           @Qualifier("publishedProcessModelSchemaInitializer") ObjectProvider<PlatformSchemaInitializer> publishedProcessModelSchemaInitializer) {
+            publishedProcessModelSchemaInitializer.getIfAvailable();
+
+            return new JdbcPublishedProcessModelRegistry(dataSource);
+        }
+    }
+
     @ConditionalOnMissingBean
     @Bean
     public CloudProcessDeployedProducer cloudProcessDeployedProducer(RuntimeBundleInfoAppender runtimeBundleInfoAppender,
                                                                      ProcessEngineChannels processEngineChannels,
-                                                                     RuntimeBundleMessageBuilderFactory runtimeBundleMessageBuilderFactory) {
-        return new CloudProcessDeployedProducer(runtimeBundleInfoAppender,
-                                                processEngineChannels,
-                                                runtimeBundleMessageBuilderFactory);
+                                                                     RuntimeBundleMessageBuilderFactory runtimeBundleMessageBuilderFactory,
+                                                                     ObjectProvider<PublishedProcessModelRegistry> publishedProcessModelRegistry,
+                                                                     RuntimeBundleProperties properties) {
+        CloudProcessDeployedProducer producer = new CloudProcessDeployedProducer(runtimeBundleInfoAppender,
+                                                                                 processEngineChannels,
+                                                                                 runtimeBundleMessageBuilderFactory,
+                                                                                 publishedProcessModelRegistry.getIfAvailable());
+        producer.setPublishUnchangedMarkers(properties.getEventsProperties()
+                                                      .isProcessModelUnchangedMarkersEnabled());
+        return producer;
     }
 
     @Bean
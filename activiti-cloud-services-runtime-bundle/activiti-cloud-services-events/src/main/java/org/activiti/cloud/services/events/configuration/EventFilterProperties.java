@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.configuration;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Include and exclude criteria for engine events. Empty include sets match all values, 
+ * criteria only apply to events carrying the corresponding attribute. 
+ */
+public class EventFilterProperties {
+
+    private boolean enabled = false;
+
+    private Set<String> includeEventTypes = new HashSet<>();
+
+    private Set<String> excludeEventTypes = new HashSet<>();
+
+    private Set<String> includeProcessDefinitionKeys = new HashSet<>();
+
+    private Set<String> excludeProcessDefinitionKeys = new HashSet<>();
+
+    private Set<String> includeElementTypes = new HashSet<>();
+
+    private Set<String> excludeElementTypes = new HashSet<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Set<String> getIncludeEventTypes() {
+        return includeEventTypes;
+    }
+
+    public void setIncludeEventTypes(Set<String> includeEventTypes) {
+        this.includeEventTypes = includeEventTypes;
+    }
+
+    public Set<String> getExcludeEventTypes() {
+        return excludeEventTypes;
+    }
+
+    public void setExcludeEventTypes(Set<String> excludeEventTypes) {
+        this.excludeEventTypes = excludeEventTypes;
+    }
+
+    public Set<String> getIncludeProcessDefinitionKeys() {
+        return includeProcessDefinitionKeys;
+    }
+
+    public void setIncludeProcessDefinitionKeys(Set<String> includeProcessDefinitionKeys) {
+        this.includeProcessDefinitionKeys = includeProcessDefinitionKeys;
+    }
+
+    public Set<String> getExcludeProcessDefinitionKeys() {
+        return excludeProcessDefinitionKeys;
+    }
+
+    public void setExcludeProcessDefinitionKeys(Set<String> excludeProcessDefinitionKeys) {
+        this.excludeProcessDefinitionKeys = excludeProcessDefinitionKeys;
+    }
+
+    public Set<String> getIncludeElementTypes() {
+        return includeElementTypes;
+    }
+
+    public void setIncludeElementTypes(Set<String> includeElementTypes) {
+        this.includeElementTypes = includeElementTypes;
+    }
+
+    public Set<String> getExcludeElementTypes() {
+        return excludeElementTypes;
+    }
+
+    public void setExcludeElementTypes(Set<String> excludeElementTypes) {
+        this.excludeElementTypes = excludeElementTypes;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class EventThrottleProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Ratio of events to keep by event type, i.e. SEQUENCE_FLOW_TAKEN=0.01. Other event types are always kept.
+     */
+    private Map<String, Double> samplingRates = new HashMap<>();
+
+    /**
+     * Events per second allowed for each process definition key, 0 disables rate limiting
+     */
+    private double rateLimitPerSecond = 0;
+
+    private int rateLimitBurst = 1000;
+
+    /**
+     * Process definition keys rate limited at the same time, least recently used keys are evicted beyond that
+     */
+    private int rateLimitMaxKeys = 10000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Map<String, Double> getSamplingRates() {
+        return samplingRates;
+    }
+
+    public void setSamplingRates(Map<String, Double> samplingRates) {
+        this.samplingRates = samplingRates;
+    }
+
+    public double getRateLimitPerSecond() {
+        return rateLimitPerSecond;
+    }
+
+    public void setRateLimitPerSecond(double rateLimitPerSecond) {
+        this.rateLimitPerSecond = rateLimitPerSecond;
+    }
+
+    public int getRateLimitBurst() {
+        return rateLimitBurst;
+    }
+
+    public void setRateLimitBurst(int rateLimitBurst) {
+        this.rateLimitBurst = rateLimitBurst;
+    }
+
+    public int getRateLimitMaxKeys() {
+        return rateLimitMaxKeys;
+    }
+
+    public void setRateLimitMaxKeys(int rateLimitMaxKeys) {
+        this.rateLimitMaxKeys = rateLimitMaxKeys;
+    }
+}
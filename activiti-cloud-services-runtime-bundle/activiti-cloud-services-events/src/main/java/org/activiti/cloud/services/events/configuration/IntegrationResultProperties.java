@@ -0,0 +1,112 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.cloud.services.events.configuration;
+
+import java.time.Duration;
+
+public class IntegrationResultProperties {
+
+    private boolean parallelEnabled = false;
+
+    private int concurrency = 4;
+
+    private int queueCapacity = 1000;
+
+    private Duration shutdownTimeout = Duration.ofSeconds(30);
+
+    private int maxLockRetries = 3;
+
+    private boolean singleCommandEnabled = false;
+
+    private boolean batchEnabled = false;
+
+    private int batchSize = 100;
+
+    private Duration batchTimeout = Duration.ofMillis(100);
+
+    public boolean isParallelEnabled() {
+        return parallelEnabled;
+    }
+
+    public void setParallelEnabled(boolean parallelEnabled) {
+        this.parallelEnabled = parallelEnabled;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public Duration getShutdownTimeout() {
+        return shutdownTimeout;
+    }
+
+    public void setShutdownTimeout(Duration shutdownTimeout) {
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    public int getMaxLockRetries() {
+        return maxLockRetries;
+    }
+
+    public void setMaxLockRetries(int maxLockRetries) {
+        this.maxLockRetries = maxLockRetries;
+    }
+
+    public boolean isSingleCommandEnabled() {
+        return singleCommandEnabled;
+    }
+
+    public void setSingleCommandEnabled(boolean singleCommandEnabled) {
+        this.singleCommandEnabled = singleCommandEnabled;
+    }
+
+    public boolean isBatchEnabled() {
+        return batchEnabled;
+    }
+
+    public void setBatchEnabled(boolean batchEnabled) {
+        this.batchEnabled = batchEnabled;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getBatchTimeout() {
+        return batchTimeout;
+    }
+
+    public void setBatchTimeout(Duration batchTimeout) {
+        this.batchTimeout = batchTimeout;
+    }
+}
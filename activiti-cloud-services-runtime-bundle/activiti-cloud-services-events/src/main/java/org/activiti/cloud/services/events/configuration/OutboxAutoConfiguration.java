@@ -0,0 +1,88 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.cloud.services.events.configuration;
+
+import javax.sql.DataSource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.activiti.cloud.services.events.jdbc.PlatformSchemaInitializer;
+import org.activiti.cloud.services.events.outbox.MessageOutbox;
+import org.activiti.cloud.services.events.outbox.OutboxMessageRepository;
+import org.activiti.cloud.services.events.outbox.OutboxProperties;
+import org.activiti.cloud.services.events.outbox.OutboxRelay;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.stream.binding.BinderAwareChannelResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(name = "activiti.cloud.runtime-bundle.outbox.enabled", havingValue = "true")
+public class OutboxAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConfigurationProperties(prefix = "activiti.cloud.runtime-bundle.outbox")
+    public OutboxProperties outboxProperties() {
+        return new OutboxProperties();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = "outboxSchemaInitializer")
+    @ConditionalOnProperty(name = "activiti.cloud.runtime-bundle.outbox.initialize-schema", havingValue = "true", matchIfMissing = true)
+    public PlatformSchemaInitializer outboxSchemaInitializer(DataSource dataSource) {
+        return new PlatformSchemaInitializer(dataSource,
+                                             OutboxMessageRepository.SCHEMA_LOCATION,
+                                             OutboxMessageRepository.TABLE_NAME);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public OutboxMessageRepository outboxMessageRepository(DataSource dataSource,
+                                                           @Qualifier("outboxSchemaInitializer") ObjectProvider<PlatformSchemaInitializer> outboxSchemaInitializer) {
+        outboxSchemaInitializer.getIfAvailable();
+
+        return new OutboxMessageRepository(dataSource);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public MessageOutbox messageOutbox(OutboxMessageRepository outboxMessageRepository,
+                                       ObjectProvider<ObjectMapper> objectMapper) {
+        return new MessageOutbox(outboxMessageRepository,
+                                 objectMapper.getIfAvailable(ObjectMapper::new));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public OutboxRelay outboxRelay(OutboxMessageRepository outboxMessageRepository,
+                                   BinderAwareChannelResolver resolver,
+                                   ObjectProvider<ObjectMapper> objectMapper,
+                                   OutboxProperties outboxProperties,
+                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        return new OutboxRelay(outboxMessageRepository,
+                               resolver,
+                               objectMapper.getIfAvailable(ObjectMapper::new),
+                               outboxProperties,
+                               meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+}
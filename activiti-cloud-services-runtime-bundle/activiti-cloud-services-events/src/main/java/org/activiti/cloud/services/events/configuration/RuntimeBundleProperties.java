@@ -92,6 +92,40 @@ public class RuntimeBundleProperties {
 
         private boolean integrationAuditEventsEnabled = true;
 
+        private boolean integrationRequestBatchingEnabled = false;
+
+        private boolean transactionAggregationEnabled = false;
+
+        private int transactionAggregationMaxEvents = 500;
+
+        private boolean executionContextPrefetchEnabled = false;
+
+        private boolean groupByProcessInstanceEnabled = false;
+
+        private boolean processDefinitionHeadersCacheEnabled = true;
+
+        private int processDefinitionHeadersCacheSize = 1000;
+
+        private boolean destinationCacheEnabled = false;
+
+        private boolean compressionEnabled = false;
+
+        private int compressionThreshold = 64 * 1024;
+
+        private boolean processModelTrackingEnabled = false;
+
+        private boolean processModelTrackingInitializeSchema = true;
+
+        private boolean processModelUnchangedMarkersEnabled = false;
+
+        private AsyncPublisherProperties asyncPublisher = new AsyncPublisherProperties();
+
+        private EventFilterProperties filter = new EventFilterProperties();
+
+        private EventThrottleProperties throttle = new EventThrottleProperties();
+
+        private IntegrationResultProperties integrationResults = new IntegrationResultProperties();
+
         public boolean isIntegrationAuditEventsEnabled() {
             return integrationAuditEventsEnabled;
         }
@@ -99,5 +133,141 @@ public class RuntimeBundleProperties {
         public void setIntegrationAuditEventsEnabled(boolean integrationAuditEventsEnabled) {
             this.integrationAuditEventsEnabled = integrationAuditEventsEnabled;
         }
+
+        public boolean isIntegrationRequestBatchingEnabled() {
+            return integrationRequestBatchingEnabled;
+        }
+
+        public void setIntegrationRequestBatchingEnabled(boolean integrationRequestBatchingEnabled) {
+            this.integrationRequestBatchingEnabled = integrationRequestBatchingEnabled;
+        }
+
+        public boolean isTransactionAggregationEnabled() {
+            return transactionAggregationEnabled;
+        }
+
+        public void setTransactionAggregationEnabled(boolean transactionAggregationEnabled) {
+            this.transactionAggregationEnabled = transactionAggregationEnabled;
+        }
+
+        public int getTransactionAggregationMaxEvents() {
+            return transactionAggregationMaxEvents;
+        }
+
+        public void setTransactionAggregationMaxEvents(int transactionAggregationMaxEvents) {
+            this.transactionAggregationMaxEvents = transactionAggregationMaxEvents;
+        }
+
+        public boolean isExecutionContextPrefetchEnabled() {
+            return executionContextPrefetchEnabled;
+        }
+
+        public void setExecutionContextPrefetchEnabled(boolean executionContextPrefetchEnabled) {
+            this.executionContextPrefetchEnabled = executionContextPrefetchEnabled;
+        }
+
+        public boolean isGroupByProcessInstanceEnabled() {
+            return groupByProcessInstanceEnabled;
+        }
+
+        public void setGroupByProcessInstanceEnabled(boolean groupByProcessInstanceEnabled) {
+            this.groupByProcessInstanceEnabled = groupByProcessInstanceEnabled;
+        }
+
+        public boolean isProcessDefinitionHeadersCacheEnabled() {
+            return processDefinitionHeadersCacheEnabled;
+        }
+
+        public void setProcessDefinitionHeadersCacheEnabled(boolean processDefinitionHeadersCacheEnabled) {
+            this.processDefinitionHeadersCacheEnabled = processDefinitionHeadersCacheEnabled;
+        }
+
+        public int getProcessDefinitionHeadersCacheSize() {
+            return processDefinitionHeadersCacheSize;
+        }
+
+        public void setProcessDefinitionHeadersCacheSize(int processDefinitionHeadersCacheSize) {
+            this.processDefinitionHeadersCacheSize = processDefinitionHeadersCacheSize;
+        }
+
+        public boolean isDestinationCacheEnabled() {
+            return destinationCacheEnabled;
+        }
+
+        public void setDestinationCacheEnabled(boolean destinationCacheEnabled) {
+            this.destinationCacheEnabled = destinationCacheEnabled;
+        }
+
+        public boolean isCompressionEnabled() {
+            return compressionEnabled;
+        }
+
+        public void setCompressionEnabled(boolean compressionEnabled) {
+            this.compressionEnabled = compressionEnabled;
+        }
+
+        public int getCompressionThreshold() {
+            return compressionThreshold;
+        }
+
+        public void setCompressionThreshold(int compressionThreshold) {
+            this.compressionThreshold = compressionThreshold;
+        }
+
+        public boolean isProcessModelTrackingEnabled() {
+            return processModelTrackingEnabled;
+        }
+
+        public void setProcessModelTrackingEnabled(boolean processModelTrackingEnabled) {
+            this.processModelTrackingEnabled = processModelTrackingEnabled;
+        }
+
+        public boolean isProcessModelTrackingInitializeSchema() {
+            return processModelTrackingInitializeSchema;
+        }
+
+        public void setProcessModelTrackingInitializeSchema(boolean processModelTrackingInitializeSchema) {
+            this.processModelTrackingInitializeSchema = processModelTrackingInitializeSchema;
+        }
+
+        public boolean isProcessModelUnchangedMarkersEnabled() {
+            return processModelUnchangedMarkersEnabled;
+        }
+
+        public void setProcessModelUnchangedMarkersEnabled(boolean processModelUnchangedMarkersEnabled) {
+            this.processModelUnchangedMarkersEnabled = processModelUnchangedMarkersEnabled;
+        }
+
+        public AsyncPublisherProperties getAsyncPublisher() {
+            return asyncPublisher;
+        }
+
+        public void setAsyncPublisher(AsyncPublisherProperties asyncPublisher) {
+            this.asyncPublisher = asyncPublisher;
+        }
+
+        public EventFilterProperties getFilter() {
+            return filter;
+        }
+
+        public void setFilter(EventFilterProperties filter) {
+            this.filter = filter;
+        }
+
+        public EventThrottleProperties getThrottle() {
+            return throttle;
+        }
+
+        public void setThrottle(EventThrottleProperties throttle) {
+            this.throttle = throttle;
+        }
+
+        public IntegrationResultProperties getIntegrationResults() {
+            return integrationResults;
+        }
+
+        public void setIntegrationResults(IntegrationResultProperties integrationResults) {
+            this.integrationResults = integrationResults;
+        }
     }
 }
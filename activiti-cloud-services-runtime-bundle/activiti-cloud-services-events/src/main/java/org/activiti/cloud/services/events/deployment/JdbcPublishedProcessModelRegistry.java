@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.deployment;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+/**
+ * Stores published process model content hashes in <code>ACT_CLOUD_PUBLISHED_MODEL</code> table, 
+ * shared by all runtime bundle replicas of the same database.
+ */
+public class JdbcPublishedProcessModelRegistry implements PublishedProcessModelRegistry {
+
+    public static final String TABLE_NAME = "ACT_CLOUD_PUBLISHED_MODEL";
+
+    public static final String SCHEMA_LOCATION = "org/activiti/cloud/services/events/deployment/schema-@@platform@@.sql";
+
+    private static final String SELECT = "SELECT PROC_DEF_ID_, CONTENT_HASH_ FROM " + TABLE_NAME + " WHERE PROC_DEF_ID_ IN (:ids)";
+    private static final String UPDATE = "UPDATE " + TABLE_NAME + " SET CONTENT_HASH_ = ? WHERE PROC_DEF_ID_ = ?";
+    private static final String INSERT = "INSERT INTO " + TABLE_NAME + " (PROC_DEF_ID_, CONTENT_HASH_) VALUES (?, ?)";
+
+    // Keeps IN clauses within the limits of all supported databases
+    private static final int MAX_IDS_PER_QUERY = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public JdbcPublishedProcessModelRegistry(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    @Override
+    public Map<String, String> findContentHashes(Collection<String> processDefinitionIds) {
+        Map<String, String> contentHashes = new HashMap<>();
+        List<String> ids = new ArrayList<>(processDefinitionIds);
+
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+            MapSqlParameterSource parameters = new MapSqlParameterSource("ids", ids.subList(from, Math.min(from + MAX_IDS_PER_QUERY, ids.size())));
+
+            namedParameterJdbcTemplate.query(SELECT,
+                                             parameters,
+                                             (RowCallbackHandler) rs -> contentHashes.put(rs.getString("PROC_DEF_ID_"),
+                                                                                          rs.getString("CONTENT_HASH_")));
+        }
+
+        return contentHashes;
+    }
+
+    @Override
+    public void saveContentHashes(Map<String, String> contentHashes) {
+        List<Object[]> updates = new ArrayList<>();
+        contentHashes.forEach((processDefinitionId, contentHash) -> updates.add(new Object[]{contentHash, processDefinitionId}));
+
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE, updates);
+
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                insert((String) updates.get(i)[1], (String) updates.get(i)[0]);
+            }
+        }
+    }
+
+    private void insert(String processDefinitionId, String contentHash) {
+        try {
+            jdbcTemplate.update(INSERT, processDefinitionId, contentHash);
+        } catch (DuplicateKeyException cause) {
+            // Another replica has published the same model concurrently
+            jdbcTemplate.update(UPDATE, contentHash, processDefinitionId);
+        }
+    }
+}
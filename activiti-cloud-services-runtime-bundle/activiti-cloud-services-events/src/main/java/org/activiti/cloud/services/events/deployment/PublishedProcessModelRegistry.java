@@ -0,0 +1,33 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.deployment;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Keeps track of content hashes of process models already published to the audit producer, 
+ * so that unchanged models are not republished by every runtime bundle startup.
+ */
+public interface PublishedProcessModelRegistry {
+
+    /**
+     * @return content hashes of already published models by process definition id
+     */
+    Map<String, String> findContentHashes(Collection<String> processDefinitionIds);
+
+    void saveContentHashes(Map<String, String> contentHashes);
+}
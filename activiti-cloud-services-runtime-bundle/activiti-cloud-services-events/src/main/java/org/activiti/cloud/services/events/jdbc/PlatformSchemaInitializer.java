@@ -0,0 +1,72 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.jdbc;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+/**
+ * Creates a table on startup using the <code>schema-{platform}.sql</code> script for the database in use, 
+ * e.g. <code>org/activiti/cloud/services/events/outbox/schema-@@platform@@.sql</code>.
+ * 
+ * The initializer is an optional bean, so beans using the table resolve it through an <code>ObjectProvider</code> 
+ * to make sure the table exists before it is used.
+ */
+public class PlatformSchemaInitializer implements InitializingBean {
+
+    public static final String PLATFORM_PLACEHOLDER = "@@platform@@";
+
+    private final DataSource dataSource;
+    private final String scriptLocation;
+    private final String tableName;
+
+    public PlatformSchemaInitializer(DataSource dataSource,
+                                     String scriptLocation,
+                                     String tableName) {
+        this.dataSource = dataSource;
+        this.scriptLocation = scriptLocation;
+        this.tableName = tableName;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        ClassPathResource schema = new ClassPathResource(scriptLocation.replace(PLATFORM_PLACEHOLDER, getPlatform(dataSource)));
+
+        if (!schema.exists()) {
+            throw new IllegalStateException("Schema " + schema.getPath() + " is not available, "
+                                            + "please create " + tableName + " table and disable its schema initialization");
+        }
+
+        DatabasePopulatorUtils.execute(new ResourceDatabasePopulator(schema), dataSource);
+    }
+
+    public static String getPlatform(DataSource dataSource) {
+        try {
+            String url = JdbcUtils.extractDatabaseMetaData(dataSource, "getURL");
+
+            return DatabaseDriver.fromJdbcUrl(url).getId();
+        } catch (MetaDataAccessException cause) {
+            throw new IllegalStateException("Unable to detect database platform", cause);
+        }
+    }
+}
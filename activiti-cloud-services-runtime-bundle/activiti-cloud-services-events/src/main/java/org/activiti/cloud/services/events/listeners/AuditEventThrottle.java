@@ -0,0 +1,147 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.listeners;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
+import org.activiti.cloud.services.events.configuration.EventThrottleProperties;
+import org.springframework.util.Assert;
+
+/**
+ * Sheds audit events in two stages: events of sampled types are kept with the configured probability, 
+ * remaining events are then admitted by a token bucket per process definition key, so that a runaway 
+ * process model cannot flood the audit producer. Token buckets of at most <code>rateLimitMaxKeys</code> 
+ * process definition keys are kept, evicting the least recently used ones.
+ * 
+ * Dropped events are counted by <code>activiti.audit.events.dropped</code> with <code>reason</code> 
+ * and <code>eventType</code> tags, kept events of sampled types by <code>activiti.audit.events.sampled</code>. 
+ */
+public class AuditEventThrottle {
+
+    public static final String DROPPED_EVENTS = "activiti.audit.events.dropped";
+
+    public static final String SAMPLED_EVENTS = "activiti.audit.events.sampled";
+
+    public static final String SAMPLING = "sampling";
+
+    public static final String RATE_LIMIT = "rate-limit";
+
+    private static final String UNKNOWN = "UNKNOWN";
+
+    private final Map<String, Double> samplingRates;
+    private final double rateLimitPerSecond;
+    private final int rateLimitBurst;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, TokenBucket> tokenBuckets;
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public AuditEventThrottle(EventThrottleProperties properties,
+                              MeterRegistry meterRegistry) {
+        Assert.isTrue(properties.getRateLimitPerSecond() >= 0, "rateLimitPerSecond must not be negative");
+        Assert.isTrue(properties.getRateLimitBurst() > 0, "rateLimitBurst must be greater than 0");
+        Assert.isTrue(properties.getRateLimitMaxKeys() > 0, "rateLimitMaxKeys must be greater than 0");
+
+        this.samplingRates = new HashMap<>(properties.getSamplingRates());
+        this.rateLimitPerSecond = properties.getRateLimitPerSecond();
+        this.rateLimitBurst = properties.getRateLimitBurst();
+        this.meterRegistry = meterRegistry;
+        this.tokenBuckets = lruMap(properties.getRateLimitMaxKeys());
+    }
+
+    /**
+     * @return true if event should be published, false if it has been dropped 
+     */
+    public boolean tryAcquire(CloudRuntimeEvent<?, ?> event) {
+        String eventType = event.getEventType() != null ? event.getEventType().name() : UNKNOWN;
+
+        Double samplingRate = samplingRates.get(eventType);
+
+        if (samplingRate != null) {
+            if (samplingRate < 1 && ThreadLocalRandom.current().nextDouble() >= samplingRate) {
+                counter(DROPPED_EVENTS, SAMPLING, eventType).increment();
+                return false;
+            }
+
+            counter(SAMPLED_EVENTS, null, eventType).increment();
+        }
+
+        if (rateLimitPerSecond > 0) {
+            String processDefinitionKey = ProcessDefinitionKeyResolver.resolve(event);
+
+            if (processDefinitionKey != null && !tokenBuckets.computeIfAbsent(processDefinitionKey, key -> new TokenBucket())
+                                                             .tryConsume()) {
+                counter(DROPPED_EVENTS, RATE_LIMIT, eventType).increment();
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    int getTokenBucketCount() {
+        return tokenBuckets.size();
+    }
+
+    private static <K, V> Map<K, V> lruMap(int maxSize) {
+        return Collections.synchronizedMap(new LinkedHashMap<K, V>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    private Counter counter(String name, String reason, String eventType) {
+        return counters.computeIfAbsent(name + ":" + reason + ":" + eventType,
+                                        key -> reason != null ? meterRegistry.counter(name, "reason", reason, "eventType", eventType)
+                                                              : meterRegistry.counter(name, "eventType", eventType));
+    }
+
+    class TokenBucket {
+
+        private final double tokensPerNano = rateLimitPerSecond / TimeUnit.SECONDS.toNanos(1);
+
+        private double tokens = rateLimitBurst;
+        private long lastRefill = System.nanoTime();
+
+        synchronized boolean tryConsume() {
+            long now = System.nanoTime();
+
+            tokens = Math.min(rateLimitBurst, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+
+            if (tokens < 1) {
+                return false;
+            }
+
+            tokens--;
+            return true;
+        }
+    }
+}
@@ -33,6 +33,8 @@ public class CloudActivityCancelledProducer implements BPMNElementEventListener<
 
     @Override
     public void onEvent(BPMNActivityCancelledEvent event) {
-        eventsAggregator.add(eventConverter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(eventConverter.from(event));
+        }
     }
 }
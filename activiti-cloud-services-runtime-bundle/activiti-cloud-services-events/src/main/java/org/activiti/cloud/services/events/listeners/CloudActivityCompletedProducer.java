@@ -33,6 +33,8 @@ public class CloudActivityCompletedProducer implements BPMNElementEventListener<
 
     @Override
     public void onEvent(BPMNActivityCompletedEvent event) {
-        eventsAggregator.add(eventConverter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(eventConverter.from(event));
+        }
     }
 }
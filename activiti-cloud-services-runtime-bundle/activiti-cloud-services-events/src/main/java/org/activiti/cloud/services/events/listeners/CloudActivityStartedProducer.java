@@ -33,6 +33,8 @@ public class CloudActivityStartedProducer implements BPMNElementEventListener<BP
 
     @Override
     public void onEvent(BPMNActivityStartedEvent event) {
-        eventsAggregator.add(eventConverter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(eventConverter.from(event));
+        }
     }
 }
@@ -33,6 +33,8 @@ public class CloudErrorReceivedProducer implements BPMNElementEventListener<BPMN
 
     @Override
     public void onEvent(BPMNErrorReceivedEvent event) {
-        eventsAggregator.add(eventConverter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(eventConverter.from(event));
+        }
     }
 }
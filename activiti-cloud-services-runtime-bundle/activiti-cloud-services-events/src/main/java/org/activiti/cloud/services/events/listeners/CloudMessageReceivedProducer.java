@@ -33,6 +33,8 @@ public class CloudMessageReceivedProducer implements BPMNElementEventListener<BP
 
     @Override
     public void onEvent(BPMNMessageReceivedEvent event) {
-        eventsAggregator.add(eventConverter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(eventConverter.from(event));
+        }
     }
 }
@@ -33,6 +33,8 @@ public class CloudMessageSentProducer implements BPMNElementEventListener<BPMNMe
 
     @Override
     public void onEvent(BPMNMessageSentEvent event) {
-        eventsAggregator.add(eventConverter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(eventConverter.from(event));
+        }
     }
 }
@@ -32,6 +32,8 @@ public class CloudMessageSubscriptionCancelledProducer implements ProcessRuntime
    
     @Override
     public void onEvent(MessageSubscriptionCancelledEvent event) {
-        eventsAggregator.add(eventConverter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(eventConverter.from(event));
+        }
     }
 }
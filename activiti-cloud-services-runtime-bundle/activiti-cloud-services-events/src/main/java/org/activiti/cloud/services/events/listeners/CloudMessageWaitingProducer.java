@@ -33,6 +33,8 @@ public class CloudMessageWaitingProducer implements BPMNElementEventListener<BPM
 
     @Override
     public void onEvent(BPMNMessageWaitingEvent event) {
-        eventsAggregator.add(eventConverter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(eventConverter.from(event));
+        }
     }
 }
@@ -33,6 +33,8 @@ public class CloudProcessCancelledProducer implements ProcessEventListener<Proce
 
     @Override
     public void onEvent(ProcessCancelledEvent event) {
-        eventsAggregator.add(eventConverter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(eventConverter.from(event));
+        }
     }
 }
@@ -33,7 +33,9 @@ public class CloudProcessCompletedProducer implements ProcessEventListener<Proce
 
     @Override
     public void onEvent(ProcessCompletedEvent event) {
-        eventsAggregator.add(eventConverter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(eventConverter.from(event));
+        }
     }
 
 }
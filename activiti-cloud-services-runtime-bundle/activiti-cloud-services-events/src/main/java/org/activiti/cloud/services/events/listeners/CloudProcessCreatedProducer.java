@@ -33,6 +33,8 @@ public class CloudProcessCreatedProducer implements ProcessEventListener<Process
 
     @Override
     public void onEvent(ProcessCreatedEvent event) {
-        eventsAggregator.add(eventConverter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(eventConverter.from(event));
+        }
     }
 }
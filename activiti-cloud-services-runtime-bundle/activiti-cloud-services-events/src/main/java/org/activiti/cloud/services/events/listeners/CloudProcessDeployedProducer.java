@@ -13,45 +13,142 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package org.activiti.cloud.services.events.listeners;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.activiti.api.process.model.events.ProcessDeployedEvent;
 import org.activiti.api.runtime.event.impl.ProcessDeployedEvents;
 import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
 import org.activiti.cloud.api.process.model.impl.events.CloudProcessDeployedEventImpl;
 import org.activiti.cloud.services.events.ProcessEngineChannels;
 import org.activiti.cloud.services.events.converter.RuntimeBundleInfoAppender;
+import org.activiti.cloud.services.events.deployment.PublishedProcessModelRegistry;
 import org.activiti.cloud.services.events.message.RuntimeBundleMessageBuilderFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.context.event.EventListener;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.DigestUtils;
 
 public class CloudProcessDeployedProducer {
 
+    private static final Logger logger = LoggerFactory.getLogger(CloudProcessDeployedProducer.class);
+
+    public static final String PROCESS_MODEL_UNCHANGED = "processModelUnchanged";
+
     private RuntimeBundleInfoAppender runtimeBundleInfoAppender;
     private ProcessEngineChannels producer;
     private RuntimeBundleMessageBuilderFactory runtimeBundleMessageBuilderFactory;
+    private PublishedProcessModelRegistry publishedProcessModelRegistry;
+    private boolean publishUnchangedMarkers = false;
 
     public CloudProcessDeployedProducer(RuntimeBundleInfoAppender runtimeBundleInfoAppender,
                                         ProcessEngineChannels producer,
                                         RuntimeBundleMessageBuilderFactory runtimeBundleMessageBuilderFactory) {
+        this(runtimeBundleInfoAppender,
+             producer,
+             runtimeBundleMessageBuilderFactory,
+             null);
+    }
+
+    public CloudProcessDeployedProducer(RuntimeBundleInfoAppender runtimeBundleInfoAppender,
+                                        ProcessEngineChannels producer,
+                                        RuntimeBundleMessageBuilderFactory runtimeBundleMessageBuilderFactory,
+                                        @Nullable PublishedProcessModelRegistry publishedProcessModelRegistry) {
         this.runtimeBundleInfoAppender = runtimeBundleInfoAppender;
         this.producer = producer;
         this.runtimeBundleMessageBuilderFactory = runtimeBundleMessageBuilderFactory;
+        this.publishedProcessModelRegistry = publishedProcessModelRegistry;
     }
 
     @EventListener
     public void sendProcessDeployedEvents(ProcessDeployedEvents processDeployedEvents) {
-        producer.auditProducer().send(
-                runtimeBundleMessageBuilderFactory.create()
-                        .withPayload(
-                                processDeployedEvents.getProcessDeployedEvents()
-                                        .stream()
-                                        .map(processDeployedEvent -> {
-                                            CloudProcessDeployedEventImpl cloudProcessDeployedEvent = new CloudProcessDeployedEventImpl(processDeployedEvent.getEntity());
-                                            cloudProcessDeployedEvent.setProcessModelContent(processDeployedEvent.getProcessModelContent());
-                                            runtimeBundleInfoAppender.appendRuntimeBundleInfoTo(cloudProcessDeployedEvent);
-                                            return cloudProcessDeployedEvent;
-                                        })
-                                        .toArray(CloudRuntimeEvent<?, ?>[]::new))
-                        .build());
+        if (publishedProcessModelRegistry == null) {
+            send(processDeployedEvents.getProcessDeployedEvents(), false);
+            return;
+        }
+
+        Map<String, String> contentHashes = new LinkedHashMap<>();
+        for (ProcessDeployedEvent processDeployedEvent : processDeployedEvents.getProcessDeployedEvents()) {
+            contentHashes.put(processDeployedEvent.getEntity().getId(),
+                              contentHashOf(processDeployedEvent.getProcessModelContent()));
+        }
+
+        Map<String, String> publishedContentHashes = publishedProcessModelRegistry.findContentHashes(contentHashes.keySet());
+
+        List<ProcessDeployedEvent> changed = new ArrayList<>();
+        List<ProcessDeployedEvent> unchanged = new ArrayList<>();
+
+        for (ProcessDeployedEvent processDeployedEvent : processDeployedEvents.getProcessDeployedEvents()) {
+            String processDefinitionId = processDeployedEvent.getEntity().getId();
+
+            if (Objects.equals(contentHashes.get(processDefinitionId), publishedContentHashes.get(processDefinitionId))) {
+                unchanged.add(processDeployedEvent);
+            } else {
+                changed.add(processDeployedEvent);
+            }
+        }
+
+        logger.debug("Publishing {} new or changed process models, {} unchanged", changed.size(), unchanged.size());
+
+        if (!changed.isEmpty()) {
+            send(changed, false);
+
+            Map<String, String> changedContentHashes = new LinkedHashMap<>();
+            changed.forEach(event -> changedContentHashes.put(event.getEntity().getId(),
+                                                              contentHashes.get(event.getEntity().getId())));
+
+            publishedProcessModelRegistry.saveContentHashes(changedContentHashes);
+        }
+
+        if (publishUnchangedMarkers && !unchanged.isEmpty()) {
+            send(unchanged, true);
+        }
+    }
+
+    protected void send(List<ProcessDeployedEvent> processDeployedEvents, boolean unchanged) {
+        CloudRuntimeEvent<?, ?>[] payload = processDeployedEvents.stream()
+                                                                 .map(processDeployedEvent -> toCloudEvent(processDeployedEvent, unchanged))
+                                                                 .toArray(CloudRuntimeEvent<?, ?>[]::new);
+
+        MessageBuilder<CloudRuntimeEvent<?, ?>[]> messageBuilder = runtimeBundleMessageBuilderFactory.create().withPayload(payload);
+        if (unchanged) {
+            messageBuilder.setHeader(PROCESS_MODEL_UNCHANGED, true);
+        }
+
+        producer.auditProducer().send(messageBuilder.build());
+    }
+
+    private CloudRuntimeEvent<?, ?> toCloudEvent(ProcessDeployedEvent processDeployedEvent, boolean unchanged) {
+        CloudProcessDeployedEventImpl cloudProcessDeployedEvent = new CloudProcessDeployedEventImpl(processDeployedEvent.getEntity());
+        // Markers of unchanged models are sent without the model content
+        if (!unchanged) {
+            cloudProcessDeployedEvent.setProcessModelContent(processDeployedEvent.getProcessModelContent());
+        }
+        runtimeBundleInfoAppender.appendRuntimeBundleInfoTo(cloudProcessDeployedEvent);
+        return cloudProcessDeployedEvent;
+    }
+
+    protected String contentHashOf(@Nullable String processModelContent) {
+        return DigestUtils.md5DigestAsHex(processModelContent != null ? processModelContent.getBytes(StandardCharsets.UTF_8) : new byte[0]);
+    }
+
+    /**
+     * Publishes compact markers without model content for unchanged process models 
+     * flagged with <code>processModelUnchanged</code> header, instead of skipping them 
+     */
+    public void setPublishUnchangedMarkers(boolean publishUnchangedMarkers) {
+        this.publishUnchangedMarkers = publishUnchangedMarkers;
+    }
+
+    public boolean isPublishUnchangedMarkers() {
+        return publishUnchangedMarkers;
     }
 }
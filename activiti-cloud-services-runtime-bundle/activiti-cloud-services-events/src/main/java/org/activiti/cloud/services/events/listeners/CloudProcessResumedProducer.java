@@ -33,6 +33,8 @@ public class CloudProcessResumedProducer implements ProcessEventListener<Process
 
     @Override
     public void onEvent(ProcessResumedEvent event) {
-        eventsAggregator.add(eventConverter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(eventConverter.from(event));
+        }
     }
 }
@@ -33,6 +33,8 @@ public class CloudProcessStartedProducer implements ProcessEventListener<Process
 
     @Override
     public void onEvent(ProcessStartedEvent event) {
-        eventsAggregator.add(eventConverter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(eventConverter.from(event));
+        }
     }
 }
@@ -33,7 +33,9 @@ public class CloudProcessSuspendedProducer implements ProcessEventListener<Proce
 
     @Override
     public void onEvent(ProcessSuspendedEvent event) {
-        eventsAggregator.add(eventConverter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(eventConverter.from(event));
+        }
     }
 
 }
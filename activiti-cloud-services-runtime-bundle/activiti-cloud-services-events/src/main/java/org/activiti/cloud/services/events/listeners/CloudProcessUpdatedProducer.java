@@ -33,6 +33,8 @@ public class CloudProcessUpdatedProducer implements ProcessEventListener<Process
 
     @Override
     public void onEvent(ProcessUpdatedEvent event) {
-        eventsAggregator.add(eventConverter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(eventConverter.from(event));
+        }
     }
 }
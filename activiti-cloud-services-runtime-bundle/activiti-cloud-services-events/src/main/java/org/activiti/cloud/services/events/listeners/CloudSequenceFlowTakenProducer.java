@@ -33,6 +33,8 @@ public class CloudSequenceFlowTakenProducer implements BPMNElementEventListener<
 
     @Override
     public void onEvent(BPMNSequenceFlowTakenEvent event) {
-        eventsAggregator.add(eventConverter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(eventConverter.from(event));
+        }
     }
 }
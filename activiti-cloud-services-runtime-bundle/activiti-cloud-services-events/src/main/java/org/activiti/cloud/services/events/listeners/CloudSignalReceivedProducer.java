@@ -33,6 +33,8 @@ public class CloudSignalReceivedProducer implements BPMNElementEventListener<BPM
 
     @Override
     public void onEvent(BPMNSignalReceivedEvent event) {
-        eventsAggregator.add(eventConverter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(eventConverter.from(event));
+        }
     }
 }
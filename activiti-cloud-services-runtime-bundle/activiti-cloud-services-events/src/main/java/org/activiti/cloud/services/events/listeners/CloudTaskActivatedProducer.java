@@ -33,6 +33,8 @@ public class CloudTaskActivatedProducer implements TaskEventListener<TaskActivat
 
     @Override
     public void onEvent(TaskActivatedEvent event) {
-        eventsAggregator.add(converter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(converter.from(event));
+        }
     }
 }
@@ -33,6 +33,8 @@ public class CloudTaskAssignedProducer implements TaskEventListener<TaskAssigned
 
     @Override
     public void onEvent(TaskAssignedEvent event) {
-        eventsAggregator.add(converter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(converter.from(event));
+        }
     }
 }
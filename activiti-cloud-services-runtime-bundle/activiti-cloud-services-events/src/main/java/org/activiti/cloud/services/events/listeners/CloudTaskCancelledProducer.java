@@ -33,6 +33,8 @@ public class CloudTaskCancelledProducer implements TaskEventListener<TaskCancell
 
     @Override
     public void onEvent(TaskCancelledEvent event) {
-        eventsAggregator.add(converter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(converter.from(event));
+        }
     }
 }
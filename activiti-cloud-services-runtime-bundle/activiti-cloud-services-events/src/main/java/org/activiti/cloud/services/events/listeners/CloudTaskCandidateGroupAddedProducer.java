@@ -33,6 +33,8 @@ public class CloudTaskCandidateGroupAddedProducer implements TaskCandidateEventL
 
     @Override
     public void onEvent(TaskCandidateGroupAddedEvent event) {
-        eventsAggregator.add(converter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(converter.from(event));
+        }
     }
 }
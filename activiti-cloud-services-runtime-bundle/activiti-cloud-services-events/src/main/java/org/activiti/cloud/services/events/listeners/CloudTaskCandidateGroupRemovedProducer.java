@@ -33,6 +33,8 @@ public class CloudTaskCandidateGroupRemovedProducer implements TaskCandidateEven
 
     @Override
     public void onEvent(TaskCandidateGroupRemovedEvent event) {
-        eventsAggregator.add(converter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(converter.from(event));
+        }
     }
 }
@@ -33,6 +33,8 @@ public class CloudTaskCandidateUserAddedProducer implements TaskCandidateEventLi
 
     @Override
     public void onEvent(TaskCandidateUserAddedEvent event) {
-        eventsAggregator.add(converter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(converter.from(event));
+        }
     }
 }
@@ -33,6 +33,8 @@ public class CloudTaskCandidateUserRemovedProducer implements TaskCandidateEvent
 
     @Override
     public void onEvent(TaskCandidateUserRemovedEvent event) {
-        eventsAggregator.add(converter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(converter.from(event));
+        }
     }
 }
@@ -33,6 +33,8 @@ public class CloudTaskCompletedProducer implements TaskEventListener<TaskComplet
 
     @Override
     public void onEvent(TaskCompletedEvent event) {
-        eventsAggregator.add(converter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(converter.from(event));
+        }
     }
 }
@@ -33,7 +33,9 @@ public class CloudTaskCreatedProducer implements TaskEventListener<TaskCreatedEv
 
     @Override
     public void onEvent(TaskCreatedEvent event) {
-        eventsAggregator.add(converter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(converter.from(event));
+        }
     }
 
 }
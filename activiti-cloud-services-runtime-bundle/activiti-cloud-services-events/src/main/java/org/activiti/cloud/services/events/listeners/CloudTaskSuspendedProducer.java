@@ -33,6 +33,8 @@ public class CloudTaskSuspendedProducer implements TaskEventListener<TaskSuspend
 
     @Override
     public void onEvent(TaskSuspendedEvent event) {
-        eventsAggregator.add(converter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(converter.from(event));
+        }
     }
 }
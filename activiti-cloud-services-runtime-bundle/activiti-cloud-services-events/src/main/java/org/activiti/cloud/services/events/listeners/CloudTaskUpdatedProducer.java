@@ -33,7 +33,9 @@ public class CloudTaskUpdatedProducer implements TaskEventListener<TaskUpdatedEv
 
     @Override
     public void onEvent(TaskUpdatedEvent event) {
-        eventsAggregator.add(converter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(converter.from(event));
+        }
     }
 
 }
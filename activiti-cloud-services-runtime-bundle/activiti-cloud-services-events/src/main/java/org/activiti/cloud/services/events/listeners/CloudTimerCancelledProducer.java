@@ -33,6 +33,8 @@ public class CloudTimerCancelledProducer implements BPMNElementEventListener<BPM
 
     @Override
     public void onEvent(BPMNTimerCancelledEvent event) {
-        eventsAggregator.add(eventConverter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(eventConverter.from(event));
+        }
     }
 }
@@ -33,6 +33,8 @@ public class CloudTimerExecutedProducer implements BPMNElementEventListener<BPMN
 
     @Override
     public void onEvent(BPMNTimerExecutedEvent event) {
-        eventsAggregator.add(eventConverter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(eventConverter.from(event));
+        }
     }
 }
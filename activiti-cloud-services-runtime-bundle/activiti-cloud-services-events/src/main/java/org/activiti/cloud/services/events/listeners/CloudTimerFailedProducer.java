@@ -33,6 +33,8 @@ public class CloudTimerFailedProducer implements BPMNElementEventListener<BPMNTi
 
     @Override
     public void onEvent(BPMNTimerFailedEvent event) {
-        eventsAggregator.add(eventConverter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(eventConverter.from(event));
+        }
     }
 }
@@ -33,6 +33,8 @@ public class CloudTimerFiredProducer implements BPMNElementEventListener<BPMNTim
 
     @Override
     public void onEvent(BPMNTimerFiredEvent event) {
-        eventsAggregator.add(eventConverter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(eventConverter.from(event));
+        }
     }
 }
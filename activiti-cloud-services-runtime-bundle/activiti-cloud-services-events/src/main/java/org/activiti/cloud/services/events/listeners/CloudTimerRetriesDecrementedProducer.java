@@ -33,6 +33,8 @@ public class CloudTimerRetriesDecrementedProducer implements BPMNElementEventLis
 
     @Override
     public void onEvent(BPMNTimerRetriesDecrementedEvent event) {
-        eventsAggregator.add(eventConverter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(eventConverter.from(event));
+        }
     }
 }
@@ -33,6 +33,8 @@ public class CloudTimerScheduledProducer implements BPMNElementEventListener<BPM
 
     @Override
     public void onEvent(BPMNTimerScheduledEvent event) {
-        eventsAggregator.add(eventConverter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(eventConverter.from(event));
+        }
     }
 }
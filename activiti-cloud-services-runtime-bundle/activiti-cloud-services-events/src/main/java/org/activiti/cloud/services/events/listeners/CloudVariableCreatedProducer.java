@@ -33,7 +33,9 @@ public class CloudVariableCreatedProducer implements VariableEventListener<Varia
 
     @Override
     public void onEvent(VariableCreatedEvent event) {
-        eventsAggregator.add(converter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(converter.from(event));
+        }
     }
 
 }
@@ -33,6 +33,8 @@ public class CloudVariableDeletedProducer implements VariableEventListener<Varia
 
     @Override
     public void onEvent(VariableDeletedEvent event) {
-        eventsAggregator.add(converter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(converter.from(event));
+        }
     }
 }
@@ -33,7 +33,9 @@ public class CloudVariableUpdatedProducer implements VariableEventListener<Varia
 
     @Override
     public void onEvent(VariableUpdatedEvent event) {
-        eventsAggregator.add(converter.from(event));
+        if (!eventsAggregator.isFiltered(event)) {
+            eventsAggregator.add(converter.from(event));
+        }
     }
 
 }
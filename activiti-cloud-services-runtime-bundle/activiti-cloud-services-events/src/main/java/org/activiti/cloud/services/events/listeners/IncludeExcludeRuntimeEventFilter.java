@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.listeners;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.activiti.api.model.shared.event.RuntimeEvent;
+import org.activiti.api.process.model.BPMNActivity;
+import org.activiti.api.process.model.BPMNSequenceFlow;
+import org.activiti.cloud.services.events.configuration.EventFilterProperties;
+
+/**
+ * Filters engine events by event type, process definition key and BPMN element type using only 
+ * attributes available on the engine event itself, so that no execution context lookup is needed. 
+ * 
+ * @see ProcessDefinitionKeyResolver
+ */
+public class IncludeExcludeRuntimeEventFilter implements RuntimeEventFilter {
+
+    public static final String SEQUENCE_FLOW = "sequenceFlow";
+
+    private final Set<String> includeEventTypes;
+    private final Set<String> excludeEventTypes;
+    private final Set<String> includeProcessDefinitionKeys;
+    private final Set<String> excludeProcessDefinitionKeys;
+    private final Set<String> includeElementTypes;
+    private final Set<String> excludeElementTypes;
+
+    public IncludeExcludeRuntimeEventFilter(EventFilterProperties properties) {
+        this.includeEventTypes = new HashSet<>(properties.getIncludeEventTypes());
+        this.excludeEventTypes = new HashSet<>(properties.getExcludeEventTypes());
+        this.includeProcessDefinitionKeys = new HashSet<>(properties.getIncludeProcessDefinitionKeys());
+        this.excludeProcessDefinitionKeys = new HashSet<>(properties.getExcludeProcessDefinitionKeys());
+        this.includeElementTypes = new HashSet<>(properties.getIncludeElementTypes());
+        this.excludeElementTypes = new HashSet<>(properties.getExcludeElementTypes());
+    }
+
+    @Override
+    public boolean accept(RuntimeEvent<?, ?> event) {
+        return matches(event.getEventType() != null ? event.getEventType().name() : null,
+                       includeEventTypes,
+                       excludeEventTypes)
+               && matches(resolveElementType(event),
+                          includeElementTypes,
+                          excludeElementTypes)
+               && (includeProcessDefinitionKeys.isEmpty() && excludeProcessDefinitionKeys.isEmpty()
+                   || matches(resolveProcessDefinitionKey(event),
+                              includeProcessDefinitionKeys,
+                              excludeProcessDefinitionKeys));
+    }
+
+    private boolean matches(String value, Set<String> includes, Set<String> excludes) {
+        if (value == null) {
+            return true;
+        }
+
+        return (includes.isEmpty() || includes.contains(value)) && !excludes.contains(value);
+    }
+
+    protected String resolveElementType(RuntimeEvent<?, ?> event) {
+        Object entity = event.getEntity();
+
+        if (entity instanceof BPMNActivity) {
+            return ((BPMNActivity) entity).getActivityType();
+        } else if (entity instanceof BPMNSequenceFlow) {
+            return SEQUENCE_FLOW;
+        }
+
+        return null;
+    }
+
+    protected String resolveProcessDefinitionKey(RuntimeEvent<?, ?> event) {
+        return ProcessDefinitionKeyResolver.resolve(event);
+    }
+}
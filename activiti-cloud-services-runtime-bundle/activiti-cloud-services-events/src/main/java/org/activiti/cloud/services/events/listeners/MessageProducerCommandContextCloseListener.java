@@ -16,16 +16,21 @@
 
 package org.activiti.cloud.services.events.listeners;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
 import org.activiti.cloud.api.model.shared.impl.events.CloudRuntimeEventImpl;
 import org.activiti.cloud.services.events.ProcessEngineChannels;
 import org.activiti.cloud.services.events.converter.RuntimeBundleInfoAppender;
+import org.activiti.cloud.services.events.message.AsyncAuditMessagePublisher;
 import org.activiti.cloud.services.events.message.MessageBuilderChainFactory;
 import org.activiti.engine.impl.context.ExecutionContext;
 import org.activiti.engine.impl.interceptor.CommandContext;
 import org.activiti.engine.impl.interceptor.CommandContextCloseListener;
+import org.springframework.lang.Nullable;
 import org.springframework.messaging.Message;
 import org.springframework.util.Assert;
 
@@ -36,10 +41,19 @@ public class MessageProducerCommandContextCloseListener implements CommandContex
     private final ProcessEngineChannels producer;
     private final MessageBuilderChainFactory<ExecutionContext> messageBuilderChainFactory;
     private final RuntimeBundleInfoAppender runtimeBundleInfoAppender;
+    private final AsyncAuditMessagePublisher asyncPublisher;
+    private boolean groupByProcessInstance = false;
     
     public MessageProducerCommandContextCloseListener(ProcessEngineChannels producer,
             MessageBuilderChainFactory<ExecutionContext> messageBuilderChainFactory,
             RuntimeBundleInfoAppender runtimeBundleInfoAppender ) {
+        this(producer, messageBuilderChainFactory, runtimeBundleInfoAppender, null);
+    }
+
+    public MessageProducerCommandContextCloseListener(ProcessEngineChannels producer,
+            MessageBuilderChainFactory<ExecutionContext> messageBuilderChainFactory,
+            RuntimeBundleInfoAppender runtimeBundleInfoAppender,
+            @Nullable AsyncAuditMessagePublisher asyncPublisher) {
         Assert.notNull(producer,
                        "producer must not be null");
         Assert.notNull(messageBuilderChainFactory,
@@ -50,6 +64,7 @@ public class MessageProducerCommandContextCloseListener implements CommandContex
         this.producer = producer;
         this.messageBuilderChainFactory = messageBuilderChainFactory;
         this.runtimeBundleInfoAppender = runtimeBundleInfoAppender;
+        this.asyncPublisher = asyncPublisher;
     }
     
     @Override
@@ -65,10 +80,64 @@ public class MessageProducerCommandContextCloseListener implements CommandContex
                                                       .map(runtimeBundleInfoAppender::appendRuntimeBundleInfoTo)
                                                       .toArray(CloudRuntimeEvent<?, ?>[]::new);
 
-            // Inject message headers with null execution context as there may be events from several process instances
-            Message<CloudRuntimeEvent<?, ?>[]> message = messageBuilderChainFactory.create(null)
-                                                                                   .withPayload(payload)
-                                                                                   .build();
+            if (groupByProcessInstance) {
+                // Let's send one message per process instance with its execution context headers 
+                groupByProcessInstance(payload).forEach((processInstanceId, group) -> {
+                    ExecutionContext executionContext = processInstanceId != null ? commandContext.getGenericAttribute(processInstanceId) : null;
+
+                    sendAuditMessage(group.toArray(new CloudRuntimeEvent<?, ?>[0]),
+                                     executionContext);
+                });
+            } else {
+                sendAuditMessage(payload);
+            }
+        }
+    }
+
+    protected void sendAuditMessage(CloudRuntimeEvent<?, ?>[] payload) {
+        // Inject message headers with null execution context as there may be events from several process instances
+        sendAuditMessage(payload, null);
+    }
+
+    protected void sendAuditMessage(CloudRuntimeEvent<?, ?>[] payload, @Nullable ExecutionContext executionContext) {
+        send(buildAuditMessage(payload, executionContext));
+    }
+
+    protected Message<CloudRuntimeEvent<?, ?>[]> buildAuditMessage(CloudRuntimeEvent<?, ?>[] payload, @Nullable ExecutionContext executionContext) {
+        return messageBuilderChainFactory.create(executionContext)
+                                         .withPayload(payload)
+                                         .build();
+    }
+
+    protected Map<String, List<CloudRuntimeEvent<?, ?>>> groupByProcessInstance(CloudRuntimeEvent<?, ?>[] payload) {
+        // Keeps event order within and across groups, events without process instance go into null group
+        Map<String, List<CloudRuntimeEvent<?, ?>>> groups = new LinkedHashMap<>();
+
+        for (CloudRuntimeEvent<?, ?> event : payload) {
+            groups.computeIfAbsent(event.getProcessInstanceId(), key -> new ArrayList<>())
+                  .add(event);
+        }
+
+        return groups;
+    }
+
+    /**
+     * Sends audit events grouped by process instance, one message per process instance, 
+     * instead of one message per command context
+     */
+    public void setGroupByProcessInstance(boolean groupByProcessInstance) {
+        this.groupByProcessInstance = groupByProcessInstance;
+    }
+
+    public boolean isGroupByProcessInstance() {
+        return groupByProcessInstance;
+    }
+
+    protected void send(Message<CloudRuntimeEvent<?, ?>[]> message) {
+        if (asyncPublisher != null) {
+            // Hand message over to audit sender threads
+            asyncPublisher.publish(message);
+        } else {
             // Send message to audit producer channel
             producer.auditProducer().send(message);
         }
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.cloud.services.events.listeners;
+
+import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
+import org.activiti.cloud.services.events.ProcessEngineChannels;
+import org.activiti.cloud.services.events.converter.RuntimeBundleInfoAppender;
+import org.activiti.cloud.services.events.message.MessageBuilderChainFactory;
+import org.activiti.cloud.services.events.outbox.MessageOutbox;
+import org.activiti.engine.impl.context.ExecutionContext;
+import org.springframework.messaging.Message;
+import org.springframework.util.Assert;
+
+/**
+ * Writes audit messages into the outbox within the engine transaction instead of sending them to the broker. 
+ */
+public class OutboxMessageProducerCommandContextCloseListener extends MessageProducerCommandContextCloseListener {
+
+    private final MessageOutbox outbox;
+
+    public OutboxMessageProducerCommandContextCloseListener(ProcessEngineChannels producer,
+                                                            MessageBuilderChainFactory<ExecutionContext> messageBuilderChainFactory,
+                                                            RuntimeBundleInfoAppender runtimeBundleInfoAppender,
+                                                            MessageOutbox outbox) {
+        super(producer,
+              messageBuilderChainFactory,
+              runtimeBundleInfoAppender);
+        Assert.notNull(outbox,
+                       "outbox must not be null");
+
+        this.outbox = outbox;
+    }
+
+    @Override
+    protected void send(Message<CloudRuntimeEvent<?, ?>[]> message) {
+        outbox.append(ProcessEngineChannels.AUDIT_PRODUCER, message);
+    }
+}
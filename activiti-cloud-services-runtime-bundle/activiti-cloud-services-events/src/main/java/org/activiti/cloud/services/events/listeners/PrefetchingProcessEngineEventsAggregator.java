@@ -0,0 +1,126 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.cloud.services.events.listeners;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
+import org.activiti.engine.impl.ProcessInstanceQueryImpl;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.interceptor.CommandContextCloseListener;
+import org.activiti.engine.impl.persistence.cache.EntityCache;
+import org.activiti.engine.impl.persistence.entity.ExecutionEntityImpl;
+
+/**
+ * Defers execution context resolution until the command context is closing, so that all process instances 
+ * referenced by buffered events are loaded with a few bulk queries instead of one query per instance. 
+ * 
+ * Loaded process instances go into the command context entity cache, so that subsequent lookups 
+ * of execution contexts do not hit the database. Process definitions come from the deployment cache.
+ */
+public class PrefetchingProcessEngineEventsAggregator extends ProcessEngineEventsAggregator {
+
+    private static final int PREFETCH_BATCH_SIZE = 500;
+
+    private final ExecutionContextPrefetchCloseListener prefetchCloseListener = new ExecutionContextPrefetchCloseListener();
+
+    public PrefetchingProcessEngineEventsAggregator(MessageProducerCommandContextCloseListener closeListener) {
+        super(closeListener);
+    }
+
+    @Override
+    public void add(CloudRuntimeEvent<?, ?> element) {
+        super.add(element);
+
+        CommandContext commandContext = getCurrentCommandContext();
+
+        if (!commandContext.hasCloseListener(ExecutionContextPrefetchCloseListener.class)) {
+            commandContext.addCloseListener(prefetchCloseListener);
+        }
+    }
+
+    @Override
+    protected CloudRuntimeEvent<?, ?> appendExecutionContextInfo(CommandContext commandContext, CloudRuntimeEvent<?, ?> element) {
+        // Execution context info is appended when command context is closing
+        return element;
+    }
+
+    protected void prefetchAndAppendExecutionContextInfo(CommandContext commandContext) {
+        List<CloudRuntimeEvent<?, ?>> events = commandContext.getGenericAttribute(getAttributeKey());
+
+        if (events == null || events.isEmpty()) {
+            return;
+        }
+
+        Set<String> executionIds = events.stream()
+                                         .map(this::resolveExecutionId)
+                                         .filter(Objects::nonNull)
+                                         .filter(executionId -> commandContext.getGenericAttribute(executionId) == null)
+                                         .collect(Collectors.toSet());
+
+        prefetchExecutions(commandContext, executionIds);
+
+        events.replaceAll(event -> super.appendExecutionContextInfo(commandContext, event));
+    }
+
+    protected void prefetchExecutions(CommandContext commandContext, Set<String> executionIds) {
+        EntityCache entityCache = commandContext.getSession(EntityCache.class);
+
+        List<String> missingIds = executionIds.stream()
+                                              .filter(executionId -> entityCache.findInCache(ExecutionEntityImpl.class, executionId) == null)
+                                              .collect(Collectors.toList());
+
+        for (int from = 0; from < missingIds.size(); from += PREFETCH_BATCH_SIZE) {
+            List<String> batch = missingIds.subList(from, Math.min(from + PREFETCH_BATCH_SIZE, missingIds.size()));
+
+            ProcessInstanceQueryImpl query = new ProcessInstanceQueryImpl();
+            query.processInstanceIds(new HashSet<>(batch));
+
+            // Results are put into the entity cache
+            commandContext.getExecutionEntityManager()
+                          .findProcessInstanceByQueryCriteria(query);
+        }
+    }
+
+    class ExecutionContextPrefetchCloseListener implements CommandContextCloseListener {
+
+        // Let's resolve execution contexts before sessions flush, while ended executions are still available
+        @Override
+        public void closing(CommandContext commandContext) {
+            prefetchAndAppendExecutionContextInfo(commandContext);
+        }
+
+        @Override
+        public void afterSessionsFlush(CommandContext commandContext) {
+            // No need to implement this method in this class
+        }
+
+        @Override
+        public void closed(CommandContext commandContext) {
+            // No need to implement this method in this class
+        }
+
+        @Override
+        public void closeFailure(CommandContext commandContext) {
+            // No need to implement this method in this class
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.listeners;
+
+import org.activiti.api.model.shared.event.RuntimeEvent;
+import org.activiti.api.process.model.BPMNElement;
+import org.activiti.api.process.model.ProcessInstance;
+import org.activiti.api.task.model.Task;
+
+/**
+ * Resolves process definition key of an event without execution context lookup. The key is derived from 
+ * <code>{key}:{version}:{id}</code> process definition ids if the event does not carry it, i.e. for 
+ * BPMN element and task events.   
+ */
+public final class ProcessDefinitionKeyResolver {
+
+    private ProcessDefinitionKeyResolver() {
+    }
+
+    public static String resolve(RuntimeEvent<?, ?> event) {
+        if (event.getProcessDefinitionKey() != null) {
+            return event.getProcessDefinitionKey();
+        }
+
+        Object entity = event.getEntity();
+
+        if (entity instanceof ProcessInstance) {
+            return ((ProcessInstance) entity).getProcessDefinitionKey();
+        } else if (entity instanceof BPMNElement) {
+            return fromProcessDefinitionId(((BPMNElement) entity).getProcessDefinitionId());
+        } else if (entity instanceof Task) {
+            return fromProcessDefinitionId(((Task) entity).getProcessDefinitionId());
+        }
+
+        return fromProcessDefinitionId(event.getProcessDefinitionId());
+    }
+
+    public static String fromProcessDefinitionId(String processDefinitionId) {
+        if (processDefinitionId == null) {
+            return null;
+        }
+
+        int separator = processDefinitionId.indexOf(':');
+
+        return separator > 0 ? processDefinitionId.substring(0, separator) : null;
+    }
+}
@@ -16,6 +16,7 @@
 
 package org.activiti.cloud.services.events.listeners;
 
+import org.activiti.api.model.shared.event.RuntimeEvent;
 import org.activiti.api.model.shared.model.VariableInstance;
 import org.activiti.api.process.model.BPMNActivity;
 import org.activiti.api.process.model.BPMNSequenceFlow;
@@ -44,6 +45,8 @@ import org.activiti.engine.impl.persistence.entity.ExecutionEntity;
 public class ProcessEngineEventsAggregator extends BaseCommandContextEventsAggregator<CloudRuntimeEvent<?,?>, MessageProducerCommandContextCloseListener>{
 
     private final MessageProducerCommandContextCloseListener closeListener;
+    private RuntimeEventFilter eventFilter;
+    private AuditEventThrottle eventThrottle;
 
     public ProcessEngineEventsAggregator(MessageProducerCommandContextCloseListener closeListener) {
         this.closeListener = closeListener;
@@ -64,10 +67,35 @@ public class ProcessEngineEventsAggregator extends BaseCommandContextEventsAggre
         return MessageProducerCommandContextCloseListener.PROCESS_ENGINE_EVENTS;
     }
     
+    /**
+     * Checked by event producers before conversion, so that filtered engine events 
+     * are neither converted nor enriched with execution context info   
+     */
+    public boolean isFiltered(RuntimeEvent<?, ?> event) {
+        return eventFilter != null && !eventFilter.accept(event);
+    }
+
+    public void setEventFilter(RuntimeEventFilter eventFilter) {
+        this.eventFilter = eventFilter;
+    }
+
+    public void setEventThrottle(AuditEventThrottle eventThrottle) {
+        this.eventThrottle = eventThrottle;
+    }
+
     @Override
     public void add(CloudRuntimeEvent<?, ?> element) {
+        // Let's shed events before execution context lookup
+        if (eventThrottle != null && !eventThrottle.tryAcquire(element)) {
+            return;
+        }
+
         CommandContext commandContext = getCurrentCommandContext();
 
+        super.add(appendExecutionContextInfo(commandContext, element));
+    }
+    
+    protected CloudRuntimeEvent<?, ?> appendExecutionContextInfo(CommandContext commandContext, CloudRuntimeEvent<?, ?> element) {
         // Let's try resolve underlying execution Id
         String executionId = resolveExecutionId(element);
 
@@ -83,8 +111,7 @@ public class ProcessEngineEventsAggregator extends BaseCommandContextEventsAggre
             element = executionContextInfoAppender.appendExecutionContextInfoTo(event);
         }
 
-        super.add(element);
-        
+        return element;
     }
     
     protected ExecutionContext resolveExecutionContext(CommandContext commandContext, String executionId) {
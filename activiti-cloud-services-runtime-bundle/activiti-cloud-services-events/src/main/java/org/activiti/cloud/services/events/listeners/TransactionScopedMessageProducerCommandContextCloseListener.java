@@ -0,0 +1,140 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.cloud.services.events.listeners;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
+import org.activiti.cloud.services.events.ProcessEngineChannels;
+import org.activiti.cloud.services.events.converter.RuntimeBundleInfoAppender;
+import org.activiti.cloud.services.events.message.AsyncAuditMessagePublisher;
+import org.activiti.cloud.services.events.message.MessageBuilderChainFactory;
+import org.activiti.engine.impl.context.ExecutionContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * Buffers audit events of all command contexts closed in one Spring transaction 
+ * and sends them after commit as <code>CloudRuntimeEvent[]</code> messages of at most 
+ * <code>maxEvents</code> events each. 
+ * 
+ * Events are sent immediately if there is no active transaction synchronization. When grouping 
+ * by process instance is enabled, events are buffered and sent per process instance.  
+ */
+public class TransactionScopedMessageProducerCommandContextCloseListener extends MessageProducerCommandContextCloseListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionScopedMessageProducerCommandContextCloseListener.class);
+
+    private final int maxEvents;
+
+    public TransactionScopedMessageProducerCommandContextCloseListener(ProcessEngineChannels producer,
+                                                                       MessageBuilderChainFactory<ExecutionContext> messageBuilderChainFactory,
+                                                                       RuntimeBundleInfoAppender runtimeBundleInfoAppender,
+                                                                       int maxEvents) {
+        this(producer,
+             messageBuilderChainFactory,
+             runtimeBundleInfoAppender,
+             null,
+             maxEvents);
+    }
+
+    public TransactionScopedMessageProducerCommandContextCloseListener(ProcessEngineChannels producer,
+                                                                       MessageBuilderChainFactory<ExecutionContext> messageBuilderChainFactory,
+                                                                       RuntimeBundleInfoAppender runtimeBundleInfoAppender,
+                                                                       @Nullable AsyncAuditMessagePublisher asyncPublisher,
+                                                                       int maxEvents) {
+        super(producer,
+              messageBuilderChainFactory,
+              runtimeBundleInfoAppender,
+              asyncPublisher);
+        Assert.isTrue(maxEvents > 0,
+                      "maxEvents must be greater than 0");
+
+        this.maxEvents = maxEvents;
+    }
+
+    @Override
+    protected void sendAuditMessage(CloudRuntimeEvent<?, ?>[] payload, @Nullable ExecutionContext executionContext) {
+        // Let's resolve message headers while execution context entities are still attached to the command context
+        MessageHeaders headers = buildAuditMessage(payload, executionContext).getHeaders();
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            sendBatches(Arrays.asList(payload), headers);
+            return;
+        }
+
+        AuditEventsTransactionSynchronization synchronization = (AuditEventsTransactionSynchronization) TransactionSynchronizationManager.getResource(this);
+
+        // Let's register only one synchronization per transaction
+        if (synchronization == null) {
+            synchronization = new AuditEventsTransactionSynchronization();
+
+            TransactionSynchronizationManager.bindResource(this, synchronization);
+            TransactionSynchronizationManager.registerSynchronization(synchronization);
+        }
+
+        synchronization.add(payload, executionContext != null ? payload[0].getProcessInstanceId() : null, headers);
+    }
+
+    protected void sendBatches(List<CloudRuntimeEvent<?, ?>> events, MessageHeaders headers) {
+        for (int from = 0; from < events.size(); from += maxEvents) {
+            List<CloudRuntimeEvent<?, ?>> batch = events.subList(from, Math.min(from + maxEvents, events.size()));
+
+            send(MessageBuilder.withPayload(batch.toArray(new CloudRuntimeEvent<?, ?>[0]))
+                               .copyHeaders(headers)
+                               .build());
+        }
+    }
+
+    class AuditEventsTransactionSynchronization implements TransactionSynchronization {
+
+        // Events are buffered per process instance group, null key is used for ungrouped events
+        private final Map<String, List<CloudRuntimeEvent<?, ?>>> events = new LinkedHashMap<>();
+        private final Map<String, MessageHeaders> headers = new HashMap<>();
+
+        public void add(CloudRuntimeEvent<?, ?>[] payload, @Nullable String groupKey, MessageHeaders messageHeaders) {
+            events.computeIfAbsent(groupKey, key -> new ArrayList<>())
+                  .addAll(Arrays.asList(payload));
+
+            headers.putIfAbsent(groupKey, messageHeaders);
+        }
+
+        @Override
+        public void afterCommit() {
+            logger.debug("Sending audit events of {} groups buffered in transaction", events.size());
+
+            events.forEach((groupKey, groupEvents) -> sendBatches(groupEvents,
+                                                                  headers.get(groupKey)));
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TransactionScopedMessageProducerCommandContextCloseListener.this);
+        }
+    }
+}
@@ -16,39 +16,138 @@
 
 package org.activiti.cloud.services.events.message;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.regex.Pattern;
 
 public abstract class AbstractMessageHeadersRoutingKeyResolver implements RoutingKeyResolver<Map<String, Object>> {
     
     private static final String REPLACEMENT = "-";
-    private static final String ILLEGAL_CHARACTERS = "[\\t\\s\\.*#:]";
-    private static final String DELIMITER = ".";
+    private static final Pattern ILLEGAL_CHARACTERS = Pattern.compile("[\\t\\s\\.*#:]");
+    private static final char DELIMITER = '.';
     private static final String UNDERSCORE = "_";
 
     public abstract String resolve(Map<String, Object> headers);
 
+    private static final int MAX_CACHED_ROUTING_KEYS = 4096;
+
+    // Least recently used routing keys by header values, so that escaping and concatenation happen once per distinct key
+    private final Map<HeaderValues, String> routingKeys = Collections.synchronizedMap(new LinkedHashMap<HeaderValues, String>(64, 0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<HeaderValues, String> eldest) {
+            return size() > MAX_CACHED_ROUTING_KEYS;
+        }
+    });
+
+    // Lookup key reused by each thread, so that cache hits do not allocate
+    private final ThreadLocal<HeaderValues> lookupKeys = new ThreadLocal<>();
+
     protected String build(Map<String, Object> headers, String... keys) {
-        return getPrefix() + DELIMITER + Stream.of(keys)
-                     .map(headers::get)
-                     .map(Optional::ofNullable)
-                     .map(this::mapNullOrEmptyValue)
-                     .collect(Collectors.joining(DELIMITER));
+        if (!isMemoized()) {
+            return buildRoutingKey(headers, keys);
+        }
+
+        HeaderValues lookupKey = lookupKey(keys.length).of(headers, keys);
+
+        try {
+            String routingKey = routingKeys.get(lookupKey);
+
+            if (routingKey == null) {
+                routingKey = buildRoutingKey(headers, keys);
+
+                routingKeys.put(lookupKey.copy(), routingKey);
+            }
+
+            return routingKey;
+        } finally {
+            // Let's not keep header values of the last message
+            lookupKey.clear();
+        }
+    }
+
+    /**
+     * Memoization pays off for keys with few distinct values. Resolvers of high cardinality keys, 
+     * i.e. keys including process instance id, should turn it off, as they would keep evicting the cache.
+     */
+    protected boolean isMemoized() {
+        return true;
+    }
+
+    private HeaderValues lookupKey(int size) {
+        HeaderValues lookupKey = lookupKeys.get();
+
+        if (lookupKey == null || lookupKey.values.length != size) {
+            lookupKey = new HeaderValues(new Object[size]);
+            lookupKeys.set(lookupKey);
+        }
+
+        return lookupKey;
+    }
+
+    private String buildRoutingKey(Map<String, Object> headers, String[] keys) {
+        StringBuilder routingKey = new StringBuilder(getPrefix());
+
+        for (String key : keys) {
+            routingKey.append(DELIMITER)
+                      .append(mapNullOrEmptyValue(headers.get(key)));
+        }
+
+        return routingKey.toString();
     }
     
-    private String mapNullOrEmptyValue(Optional<Object> obj) {
-        return obj.map(Object::toString)
-                  .filter(value -> !value.isEmpty())
-                  .map(this::escapeIllegalCharacters)
-                  .orElse(UNDERSCORE);
+    private String mapNullOrEmptyValue(Object obj) {
+        String value = obj != null ? obj.toString() : null;
+
+        return value != null && !value.isEmpty() ? escapeIllegalCharacters(value) : UNDERSCORE;
     }
     
     protected String escapeIllegalCharacters(String value) {
-        return value.replaceAll(ILLEGAL_CHARACTERS, REPLACEMENT);
+        return ILLEGAL_CHARACTERS.matcher(value).replaceAll(REPLACEMENT);
     }
     
     public abstract String getPrefix(); 
 
+    private static final class HeaderValues {
+
+        private final Object[] values;
+        private int hash;
+
+        private HeaderValues(Object[] values) {
+            this.values = values;
+            this.hash = Arrays.hashCode(values);
+        }
+
+        private HeaderValues of(Map<String, Object> headers, String[] keys) {
+            for (int i = 0; i < keys.length; i++) {
+                values[i] = headers.get(keys[i]);
+            }
+            hash = Arrays.hashCode(values);
+
+            return this;
+        }
+
+        private HeaderValues copy() {
+            return new HeaderValues(values.clone());
+        }
+
+        private void clear() {
+            Arrays.fill(values, null);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return this == other || other instanceof HeaderValues && Arrays.equals(values, ((HeaderValues) other).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
 }
@@ -0,0 +1,364 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.cloud.services.events.message;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.activiti.cloud.services.events.ProcessEngineChannels;
+import org.activiti.cloud.services.events.configuration.AsyncPublisherProperties;
+import org.activiti.cloud.services.events.configuration.AsyncPublisherProperties.OverflowPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * Takes audit messages off the engine thread. Messages are put into a bounded buffer 
+ * and sent to the audit producer channel by dedicated sender threads.
+ * 
+ * When the buffer is full, the configured {@link OverflowPolicy} applies: the engine thread 
+ * blocks until there is room, the message is spilled to a local directory and sent later 
+ * as JSON, or publishing fails with {@link MessagingException}. 
+ * 
+ * A single sender thread keeps the audit messages in order. Once messages have been spilled, 
+ * new messages are spilled behind them until the spill has been replayed, so spilled messages 
+ * are not overtaken by later ones.
+ * 
+ * The publisher stops before the stream bindings, so buffered messages are drained while 
+ * the audit producer binding is still bound. 
+ */
+public class AsyncAuditMessagePublisher implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncAuditMessagePublisher.class);
+
+    public static final String BUFFER_DEPTH = "activiti.audit.publisher.buffer.depth";
+    public static final String SPILL_DEPTH = "activiti.audit.publisher.spill.depth";
+    public static final String SEND_LATENCY = "activiti.audit.publisher.send.latency";
+    public static final String SEND_FAILURES = "activiti.audit.publisher.send.failures";
+    public static final String OVERFLOWS = "activiti.audit.publisher.overflows";
+
+    // Input bindings stop in phase Integer.MAX_VALUE - 1000 and output bindings later, so let's stop first
+    public static final int PHASE = Integer.MAX_VALUE - 100;
+
+    private static final String THREAD_NAME_PREFIX = "audit-message-sender-";
+    private static final String SPILL_FILE_SUFFIX = ".json";
+    private static final String HEADERS = "headers";
+    private static final String PAYLOAD = "payload";
+
+    private final ProcessEngineChannels producer;
+    private final ObjectMapper objectMapper;
+    private final OverflowPolicy overflowPolicy;
+    private final int senderThreads;
+    private final long shutdownTimeoutMillis;
+    private final Path spillDirectory;
+    private final BlockingQueue<Message<?>> buffer;
+    private volatile ExecutorService senders;
+    private final AtomicInteger spilled = new AtomicInteger();
+    private final AtomicLong spillSequence = new AtomicLong();
+    private final Object spillLock = new Object();
+
+    private final Timer sendLatency;
+    private final Counter sendFailures;
+    private final Counter overflows;
+
+    private volatile boolean running = true;
+
+    public AsyncAuditMessagePublisher(ProcessEngineChannels producer,
+                                      AsyncPublisherProperties properties,
+                                      ObjectMapper objectMapper,
+                                      MeterRegistry meterRegistry) {
+        Assert.notNull(producer, "producer must not be null");
+        Assert.isTrue(properties.getBufferSize() > 0, "bufferSize must be greater than zero");
+        Assert.isTrue(properties.getSenderThreads() > 0, "senderThreads must be greater than zero");
+
+        this.producer = producer;
+        this.objectMapper = objectMapper;
+        this.overflowPolicy = properties.getOverflowPolicy();
+        this.senderThreads = properties.getSenderThreads();
+        this.shutdownTimeoutMillis = properties.getShutdownTimeout().toMillis();
+        this.spillDirectory = Paths.get(properties.getSpillDirectory());
+        this.buffer = new ArrayBlockingQueue<>(properties.getBufferSize());
+
+        Gauge.builder(BUFFER_DEPTH, buffer, Collection::size)
+             .description("Number of audit messages waiting in the buffer")
+             .register(meterRegistry);
+        Gauge.builder(SPILL_DEPTH, spilled, AtomicInteger::get)
+             .description("Number of audit messages spilled to disk")
+             .register(meterRegistry);
+
+        this.sendLatency = Timer.builder(SEND_LATENCY)
+                                .description("Time to send an audit message to the audit producer channel")
+                                .register(meterRegistry);
+        this.sendFailures = Counter.builder(SEND_FAILURES)
+                                   .register(meterRegistry);
+        this.overflows = Counter.builder(OVERFLOWS)
+                                .tag("policy", overflowPolicy.name())
+                                .register(meterRegistry);
+
+        if (overflowPolicy == OverflowPolicy.SPILL) {
+            initSpillDirectory();
+        }
+
+        this.senders = startSenders();
+    }
+
+    public void publish(Message<?> message) {
+        // Let's keep messages behind the ones spilled earlier, until the spill has been replayed
+        if (spilled.get() > 0) {
+            spill(message);
+            return;
+        }
+
+        if (!running || senders.isShutdown()) {
+            // Let's not lose messages produced during shutdown
+            send(message);
+            return;
+        }
+
+        if (buffer.offer(message)) {
+            return;
+        }
+
+        overflows.increment();
+
+        switch (overflowPolicy) {
+            case SPILL:
+                spill(message);
+                break;
+            case FAIL:
+                throw new MessagingException(message, "Audit message buffer is full");
+            default:
+                try {
+                    buffer.put(message);
+                } catch (InterruptedException cause) {
+                    Thread.currentThread().interrupt();
+
+                    throw new MessagingException(message, "Interrupted while waiting for audit message buffer", cause);
+                }
+        }
+    }
+
+    public int getBufferDepth() {
+        return buffer.size();
+    }
+
+    public int getSpillDepth() {
+        return spilled.get();
+    }
+
+    protected void drain() {
+        while (running || !buffer.isEmpty()) {
+            try {
+                // Let's replay spilled messages as soon as the buffered ones ahead of them have been sent
+                if (spilled.get() > 0 && buffer.isEmpty()) {
+                    recoverSpilled();
+                }
+
+                Message<?> message = buffer.poll(100, TimeUnit.MILLISECONDS);
+
+                if (message != null) {
+                    send(message);
+                }
+            } catch (InterruptedException cause) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    protected void send(Message<?> message) {
+        try {
+            sendLatency.record(() -> producer.auditProducer().send(message));
+        } catch (Exception cause) {
+            sendFailures.increment();
+
+            logger.error("Exception '{}' when sending audit message {}", cause.getMessage(), message);
+        }
+    }
+
+    protected void spill(Message<?> message) {
+        Map<String, Object> headers = new HashMap<>(message.getHeaders());
+        headers.remove(MessageHeaders.ID);
+        headers.remove(MessageHeaders.TIMESTAMP);
+
+        Map<String, Object> envelope = new HashMap<>();
+        envelope.put(HEADERS, headers);
+        envelope.put(PAYLOAD, message.getPayload());
+
+        // File names sort in spill order
+        String fileName = String.format("%019d-%019d%s",
+                                        System.currentTimeMillis(),
+                                        spillSequence.incrementAndGet(),
+                                        SPILL_FILE_SUFFIX);
+        try {
+            byte[] content = objectMapper.writeValueAsBytes(envelope);
+
+            // Let's count the file together with writing it, so that a concurrent replay does not miss it
+            synchronized (spillLock) {
+                Files.write(spillDirectory.resolve(fileName), content);
+
+                spilled.incrementAndGet();
+            }
+        } catch (IOException cause) {
+            throw new MessagingException(message, "Unable to spill audit message to " + spillDirectory, cause);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    protected void recoverSpilled() {
+        synchronized (spillLock) {
+            for (File file : spillFiles()) {
+                if (buffer.remainingCapacity() == 0) {
+                    return;
+                }
+
+                try {
+                    JsonNode envelope = objectMapper.readTree(file);
+
+                    Message<byte[]> message = MessageBuilder.withPayload(objectMapper.writeValueAsBytes(envelope.get(PAYLOAD)))
+                                                            .copyHeaders(objectMapper.convertValue(envelope.get(HEADERS), Map.class))
+                                                            .setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON_VALUE)
+                                                            .build();
+                    if (!buffer.offer(message)) {
+                        return;
+                    }
+                } catch (IOException cause) {
+                    logger.error("Exception '{}' when reading spilled audit message {}. It will be skipped.", cause.getMessage(), file);
+                }
+
+                if (file.delete()) {
+                    spilled.decrementAndGet();
+                } else {
+                    logger.warn("Unable to delete replayed audit message {}", file);
+                }
+            }
+        }
+    }
+
+    private File[] spillFiles() {
+        File[] files = spillDirectory.toFile()
+                                     .listFiles((dir, name) -> name.endsWith(SPILL_FILE_SUFFIX));
+        if (files == null) {
+            return new File[0];
+        }
+        Arrays.sort(files);
+
+        return files;
+    }
+
+    private void initSpillDirectory() {
+        try {
+            Files.createDirectories(spillDirectory);
+        } catch (IOException cause) {
+            throw new IllegalStateException("Unable to create audit message spill directory " + spillDirectory, cause);
+        }
+
+        // Let's pick up messages spilled before the last shutdown
+        spilled.set(spillFiles().length);
+    }
+
+    private ExecutorService startSenders() {
+        ExecutorService executorService = Executors.newFixedThreadPool(senderThreads,
+                                                                       new CustomizableThreadFactory(THREAD_NAME_PREFIX));
+        for (int i = 0; i < senderThreads; i++) {
+            executorService.execute(this::drain);
+        }
+        return executorService;
+    }
+
+    @Override
+    public synchronized void start() {
+        running = true;
+
+        // Senders are shut down on stop, so let's start new ones on restart
+        if (senders.isShutdown()) {
+            senders = startSenders();
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+
+        senders.shutdown();
+        try {
+            if (!senders.awaitTermination(shutdownTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                senders.shutdownNow();
+
+                if (overflowPolicy == OverflowPolicy.SPILL) {
+                    Message<?> message;
+                    while ((message = buffer.poll()) != null) {
+                        spill(message);
+                    }
+                } else {
+                    logger.warn("Audit message senders did not terminate in time, {} messages have not been sent", buffer.size());
+                }
+            }
+        } catch (InterruptedException cause) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return true;
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        stop();
+        callback.run();
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+}
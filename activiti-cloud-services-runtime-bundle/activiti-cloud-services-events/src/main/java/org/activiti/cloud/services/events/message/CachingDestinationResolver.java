@@ -0,0 +1,122 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.cloud.services.events.message;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.core.DestinationResolutionException;
+import org.springframework.messaging.core.DestinationResolver;
+import org.springframework.util.Assert;
+
+/**
+ * Caches message channels resolved by the delegate resolver, i.e. <code>BinderAwareChannelResolver</code>, 
+ * so that dynamic destinations are looked up and bound only once. 
+ * 
+ * The cache can be warmed up with known destinations, so that the first message sent to a destination 
+ * does not pay the binding cost. Resolutions on cache misses are timed by <code>activiti.destination.cache.misses</code> 
+ * with <code>destination</code> tag.  
+ */
+public class CachingDestinationResolver implements DestinationResolver<MessageChannel> {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingDestinationResolver.class);
+
+    public static final String CACHE_MISSES = "activiti.destination.cache.misses";
+
+    private final DestinationResolver<MessageChannel> delegate;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, MessageChannel> cache = new ConcurrentHashMap<>();
+
+    public CachingDestinationResolver(DestinationResolver<MessageChannel> delegate,
+                                      MeterRegistry meterRegistry) {
+        Assert.notNull(delegate, "delegate must not be null");
+        Assert.notNull(meterRegistry, "meterRegistry must not be null");
+
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public MessageChannel resolveDestination(String name) throws DestinationResolutionException {
+        MessageChannel messageChannel = cache.get(name);
+
+        if (messageChannel == null) {
+            // Only one thread resolves a missing destination, failed resolutions are not cached 
+            messageChannel = cache.computeIfAbsent(name, this::resolve);
+        }
+
+        return messageChannel;
+    }
+
+    /**
+     * Resolves and caches given destinations, failures are logged and left for resolution on first use
+     * 
+     * @return number of destinations resolved by this call
+     */
+    public int warmUp(Collection<String> names) {
+        int resolved = 0;
+
+        for (String name : names) {
+            if (cache.containsKey(name)) {
+                continue;
+            }
+
+            try {
+                resolveDestination(name);
+                resolved++;
+            } catch (Exception cause) {
+                logger.warn("Could not warm up destination '{}' due to error: {}", name, cause.getMessage());
+            }
+        }
+
+        logger.debug("Warmed up {} of {} destinations", resolved, names.size());
+
+        return resolved;
+    }
+
+    public boolean contains(String name) {
+        return cache.containsKey(name);
+    }
+
+    public void evict(String name) {
+        cache.remove(name);
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    protected MessageChannel resolve(String name) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        MessageChannel messageChannel = delegate.resolveDestination(name);
+
+        sample.stop(Timer.builder(CACHE_MISSES)
+                         .description("Destination resolutions on cache misses")
+                         .tag("destination", name)
+                         .register(meterRegistry));
+
+        return messageChannel;
+    }
+
+}
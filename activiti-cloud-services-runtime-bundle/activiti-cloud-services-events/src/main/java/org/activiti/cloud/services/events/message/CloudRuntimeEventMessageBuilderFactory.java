@@ -22,12 +22,13 @@ import org.springframework.util.Assert;
 public class CloudRuntimeEventMessageBuilderFactory
         implements MessageBuilderChainFactory<CloudRuntimeEvent<?, ?>> {
 
-    private final RuntimeBundleProperties properties;
+    private final RuntimeBundleInfoMessageBuilderAppender runtimeBundleInfoMessageBuilderAppender;
+    private final AuditProducerRoutingKeyResolver routingKeyResolver = new AuditProducerRoutingKeyResolver();
 
     public CloudRuntimeEventMessageBuilderFactory(RuntimeBundleProperties properties) {
         Assert.notNull(properties, "properties must not be null");
 
-        this.properties = properties;
+        this.runtimeBundleInfoMessageBuilderAppender = new RuntimeBundleInfoMessageBuilderAppender(properties);
     }
 
     @Override
@@ -35,8 +36,8 @@ public class CloudRuntimeEventMessageBuilderFactory
         Assert.notNull(event, "event must not be null");
 
         return new MessageBuilderAppenderChain()
-                .routingKeyResolver(new AuditProducerRoutingKeyResolver())
-                .chain(new RuntimeBundleInfoMessageBuilderAppender(properties))
+                .routingKeyResolver(routingKeyResolver)
+                .chain(runtimeBundleInfoMessageBuilderAppender)
                 .chain(new CloudRuntimeEventMessageBuilderAppender(event));
     }
 
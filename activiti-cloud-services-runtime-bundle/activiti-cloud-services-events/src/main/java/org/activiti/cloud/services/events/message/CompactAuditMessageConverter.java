@@ -0,0 +1,150 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.message;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.core.MethodParameter;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.util.Assert;
+import org.springframework.util.MimeType;
+
+/**
+ * Converts audit message payloads, i.e. <code>CloudRuntimeEvent[]</code>, to and from a compact binary encoding. 
+ * 
+ * Payloads are encoded with Jackson Smile using the same Jackson modules as JSON, with shared property names 
+ * and string values, so that repeated strings like appName, serviceName or process definition keys are written 
+ * once per batch and back-referenced afterwards. Adding <code>compression=deflate</code> parameter to the content type, 
+ * i.e. <code>application/x-activiti-audit-compact;compression=deflate</code>, compresses encoded payloads.
+ * 
+ * Consumers register the same converter to read the <code>application/x-activiti-audit-compact</code> content type.  
+ */
+public class CompactAuditMessageConverter extends AbstractMessageConverter {
+
+    public static final MimeType COMPACT_AUDIT_MIME_TYPE = new MimeType("application", "x-activiti-audit-compact");
+
+    public static final String COMPRESSION_PARAMETER = "compression";
+
+    public static final String DEFLATE_COMPRESSION = "deflate";
+
+    private final ObjectMapper objectMapper;
+
+    public CompactAuditMessageConverter(ObjectMapper objectMapper) {
+        super(COMPACT_AUDIT_MIME_TYPE);
+
+        Assert.isInstanceOf(SmileFactory.class, objectMapper.getFactory(), "objectMapper must use SmileFactory");
+
+        this.objectMapper = objectMapper;
+    }
+
+    public static ObjectMapper createObjectMapper(Collection<Module> modules) {
+        SmileFactory smileFactory = new SmileFactory();
+        smileFactory.enable(SmileGenerator.Feature.CHECK_SHARED_NAMES);
+        smileFactory.enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES);
+
+        ObjectMapper objectMapper = new ObjectMapper(smileFactory);
+        objectMapper.registerModules(modules);
+        objectMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+        return objectMapper;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        // Any type Jackson can handle, payloads are checked by canConvertFrom/canConvertTo
+        return true;
+    }
+
+    @Override
+    protected boolean canConvertFrom(Message<?> message, Class<?> targetClass) {
+        return supportsMimeType(message.getHeaders()) && message.getPayload() instanceof byte[];
+    }
+
+    @Override
+    protected boolean canConvertTo(Object payload, MessageHeaders headers) {
+        return supportsMimeType(headers) && objectMapper.canSerialize(payload.getClass());
+    }
+
+    @Override
+    protected Object convertFromInternal(Message<?> message, Class<?> targetClass, Object conversionHint) {
+        try (InputStream inputStream = decode((byte[]) message.getPayload(), getMimeType(message.getHeaders()))) {
+            return objectMapper.readValue(inputStream, resolveJavaType(targetClass, conversionHint));
+        } catch (IOException cause) {
+            throw new MessageConversionException(message, "Could not read compact audit message: " + cause.getMessage(), cause);
+        }
+    }
+
+    @Override
+    protected Object convertToInternal(Object payload, MessageHeaders headers, Object conversionHint) {
+        try {
+            byte[] encoded = objectMapper.writeValueAsBytes(payload);
+
+            return isCompressed(getMimeType(headers)) ? deflate(encoded) : encoded;
+        } catch (IOException cause) {
+            throw new MessageConversionException("Could not write compact audit message: " + cause.getMessage(), cause);
+        }
+    }
+
+    protected JavaType resolveJavaType(Class<?> targetClass, Object conversionHint) {
+        Type type = targetClass;
+
+        if (conversionHint instanceof MethodParameter) {
+            MethodParameter parameter = ((MethodParameter) conversionHint).nestedIfOptional();
+
+            type = GenericTypeResolver.resolveType(parameter.getNestedGenericParameterType(), parameter.getContainingClass());
+        }
+
+        return objectMapper.getTypeFactory().constructType(type);
+    }
+
+    protected boolean isCompressed(MimeType mimeType) {
+        return mimeType != null && DEFLATE_COMPRESSION.equalsIgnoreCase(mimeType.getParameter(COMPRESSION_PARAMETER));
+    }
+
+    private InputStream decode(byte[] payload, MimeType mimeType) {
+        InputStream inputStream = new ByteArrayInputStream(payload);
+
+        return isCompressed(mimeType) ? new InflaterInputStream(inputStream) : inputStream;
+    }
+
+    private byte[] deflate(byte[] encoded) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(encoded.length / 2 + 16);
+
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(outputStream)) {
+            deflater.write(encoded);
+        }
+
+        return outputStream.toByteArray();
+    }
+
+}
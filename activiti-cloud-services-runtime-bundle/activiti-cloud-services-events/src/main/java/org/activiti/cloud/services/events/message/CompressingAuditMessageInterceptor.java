@@ -0,0 +1,135 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.message;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.Assert;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Serializes audit message payloads to JSON and compresses them with gzip if their size exceeds 
+ * configured threshold. Compressed messages are flagged with <code>contentEncoding=gzip</code> header, 
+ * smaller messages are sent uncompressed without the header.  
+ */
+public class CompressingAuditMessageInterceptor implements ChannelInterceptor {
+
+    public static final String CONTENT_ENCODING = "contentEncoding";
+
+    public static final String GZIP = "gzip";
+
+    public static final String COMPRESSED_MESSAGES = "activiti.audit.compression.compressed";
+
+    private final ObjectMapper objectMapper;
+    private final int threshold;
+    private final Counter compressedMessages;
+
+    public CompressingAuditMessageInterceptor(ObjectMapper objectMapper,
+                                              int threshold,
+                                              MeterRegistry meterRegistry) {
+        Assert.notNull(objectMapper, "objectMapper must not be null");
+        Assert.isTrue(threshold >= 0, "threshold must not be negative");
+
+        this.objectMapper = objectMapper;
+        this.threshold = threshold;
+        this.compressedMessages = Counter.builder(COMPRESSED_MESSAGES)
+                                         .description("Number of audit messages compressed above size threshold")
+                                         .register(meterRegistry);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        // Already encoded or serialized elsewhere, i.e. by outbox relay 
+        if (message.getHeaders().containsKey(CONTENT_ENCODING)) {
+            return message;
+        }
+
+        byte[] payload = serialize(message);
+        boolean compressed = payload.length > threshold;
+
+        MessageBuilder<byte[]> builder = MessageBuilder.withPayload(compressed ? gzip(payload) : payload)
+                                                       .copyHeaders(message.getHeaders());
+
+        // Let's keep content type of already serialized payloads
+        if (!(message.getPayload() instanceof byte[])) {
+            builder.setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON_VALUE);
+        }
+
+        if (compressed) {
+            builder.setHeader(CONTENT_ENCODING, GZIP);
+
+            compressedMessages.increment();
+        }
+
+        return builder.build();
+    }
+
+    protected byte[] serialize(Message<?> message) {
+        if (message.getPayload() instanceof byte[]) {
+            return (byte[]) message.getPayload();
+        }
+
+        try {
+            return objectMapper.writeValueAsBytes(message.getPayload());
+        } catch (JsonProcessingException cause) {
+            throw new MessageConversionException(message, "Could not serialize audit message", cause);
+        }
+    }
+
+    /**
+     * Decodes message payload for consumers, uncompressing it if flagged with <code>contentEncoding=gzip</code> header 
+     */
+    public static byte[] decode(Message<byte[]> message) {
+        if (!GZIP.equals(message.getHeaders().get(CONTENT_ENCODING))) {
+            return message.getPayload();
+        }
+
+        try (InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(message.getPayload()))) {
+            return StreamUtils.copyToByteArray(inputStream);
+        } catch (IOException cause) {
+            throw new MessageConversionException(message, "Could not uncompress audit message", cause);
+        }
+    }
+
+    private static byte[] gzip(byte[] payload) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(payload.length / 4 + 32);
+
+        try (GZIPOutputStream gzip = new GZIPOutputStream(outputStream)) {
+            gzip.write(payload);
+        } catch (IOException cause) {
+            throw new MessageConversionException("Could not compress audit message", cause);
+        }
+
+        return outputStream.toByteArray();
+    }
+
+}
@@ -15,6 +15,9 @@
  */
 package org.activiti.cloud.services.events.message;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
 import org.activiti.engine.impl.context.ExecutionContext;
@@ -28,9 +31,16 @@ import org.springframework.util.Assert;
 public class ExecutionContextMessageBuilderAppender implements MessageBuilderAppender {
 
     private final ExecutionContext executionContext;
+    private final ProcessDefinitionHeadersCache processDefinitionHeadersCache;
 
     public ExecutionContextMessageBuilderAppender(@Nullable ExecutionContext executionContext) {
+        this(executionContext, null);
+    }
+
+    public ExecutionContextMessageBuilderAppender(@Nullable ExecutionContext executionContext,
+                                                  @Nullable ProcessDefinitionHeadersCache processDefinitionHeadersCache) {
         this.executionContext = executionContext;
+        this.processDefinitionHeadersCache = processDefinitionHeadersCache;
     }
 
     @Override
@@ -39,10 +49,6 @@ public class ExecutionContextMessageBuilderAppender implements MessageBuilderApp
         
         if(executionContext != null) {
             ExecutionEntity processInstance = executionContext.getProcessInstance();
-            ProcessDefinition processDefinition = executionContext.getProcessDefinition();
-            DeploymentEntity deploymentEntity = executionContext.getDeployment();
-
-
 
             if(processInstance != null) { 
                 request.setHeader(ExecutionContextMessageHeaders.BUSINESS_KEY, processInstance.getBusinessKey())
@@ -53,24 +59,42 @@ public class ExecutionContextMessageBuilderAppender implements MessageBuilderApp
                 applyParent(processInstance, request);
             }
 
-            if(processDefinition != null) { 
-                request.setHeader(ExecutionContextMessageHeaders.PROCESS_DEFINITION_ID, processDefinition.getId())
-                    .setHeader(ExecutionContextMessageHeaders.PROCESS_DEFINITION_KEY, processDefinition.getKey())
-                    .setHeader(ExecutionContextMessageHeaders.PROCESS_DEFINITION_VERSION, processDefinition.getVersion())
-                    .setHeader(ExecutionContextMessageHeaders.PROCESS_DEFINITION_NAME, processDefinition.getName());
-            }
+            String processDefinitionId = processInstance != null ? processInstance.getProcessDefinitionId() : null;
 
-            if(deploymentEntity != null) {
-                 request.setHeader(ExecutionContextMessageHeaders.DEPLOYMENT_ID, deploymentEntity.getId())
-                        .setHeader(ExecutionContextMessageHeaders.DEPLOYMENT_NAME, deploymentEntity.getName())
-                        .setHeader(ExecutionContextMessageHeaders.APP_VERSION, deploymentEntity.getVersion());
+            // Process definition and deployment headers never change, so let's avoid entity lookups if cached
+            if(processDefinitionHeadersCache != null && processDefinitionId != null) {
+                request.copyHeaders(processDefinitionHeadersCache.get(processDefinitionId,
+                                                                     () -> resolveProcessDefinitionHeaders(executionContext)));
+            } else {
+                request.copyHeaders(resolveProcessDefinitionHeaders(executionContext));
             }
-            
         }
 
         return request;
 
     }
+
+    protected Map<String, Object> resolveProcessDefinitionHeaders(ExecutionContext executionContext) {
+        Map<String, Object> headers = new HashMap<>();
+
+        ProcessDefinition processDefinition = executionContext.getProcessDefinition();
+        DeploymentEntity deploymentEntity = executionContext.getDeployment();
+
+        if(processDefinition != null) { 
+            headers.put(ExecutionContextMessageHeaders.PROCESS_DEFINITION_ID, processDefinition.getId());
+            headers.put(ExecutionContextMessageHeaders.PROCESS_DEFINITION_KEY, processDefinition.getKey());
+            headers.put(ExecutionContextMessageHeaders.PROCESS_DEFINITION_VERSION, processDefinition.getVersion());
+            headers.put(ExecutionContextMessageHeaders.PROCESS_DEFINITION_NAME, processDefinition.getName());
+        }
+
+        if(deploymentEntity != null) {
+            headers.put(ExecutionContextMessageHeaders.DEPLOYMENT_ID, deploymentEntity.getId());
+            headers.put(ExecutionContextMessageHeaders.DEPLOYMENT_NAME, deploymentEntity.getName());
+            headers.put(ExecutionContextMessageHeaders.APP_VERSION, deploymentEntity.getVersion());
+        }
+
+        return Collections.unmodifiableMap(headers);
+    }
     
     protected <P> MessageBuilder<P> applyParent(ExecutionEntity processInstance, MessageBuilder<P> request) {
         // Let's do it lazy way
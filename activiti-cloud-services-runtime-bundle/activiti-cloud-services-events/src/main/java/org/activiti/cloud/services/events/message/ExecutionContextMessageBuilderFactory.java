@@ -17,25 +17,34 @@ package org.activiti.cloud.services.events.message;
 
 import org.activiti.cloud.services.events.configuration.RuntimeBundleProperties;
 import org.activiti.engine.impl.context.ExecutionContext;
+import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 
 public class ExecutionContextMessageBuilderFactory
         implements MessageBuilderChainFactory<ExecutionContext> {
 
-    private final RuntimeBundleProperties properties;
+    private final RuntimeBundleInfoMessageBuilderAppender runtimeBundleInfoMessageBuilderAppender;
+    private final AuditProducerRoutingKeyResolver routingKeyResolver = new AuditProducerRoutingKeyResolver();
+    private final ProcessDefinitionHeadersCache processDefinitionHeadersCache;
 
     public ExecutionContextMessageBuilderFactory(RuntimeBundleProperties properties) {
+        this(properties, null);
+    }
+
+    public ExecutionContextMessageBuilderFactory(RuntimeBundleProperties properties,
+                                                 @Nullable ProcessDefinitionHeadersCache processDefinitionHeadersCache) {
         Assert.notNull(properties, "properties must not be null");
 
-        this.properties = properties;
+        this.runtimeBundleInfoMessageBuilderAppender = new RuntimeBundleInfoMessageBuilderAppender(properties);
+        this.processDefinitionHeadersCache = processDefinitionHeadersCache;
     }
 
     @Override
     public MessageBuilderAppenderChain create(ExecutionContext executionContext) {
         return new MessageBuilderAppenderChain()
-                .routingKeyResolver(new AuditProducerRoutingKeyResolver())
-                .chain(new RuntimeBundleInfoMessageBuilderAppender(properties))
-                .chain(new ExecutionContextMessageBuilderAppender(executionContext));
+                .routingKeyResolver(routingKeyResolver)
+                .chain(runtimeBundleInfoMessageBuilderAppender)
+                .chain(new ExecutionContextMessageBuilderAppender(executionContext, processDefinitionHeadersCache));
     }
 
 }
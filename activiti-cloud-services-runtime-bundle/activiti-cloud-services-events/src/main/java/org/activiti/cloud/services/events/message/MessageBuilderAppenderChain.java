@@ -33,8 +33,10 @@ public class MessageBuilderAppenderChain {
 
     private final List<MessageBuilderAppender> appenders = new ArrayList<>();
 
+    private static final RoutingKeyResolver<Map<String, Object>> DEFAULT_ROUTING_KEY_RESOLVER = new DefaultRoutingKeyResolver();
+
     // Noop routing key resolver that resolves routing key for message payload type header
-    private RoutingKeyResolver<Map<String, Object>> routingKeyResolver = new DefaultRoutingKeyResolver();
+    private RoutingKeyResolver<Map<String, Object>> routingKeyResolver = DEFAULT_ROUTING_KEY_RESOLVER;
     
     public MessageBuilderAppenderChain() {
         // Silence is golden
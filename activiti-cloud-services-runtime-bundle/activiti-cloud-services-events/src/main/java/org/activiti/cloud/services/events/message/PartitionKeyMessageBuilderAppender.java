@@ -0,0 +1,51 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.message;
+
+import org.activiti.engine.impl.context.ExecutionContext;
+import org.activiti.engine.impl.persistence.entity.ExecutionEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.Assert;
+
+/**
+ * Sets process instance id as partition key header, so that binders can keep all audit messages 
+ * of one process instance in the same partition with 
+ * <code>producer.partitionKeyExpression=headers['partitionKey']</code>
+ */
+public class PartitionKeyMessageBuilderAppender implements MessageBuilderAppender {
+
+    public static final String PARTITION_KEY = "partitionKey";
+
+    private static final String UNDERSCORE = "_";
+
+    private final ExecutionContext executionContext;
+
+    public PartitionKeyMessageBuilderAppender(@Nullable ExecutionContext executionContext) {
+        this.executionContext = executionContext;
+    }
+
+    @Override
+    public <P> MessageBuilder<P> apply(MessageBuilder<P> request) {
+        Assert.notNull(request, "request must not be null");
+
+        ExecutionEntity processInstance = executionContext != null ? executionContext.getProcessInstance() : null;
+
+        return request.setHeader(PARTITION_KEY, 
+                                 processInstance != null && processInstance.getId() != null ? processInstance.getId() : UNDERSCORE);
+    }
+
+}
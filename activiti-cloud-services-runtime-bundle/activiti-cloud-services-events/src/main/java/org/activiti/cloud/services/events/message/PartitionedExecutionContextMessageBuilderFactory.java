@@ -0,0 +1,46 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.message;
+
+import org.activiti.cloud.services.events.configuration.RuntimeBundleProperties;
+import org.activiti.engine.impl.context.ExecutionContext;
+import org.springframework.lang.Nullable;
+
+/**
+ * Execution context message builder factory that adds process instance id to the routing key 
+ * and partition key of audit messages 
+ */
+public class PartitionedExecutionContextMessageBuilderFactory extends ExecutionContextMessageBuilderFactory {
+
+    private final ProcessInstanceAuditProducerRoutingKeyResolver routingKeyResolver = new ProcessInstanceAuditProducerRoutingKeyResolver();
+
+    public PartitionedExecutionContextMessageBuilderFactory(RuntimeBundleProperties properties) {
+        this(properties, null);
+    }
+
+    public PartitionedExecutionContextMessageBuilderFactory(RuntimeBundleProperties properties,
+                                                            @Nullable ProcessDefinitionHeadersCache processDefinitionHeadersCache) {
+        super(properties, processDefinitionHeadersCache);
+    }
+
+    @Override
+    public MessageBuilderAppenderChain create(ExecutionContext executionContext) {
+        return super.create(executionContext)
+                    .routingKeyResolver(routingKeyResolver)
+                    .chain(new PartitionKeyMessageBuilderAppender(executionContext));
+    }
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.message;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import org.activiti.engine.delegate.event.ActivitiEntityEvent;
+import org.activiti.engine.delegate.event.ActivitiEvent;
+import org.activiti.engine.delegate.event.ActivitiEventListener;
+import org.activiti.engine.delegate.event.ActivitiEventType;
+import org.activiti.engine.repository.Deployment;
+import org.activiti.engine.repository.ProcessDefinition;
+import org.springframework.util.Assert;
+
+/**
+ * Bounded LRU cache of immutable process definition and deployment message headers keyed by process definition id.
+ * 
+ * Entries are evicted when the process definition or its deployment is deleted.  
+ */
+public class ProcessDefinitionHeadersCache implements ActivitiEventListener {
+
+    private final Map<String, Map<String, Object>> cache;
+
+    public ProcessDefinitionHeadersCache(int maxSize) {
+        Assert.isTrue(maxSize > 0, "maxSize must be greater than 0");
+
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<String, Map<String, Object>>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Map<String, Object>> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    public Map<String, Object> get(String processDefinitionId, Supplier<Map<String, Object>> headersSupplier) {
+        Map<String, Object> headers = cache.get(processDefinitionId);
+
+        if (headers == null) {
+            // Let's resolve outside of the lock, concurrent misses will resolve the same headers
+            headers = headersSupplier.get();
+
+            cache.put(processDefinitionId, headers);
+        }
+
+        return headers;
+    }
+
+    public void evict(String processDefinitionId) {
+        cache.remove(processDefinitionId);
+    }
+
+    public void evictDeployment(String deploymentId) {
+        synchronized (cache) {
+            cache.values()
+                 .removeIf(headers -> Objects.equals(deploymentId, headers.get(ExecutionContextMessageHeaders.DEPLOYMENT_ID)));
+        }
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    @Override
+    public void onEvent(ActivitiEvent event) {
+        if (ActivitiEventType.ENTITY_DELETED.equals(event.getType()) && event instanceof ActivitiEntityEvent) {
+            Object entity = ((ActivitiEntityEvent) event).getEntity();
+
+            if (entity instanceof ProcessDefinition) {
+                evict(((ProcessDefinition) entity).getId());
+            } else if (entity instanceof Deployment) {
+                evictDeployment(((Deployment) entity).getId());
+            }
+        }
+    }
+
+    @Override
+    public boolean isFailOnException() {
+        return false;
+    }
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.message;
+
+import java.util.Map;
+
+/**
+ * Resolves audit producer routing key including process instance id, 
+ * i.e. <code>engineEvents.serviceName.appName.processInstanceId</code>  
+ */
+public class ProcessInstanceAuditProducerRoutingKeyResolver extends AbstractMessageHeadersRoutingKeyResolver {
+    
+    public final String ROUTING_KEY_PREFIX = "engineEvents";
+
+    public final String[] HEADER_KEYS = {RuntimeBundleInfoMessageHeaders.SERVICE_NAME,
+                                         RuntimeBundleInfoMessageHeaders.APP_NAME,
+                                         ExecutionContextMessageHeaders.PROCESS_INSTANCE_ID
+                                        };
+    
+    @Override
+    public String resolve(Map<String, Object> headers) {
+        return build(headers, HEADER_KEYS);
+    }
+
+    @Override
+    public String getPrefix() {
+        return ROUTING_KEY_PREFIX;
+    }
+
+    // Every process instance has its own routing key, so memoized keys would hardly ever be hit
+    @Override
+    protected boolean isMemoized() {
+        return false;
+    }
+    
+}
@@ -15,29 +15,45 @@
  */
 package org.activiti.cloud.services.events.message;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.activiti.cloud.services.events.configuration.RuntimeBundleProperties;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.util.Assert;
 
+/**
+ * Appends runtime bundle info headers. The headers never change, so they are compiled once 
+ * into a frozen header block on startup and copied into every message.
+ */
 public class RuntimeBundleInfoMessageBuilderAppender implements MessageBuilderAppender {
 
-    private final RuntimeBundleProperties properties;
+    private final Map<String, Object> headers;
 
     public RuntimeBundleInfoMessageBuilderAppender(RuntimeBundleProperties properties) {
         Assert.notNull(properties, "properties must not be null");
 
-        this.properties = properties;
+        Map<String, Object> block = new LinkedHashMap<>();
+
+        block.put(RuntimeBundleInfoMessageHeaders.APP_NAME, properties.getAppName());
+        block.put(RuntimeBundleInfoMessageHeaders.SERVICE_NAME, properties.getServiceName());
+        block.put(RuntimeBundleInfoMessageHeaders.SERVICE_FULL_NAME, properties.getServiceFullName());
+        block.put(RuntimeBundleInfoMessageHeaders.SERVICE_TYPE, properties.getServiceType());
+        block.put(RuntimeBundleInfoMessageHeaders.SERVICE_VERSION, properties.getServiceVersion());
+
+        this.headers = Collections.unmodifiableMap(block);
     }
 
     @Override
     public <P> MessageBuilder<P> apply(MessageBuilder<P> request) {
         Assert.notNull(request, "request must not be null");
         
-        return request.setHeader(RuntimeBundleInfoMessageHeaders.APP_NAME, properties.getAppName())
-                .setHeader(RuntimeBundleInfoMessageHeaders.SERVICE_NAME, properties.getServiceName())
-                .setHeader(RuntimeBundleInfoMessageHeaders.SERVICE_FULL_NAME, properties.getServiceFullName())
-                .setHeader(RuntimeBundleInfoMessageHeaders.SERVICE_TYPE, properties.getServiceType())
-                .setHeader(RuntimeBundleInfoMessageHeaders.SERVICE_VERSION, properties.getServiceVersion());
+        return request.copyHeaders(headers);
+    }
+
+    public Map<String, Object> getHeaders() {
+        return headers;
     }
 
 }
@@ -20,15 +20,16 @@ import org.activiti.cloud.services.events.configuration.RuntimeBundleProperties;
 
 public class RuntimeBundleMessageBuilderFactory {
 
-    private final RuntimeBundleProperties properties;
+    private final RuntimeBundleInfoMessageBuilderAppender runtimeBundleInfoMessageBuilderAppender;
+    private final AuditProducerRoutingKeyResolver routingKeyResolver = new AuditProducerRoutingKeyResolver();
 
     public RuntimeBundleMessageBuilderFactory(RuntimeBundleProperties properties) {
-        this.properties = properties;
+        this.runtimeBundleInfoMessageBuilderAppender = new RuntimeBundleInfoMessageBuilderAppender(properties);
     }
 
     public MessageBuilderAppenderChain create() {
         return new MessageBuilderAppenderChain()
-                .routingKeyResolver(new AuditProducerRoutingKeyResolver())
-                .chain(new RuntimeBundleInfoMessageBuilderAppender(properties));
+                .routingKeyResolver(routingKeyResolver)
+                .chain(runtimeBundleInfoMessageBuilderAppender);
     }
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.cloud.services.events.outbox;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.MessagingException;
+
+/**
+ * Writes messages into the local outbox table within the current engine transaction. 
+ * Outbox messages are sent to their destination by {@link OutboxRelay} once committed.
+ * 
+ * Sequences are generated in this JVM from the wall clock, so the relay order is only as good as the clock: 
+ * <ul>
+ * <li>messages appended by this JVM are in append order</li>
+ * <li>messages appended by different replicas, or after a restart with the clock set back, 
+ * are ordered by their clocks and may interleave out of order</li>
+ * <li>sequences are assigned on append, not on commit, so a message of a long transaction can be 
+ * committed after the relay has already sent messages with higher sequences</li>
+ * </ul>
+ * Consumers that need strict order should order by the message payload, i.e. event timestamps.
+ */
+public class MessageOutbox {
+
+    private final OutboxMessageRepository repository;
+    private final ObjectMapper objectMapper;
+    private final AtomicLong lastSequence = new AtomicLong();
+
+    public MessageOutbox(OutboxMessageRepository repository,
+                         ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+    }
+
+    public void append(String destination, Message<?> message) {
+        Map<String, Object> headers = new HashMap<>(message.getHeaders());
+        headers.remove(MessageHeaders.ID);
+        headers.remove(MessageHeaders.TIMESTAMP);
+
+        try {
+            repository.insert(new OutboxMessage(UUID.randomUUID().toString(),
+                                                nextSequence(),
+                                                destination,
+                                                objectMapper.writeValueAsString(headers),
+                                                objectMapper.writeValueAsString(message.getPayload()),
+                                                0));
+        } catch (JsonProcessingException cause) {
+            throw new MessagingException(message, "Unable to write message to outbox", cause);
+        }
+    }
+
+    // Time based sequence: strictly increasing in this JVM, but only ordered by wall clock across JVMs
+    protected long nextSequence() {
+        long now = System.currentTimeMillis() * 1000;
+
+        return lastSequence.accumulateAndGet(now, (last, current) -> Math.max(last + 1, current));
+    }
+}
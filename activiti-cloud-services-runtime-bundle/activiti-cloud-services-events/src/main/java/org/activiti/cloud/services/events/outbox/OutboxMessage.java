@@ -0,0 +1,70 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.cloud.services.events.outbox;
+
+public class OutboxMessage {
+
+    private final String id;
+    private final long sequence;
+    private final String destination;
+    private final String headers;
+    private final String payload;
+    private final int attempts;
+
+    public OutboxMessage(String id,
+                         long sequence,
+                         String destination,
+                         String headers,
+                         String payload,
+                         int attempts) {
+        this.id = id;
+        this.sequence = sequence;
+        this.destination = destination;
+        this.headers = headers;
+        this.payload = payload;
+        this.attempts = attempts;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public String getHeaders() {
+        return headers;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    @Override
+    public String toString() {
+        return "OutboxMessage [id=" + id + ", sequence=" + sequence + ", destination=" + destination + ", attempts=" + attempts + "]";
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.cloud.services.events.outbox;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * Stores outbox messages with plain JDBC, so that inserts take part in the 
+ * Spring managed engine transaction of the same {@link DataSource}.  
+ */
+public class OutboxMessageRepository {
+
+    public static final String TABLE_NAME = "ACT_CLOUD_OUTBOX";
+
+    public static final String LOCK_TABLE_NAME = "ACT_CLOUD_OUTBOX_LOCK";
+
+    public static final String SCHEMA_LOCATION = "org/activiti/cloud/services/events/outbox/schema-@@platform@@.sql";
+
+    private static final String RELAY_LOCK = "outbox-relay";
+
+    private static final String INSERT = "INSERT INTO " + TABLE_NAME + " (ID_, SEQ_, DESTINATION_, HEADERS_, PAYLOAD_, ATTEMPTS_) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_NEXT = "SELECT ID_, SEQ_, DESTINATION_, HEADERS_, PAYLOAD_, ATTEMPTS_ FROM " + TABLE_NAME + " WHERE ATTEMPTS_ < ? ORDER BY SEQ_";
+    private static final String DELETE = "DELETE FROM " + TABLE_NAME + " WHERE ID_ = ?";
+    private static final String INCREMENT_ATTEMPTS = "UPDATE " + TABLE_NAME + " SET ATTEMPTS_ = ATTEMPTS_ + 1 WHERE ID_ = ?";
+    private static final String COUNT_PENDING = "SELECT COUNT(*) FROM " + TABLE_NAME + " WHERE ATTEMPTS_ < ?";
+    private static final String COUNT_PARKED = "SELECT COUNT(*) FROM " + TABLE_NAME + " WHERE ATTEMPTS_ >= ?";
+    private static final String RENEW_LEASE = "UPDATE " + LOCK_TABLE_NAME + " SET OWNER_ = ?, EXPIRES_ = ? WHERE NAME_ = ? AND (OWNER_ = ? OR EXPIRES_ < ?)";
+    private static final String INSERT_LEASE = "INSERT INTO " + LOCK_TABLE_NAME + " (NAME_, OWNER_, EXPIRES_) VALUES (?, ?, ?)";
+    private static final String RELEASE_LEASE = "UPDATE " + LOCK_TABLE_NAME + " SET EXPIRES_ = 0 WHERE NAME_ = ? AND OWNER_ = ?";
+
+    private static final RowMapper<OutboxMessage> ROW_MAPPER = (rs, rowNum) -> new OutboxMessage(rs.getString("ID_"),
+                                                                                                   rs.getLong("SEQ_"),
+                                                                                                   rs.getString("DESTINATION_"),
+                                                                                                   rs.getString("HEADERS_"),
+                                                                                                   rs.getString("PAYLOAD_"),
+                                                                                                   rs.getInt("ATTEMPTS_"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OutboxMessageRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public void insert(OutboxMessage message) {
+        jdbcTemplate.update(INSERT,
+                            message.getId(),
+                            message.getSequence(),
+                            message.getDestination(),
+                            message.getHeaders(),
+                            message.getPayload(),
+                            message.getAttempts());
+    }
+
+    /**
+     * Finds next messages in sequence order, skipping parked messages 
+     * 
+     * @param maxAttempts messages with this many failed attempts are parked
+     */
+    public List<OutboxMessage> findNext(int limit, int maxAttempts) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_NEXT);
+            statement.setInt(1, maxAttempts);
+            statement.setMaxRows(limit);
+            return statement;
+        }, ROW_MAPPER);
+    }
+
+    public void deleteAll(List<String> ids) {
+        if (!ids.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE,
+                                     ids.stream()
+                                        .map(id -> new Object[]{id})
+                                        .collect(Collectors.toList()));
+        }
+    }
+
+    public void incrementAttempts(String id) {
+        jdbcTemplate.update(INCREMENT_ATTEMPTS, id);
+    }
+
+    /**
+     * Acquires or renews the relay lease for the given owner, so that only one relay 
+     * of all replicas reads and sends outbox messages at a time
+     * 
+     * @return <code>true</code> when the given owner holds the lease until <code>expiresAt</code>
+     */
+    public boolean tryLease(String owner, long expiresAt) {
+        long now = System.currentTimeMillis();
+
+        if (jdbcTemplate.update(RENEW_LEASE, owner, expiresAt, RELAY_LOCK, owner, now) > 0) {
+            return true;
+        }
+
+        try {
+            return jdbcTemplate.update(INSERT_LEASE, RELAY_LOCK, owner, expiresAt) > 0;
+        } catch (DuplicateKeyException cause) {
+            // Another relay holds the lease
+            return false;
+        }
+    }
+
+    public void releaseLease(String owner) {
+        jdbcTemplate.update(RELEASE_LEASE, RELAY_LOCK, owner);
+    }
+
+    public long countPending(int maxAttempts) {
+        Long count = jdbcTemplate.queryForObject(COUNT_PENDING, Long.class, maxAttempts);
+
+        return count != null ? count : 0;
+    }
+
+    public long countParked(int maxAttempts) {
+        Long count = jdbcTemplate.queryForObject(COUNT_PARKED, Long.class, maxAttempts);
+
+        return count != null ? count : 0;
+    }
+}
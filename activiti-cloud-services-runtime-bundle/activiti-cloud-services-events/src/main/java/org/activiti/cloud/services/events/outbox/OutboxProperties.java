@@ -0,0 +1,105 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.cloud.services.events.outbox;
+
+import java.time.Duration;
+
+public class OutboxProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Creates outbox table on startup for H2, PostgreSQL and MySQL. 
+     * Other databases need the table to be created upfront.
+     */
+    private boolean initializeSchema = true;
+
+    private int batchSize = 100;
+
+    private Duration pollInterval = Duration.ofMillis(500);
+
+    private Duration maxBackoff = Duration.ofSeconds(30);
+
+    /**
+     * Failed attempts after which a message is parked, so that it no longer blocks the messages behind it. 
+     * Parked messages stay in the outbox table and are relayed again once their attempts are reset 
+     * or the limit is raised.
+     */
+    private int maxAttempts = 10;
+
+    /**
+     * Duration a relay holds the outbox after its last poll. Only the relay holding the lease 
+     * sends outbox messages, the relays of other replicas take over once it has expired. 
+     */
+    private Duration leaseDuration = Duration.ofSeconds(30);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isInitializeSchema() {
+        return initializeSchema;
+    }
+
+    public void setInitializeSchema(boolean initializeSchema) {
+        this.initializeSchema = initializeSchema;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    public void setMaxBackoff(Duration maxBackoff) {
+        this.maxBackoff = maxBackoff;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public Duration getLeaseDuration() {
+        return leaseDuration;
+    }
+
+    public void setLeaseDuration(Duration leaseDuration) {
+        this.leaseDuration = leaseDuration;
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.cloud.services.events.outbox;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.stream.binding.BinderAwareChannelResolver;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * Relays committed outbox messages to their destinations from a background thread. 
+ * 
+ * Messages are read in batches in append order and deleted once sent. On failure, the batch stops 
+ * at the failed message to keep the order, and the relay backs off exponentially up to <code>maxBackoff</code>. 
+ * A message that has failed <code>maxAttempts</code> times is parked: it stays in the outbox table, but is 
+ * skipped, so the messages behind it are relayed. 
+ * Delivery is at-least-once: a message may be sent again if the relay stops between send and delete. 
+ * 
+ * Replicas share the outbox table, so a relay only reads and sends messages while it holds the relay lease, 
+ * renewed before each batch for <code>leaseDuration</code>. The other relays take over once the lease expires 
+ * or is released on stop, so messages are neither sent by several replicas nor reordered between them. 
+ * 
+ * The relay is started after all bindings are ready.  
+ */
+public class OutboxRelay implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    public static final String RELAYED = "activiti.outbox.relayed";
+    public static final String RELAY_FAILURES = "activiti.outbox.relay.failures";
+    public static final String PENDING = "activiti.outbox.pending";
+    public static final String PARKED = "activiti.outbox.parked";
+
+    private final OutboxMessageRepository repository;
+    private final BinderAwareChannelResolver resolver;
+    private final ObjectMapper objectMapper;
+    private final OutboxProperties properties;
+    private final Counter relayed;
+    private final Counter relayFailures;
+    private final Counter parked;
+    private final String owner = UUID.randomUUID().toString();
+
+    private ScheduledExecutorService scheduler;
+    private long backoffMillis = 0;
+    private long backoffUntil = 0;
+
+    private volatile boolean running = false;
+
+    public OutboxRelay(OutboxMessageRepository repository,
+                       BinderAwareChannelResolver resolver,
+                       ObjectMapper objectMapper,
+                       OutboxProperties properties,
+                       MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.resolver = resolver;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+
+        this.relayed = Counter.builder(RELAYED)
+                              .description("Number of outbox messages sent to their destination")
+                              .register(meterRegistry);
+        this.relayFailures = Counter.builder(RELAY_FAILURES)
+                                    .register(meterRegistry);
+        this.parked = Counter.builder(PARKED)
+                             .description("Number of outbox messages parked after max attempts")
+                             .register(meterRegistry);
+
+        Gauge.builder(PENDING, repository, outbox -> outbox.countPending(properties.getMaxAttempts()))
+             .description("Number of outbox messages waiting to be sent")
+             .register(meterRegistry);
+    }
+
+    /**
+     * Sends outbox messages until the outbox is empty or a send fails
+     * 
+     * @return number of sent messages
+     */
+    public int relay() {
+        if (System.currentTimeMillis() < backoffUntil) {
+            return 0;
+        }
+
+        int total = 0;
+        List<OutboxMessage> batch;
+
+        do {
+            if (!repository.tryLease(owner, System.currentTimeMillis() + properties.getLeaseDuration().toMillis())) {
+                // Let's leave the outbox to the relay of another replica
+                return total;
+            }
+
+            batch = repository.findNext(properties.getBatchSize(), properties.getMaxAttempts());
+
+            List<String> sent = new ArrayList<>();
+            try {
+                for (OutboxMessage outboxMessage : batch) {
+                    send(outboxMessage);
+                    sent.add(outboxMessage.getId());
+                }
+            } catch (Exception cause) {
+                OutboxMessage failed = batch.get(sent.size());
+
+                logger.error("Exception '{}' when relaying outbox message {}", cause.getMessage(), failed);
+
+                relayFailures.increment();
+                repository.incrementAttempts(failed.getId());
+
+                if (failed.getAttempts() + 1 >= properties.getMaxAttempts()) {
+                    // Let's park poison message, so that the next poll continues with the messages behind it
+                    logger.error("Outbox message {} has been parked after {} failed attempts", failed, properties.getMaxAttempts());
+
+                    parked.increment();
+                } else {
+                    backoff();
+                }
+
+                return total + sent.size();
+            } finally {
+                repository.deleteAll(sent);
+                relayed.increment(sent.size());
+            }
+
+            total += sent.size();
+            backoffMillis = 0;
+
+        } while (batch.size() == properties.getBatchSize());
+
+        return total;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected void send(OutboxMessage outboxMessage) throws IOException {
+        Map<String, Object> headers = objectMapper.readValue(outboxMessage.getHeaders(), Map.class);
+
+        Message<byte[]> message = MessageBuilder.withPayload(outboxMessage.getPayload().getBytes("UTF-8"))
+                                                .copyHeaders(headers)
+                                                .setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON_VALUE)
+                                                .build();
+
+        if (!resolver.resolveDestination(outboxMessage.getDestination()).send(message)) {
+            throw new MessageDeliveryException(message, "Outbox message has not been sent to " + outboxMessage.getDestination());
+        }
+    }
+
+    private void backoff() {
+        long pollInterval = properties.getPollInterval().toMillis();
+
+        backoffMillis = Math.min(Math.max(pollInterval, backoffMillis * 2),
+                                 properties.getMaxBackoff().toMillis());
+        backoffUntil = System.currentTimeMillis() + backoffMillis;
+    }
+
+    private void poll() {
+        try {
+            relay();
+        } catch (Exception cause) {
+            logger.error("Exception '{}' when polling outbox", cause.getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("outbox-relay-"));
+        scheduler.scheduleWithFixedDelay(this::poll,
+                                         0,
+                                         properties.getPollInterval().toMillis(),
+                                         TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(properties.getMaxBackoff().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException cause) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        try {
+            // Let's hand the outbox over to the relay of another replica right away
+            repository.releaseLease(owner);
+        } catch (Exception cause) {
+            logger.warn("Exception '{}' when releasing outbox relay lease", cause.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,5 @@
+CREATE TABLE IF NOT EXISTS ACT_CLOUD_BLOB (
+    ID_ VARCHAR(64) NOT NULL PRIMARY KEY,
+    SIZE_ BIGINT NOT NULL,
+    CONTENT_ BLOB
+);
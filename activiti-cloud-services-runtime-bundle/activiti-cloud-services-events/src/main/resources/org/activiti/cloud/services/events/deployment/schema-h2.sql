@@ -0,0 +1,4 @@
+CREATE TABLE IF NOT EXISTS ACT_CLOUD_PUBLISHED_MODEL (
+    PROC_DEF_ID_ VARCHAR(255) NOT NULL PRIMARY KEY,
+    CONTENT_HASH_ VARCHAR(64) NOT NULL
+);
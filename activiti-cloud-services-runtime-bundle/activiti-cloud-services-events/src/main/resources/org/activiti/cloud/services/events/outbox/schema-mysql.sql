@@ -0,0 +1,15 @@
+CREATE TABLE IF NOT EXISTS ACT_CLOUD_OUTBOX (
+    ID_ VARCHAR(64) NOT NULL PRIMARY KEY,
+    SEQ_ BIGINT NOT NULL,
+    DESTINATION_ VARCHAR(255) NOT NULL,
+    HEADERS_ LONGTEXT,
+    PAYLOAD_ LONGTEXT,
+    ATTEMPTS_ INT DEFAULT 0,
+    INDEX ACT_CLOUD_OUTBOX_SEQ_IDX (SEQ_)
+);
+
+CREATE TABLE IF NOT EXISTS ACT_CLOUD_OUTBOX_LOCK (
+    NAME_ VARCHAR(64) NOT NULL PRIMARY KEY,
+    OWNER_ VARCHAR(255),
+    EXPIRES_ BIGINT NOT NULL
+);
@@ -0,0 +1,16 @@
+CREATE TABLE IF NOT EXISTS ACT_CLOUD_OUTBOX (
+    ID_ VARCHAR(64) NOT NULL PRIMARY KEY,
+    SEQ_ BIGINT NOT NULL,
+    DESTINATION_ VARCHAR(255) NOT NULL,
+    HEADERS_ TEXT,
+    PAYLOAD_ TEXT,
+    ATTEMPTS_ INTEGER DEFAULT 0
+);
+
+CREATE INDEX IF NOT EXISTS ACT_CLOUD_OUTBOX_SEQ_IDX ON ACT_CLOUD_OUTBOX (SEQ_);
+
+CREATE TABLE IF NOT EXISTS ACT_CLOUD_OUTBOX_LOCK (
+    NAME_ VARCHAR(64) NOT NULL PRIMARY KEY,
+    OWNER_ VARCHAR(255),
+    EXPIRES_ BIGINT NOT NULL
+);
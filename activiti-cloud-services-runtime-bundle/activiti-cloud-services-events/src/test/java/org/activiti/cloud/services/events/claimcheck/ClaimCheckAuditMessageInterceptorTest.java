@@ -0,0 +1,160 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.claimcheck;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.activiti.api.runtime.model.impl.ProcessDefinitionImpl;
+import org.activiti.api.runtime.model.impl.VariableInstanceImpl;
+import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
+import org.activiti.cloud.api.model.shared.impl.events.CloudVariableCreatedEventImpl;
+import org.activiti.cloud.api.process.model.impl.events.CloudProcessDeployedEventImpl;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+
+public class ClaimCheckAuditMessageInterceptorTest {
+
+    private static final int THRESHOLD = 1024;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private ClaimCheckAuditMessageInterceptor subject;
+
+    private FileSystemBlobStore blobStore;
+
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Before
+    public void setUp() throws Exception {
+        blobStore = new FileSystemBlobStore(temporaryFolder.newFolder("blobs").toPath());
+        subject = new ClaimCheckAuditMessageInterceptor(objectMapper, blobStore, THRESHOLD, meterRegistry);
+    }
+
+    @Test
+    public void preSendShouldKeepMessagesWithoutBigValues() {
+        // given
+        Message<CloudRuntimeEvent<?, ?>[]> message = messageOf(deployedEvent("small model"),
+                                                               variableCreatedEvent("small value"));
+
+        // when
+        Message<?> result = subject.preSend(message, mock(MessageChannel.class));
+
+        // then
+        assertThat(result).isSameAs(message);
+        assertThat(meterRegistry.get(ClaimCheckAuditMessageInterceptor.OFFLOADED_VALUES).counter().count()).isZero();
+    }
+
+    @Test
+    public void preSendShouldOffloadBigModelContentAndVariableValues() throws Exception {
+        // given
+        String model = bigText('m');
+        String value = bigText('v');
+        Message<CloudRuntimeEvent<?, ?>[]> message = messageOf(deployedEvent(model),
+                                                               variableCreatedEvent(value),
+                                                               variableCreatedEvent("small value"));
+
+        // when
+        Message<?> result = subject.preSend(message, mock(MessageChannel.class));
+
+        // then
+        assertThat(result.getHeaders()).containsEntry(ClaimCheckAuditMessageInterceptor.CLAIM_CHECKS, 2)
+                                       .containsEntry("routingKey", "engineEvents")
+                                       .containsEntry(MessageHeaders.CONTENT_TYPE, "application/json");
+
+        JsonNode events = objectMapper.readTree((byte[]) result.getPayload());
+        String modelReference = events.get(0).get("processModelContent").textValue();
+        String valueReference = events.get(1).get("entity").get("value").textValue();
+
+        assertThat(ClaimCheckReference.isReference(modelReference)).isTrue();
+        assertThat(ClaimCheckReference.isReference(valueReference)).isTrue();
+        assertThat(events.get(2).get("entity").get("value").textValue()).isEqualTo("small value");
+
+        ClaimCheckResolver resolver = new ClaimCheckResolver(blobStore);
+        assertThat(resolver.resolve(modelReference)).isEqualTo(model);
+        assertThat(objectMapper.readValue(resolver.fetch(valueReference), String.class)).isEqualTo(value);
+        assertThat(meterRegistry.get(ClaimCheckAuditMessageInterceptor.OFFLOADED_VALUES).counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    public void preSendShouldStoreUnchangedModelContentOnce() throws Exception {
+        // given
+        String model = bigText('m');
+
+        // when
+        Message<?> first = subject.preSend(messageOf(deployedEvent(model)), mock(MessageChannel.class));
+        Message<?> second = subject.preSend(messageOf(deployedEvent(model)), mock(MessageChannel.class));
+
+        // then
+        String firstReference = objectMapper.readTree((byte[]) first.getPayload()).get(0).get("processModelContent").textValue();
+        String secondReference = objectMapper.readTree((byte[]) second.getPayload()).get(0).get("processModelContent").textValue();
+
+        assertThat(secondReference).isEqualTo(firstReference);
+        assertThat(ClaimCheckReference.hashOf(firstReference)).isEqualTo(ClaimCheckReference.sha256(model.getBytes(StandardCharsets.UTF_8)));
+        assertThat(Files.walk(temporaryFolder.getRoot().toPath().resolve("blobs"))
+                        .filter(Files::isRegularFile)
+                        .count()).isEqualTo(1);
+    }
+
+    private Message<CloudRuntimeEvent<?, ?>[]> messageOf(CloudRuntimeEvent<?, ?>... events) {
+        return MessageBuilder.withPayload(events)
+                             .setHeader("routingKey", "engineEvents")
+                             .build();
+    }
+
+    private CloudProcessDeployedEventImpl deployedEvent(String processModelContent) {
+        ProcessDefinitionImpl processDefinition = new ProcessDefinitionImpl();
+        processDefinition.setId("processDefinitionId");
+        processDefinition.setKey("processDefinitionKey");
+
+        CloudProcessDeployedEventImpl event = new CloudProcessDeployedEventImpl(processDefinition);
+        event.setProcessModelContent(processModelContent);
+
+        return event;
+    }
+
+    private CloudVariableCreatedEventImpl variableCreatedEvent(String value) {
+        return new CloudVariableCreatedEventImpl(new VariableInstanceImpl<>("name",
+                                                                            "string",
+                                                                            value,
+                                                                            "processInstanceId"));
+    }
+
+    private String bigText(char character) {
+        StringBuilder text = new StringBuilder();
+
+        while (text.length() <= THRESHOLD) {
+            text.append(character);
+        }
+
+        return text.toString();
+    }
+}
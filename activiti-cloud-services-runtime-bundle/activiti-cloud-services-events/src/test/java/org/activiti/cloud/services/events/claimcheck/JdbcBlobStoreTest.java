@@ -0,0 +1,97 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.claimcheck;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+
+import org.activiti.cloud.services.events.jdbc.PlatformSchemaInitializer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class JdbcBlobStoreTest {
+
+    private EmbeddedDatabase dataSource;
+
+    private TransactionTemplate transactionTemplate;
+
+    @Before
+    public void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2)
+                                                  .generateUniqueName(true)
+                                                  .build();
+        new PlatformSchemaInitializer(dataSource,
+                                      JdbcBlobStore.SCHEMA_LOCATION,
+                                      JdbcBlobStore.TABLE_NAME).afterPropertiesSet();
+
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @After
+    public void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    public void putShouldStoreContent() {
+        // given
+        JdbcBlobStore subject = new JdbcBlobStore(dataSource);
+
+        // when
+        subject.put("key", bytes("content"));
+
+        // then
+        assertThat(subject.contains("key")).isTrue();
+        assertThat(subject.get("key").get()).isEqualTo(bytes("content"));
+        assertThat(subject.get("other")).isEmpty();
+    }
+
+    @Test
+    public void putShouldNotFailTransactionWhenSameBlobIsStoredConcurrently() {
+        // given
+        new JdbcBlobStore(dataSource).put("key", bytes("content"));
+        // blob stored by another replica after the contains check
+        JdbcBlobStore subject = new JdbcBlobStore(dataSource) {
+            @Override
+            public boolean contains(String key) {
+                return false;
+            }
+        };
+
+        // when
+        Boolean stored = transactionTemplate.execute(status -> {
+            subject.put("key", bytes("content"));
+            subject.put("other", bytes("other content"));
+            return true;
+        });
+
+        // then
+        assertThat(stored).isTrue();
+        assertThat(subject.get("key").get()).isEqualTo(bytes("content"));
+        assertThat(subject.get("other").get()).isEqualTo(bytes("other content"));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
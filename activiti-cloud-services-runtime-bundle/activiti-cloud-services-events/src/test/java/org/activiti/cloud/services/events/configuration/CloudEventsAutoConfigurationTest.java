@@ -0,0 +1,65 @@
+/*
+ * Copyright 2018 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.mock;
+
+import org.activiti.cloud.services.events.ProcessEngineChannels;
+import org.activiti.cloud.services.events.converter.RuntimeBundleInfoAppender;
+import org.activiti.cloud.services.events.listeners.MessageProducerCommandContextCloseListener;
+import org.activiti.cloud.services.events.listeners.OutboxMessageProducerCommandContextCloseListener;
+import org.activiti.cloud.services.events.message.ExecutionContextMessageBuilderFactory;
+import org.activiti.cloud.services.events.outbox.MessageOutbox;
+import org.junit.Test;
+
+public class CloudEventsAutoConfigurationTest {
+
+    private CloudEventsAutoConfiguration subject = new CloudEventsAutoConfiguration();
+
+    private RuntimeBundleProperties runtimeBundleProperties = new RuntimeBundleProperties();
+
+    @Test
+    public void outboxListenerShouldBeCreatedWhenTransactionAggregationIsDisabled() {
+        // when
+        MessageProducerCommandContextCloseListener listener = outboxListener();
+
+        // then
+        assertThat(listener).isInstanceOf(OutboxMessageProducerCommandContextCloseListener.class);
+    }
+
+    @Test
+    public void outboxListenerShouldFailWhenTransactionAggregationIsEnabled() {
+        // given
+        runtimeBundleProperties.getEventsProperties().setTransactionAggregationEnabled(true);
+
+        // when
+        Throwable thrown = catchThrowable(this::outboxListener);
+
+        // then
+        assertThat(thrown).isInstanceOf(IllegalStateException.class)
+                          .hasMessageContaining("transaction-aggregation-enabled");
+    }
+
+    private MessageProducerCommandContextCloseListener outboxListener() {
+        return subject.outboxMessageProducerCommandContextCloseListener(mock(ProcessEngineChannels.class),
+                                                                        mock(ExecutionContextMessageBuilderFactory.class),
+                                                                        mock(RuntimeBundleInfoAppender.class),
+                                                                        runtimeBundleProperties,
+                                                                        mock(MessageOutbox.class));
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.jdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import org.activiti.cloud.services.events.claimcheck.JdbcBlobStore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+public class PlatformSchemaInitializerTest {
+
+    private EmbeddedDatabase dataSource;
+
+    @Before
+    public void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2)
+                                                  .generateUniqueName(true)
+                                                  .build();
+    }
+
+    @After
+    public void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    public void afterPropertiesSetShouldCreateTableUsingScriptForDatabasePlatform() {
+        // given
+        PlatformSchemaInitializer subject = new PlatformSchemaInitializer(dataSource,
+                                                                          JdbcBlobStore.SCHEMA_LOCATION,
+                                                                          JdbcBlobStore.TABLE_NAME);
+
+        // when
+        subject.afterPropertiesSet();
+        subject.afterPropertiesSet();
+
+        // then
+        assertThat(new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM " + JdbcBlobStore.TABLE_NAME,
+                                                               Integer.class)).isZero();
+    }
+
+    @Test
+    public void afterPropertiesSetShouldFailWhenNoScriptIsAvailableForDatabasePlatform() {
+        // given
+        PlatformSchemaInitializer subject = new PlatformSchemaInitializer(dataSource,
+                                                                          "org/activiti/cloud/services/events/unknown/schema-@@platform@@.sql",
+                                                                          "ACT_CLOUD_UNKNOWN");
+
+        // when
+        Throwable thrown = catchThrowable(subject::afterPropertiesSet);
+
+        // then
+        assertThat(thrown).isInstanceOf(IllegalStateException.class)
+                          .hasMessageContaining("schema-h2.sql")
+                          .hasMessageContaining("ACT_CLOUD_UNKNOWN");
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.listeners;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.activiti.api.runtime.model.impl.BPMNActivityImpl;
+import org.activiti.api.runtime.model.impl.BPMNSequenceFlowImpl;
+import org.activiti.cloud.api.process.model.impl.events.CloudBPMNActivityStartedEventImpl;
+import org.activiti.cloud.api.process.model.impl.events.CloudSequenceFlowTakenEventImpl;
+import org.activiti.cloud.services.events.configuration.EventThrottleProperties;
+import org.junit.Test;
+
+public class AuditEventThrottleTest {
+
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    public void tryAcquireShouldDropEventsOfTypesSampledOut() {
+        // given
+        Map<String, Double> samplingRates = new HashMap<>();
+        samplingRates.put("SEQUENCE_FLOW_TAKEN", 0.0);
+        samplingRates.put("ACTIVITY_STARTED", 1.0);
+
+        EventThrottleProperties properties = new EventThrottleProperties();
+        properties.setSamplingRates(samplingRates);
+        AuditEventThrottle throttle = new AuditEventThrottle(properties, meterRegistry);
+
+        // when
+        boolean sequenceFlowTaken = throttle.tryAcquire(sequenceFlowTakenEvent("myProcess:1:10"));
+        boolean activityStarted = throttle.tryAcquire(activityStartedEvent("myProcess:1:10"));
+
+        // then
+        assertThat(sequenceFlowTaken).isFalse();
+        assertThat(activityStarted).isTrue();
+        assertThat(meterRegistry.get(AuditEventThrottle.DROPPED_EVENTS)
+                                .tag("reason", AuditEventThrottle.SAMPLING)
+                                .tag("eventType", "SEQUENCE_FLOW_TAKEN")
+                                .counter()
+                                .count()).isEqualTo(1);
+        assertThat(meterRegistry.get(AuditEventThrottle.SAMPLED_EVENTS)
+                                .tag("eventType", "ACTIVITY_STARTED")
+                                .counter()
+                                .count()).isEqualTo(1);
+    }
+
+    @Test
+    public void tryAcquireShouldRateLimitEventsPerProcessDefinitionKey() {
+        // given
+        EventThrottleProperties properties = new EventThrottleProperties();
+        properties.setRateLimitPerSecond(0.001);
+        properties.setRateLimitBurst(2);
+        AuditEventThrottle throttle = new AuditEventThrottle(properties, meterRegistry);
+
+        // when
+        boolean first = throttle.tryAcquire(activityStartedEvent("runawayProcess:1:10"));
+        boolean second = throttle.tryAcquire(activityStartedEvent("runawayProcess:1:10"));
+        boolean third = throttle.tryAcquire(activityStartedEvent("runawayProcess:1:10"));
+        boolean otherProcess = throttle.tryAcquire(activityStartedEvent("myProcess:1:10"));
+
+        // then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(third).isFalse();
+        assertThat(otherProcess).isTrue();
+        assertThat(meterRegistry.get(AuditEventThrottle.DROPPED_EVENTS)
+                                .tag("reason", AuditEventThrottle.RATE_LIMIT)
+                                .counter()
+                                .count()).isEqualTo(1);
+    }
+
+    @Test
+    public void tryAcquireShouldEvictLeastRecentlyUsedTokenBuckets() {
+        // given
+        EventThrottleProperties properties = new EventThrottleProperties();
+        properties.setRateLimitPerSecond(0.001);
+        properties.setRateLimitBurst(1);
+        properties.setRateLimitMaxKeys(2);
+        AuditEventThrottle throttle = new AuditEventThrottle(properties, meterRegistry);
+        throttle.tryAcquire(activityStartedEvent("runawayProcess:1:10"));
+        throttle.tryAcquire(activityStartedEvent("myProcess:1:10"));
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            throttle.tryAcquire(activityStartedEvent("process" + i + ":1:10"));
+            throttle.tryAcquire(activityStartedEvent("runawayProcess:1:10"));
+        }
+
+        // then
+        assertThat(throttle.getTokenBucketCount()).isEqualTo(2);
+        assertThat(throttle.tryAcquire(activityStartedEvent("runawayProcess:1:10"))).isFalse();
+        assertThat(throttle.tryAcquire(activityStartedEvent("myProcess:1:10"))).isTrue();
+    }
+
+    private CloudBPMNActivityStartedEventImpl activityStartedEvent(String processDefinitionId) {
+        BPMNActivityImpl activity = new BPMNActivityImpl("elementId", "activityName", "userTask");
+        activity.setProcessDefinitionId(processDefinitionId);
+
+        return new CloudBPMNActivityStartedEventImpl(activity, processDefinitionId, "processInstanceId");
+    }
+
+    private CloudSequenceFlowTakenEventImpl sequenceFlowTakenEvent(String processDefinitionId) {
+        BPMNSequenceFlowImpl sequenceFlow = new BPMNSequenceFlowImpl("elementId", "sourceId", "targetId");
+        sequenceFlow.setProcessDefinitionId(processDefinitionId);
+
+        return new CloudSequenceFlowTakenEventImpl(sequenceFlow);
+    }
+}
@@ -16,7 +16,9 @@
 
 package org.activiti.cloud.services.events.listeners;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -29,6 +31,7 @@ import org.activiti.cloud.api.model.shared.impl.events.CloudRuntimeEventImpl;
 import org.activiti.cloud.api.process.model.events.CloudProcessDeployedEvent;
 import org.activiti.cloud.services.events.ProcessEngineChannels;
 import org.activiti.cloud.services.events.converter.RuntimeBundleInfoAppender;
+import org.activiti.cloud.services.events.deployment.PublishedProcessModelRegistry;
 import org.activiti.cloud.services.events.message.MessageBuilderAppenderChain;
 import org.activiti.cloud.services.events.message.RuntimeBundleMessageBuilderFactory;
 import org.junit.Before;
@@ -38,14 +41,17 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.DigestUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -71,9 +77,14 @@ public class CloudProcessDeployedProducerTest {
     @Mock
     private MessageBuilderAppenderChain messageBuilderAppenderChain;
 
+    private PublishedProcessModelRegistry publishedProcessModelRegistry = mock(PublishedProcessModelRegistry.class);
+
     @Captor
     private ArgumentCaptor<CloudRuntimeEvent<?, ?>[]> messagePayloadCaptor;
 
+    @Captor
+    private ArgumentCaptor<Message<?>> messageCaptor;
+
     @Before
     public void setUp() {
         initMocks(this);
@@ -112,4 +123,71 @@ public class CloudProcessDeployedProducerTest {
                               tuple(def2,
                                     "content2"));
     }
+
+    @Test
+    public void shouldPublishOnlyNewOrChangedProcessModelsWhenTrackingIsEnabled() {
+        //given
+        CloudProcessDeployedProducer trackingProducer = new CloudProcessDeployedProducer(runtimeBundleInfoAppender,
+                                                                                         producer,
+                                                                                         runtimeBundleMessageBuilderFactory,
+                                                                                         publishedProcessModelRegistry);
+        ProcessDefinition def1 = processDefinition("def1");
+        ProcessDefinition def2 = processDefinition("def2");
+        given(publishedProcessModelRegistry.findContentHashes(any())).willReturn(Collections.singletonMap("def1",
+                                                                                                           md5("content1")));
+        given(messageBuilderAppenderChain.withPayload(ArgumentMatchers.<CloudRuntimeEvent<?, ?>[]>any())).willReturn(MessageBuilder.withPayload(new CloudRuntimeEvent<?, ?>[1]));
+
+        //when
+        trackingProducer.sendProcessDeployedEvents(new ProcessDeployedEvents(Arrays.asList(new ProcessDeployedEventImpl(def1,
+                                                                                                                        "content1"),
+                                                                                          new ProcessDeployedEventImpl(def2,
+                                                                                                                        "content2"))));
+
+        //then
+        verify(auditProducer).send(any());
+        verify(messageBuilderAppenderChain).withPayload(messagePayloadCaptor.capture());
+        assertThat(messagePayloadCaptor.getValue())
+                .extracting(event -> ((CloudProcessDeployedEvent) event).getEntity())
+                .containsExactly(def2);
+        verify(publishedProcessModelRegistry).saveContentHashes(Collections.singletonMap("def2",
+                                                                                         md5("content2")));
+    }
+
+    @Test
+    public void shouldPublishMarkersWithoutContentForUnchangedProcessModelsWhenEnabled() {
+        //given
+        CloudProcessDeployedProducer trackingProducer = new CloudProcessDeployedProducer(runtimeBundleInfoAppender,
+                                                                                         producer,
+                                                                                         runtimeBundleMessageBuilderFactory,
+                                                                                         publishedProcessModelRegistry);
+        trackingProducer.setPublishUnchangedMarkers(true);
+        ProcessDefinition def1 = processDefinition("def1");
+        given(publishedProcessModelRegistry.findContentHashes(any())).willReturn(Collections.singletonMap("def1",
+                                                                                                           md5("content1")));
+        given(messageBuilderAppenderChain.withPayload(ArgumentMatchers.<CloudRuntimeEvent<?, ?>[]>any())).willReturn(MessageBuilder.withPayload(new CloudRuntimeEvent<?, ?>[1]));
+
+        //when
+        trackingProducer.sendProcessDeployedEvents(new ProcessDeployedEvents(Collections.singletonList(new ProcessDeployedEventImpl(def1,
+                                                                                                                                    "content1"))));
+
+        //then
+        verify(auditProducer).send(messageCaptor.capture());
+        assertThat(messageCaptor.getValue().getHeaders()).containsEntry(CloudProcessDeployedProducer.PROCESS_MODEL_UNCHANGED,
+                                                                        true);
+        verify(messageBuilderAppenderChain).withPayload(messagePayloadCaptor.capture());
+        assertThat(messagePayloadCaptor.getValue())
+                .extracting(event -> ((CloudProcessDeployedEvent) event).getProcessModelContent())
+                .containsExactly((String) null);
+        verify(publishedProcessModelRegistry, never()).saveContentHashes(any());
+    }
+
+    private ProcessDefinition processDefinition(String id) {
+        ProcessDefinition processDefinition = mock(ProcessDefinition.class);
+        given(processDefinition.getId()).willReturn(id);
+        return processDefinition;
+    }
+
+    private String md5(String content) {
+        return DigestUtils.md5DigestAsHex(content.getBytes(StandardCharsets.UTF_8));
+    }
 }
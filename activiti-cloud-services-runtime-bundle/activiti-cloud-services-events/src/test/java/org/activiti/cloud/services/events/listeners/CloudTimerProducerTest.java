@@ -16,10 +16,13 @@
 
 package org.activiti.cloud.services.events.listeners;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.MockitoAnnotations.initMocks;
 
+import org.activiti.api.process.model.events.BPMNTimerFiredEvent;
 import org.activiti.api.runtime.event.impl.BPMNTimerFiredEventImpl;
 import org.activiti.api.runtime.event.impl.BPMNTimerScheduledEventImpl;
 import org.activiti.api.runtime.model.impl.BPMNTimerImpl;
@@ -72,4 +75,18 @@ public class CloudTimerProducerTest {
         verify(eventsAggregator).add(cloudEventScheduled);
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void onEventShouldNotConvertEventFilteredByAggregator() {
+        //given
+        BPMNTimerFiredEventImpl eventFired = new BPMNTimerFiredEventImpl(new BPMNTimerImpl());
+        given(eventsAggregator.isFiltered(eventFired)).willReturn(true);
+
+        //when
+        cloudTimerFiredProducer.onEvent(eventFired);
+
+        //then
+        verify(eventConverter, never()).from(any(BPMNTimerFiredEvent.class));
+        verify(eventsAggregator, never()).add(any());
+    }
+}
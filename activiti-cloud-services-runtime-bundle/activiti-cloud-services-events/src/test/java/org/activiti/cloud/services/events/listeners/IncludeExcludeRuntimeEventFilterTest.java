@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.listeners;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+
+import org.activiti.api.runtime.event.impl.BPMNActivityStartedEventImpl;
+import org.activiti.api.runtime.event.impl.BPMNTimerFiredEventImpl;
+import org.activiti.api.runtime.event.impl.ProcessStartedEventImpl;
+import org.activiti.api.runtime.model.impl.BPMNActivityImpl;
+import org.activiti.api.runtime.model.impl.BPMNTimerImpl;
+import org.activiti.api.runtime.model.impl.ProcessInstanceImpl;
+import org.activiti.cloud.services.events.configuration.EventFilterProperties;
+import org.junit.Test;
+
+public class IncludeExcludeRuntimeEventFilterTest {
+
+    @Test
+    public void shouldAcceptAllEventsWithoutCriteria() {
+        // given
+        IncludeExcludeRuntimeEventFilter filter = new IncludeExcludeRuntimeEventFilter(new EventFilterProperties());
+
+        // then
+        assertThat(filter.accept(activityStartedEvent("userTask", "myProcess:1:10"))).isTrue();
+        assertThat(filter.accept(processStartedEvent("myProcess"))).isTrue();
+    }
+
+    @Test
+    public void shouldExcludeEventsByEventType() {
+        // given
+        EventFilterProperties properties = new EventFilterProperties();
+        properties.setExcludeEventTypes(Collections.singleton("ACTIVITY_STARTED"));
+        IncludeExcludeRuntimeEventFilter filter = new IncludeExcludeRuntimeEventFilter(properties);
+
+        // then
+        assertThat(filter.accept(activityStartedEvent("userTask", "myProcess:1:10"))).isFalse();
+        assertThat(filter.accept(processStartedEvent("myProcess"))).isTrue();
+    }
+
+    @Test
+    public void shouldIncludeOnlyEventsOfGivenElementTypes() {
+        // given
+        EventFilterProperties properties = new EventFilterProperties();
+        properties.setIncludeElementTypes(Collections.singleton("userTask"));
+        IncludeExcludeRuntimeEventFilter filter = new IncludeExcludeRuntimeEventFilter(properties);
+
+        // then
+        assertThat(filter.accept(activityStartedEvent("userTask", "myProcess:1:10"))).isTrue();
+        assertThat(filter.accept(activityStartedEvent("exclusiveGateway", "myProcess:1:10"))).isFalse();
+        // Events without element type are not affected
+        assertThat(filter.accept(processStartedEvent("myProcess"))).isTrue();
+    }
+
+    @Test
+    public void shouldFilterEventsByProcessDefinitionKeyResolvedFromEntity() {
+        // given
+        EventFilterProperties properties = new EventFilterProperties();
+        properties.setExcludeProcessDefinitionKeys(Collections.singleton("noisyProcess"));
+        IncludeExcludeRuntimeEventFilter filter = new IncludeExcludeRuntimeEventFilter(properties);
+
+        // then
+        assertThat(filter.accept(processStartedEvent("noisyProcess"))).isFalse();
+        assertThat(filter.accept(activityStartedEvent("userTask", "noisyProcess:3:42"))).isFalse();
+        assertThat(filter.accept(timerFiredEvent("noisyProcess:3:42"))).isFalse();
+        assertThat(filter.accept(processStartedEvent("myProcess"))).isTrue();
+        assertThat(filter.accept(timerFiredEvent("myProcess:1:10"))).isTrue();
+    }
+
+    private BPMNActivityStartedEventImpl activityStartedEvent(String activityType, String processDefinitionId) {
+        BPMNActivityImpl activity = new BPMNActivityImpl("elementId", "activityName", activityType);
+        activity.setProcessDefinitionId(processDefinitionId);
+        activity.setProcessInstanceId("processInstanceId");
+
+        return new BPMNActivityStartedEventImpl(activity);
+    }
+
+    private BPMNTimerFiredEventImpl timerFiredEvent(String processDefinitionId) {
+        BPMNTimerImpl timer = new BPMNTimerImpl("elementId");
+        timer.setProcessDefinitionId(processDefinitionId);
+        timer.setProcessInstanceId("processInstanceId");
+
+        return new BPMNTimerFiredEventImpl(timer);
+    }
+
+    private ProcessStartedEventImpl processStartedEvent(String processDefinitionKey) {
+        ProcessInstanceImpl processInstance = new ProcessInstanceImpl();
+        processInstance.setId("processInstanceId");
+        processInstance.setProcessDefinitionKey(processDefinitionKey);
+
+        return new ProcessStartedEventImpl(processInstance);
+    }
+}
@@ -21,10 +21,12 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 
+import java.util.Arrays;
 import java.util.Collections;
 
 import org.activiti.api.process.model.ProcessInstance;
@@ -36,6 +38,7 @@ import org.activiti.cloud.services.events.ProcessEngineChannels;
 import org.activiti.cloud.services.events.configuration.RuntimeBundleProperties;
 import org.activiti.cloud.services.events.converter.RuntimeBundleInfoAppender;
 import org.activiti.cloud.services.events.message.ExecutionContextMessageBuilderFactory;
+import org.activiti.cloud.services.events.message.PartitionedExecutionContextMessageBuilderFactory;
 import org.activiti.engine.impl.context.ExecutionContext;
 import org.activiti.engine.impl.interceptor.CommandContext;
 import org.activiti.engine.impl.persistence.entity.DeploymentEntity;
@@ -211,6 +214,63 @@ public class MessageProducerCommandContextCloseListenerTest {
         
     }
 
+    @Test
+    public void closedShouldSendOneMessagePerProcessInstanceWhenGroupingIsEnabled() {
+        // given
+        closeListener.setGroupByProcessInstance(true);
+
+        CloudProcessCreatedEventImpl firstEvent = new CloudProcessCreatedEventImpl(new ProcessInstanceImpl());
+        firstEvent.setProcessInstanceId(MOCK_PROCESS_INSTANCE_ID);
+        CloudProcessCreatedEventImpl secondEvent = new CloudProcessCreatedEventImpl(new ProcessInstanceImpl());
+        secondEvent.setProcessInstanceId("anotherProcessInstanceId");
+        CloudProcessCreatedEventImpl thirdEvent = new CloudProcessCreatedEventImpl(new ProcessInstanceImpl());
+        thirdEvent.setProcessInstanceId(MOCK_PROCESS_INSTANCE_ID);
+
+        ExecutionContext executionContext = mockExecutionContext();
+        given(commandContext.getGenericAttribute(MOCK_PROCESS_INSTANCE_ID)).willReturn(executionContext);
+        given(commandContext.getGenericAttribute(MessageProducerCommandContextCloseListener.PROCESS_ENGINE_EVENTS))
+                .willReturn(Arrays.asList(firstEvent, secondEvent, thirdEvent));
+
+        // when
+        closeListener.closed(commandContext);
+
+        // then
+        verify(auditChannel, times(2)).send(messageArgumentCaptor.capture());
+
+        Message<CloudRuntimeEvent<?, ?>[]> first = messageArgumentCaptor.getAllValues().get(0);
+        assertThat(first.getPayload()).containsExactly(firstEvent, thirdEvent);
+        assertThat(first.getHeaders()).containsEntry("processInstanceId", MOCK_PROCESS_INSTANCE_ID)
+                                      .containsEntry("processDefinitionKey", MOCK_PROCESS_DEFINITION_KEY);
+
+        Message<CloudRuntimeEvent<?, ?>[]> second = messageArgumentCaptor.getAllValues().get(1);
+        assertThat(second.getPayload()).containsExactly(secondEvent);
+        assertThat(second.getHeaders()).doesNotContainKey("processInstanceId");
+    }
+
+    @Test
+    public void closedShouldSendPartitionKeyAndProcessInstanceRoutingKeyWithPartitionedFactory() {
+        // given
+        closeListener = new MessageProducerCommandContextCloseListener(producer,
+                                                                       new PartitionedExecutionContextMessageBuilderFactory(properties),
+                                                                       runtimeBundleInfoAppender);
+        closeListener.setGroupByProcessInstance(true);
+
+        event.setProcessInstanceId(MOCK_PROCESS_INSTANCE_ID);
+        ExecutionContext executionContext = mockExecutionContext();
+        given(commandContext.getGenericAttribute(MOCK_PROCESS_INSTANCE_ID)).willReturn(executionContext);
+        given(commandContext.getGenericAttribute(MessageProducerCommandContextCloseListener.PROCESS_ENGINE_EVENTS))
+                .willReturn(Collections.singletonList(event));
+
+        // when
+        closeListener.closed(commandContext);
+
+        // then
+        verify(auditChannel).send(messageArgumentCaptor.capture());
+        assertThat(messageArgumentCaptor.getValue()
+                                        .getHeaders()).containsEntry("routingKey", MOCK_ROUTING_KEY + "." + MOCK_PROCESS_INSTANCE_ID)
+                                                      .containsEntry("partitionKey", MOCK_PROCESS_INSTANCE_ID);
+    }
+
     private ExecutionContext mockExecutionContext() {
         ExecutionContext context = mock(ExecutionContext.class);
         ExecutionEntity processInstance = mock(ExecutionEntity.class);
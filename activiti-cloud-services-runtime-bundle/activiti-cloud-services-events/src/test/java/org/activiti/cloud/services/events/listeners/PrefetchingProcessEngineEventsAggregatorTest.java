@@ -0,0 +1,139 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.cloud.services.events.listeners;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.activiti.api.runtime.model.impl.ProcessInstanceImpl;
+import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
+import org.activiti.cloud.api.process.model.impl.events.CloudProcessCreatedEventImpl;
+import org.activiti.engine.impl.ProcessInstanceQueryImpl;
+import org.activiti.engine.impl.context.ExecutionContext;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.persistence.cache.EntityCache;
+import org.activiti.engine.impl.persistence.entity.ExecutionEntity;
+import org.activiti.engine.impl.persistence.entity.ExecutionEntityImpl;
+import org.activiti.engine.impl.persistence.entity.ExecutionEntityManager;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+
+public class PrefetchingProcessEngineEventsAggregatorTest {
+
+    private PrefetchingProcessEngineEventsAggregator eventsAggregator;
+
+    @Mock
+    private MessageProducerCommandContextCloseListener closeListener;
+
+    @Mock
+    private CommandContext commandContext;
+
+    @Mock
+    private EntityCache entityCache;
+
+    @Mock
+    private ExecutionEntityManager executionEntityManager;
+
+    @Captor
+    private ArgumentCaptor<ProcessInstanceQueryImpl> queryCaptor;
+
+    private List<CloudRuntimeEvent<?, ?>> events = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        initMocks(this);
+
+        eventsAggregator = spy(new PrefetchingProcessEngineEventsAggregator(closeListener));
+
+        given(eventsAggregator.getCurrentCommandContext()).willReturn(commandContext);
+        given(commandContext.getGenericAttribute(MessageProducerCommandContextCloseListener.PROCESS_ENGINE_EVENTS)).willReturn(events);
+        given(commandContext.getSession(EntityCache.class)).willReturn(entityCache);
+        given(commandContext.getExecutionEntityManager()).willReturn(executionEntityManager);
+    }
+
+    @Test
+    public void addShouldDeferExecutionContextResolution() {
+        // when
+        eventsAggregator.add(processCreatedEvent("processInstanceId"));
+
+        // then
+        assertThat(events).hasSize(1);
+        verify(executionEntityManager, never()).findById(anyString());
+        verify(commandContext).addCloseListener(any(PrefetchingProcessEngineEventsAggregator.ExecutionContextPrefetchCloseListener.class));
+    }
+
+    @Test
+    public void closingShouldPrefetchMissingProcessInstancesInBulk() {
+        // given
+        eventsAggregator.add(processCreatedEvent("first"));
+        eventsAggregator.add(processCreatedEvent("second"));
+        eventsAggregator.add(processCreatedEvent("cached"));
+
+        given(entityCache.findInCache(ExecutionEntityImpl.class, "cached")).willReturn(new ExecutionEntityImpl());
+
+        // when
+        eventsAggregator.prefetchAndAppendExecutionContextInfo(commandContext);
+
+        // then
+        verify(executionEntityManager).findProcessInstanceByQueryCriteria(queryCaptor.capture());
+        assertThat(queryCaptor.getValue().getProcessInstanceIds()).containsOnly("first",
+                                                                                 "second");
+    }
+
+    @Test
+    public void closingShouldAppendExecutionContextInfoToBufferedEvents() {
+        // given
+        ExecutionEntity processInstance = mock(ExecutionEntity.class);
+        given(processInstance.getId()).willReturn("processInstanceId");
+        given(processInstance.getBusinessKey()).willReturn("businessKey");
+
+        ExecutionContext executionContext = mock(ExecutionContext.class);
+        given(executionContext.getProcessInstance()).willReturn(processInstance);
+        given(commandContext.getGenericAttribute("processInstanceId")).willReturn(executionContext);
+
+        eventsAggregator.add(processCreatedEvent("processInstanceId"));
+
+        // when
+        eventsAggregator.prefetchAndAppendExecutionContextInfo(commandContext);
+
+        // then
+        assertThat(events.get(0).getBusinessKey()).isEqualTo("businessKey");
+        verify(executionEntityManager, never()).findProcessInstanceByQueryCriteria(any());
+        verify(commandContext, never()).addAttribute(eq("processInstanceId"), any());
+    }
+
+    private CloudProcessCreatedEventImpl processCreatedEvent(String processInstanceId) {
+        ProcessInstanceImpl processInstance = new ProcessInstanceImpl();
+        processInstance.setId(processInstanceId);
+
+        return new CloudProcessCreatedEventImpl(processInstance);
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.cloud.services.events.listeners;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.activiti.api.runtime.model.impl.ProcessInstanceImpl;
+import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
+import org.activiti.cloud.api.process.model.impl.events.CloudProcessCreatedEventImpl;
+import org.activiti.cloud.api.process.model.impl.events.CloudProcessStartedEventImpl;
+import org.activiti.cloud.services.events.ProcessEngineChannels;
+import org.activiti.cloud.services.events.configuration.RuntimeBundleProperties;
+import org.activiti.cloud.services.events.converter.RuntimeBundleInfoAppender;
+import org.activiti.cloud.services.events.message.ExecutionContextMessageBuilderFactory;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class TransactionScopedMessageProducerCommandContextCloseListenerTest {
+
+    private TransactionScopedMessageProducerCommandContextCloseListener closeListener;
+
+    @Mock
+    private ProcessEngineChannels producer;
+
+    @Mock
+    private MessageChannel auditChannel;
+
+    @Mock
+    private CommandContext firstCommandContext;
+
+    @Mock
+    private CommandContext secondCommandContext;
+
+    @Captor
+    private ArgumentCaptor<Message<CloudRuntimeEvent<?, ?>[]>> messageArgumentCaptor;
+
+    private CloudProcessCreatedEventImpl createdEvent = new CloudProcessCreatedEventImpl(new ProcessInstanceImpl());
+
+    private CloudProcessStartedEventImpl startedEvent = new CloudProcessStartedEventImpl(new ProcessInstanceImpl(), null, null);
+
+    @Before
+    public void setUp() {
+        initMocks(this);
+
+        RuntimeBundleProperties properties = new RuntimeBundleProperties();
+        properties.setRbSpringAppName("springAppName");
+
+        closeListener = new TransactionScopedMessageProducerCommandContextCloseListener(producer,
+                                                                                        new ExecutionContextMessageBuilderFactory(properties),
+                                                                                        new RuntimeBundleInfoAppender(properties),
+                                                                                        2);
+        given(producer.auditProducer()).willReturn(auditChannel);
+        given(firstCommandContext.getGenericAttribute(MessageProducerCommandContextCloseListener.PROCESS_ENGINE_EVENTS))
+                .willReturn(Arrays.asList(createdEvent, startedEvent));
+        given(secondCommandContext.getGenericAttribute(MessageProducerCommandContextCloseListener.PROCESS_ENGINE_EVENTS))
+                .willReturn(Collections.singletonList(createdEvent));
+    }
+
+    @After
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(closeListener);
+    }
+
+    @Test
+    public void closedShouldSendEventsImmediatelyWhenThereIsNoTransaction() {
+        // when
+        closeListener.closed(firstCommandContext);
+
+        // then
+        verify(auditChannel).send(messageArgumentCaptor.capture());
+        assertThat(messageArgumentCaptor.getValue().getPayload()).containsExactly(createdEvent,
+                                                                                   startedEvent);
+    }
+
+    @Test
+    public void closedShouldBufferEventsOfAllCommandContextsUntilCommit() {
+        // given
+        TransactionSynchronizationManager.initSynchronization();
+
+        // when
+        closeListener.closed(firstCommandContext);
+        closeListener.closed(secondCommandContext);
+
+        // then
+        verify(auditChannel, never()).send(any());
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).hasSize(1);
+
+        // when
+        commit();
+
+        // then
+        verify(auditChannel, times(2)).send(messageArgumentCaptor.capture());
+        assertThat(messageArgumentCaptor.getAllValues().get(0).getPayload()).containsExactly(createdEvent,
+                                                                                              startedEvent);
+        assertThat(messageArgumentCaptor.getAllValues().get(1).getPayload()).containsExactly(createdEvent);
+        assertThat(TransactionSynchronizationManager.hasResource(closeListener)).isFalse();
+    }
+
+    @Test
+    public void closedShouldDropBufferedEventsOnRollback() {
+        // given
+        TransactionSynchronizationManager.initSynchronization();
+        closeListener.closed(firstCommandContext);
+
+        // when
+        TransactionSynchronizationManager.getSynchronizations()
+                                         .forEach(it -> it.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // then
+        verify(auditChannel, never()).send(any());
+        assertThat(TransactionSynchronizationManager.hasResource(closeListener)).isFalse();
+    }
+
+    private void commit() {
+        TransactionSynchronizationManager.getSynchronizations()
+                                         .forEach(it -> {
+                                             it.afterCommit();
+                                             it.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+                                         });
+    }
+}
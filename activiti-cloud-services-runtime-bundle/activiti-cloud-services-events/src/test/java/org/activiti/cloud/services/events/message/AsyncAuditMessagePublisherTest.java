@@ -0,0 +1,247 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.cloud.services.events.message;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.activiti.cloud.services.events.ProcessEngineChannels;
+import org.activiti.cloud.services.events.configuration.AsyncPublisherProperties;
+import org.activiti.cloud.services.events.configuration.AsyncPublisherProperties.OverflowPolicy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.support.MessageBuilder;
+
+public class AsyncAuditMessagePublisherTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Mock
+    private ProcessEngineChannels producer;
+
+    @Mock
+    private MessageChannel auditChannel;
+
+    @Captor
+    private ArgumentCaptor<Message<?>> messageArgumentCaptor;
+
+    private CountDownLatch sendLatch = new CountDownLatch(1);
+
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AsyncAuditMessagePublisher publisher;
+
+    @Before
+    public void setUp() {
+        initMocks(this);
+
+        given(producer.auditProducer()).willReturn(auditChannel);
+        given(auditChannel.send(any())).willAnswer(invocation -> {
+            sendLatch.await();
+            return true;
+        });
+    }
+
+    @After
+    public void tearDown() {
+        sendLatch.countDown();
+
+        if (publisher != null) {
+            publisher.stop();
+        }
+    }
+
+    @Test
+    public void publishShouldSendMessageFromSenderThread() {
+        // given
+        publisher = createPublisher(OverflowPolicy.BLOCK);
+        sendLatch.countDown();
+
+        // when
+        publisher.publish(message("first"));
+
+        // then
+        verify(auditChannel, timeout(1000)).send(messageArgumentCaptor.capture());
+        assertThat(messageArgumentCaptor.getValue().getPayload()).isEqualTo("first");
+        assertThat(meterRegistry.get(AsyncAuditMessagePublisher.SEND_LATENCY).timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void publishShouldFailWhenBufferIsFull() {
+        // given
+        publisher = createPublisher(OverflowPolicy.FAIL);
+        fillBuffer();
+
+        // then
+        assertThatExceptionOfType(MessagingException.class).isThrownBy(() -> publisher.publish(message("third")));
+        assertThat(meterRegistry.get(AsyncAuditMessagePublisher.OVERFLOWS).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void publishShouldSpillMessageWhenBufferIsFull() {
+        // given
+        publisher = createPublisher(OverflowPolicy.SPILL);
+        fillBuffer();
+
+        // when
+        publisher.publish(message("third"));
+
+        // then
+        assertThat(publisher.getSpillDepth()).isEqualTo(1);
+
+        // when
+        sendLatch.countDown();
+
+        // then
+        verify(auditChannel, timeout(1000).times(3)).send(messageArgumentCaptor.capture());
+        assertThat(messageArgumentCaptor.getAllValues().get(2).getPayload()).isEqualTo("\"third\"".getBytes());
+        assertThat(publisher.getSpillDepth()).isEqualTo(0);
+    }
+
+    @Test
+    public void publishShouldKeepNewMessagesBehindSpilledMessages() throws Exception {
+        // given
+        Files.write(temporaryFolder.getRoot().toPath().resolve(String.format("%019d-%019d.json", 0, 1)),
+                    "{\"headers\":{},\"payload\":\"spilled\"}".getBytes());
+        publisher = createPublisher(OverflowPolicy.SPILL);
+
+        // when
+        publisher.publish(message("new"));
+        sendLatch.countDown();
+
+        // then
+        verify(auditChannel, timeout(1000).times(2)).send(messageArgumentCaptor.capture());
+        assertThat(messageArgumentCaptor.getAllValues()).extracting(Message::getPayload)
+                                                        .containsExactly("\"spilled\"".getBytes(),
+                                                                         "\"new\"".getBytes());
+        assertThat(publisher.getSpillDepth()).isEqualTo(0);
+    }
+
+    @Test
+    public void publishShouldNotStrandMessagesSpilledWhileSpillIsReplayed() throws Exception {
+        // given
+        publisher = createPublisher(OverflowPolicy.SPILL);
+        sendLatch.countDown();
+        ExecutorService producers = Executors.newFixedThreadPool(4);
+
+        try {
+            // when
+            List<Future<?>> published = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                published.add(producers.submit(() -> {
+                    for (int j = 0; j < 50; j++) {
+                        publisher.publish(message("message"));
+                    }
+                }));
+            }
+            for (Future<?> future : published) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+
+            // then
+            verify(auditChannel, timeout(10000).times(200)).send(any());
+            assertThat(publisher.getSpillDepth()).isEqualTo(0);
+            assertThat(temporaryFolder.getRoot().list()).isEmpty();
+        } finally {
+            producers.shutdownNow();
+        }
+    }
+
+    @Test
+    public void publisherShouldStopBeforeStreamBindings() {
+        // given
+        publisher = createPublisher(OverflowPolicy.BLOCK);
+
+        // then
+        assertThat(publisher.isAutoStartup()).isTrue();
+        assertThat(publisher.getPhase()).isGreaterThan(Integer.MAX_VALUE - 1000);
+    }
+
+    @Test
+    public void startShouldRestartSendersAfterStop() {
+        // given
+        AtomicReference<String> senderThread = new AtomicReference<>();
+        given(auditChannel.send(any())).willAnswer(invocation -> {
+            senderThread.set(Thread.currentThread().getName());
+            return true;
+        });
+        publisher = createPublisher(OverflowPolicy.BLOCK);
+        publisher.stop();
+
+        // when
+        publisher.start();
+        publisher.publish(message("first"));
+
+        // then
+        assertThat(publisher.isRunning()).isTrue();
+        verify(auditChannel, timeout(1000)).send(any());
+        assertThat(senderThread.get()).startsWith("audit-message-sender-");
+    }
+
+    private void fillBuffer() {
+        // first message blocks the sender thread, second one fills the buffer
+        publisher.publish(message("first"));
+        verify(auditChannel, timeout(1000)).send(any());
+
+        publisher.publish(message("second"));
+        verify(auditChannel, times(1)).send(any());
+    }
+
+    private AsyncAuditMessagePublisher createPublisher(OverflowPolicy overflowPolicy) {
+        AsyncPublisherProperties properties = new AsyncPublisherProperties();
+        properties.setBufferSize(1);
+        properties.setOverflowPolicy(overflowPolicy);
+        properties.setSpillDirectory(temporaryFolder.getRoot().getAbsolutePath());
+
+        return new AsyncAuditMessagePublisher(producer,
+                                              properties,
+                                              new ObjectMapper(),
+                                              meterRegistry);
+    }
+
+    private Message<String> message(String payload) {
+        return MessageBuilder.withPayload(payload).build();
+    }
+}
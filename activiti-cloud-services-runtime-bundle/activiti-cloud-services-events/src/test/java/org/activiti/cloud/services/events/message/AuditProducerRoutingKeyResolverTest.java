@@ -95,4 +95,42 @@ public class AuditProducerRoutingKeyResolverTest {
                 
     }
     
+    @Test
+    public void testResolveRoutingKeyIsMemoizedForSameHeaderValues() {
+        // given
+        Map<String, Object> headers = MapBuilder.<String, Object> map(RuntimeBundleInfoMessageHeaders.APP_NAME, "app:na#me")
+                                                .with(RuntimeBundleInfoMessageHeaders.SERVICE_NAME, "service-name");
+        Map<String, Object> sameHeaders = MapBuilder.<String, Object> map(RuntimeBundleInfoMessageHeaders.SERVICE_NAME, "service-name")
+                                                    .with(RuntimeBundleInfoMessageHeaders.APP_NAME, "app:na#me");
+        
+        // when
+        String routingKey = subject.resolve(headers);
+        
+        // then
+        assertThat(subject.resolve(sameHeaders)).isSameAs(routingKey)
+                                                .isEqualTo("engineEvents.service-name.app-na-me");
+                
+    }
+
+    @Test
+    public void testResolveRoutingKeyKeepsRecentlyUsedKeysWhenCacheIsFull() {
+        // given
+        Map<String, Object> headers = MapBuilder.<String, Object> map(RuntimeBundleInfoMessageHeaders.APP_NAME, "app-name")
+                                                .with(RuntimeBundleInfoMessageHeaders.SERVICE_NAME, "service-name");
+        String routingKey = subject.resolve(headers);
+
+        // when
+        for (int i = 0; i < 10000; i++) {
+            subject.resolve(MapBuilder.<String, Object> map(RuntimeBundleInfoMessageHeaders.APP_NAME, "app-" + i)
+                                      .with(RuntimeBundleInfoMessageHeaders.SERVICE_NAME, "service-name"));
+            subject.resolve(headers);
+        }
+
+        // then
+        assertThat(subject.resolve(headers)).isSameAs(routingKey);
+        assertThat(subject.resolve(MapBuilder.<String, Object> map(RuntimeBundleInfoMessageHeaders.APP_NAME, "app-1")
+                                             .with(RuntimeBundleInfoMessageHeaders.SERVICE_NAME, "service-name")))
+                                                 .isEqualTo("engineEvents.service-name.app-1");
+    }
+
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.message;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.core.DestinationResolutionException;
+import org.springframework.messaging.core.DestinationResolver;
+
+public class CachingDestinationResolverTest {
+
+    private DestinationResolver<MessageChannel> delegate;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private CachingDestinationResolver subject;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        delegate = mock(DestinationResolver.class);
+        meterRegistry = new SimpleMeterRegistry();
+        subject = new CachingDestinationResolver(delegate, meterRegistry);
+    }
+
+    @Test
+    public void resolveDestinationShouldResolveDestinationOnlyOnce() {
+        // given
+        MessageChannel messageChannel = mock(MessageChannel.class);
+        given(delegate.resolveDestination("payment")).willReturn(messageChannel);
+
+        // when
+        subject.resolveDestination("payment");
+        MessageChannel result = subject.resolveDestination("payment");
+
+        // then
+        assertThat(result).isSameAs(messageChannel);
+        verify(delegate, times(1)).resolveDestination("payment");
+        assertThat(meterRegistry.get(CachingDestinationResolver.CACHE_MISSES)
+                                .tag("destination", "payment")
+                                .timer()
+                                .count()).isEqualTo(1);
+    }
+
+    @Test
+    public void warmUpShouldResolveDestinationsBeforeFirstUse() {
+        // given
+        MessageChannel messageChannel = mock(MessageChannel.class);
+        given(delegate.resolveDestination("payment")).willReturn(messageChannel);
+        given(delegate.resolveDestination("shipping")).willReturn(messageChannel);
+
+        // when
+        int resolved = subject.warmUp(Arrays.asList("payment", "shipping"));
+        subject.resolveDestination("payment");
+
+        // then
+        assertThat(resolved).isEqualTo(2);
+        assertThat(subject.size()).isEqualTo(2);
+        verify(delegate, times(1)).resolveDestination("payment");
+    }
+
+    @Test
+    public void warmUpShouldNotCacheFailedResolutions() {
+        // given
+        MessageChannel messageChannel = mock(MessageChannel.class);
+        given(delegate.resolveDestination("payment")).willThrow(new DestinationResolutionException("binder is not ready"))
+                                                     .willReturn(messageChannel);
+
+        // when
+        int resolved = subject.warmUp(Arrays.asList("payment"));
+
+        // then
+        assertThat(resolved).isZero();
+        assertThat(subject.contains("payment")).isFalse();
+        assertThat(subject.resolveDestination("payment")).isSameAs(messageChannel);
+    }
+
+    @Test
+    public void resolveDestinationShouldPropagateResolutionErrors() {
+        // given
+        given(delegate.resolveDestination("payment")).willThrow(new DestinationResolutionException("binder is not ready"));
+
+        // when
+        Throwable thrown = catchThrowable(() -> subject.resolveDestination("payment"));
+
+        // then
+        assertThat(thrown).isInstanceOf(DestinationResolutionException.class);
+        assertThat(subject.size()).isZero();
+    }
+
+}
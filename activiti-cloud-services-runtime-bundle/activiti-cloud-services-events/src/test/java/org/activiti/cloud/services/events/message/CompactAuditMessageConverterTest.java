@@ -0,0 +1,123 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.message;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.activiti.api.runtime.model.impl.ProcessInstanceImpl;
+import org.activiti.cloud.api.model.shared.events.CloudRuntimeEvent;
+import org.activiti.cloud.api.process.model.impl.events.CloudProcessCreatedEventImpl;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeType;
+
+public class CompactAuditMessageConverterTest {
+
+    private CompactAuditMessageConverter subject;
+
+    private CloudRuntimeEvent<?, ?>[] payload;
+
+    @Before
+    public void setUp() {
+        subject = new CompactAuditMessageConverter(CompactAuditMessageConverter.createObjectMapper(Collections.emptyList()));
+
+        payload = new CloudRuntimeEvent<?, ?>[20];
+
+        for (int i = 0; i < payload.length; i++) {
+            ProcessInstanceImpl processInstance = new ProcessInstanceImpl();
+            processInstance.setId("processInstanceId" + i);
+            processInstance.setProcessDefinitionKey("processDefinitionKey");
+            processInstance.setProcessDefinitionId("processDefinitionKey:1:processDefinitionId");
+
+            CloudProcessCreatedEventImpl event = new CloudProcessCreatedEventImpl(processInstance);
+            event.setAppName("appName");
+            event.setServiceName("serviceName");
+            event.setServiceVersion("serviceVersion");
+            payload[i] = event;
+        }
+    }
+
+    @Test
+    public void shouldEncodePayloadMoreCompactThanJson() throws Exception {
+        // when
+        Message<?> message = subject.toMessage(payload, headers(CompactAuditMessageConverter.COMPACT_AUDIT_MIME_TYPE));
+
+        // then
+        assertThat(message).isNotNull();
+        assertThat((byte[]) message.getPayload()).hasSizeLessThan(new ObjectMapper().writeValueAsBytes(payload).length);
+    }
+
+    @Test
+    public void shouldReadEncodedPayload() {
+        // given
+        Message<?> message = subject.toMessage(payload, headers(CompactAuditMessageConverter.COMPACT_AUDIT_MIME_TYPE));
+
+        // when
+        Map<?, ?>[] result = (Map<?, ?>[]) subject.fromMessage(message, Map[].class);
+
+        // then
+        assertThat(result).hasSize(payload.length);
+        assertThat(result[0]).containsEntry("appName", "appName")
+                             .containsEntry("serviceName", "serviceName");
+    }
+
+    @Test
+    public void shouldCompressPayloadWithDeflateParameter() {
+        // given
+        MimeType deflate = new MimeType(CompactAuditMessageConverter.COMPACT_AUDIT_MIME_TYPE,
+                                        Collections.singletonMap(CompactAuditMessageConverter.COMPRESSION_PARAMETER,
+                                                                 CompactAuditMessageConverter.DEFLATE_COMPRESSION));
+        byte[] uncompressed = (byte[]) subject.toMessage(payload, headers(CompactAuditMessageConverter.COMPACT_AUDIT_MIME_TYPE))
+                                              .getPayload();
+
+        // when
+        Message<?> message = subject.toMessage(payload, headers(deflate));
+
+        // then
+        assertThat((byte[]) message.getPayload()).hasSizeLessThan(uncompressed.length);
+        assertThat((Map<?, ?>[]) subject.fromMessage(message, Map[].class)).hasSize(payload.length);
+    }
+
+    @Test
+    public void shouldNotConvertOtherContentTypes() {
+        // when
+        Message<?> message = subject.toMessage(payload, headers(MimeType.valueOf("application/json")));
+
+        // then
+        assertThat(message).isNull();
+    }
+
+    @Test
+    public void shouldSupportAnyClassLeavingPayloadChecksToContentType() {
+        // then
+        assertThat(subject.supports(CloudRuntimeEvent[].class)).isTrue();
+        assertThat(subject.supports(Object.class)).isTrue();
+    }
+
+    private MessageHeaders headers(MimeType contentType) {
+        return MessageBuilder.withPayload(new byte[0])
+                             .setHeader(MessageHeaders.CONTENT_TYPE, contentType)
+                             .build()
+                             .getHeaders();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.message;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.Collections;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+
+public class CompressingAuditMessageInterceptorTest {
+
+    private CompressingAuditMessageInterceptor subject;
+
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Before
+    public void setUp() {
+        subject = new CompressingAuditMessageInterceptor(objectMapper, 1024, meterRegistry);
+    }
+
+    @Test
+    public void preSendShouldNotCompressMessagesBelowThreshold() throws Exception {
+        // given
+        Message<?> message = MessageBuilder.withPayload(Collections.singletonMap("key", "value"))
+                                           .setHeader("routingKey", "engineEvents")
+                                           .build();
+
+        // when
+        Message<?> result = subject.preSend(message, mock(MessageChannel.class));
+
+        // then
+        assertThat(result.getPayload()).isEqualTo(objectMapper.writeValueAsBytes(message.getPayload()));
+        assertThat(result.getHeaders()).doesNotContainKey(CompressingAuditMessageInterceptor.CONTENT_ENCODING)
+                                       .containsEntry("routingKey", "engineEvents")
+                                       .containsEntry(MessageHeaders.CONTENT_TYPE, "application/json");
+        assertThat(meterRegistry.get(CompressingAuditMessageInterceptor.COMPRESSED_MESSAGES).counter().count()).isZero();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void preSendShouldCompressMessagesAboveThreshold() throws Exception {
+        // given
+        String value = String.join("", Collections.nCopies(500, "processModelContent"));
+        Message<?> message = MessageBuilder.withPayload(Collections.singletonMap("key", value))
+                                           .build();
+        byte[] json = objectMapper.writeValueAsBytes(message.getPayload());
+
+        // when
+        Message<byte[]> result = (Message<byte[]>) subject.preSend(message, mock(MessageChannel.class));
+
+        // then
+        assertThat(result.getHeaders()).containsEntry(CompressingAuditMessageInterceptor.CONTENT_ENCODING,
+                                                      CompressingAuditMessageInterceptor.GZIP);
+        assertThat(result.getPayload()).hasSizeLessThan(json.length);
+        assertThat(CompressingAuditMessageInterceptor.decode(result)).isEqualTo(json);
+        assertThat(meterRegistry.get(CompressingAuditMessageInterceptor.COMPRESSED_MESSAGES).counter().count()).isEqualTo(1);
+    }
+
+}
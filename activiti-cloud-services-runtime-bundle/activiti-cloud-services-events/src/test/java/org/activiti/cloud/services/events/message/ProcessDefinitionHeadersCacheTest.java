@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.events.message;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.activiti.engine.delegate.event.ActivitiEventType;
+import org.activiti.engine.delegate.event.impl.ActivitiEntityEventImpl;
+import org.activiti.engine.impl.persistence.entity.DeploymentEntity;
+import org.activiti.engine.repository.ProcessDefinition;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ProcessDefinitionHeadersCacheTest {
+
+    private ProcessDefinitionHeadersCache subject;
+
+    @Before
+    public void setUp() {
+        subject = new ProcessDefinitionHeadersCache(2);
+    }
+
+    @Test
+    public void getShouldResolveHeadersOnlyOnce() {
+        // given
+        AtomicInteger resolved = new AtomicInteger();
+
+        // when
+        subject.get("processDefinitionId", () -> headers("deploymentId", resolved));
+        Map<String, Object> result = subject.get("processDefinitionId", () -> headers("deploymentId", resolved));
+
+        // then
+        assertThat(resolved).hasValue(1);
+        assertThat(result).containsEntry(ExecutionContextMessageHeaders.DEPLOYMENT_ID, "deploymentId");
+    }
+
+    @Test
+    public void getShouldEvictLeastRecentlyUsedEntries() {
+        // given
+        AtomicInteger resolved = new AtomicInteger();
+        subject.get("first", () -> headers("deploymentId", resolved));
+        subject.get("second", () -> headers("deploymentId", resolved));
+        subject.get("first", () -> headers("deploymentId", resolved));
+
+        // when
+        subject.get("third", () -> headers("deploymentId", resolved));
+
+        // then
+        assertThat(subject.size()).isEqualTo(2);
+        subject.get("first", () -> headers("deploymentId", resolved));
+        assertThat(resolved).hasValue(3);
+    }
+
+    @Test
+    public void onEventShouldEvictDeletedProcessDefinition() {
+        // given
+        subject.get("processDefinitionId", () -> headers("deploymentId", new AtomicInteger()));
+        ProcessDefinition processDefinition = mock(ProcessDefinition.class);
+        when(processDefinition.getId()).thenReturn("processDefinitionId");
+
+        // when
+        subject.onEvent(new ActivitiEntityEventImpl(processDefinition, ActivitiEventType.ENTITY_DELETED));
+
+        // then
+        assertThat(subject.size()).isZero();
+    }
+
+    @Test
+    public void onEventShouldEvictProcessDefinitionsOfDeletedDeployment() {
+        // given
+        subject.get("first", () -> headers("deploymentId", new AtomicInteger()));
+        subject.get("second", () -> headers("anotherDeploymentId", new AtomicInteger()));
+        DeploymentEntity deployment = mock(DeploymentEntity.class);
+        when(deployment.getId()).thenReturn("deploymentId");
+
+        // when
+        subject.onEvent(new ActivitiEntityEventImpl(deployment, ActivitiEventType.ENTITY_DELETED));
+
+        // then
+        assertThat(subject.size()).isEqualTo(1);
+    }
+
+    private Map<String, Object> headers(String deploymentId, AtomicInteger resolved) {
+        resolved.incrementAndGet();
+
+        return Collections.singletonMap(ExecutionContextMessageHeaders.DEPLOYMENT_ID, deploymentId);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.cloud.services.events.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.activiti.cloud.services.events.jdbc.PlatformSchemaInitializer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.stream.binding.BinderAwareChannelResolver;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+
+public class OutboxRelayLeaseTest {
+
+    private EmbeddedDatabase dataSource;
+
+    private OutboxMessageRepository repository;
+
+    private OutboxProperties properties;
+
+    @Before
+    public void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2)
+                                                  .generateUniqueName(true)
+                                                  .build();
+        new PlatformSchemaInitializer(dataSource,
+                                      OutboxMessageRepository.SCHEMA_LOCATION,
+                                      OutboxMessageRepository.TABLE_NAME).afterPropertiesSet();
+
+        repository = new OutboxMessageRepository(dataSource);
+        properties = new OutboxProperties();
+        properties.setBatchSize(10);
+    }
+
+    @After
+    public void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    public void relaysOfTwoReplicasShouldSendEachMessageOnce() {
+        // given
+        for (int i = 0; i < 25; i++) {
+            repository.insert(new OutboxMessage("id-" + i, i, "auditProducer", "{}", "[{\"id\":\"" + i + "\"}]", 0));
+        }
+        List<String> sent = Collections.synchronizedList(new ArrayList<>());
+        OutboxRelay first = relay(sent);
+        OutboxRelay second = relay(sent);
+
+        // when
+        int sentByFirst = first.relay();
+        int sentBySecond = second.relay();
+
+        // then
+        assertThat(sentByFirst).isEqualTo(25);
+        assertThat(sentBySecond).isZero();
+        assertThat(sent).hasSize(25)
+                        .doesNotHaveDuplicates()
+                        .startsWith("[{\"id\":\"0\"}]", "[{\"id\":\"1\"}]");
+        assertThat(repository.countPending(properties.getMaxAttempts())).isZero();
+    }
+
+    @Test
+    public void relayOfOtherReplicaShouldTakeOverWhenLeaseIsReleased() {
+        // given
+        List<String> sent = Collections.synchronizedList(new ArrayList<>());
+        OutboxRelay first = relay(sent);
+        OutboxRelay second = relay(sent);
+        first.relay();
+        repository.insert(new OutboxMessage("id", 1, "auditProducer", "{}", "[{\"id\":\"1\"}]", 0));
+
+        // when
+        int sentBeforeRelease = second.relay();
+        first.stop();
+        int sentAfterRelease = second.relay();
+
+        // then
+        assertThat(sentBeforeRelease).isZero();
+        assertThat(sentAfterRelease).isEqualTo(1);
+        assertThat(sent).containsExactly("[{\"id\":\"1\"}]");
+    }
+
+    @SuppressWarnings("unchecked")
+    private OutboxRelay relay(List<String> sent) {
+        MessageChannel channel = mock(MessageChannel.class);
+        given(channel.send(any())).willAnswer(invocation -> {
+            sent.add(new String(((Message<byte[]>) invocation.getArgument(0)).getPayload(), "UTF-8"));
+            return true;
+        });
+        BinderAwareChannelResolver resolver = mock(BinderAwareChannelResolver.class);
+        given(resolver.resolveDestination("auditProducer")).willReturn(channel);
+
+        return new OutboxRelay(repository,
+                               resolver,
+                               new ObjectMapper(),
+                               properties,
+                               new SimpleMeterRegistry());
+    }
+
+}
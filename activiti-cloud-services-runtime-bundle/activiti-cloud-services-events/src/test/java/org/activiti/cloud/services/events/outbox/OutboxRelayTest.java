@@ -0,0 +1,172 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.cloud.services.events.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.springframework.cloud.stream.binding.BinderAwareChannelResolver;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+
+public class OutboxRelayTest {
+
+    private OutboxRelay relay;
+
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    private OutboxMessageRepository repository;
+
+    @Mock
+    private BinderAwareChannelResolver resolver;
+
+    @Mock
+    private MessageChannel auditChannel;
+
+    @Captor
+    private ArgumentCaptor<Message<?>> messageArgumentCaptor;
+
+    private OutboxMessage first = new OutboxMessage("1", 1, "auditProducer", "{\"routingKey\":\"engineEvents\"}", "[{\"id\":\"1\"}]", 0);
+
+    private OutboxMessage second = new OutboxMessage("2", 2, "auditProducer", "{}", "[{\"id\":\"2\"}]", 0);
+
+    @Before
+    public void setUp() {
+        initMocks(this);
+
+        OutboxProperties properties = new OutboxProperties();
+        properties.setBatchSize(10);
+        properties.setMaxAttempts(3);
+
+        relay = new OutboxRelay(repository,
+                                resolver,
+                                new ObjectMapper(),
+                                properties,
+                                meterRegistry);
+
+        given(resolver.resolveDestination("auditProducer")).willReturn(auditChannel);
+        given(repository.tryLease(anyString(), anyLong())).willReturn(true);
+    }
+
+    @Test
+    public void relayShouldSendOutboxMessagesInOrderAndDeleteThem() {
+        // given
+        given(repository.findNext(anyInt(), anyInt())).willReturn(Arrays.asList(first, second));
+        given(auditChannel.send(any())).willReturn(true);
+
+        // when
+        int sent = relay.relay();
+
+        // then
+        assertThat(sent).isEqualTo(2);
+        verify(auditChannel, times(2)).send(messageArgumentCaptor.capture());
+        assertThat(messageArgumentCaptor.getAllValues().get(0).getPayload()).isEqualTo("[{\"id\":\"1\"}]".getBytes());
+        assertThat(messageArgumentCaptor.getAllValues().get(0).getHeaders()).containsEntry("routingKey", "engineEvents")
+                                                                             .containsEntry("contentType", "application/json");
+        verify(repository).deleteAll(Arrays.asList("1", "2"));
+    }
+
+    @Test
+    public void relayShouldStopAtFailedMessageAndBackOff() {
+        // given
+        given(repository.findNext(anyInt(), anyInt())).willReturn(Arrays.asList(first, second));
+        given(auditChannel.send(any())).willReturn(true, false);
+
+        // when
+        int sent = relay.relay();
+
+        // then
+        assertThat(sent).isEqualTo(1);
+        verify(repository).deleteAll(Collections.singletonList("1"));
+        verify(repository).incrementAttempts("2");
+
+        // when
+        relay.relay();
+
+        // then
+        verify(repository, times(1)).findNext(anyInt(), anyInt());
+    }
+
+    @Test
+    public void relayShouldParkMessageAfterMaxAttemptsWithoutBackingOff() {
+        // given
+        OutboxMessage poison = new OutboxMessage("3", 3, "auditProducer", "{}", "[{\"id\":\"3\"}]", 2);
+        given(repository.findNext(10, 3)).willReturn(Collections.singletonList(poison),
+                                                     Collections.singletonList(second));
+        given(auditChannel.send(any())).willReturn(false, true);
+
+        // when
+        int sent = relay.relay();
+
+        // then
+        assertThat(sent).isZero();
+        verify(repository).incrementAttempts("3");
+        assertThat(meterRegistry.get(OutboxRelay.PARKED).counter().count()).isEqualTo(1);
+
+        // when
+        sent = relay.relay();
+
+        // then
+        assertThat(sent).isEqualTo(1);
+        verify(repository).deleteAll(Collections.singletonList("2"));
+    }
+
+    @Test
+    public void relayShouldNotReadOutboxWithoutLease() {
+        // given
+        given(repository.tryLease(anyString(), anyLong())).willReturn(false);
+
+        // when
+        int sent = relay.relay();
+
+        // then
+        assertThat(sent).isZero();
+        verify(repository, never()).findNext(anyInt(), anyInt());
+    }
+
+    @Test
+    public void relayShouldDoNothingWhenOutboxIsEmpty() {
+        // given
+        given(repository.findNext(anyInt(), anyInt())).willReturn(Collections.emptyList());
+
+        // when
+        int sent = relay.relay();
+
+        // then
+        assertThat(sent).isZero();
+        verify(auditChannel, never()).send(any());
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.cloud.services.job.executor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.core.DestinationResolver;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Job message producer that collects all job messages created in one transaction
+ * and sends them together from a single synchronization after commit.
+ * 
+ * Messages are sent back to back, so binders that support producer side batching, 
+ * i.e. Rabbit binder with <code>producer.batchingEnabled=true</code>, will pipeline them 
+ * into a few broker round-trips.  
+ */
+public class BatchingJobMessageProducer extends DefaultJobMessageProducer {
+    private static final Logger logger = LoggerFactory.getLogger(BatchingJobMessageProducer.class);
+
+    public static final String MESSAGES_PER_COMMIT = "activiti.job.executor.messages.per.commit";
+
+    private final DistributionSummary messagesPerCommit;
+
+    public BatchingJobMessageProducer(DestinationResolver<MessageChannel> resolver,
+                                      ApplicationEventPublisher eventPublisher,
+                                      JobMessageBuilderFactory jobMessageBuilderFactory,
+                                      MeterRegistry meterRegistry) {
+        super(resolver, eventPublisher, jobMessageBuilderFactory);
+        
+        this.messagesPerCommit = DistributionSummary.builder(MESSAGES_PER_COMMIT)
+                                                    .description("Number of job messages sent per committed transaction")
+                                                    .register(meterRegistry);
+    }
+
+    @Override
+    protected void registerSynchronization(Message<String> message, MessageChannel messageChannel) {
+        JobMessageBatchTransactionSynchronization batch = (JobMessageBatchTransactionSynchronization) TransactionSynchronizationManager.getResource(this);
+        
+        // Let's register only one synchronization per transaction
+        if (batch == null) {
+            batch = new JobMessageBatchTransactionSynchronization();
+            
+            TransactionSynchronizationManager.bindResource(this, batch);
+            TransactionSynchronizationManager.registerSynchronization(batch);
+        }
+        
+        batch.add(message, messageChannel);
+    }
+    
+    class JobMessageBatchTransactionSynchronization implements TransactionSynchronization {
+        
+        private final List<Message<String>> messages = new ArrayList<>();
+        private final List<MessageChannel> messageChannels = new ArrayList<>();
+        
+        public void add(Message<String> message, MessageChannel messageChannel) {
+            messages.add(message);
+            messageChannels.add(messageChannel);
+        }
+
+        @Override
+        public void afterCommit() {
+            logger.debug("Sending batch of {} job messages", messages.size());
+            
+            int sent = 0;
+            
+            for (int i = 0; i < messages.size(); i++) {
+                if (send(messages.get(i), messageChannels.get(i))) {
+                    sent++;
+                }
+            }
+            
+            messagesPerCommit.record(sent);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(BatchingJobMessageProducer.this);
+        }
+    }
+}
@@ -17,13 +17,39 @@
 package org.activiti.cloud.services.job.executor;
 
 import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.springframework.lang.Nullable;
 import org.springframework.messaging.MessageHandler;
 
 public class DefaultJobMessageHandlerFactory implements JobMessageHandlerFactory {
     
+    private final JobMessageDeduplicationCache deduplicationCache;
+    private final JobMessageMetrics metrics;
+    private final boolean fusedExecutionEnabled;
+    
+    public DefaultJobMessageHandlerFactory() {
+        this(null);
+    }
+
+    public DefaultJobMessageHandlerFactory(@Nullable JobMessageDeduplicationCache deduplicationCache) {
+        this(deduplicationCache, null);
+    }
+
+    public DefaultJobMessageHandlerFactory(@Nullable JobMessageDeduplicationCache deduplicationCache,
+                                           @Nullable JobMessageMetrics metrics) {
+        this(deduplicationCache, metrics, false);
+    }
+
+    public DefaultJobMessageHandlerFactory(@Nullable JobMessageDeduplicationCache deduplicationCache,
+                                           @Nullable JobMessageMetrics metrics,
+                                           boolean fusedExecutionEnabled) {
+        this.deduplicationCache = deduplicationCache;
+        this.metrics = metrics;
+        this.fusedExecutionEnabled = fusedExecutionEnabled;
+    }
+
     @Override
     public MessageHandler create(ProcessEngineConfigurationImpl configuration) {
-        return new JobMessageHandler(configuration);
+        return new JobMessageHandler(configuration, deduplicationCache, metrics, fusedExecutionEnabled);
     }
     
 }
@@ -19,12 +19,12 @@ package org.activiti.cloud.services.job.executor;
 import org.activiti.engine.runtime.Job;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cloud.stream.binding.BinderAwareChannelResolver;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.integration.MessageDispatchingException;
 import org.springframework.lang.NonNull;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.core.DestinationResolver;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.Assert;
@@ -34,11 +34,11 @@ public class DefaultJobMessageProducer implements JobMessageProducer {
 
     private static final String ROUTING_KEY = "routingKey";
 
-    private final BinderAwareChannelResolver resolver;
+    private final DestinationResolver<MessageChannel> resolver;
     private final ApplicationEventPublisher eventPublisher;
     private final JobMessageBuilderFactory jobMessageBuilderFactory;
 
-    public DefaultJobMessageProducer(BinderAwareChannelResolver resolver,
+    public DefaultJobMessageProducer(DestinationResolver<MessageChannel> resolver,
                                      ApplicationEventPublisher eventPublisher,
                                      JobMessageBuilderFactory jobMessageBuilderFactory) {
         this.resolver = resolver;
@@ -64,9 +64,36 @@ public class DefaultJobMessageProducer implements JobMessageProducer {
         MessageChannel messageChannel = resolver.resolveDestination(destination);
 
         // Let's send message right after the main transaction has successfully committed. 
+        registerSynchronization(message, messageChannel);
+    }
+
+    protected void registerSynchronization(Message<String> message, MessageChannel messageChannel) {
         TransactionSynchronizationManager.registerSynchronization(new JobMessageTransactionSynchronization(message, 
                                                                                                            messageChannel));
     }
+
+    protected boolean send(Message<String> message, MessageChannel messageChannel) {
+        logger.debug("Sending job message '{}' via message channel: {}", message, messageChannel);
+        
+        try { 
+            boolean sent = messageChannel.send(message);
+            
+            if(!sent) {
+                throw new MessageDispatchingException(message);
+            }
+
+            eventPublisher.publishEvent(new JobMessageSentEvent(message, messageChannel));
+            
+            return true;
+            
+        } catch(Exception cause) {
+            logger.error("Sending job message {} failed due to error: {}", message, cause.getMessage());
+
+            eventPublisher.publishEvent(new JobMessageFailedEvent(message, cause, messageChannel));
+            
+            return false;
+        }
+    }
     
     class JobMessageTransactionSynchronization implements TransactionSynchronization {
 
@@ -80,22 +107,7 @@ public class DefaultJobMessageProducer implements JobMessageProducer {
 
         @Override
         public void afterCommit() {
-            logger.debug("Sending job message '{}' via message channel: {}", message, messageChannel);
-            
-            try { 
-                boolean sent = messageChannel.send(message);
-                
-                if(!sent) {
-                    throw new MessageDispatchingException(message);
-                }
-
-                eventPublisher.publishEvent(new JobMessageSentEvent(message, messageChannel));
-                
-            } catch(Exception cause) {
-                logger.error("Sending job message {} failed due to error: {}", message, cause.getMessage());
-
-                eventPublisher.publishEvent(new JobMessageFailedEvent(message, cause, messageChannel));
-            }
+            send(message, messageChannel);
         }
     }
 }
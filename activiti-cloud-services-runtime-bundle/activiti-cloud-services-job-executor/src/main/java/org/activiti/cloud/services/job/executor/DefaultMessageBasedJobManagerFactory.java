@@ -23,17 +23,28 @@ public class DefaultMessageBasedJobManagerFactory implements MessageBasedJobMana
     
     private final RuntimeBundleProperties runtimeBundleProperties;
     private final JobMessageProducer jobMessageProducer;
+    private final JobMessageLaneProperties jobMessageLaneProperties;
     
     public DefaultMessageBasedJobManagerFactory(RuntimeBundleProperties runtimeBundleProperties,
                                                 JobMessageProducer jobMessageProducer) {
+        this(runtimeBundleProperties, 
+             jobMessageProducer, 
+             new JobMessageLaneProperties());
+    }
+
+    public DefaultMessageBasedJobManagerFactory(RuntimeBundleProperties runtimeBundleProperties,
+                                                JobMessageProducer jobMessageProducer,
+                                                JobMessageLaneProperties jobMessageLaneProperties) {
         this.runtimeBundleProperties = runtimeBundleProperties;
         this.jobMessageProducer = jobMessageProducer;
+        this.jobMessageLaneProperties = jobMessageLaneProperties;
     }
 
     @Override
     public MessageBasedJobManager create(ProcessEngineConfigurationImpl processEngineConfiguration) {
         return new MessageBasedJobManager(processEngineConfiguration,
                                           runtimeBundleProperties,
-                                          jobMessageProducer);
+                                          jobMessageProducer,
+                                          jobMessageLaneProperties.getLanes());
     }
 }
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.cloud.services.job.executor;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.activiti.cloud.services.job.executor.JobMessageHandlerProperties.OverflowPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.Lifecycle;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessagingException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Executes job messages of one job message input channel, i.e. the default channel or a lane, on its own 
+ * bounded executor, so that a lane of slow jobs does not hold up the workers of other lanes.
+ * 
+ * At most <code>maxInFlight</code> jobs are executed concurrently and at most <code>queueCapacity</code> 
+ * jobs wait for a worker. When both are exhausted, the consumer is pushed back according to the 
+ * configured {@link OverflowPolicy}: either the listener thread blocks, which pauses consumption, 
+ * or the message is rejected, so that the binder nacks it for redelivery.
+ * 
+ * The listener thread blocks until its job has been executed, so that the message is only acknowledged 
+ * after the job transaction has completed, and job failures are passed back to the binder retry and 
+ * dead letter handling. Each job therefore holds a listener thread for its whole execution: at most 
+ * consumer concurrency, i.e. Rabbit <code>consumer.concurrency</code>, jobs of a lane are in flight, and 
+ * <code>maxInFlight</code> only adds parallelism up to that number. This stage bounds how many of the 
+ * handed over messages reach the process engine, it does not replace listener threads.
+ * Jobs still waiting for a worker when stop times out are cancelled, so their messages are nacked and redelivered.
+ */
+public class ExecutorJobMessageHandler implements MessageHandler, Lifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutorJobMessageHandler.class);
+
+    private static final String THREAD_NAME_PREFIX = "job-message-executor-";
+
+    private final MessageHandler delegate;
+    private final JobMessageHandlerProperties properties;
+    private final OverflowPolicy overflowPolicy;
+    private final Semaphore admissions;
+    private final Semaphore workers;
+    private final int maxInFlight;
+    private final int queueCapacity;
+
+    private volatile ExecutorService executorService;
+    private volatile boolean running = true;
+
+    public ExecutorJobMessageHandler(MessageHandler delegate,
+                                     JobMessageHandlerProperties properties) {
+        Assert.notNull(delegate, "delegate must not be null");
+        Assert.isTrue(properties.getMaxInFlight() > 0, "maxInFlight must be greater than zero");
+        Assert.isTrue(properties.getQueueCapacity() >= 0, "queueCapacity must not be negative");
+
+        this.delegate = delegate;
+        this.properties = properties;
+        this.overflowPolicy = properties.getOverflowPolicy();
+        this.maxInFlight = properties.getMaxInFlight();
+        this.queueCapacity = properties.getQueueCapacity();
+        this.admissions = new Semaphore(maxInFlight + queueCapacity);
+        this.workers = new Semaphore(maxInFlight);
+        this.executorService = createExecutorService(properties);
+    }
+
+    @Override
+    public void handleMessage(Message<?> message) throws MessagingException {
+        if (!running) {
+            throw new MessagingException(message, "Job message executor is not running");
+        }
+
+        acquireAdmission(message);
+
+        try {
+            Future<?> future;
+            try {
+                future = executorService.submit(() -> execute(message));
+            } catch (RejectedExecutionException cause) {
+                throw new MessagingException(message, "Job message executor rejected message", cause);
+            }
+
+            awaitCompletion(message, future);
+        } finally {
+            admissions.release();
+        }
+    }
+
+    protected void acquireAdmission(Message<?> message) {
+        if (overflowPolicy == OverflowPolicy.REJECT) {
+            if (!admissions.tryAcquire()) {
+                throw new MessagingException(message, "Job message executor queue is full");
+            }
+        } else {
+            try {
+                admissions.acquire();
+            } catch (InterruptedException cause) {
+                Thread.currentThread().interrupt();
+
+                throw new MessagingException(message, "Interrupted while waiting for job message executor", cause);
+            }
+        }
+    }
+
+    protected void execute(Message<?> message) {
+        try {
+            workers.acquire();
+        } catch (InterruptedException cause) {
+            Thread.currentThread().interrupt();
+
+            throw new MessagingException(message, "Interrupted while waiting for job message worker", cause);
+        }
+
+        try {
+            delegate.handleMessage(message);
+        } finally {
+            workers.release();
+        }
+    }
+
+    protected void awaitCompletion(Message<?> message, Future<?> future) {
+        try {
+            future.get();
+        } catch (ExecutionException cause) {
+            if (cause.getCause() instanceof MessagingException) {
+                throw (MessagingException) cause.getCause();
+            }
+            throw new MessagingException(message, "Exception when executing job message", cause.getCause());
+        } catch (CancellationException cause) {
+            throw new MessagingException(message, "Job message has been cancelled by executor shutdown", cause);
+        } catch (InterruptedException cause) {
+            Thread.currentThread().interrupt();
+
+            throw new MessagingException(message, "Interrupted while waiting for job message execution", cause);
+        }
+    }
+
+    public int getInFlight() {
+        return maxInFlight - workers.availablePermits();
+    }
+
+    public int getQueueDepth() {
+        return Math.max(0, (maxInFlight + queueCapacity) - admissions.availablePermits() - getInFlight());
+    }
+
+    @Override
+    public synchronized void start() {
+        // Executor is shut down on stop, so let's create a new one on restart
+        if (executorService.isShutdown()) {
+            executorService = createExecutorService(properties);
+        }
+        running = true;
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+
+        executorService.shutdown();
+        try {
+            if (!executorService.awaitTermination(properties.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                List<Runnable> queued = executorService.shutdownNow();
+
+                logger.warn("Job message executor did not terminate in time, cancelling {} queued job messages", queued.size());
+
+                // Let's release waiting listener threads, so that queued messages are nacked and redelivered
+                queued.stream()
+                      .filter(Future.class::isInstance)
+                      .forEach(runnable -> ((Future<?>) runnable).cancel(false));
+            }
+        } catch (InterruptedException cause) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    protected ExecutorService createExecutorService(JobMessageHandlerProperties properties) {
+        return Executors.newFixedThreadPool(properties.getMaxInFlight(),
+                                            new CustomizableThreadFactory(THREAD_NAME_PREFIX));
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.cloud.services.job.executor;
+
+import org.activiti.cloud.services.job.executor.JobMessageLaneProperties.Lane;
+import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.MessageHandler;
+
+public class ExecutorJobMessageHandlerFactory implements JobMessageHandlerFactory {
+
+    private final JobMessageHandlerProperties properties;
+    private final JobMessageDeduplicationCache deduplicationCache;
+    private final JobMessageMetrics metrics;
+
+    public ExecutorJobMessageHandlerFactory(JobMessageHandlerProperties properties) {
+        this(properties, null);
+    }
+
+    public ExecutorJobMessageHandlerFactory(JobMessageHandlerProperties properties,
+                                            @Nullable JobMessageDeduplicationCache deduplicationCache) {
+        this(properties, deduplicationCache, null);
+    }
+
+    public ExecutorJobMessageHandlerFactory(JobMessageHandlerProperties properties,
+                                            @Nullable JobMessageDeduplicationCache deduplicationCache,
+                                            @Nullable JobMessageMetrics metrics) {
+        this.properties = properties;
+        this.deduplicationCache = deduplicationCache;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public MessageHandler create(ProcessEngineConfigurationImpl configuration) {
+        return create(configuration, null);
+    }
+
+    @Override
+    public MessageHandler create(ProcessEngineConfigurationImpl configuration, @Nullable Lane lane) {
+        return new ExecutorJobMessageHandler(new JobMessageHandler(configuration,
+                                                                   deduplicationCache,
+                                                                   metrics,
+                                                                   properties.isFusedExecutionEnabled()),
+                                             laneProperties(lane));
+    }
+
+    /**
+     * Lane executor sizing falls back to the message job handler defaults
+     */
+    protected JobMessageHandlerProperties laneProperties(@Nullable Lane lane) {
+        if (lane == null || (lane.getMaxInFlight() == null && lane.getQueueCapacity() == null)) {
+            return properties;
+        }
+
+        JobMessageHandlerProperties laneProperties = new JobMessageHandlerProperties();
+        laneProperties.setExecutorEnabled(properties.isExecutorEnabled());
+        laneProperties.setMaxInFlight(lane.getMaxInFlight() != null ? lane.getMaxInFlight() : properties.getMaxInFlight());
+        laneProperties.setQueueCapacity(lane.getQueueCapacity() != null ? lane.getQueueCapacity() : properties.getQueueCapacity());
+        laneProperties.setOverflowPolicy(properties.getOverflowPolicy());
+        laneProperties.setShutdownTimeout(properties.getShutdownTimeout());
+        laneProperties.setFusedExecutionEnabled(properties.isFusedExecutionEnabled());
+        laneProperties.setDeduplicationEnabled(properties.isDeduplicationEnabled());
+        laneProperties.setDeduplicationMaxSize(properties.getDeduplicationMaxSize());
+        laneProperties.setDeduplicationTtl(properties.getDeduplicationTtl());
+
+        return laneProperties;
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.cloud.services.job.executor;
+
+import org.activiti.engine.impl.asyncexecutor.ExecuteAsyncRunnable;
+import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.activiti.engine.impl.cmd.ExecuteAsyncJobCmd;
+import org.activiti.engine.impl.cmd.LockExclusiveJobCmd;
+import org.activiti.engine.impl.cmd.UnlockExclusiveJobCmd;
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.persistence.entity.JobEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+
+/**
+ * Finds, locks and executes a job in a single command context, instead of using 
+ * separate transactions for job lookup, exclusive lock and execution. 
+ * 
+ * Failed jobs are handed over to the default {@link ExecuteAsyncRunnable} failure handling.
+ * 
+ * The exclusive lock is only committed together with the job, so the process instance row stays 
+ * locked for the whole execution. It is used only when <code>fused-execution-enabled</code> is set.  
+ */
+public class FusedExecuteAsyncRunnable extends ExecuteAsyncRunnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(FusedExecuteAsyncRunnable.class);
+
+    private final Runnable beforeUnacquire;
+
+    private boolean locked = false;
+    private boolean unacquired = false;
+    private boolean failed = false;
+
+    public FusedExecuteAsyncRunnable(String jobId,
+                                     ProcessEngineConfigurationImpl processEngineConfiguration) {
+        this(jobId, processEngineConfiguration, null);
+    }
+
+    /**
+     * @param beforeUnacquire callback run before the job is unacquired, i.e. to forget the job id 
+     *                        before the job message is re-sent
+     */
+    public FusedExecuteAsyncRunnable(String jobId,
+                                     ProcessEngineConfigurationImpl processEngineConfiguration,
+                                     @Nullable Runnable beforeUnacquire) {
+        super(jobId, processEngineConfiguration);
+        this.beforeUnacquire = beforeUnacquire;
+    }
+
+    @Override
+    public void run() {
+        execute();
+    }
+
+    /**
+     * Executes the job
+     * 
+     * @return false if job does not exist, true otherwise
+     */
+    public boolean execute() {
+        try {
+            JobEntity jobEntity = processEngineConfiguration.getCommandExecutor()
+                                                            .execute(new FindLockAndExecuteJobCmd());
+            return jobEntity != null;
+
+        } catch (Throwable exception) {
+            if (job == null) {
+                throw exception;
+            }
+
+            if (!locked) {
+                logger.debug("Could not lock exclusive job {}: {}", jobId, exception.getMessage());
+
+                if (beforeUnacquire != null) {
+                    beforeUnacquire.run();
+                }
+                unacquire();
+                unacquired = true;
+            } else {
+                failed = true;
+                handleFailedJob(exception);
+            }
+
+            return true;
+        }
+    }
+
+    /**
+     * @return true if job could not be locked and has been released for another attempt
+     */
+    public boolean isUnacquired() {
+        return unacquired;
+    }
+
+    /**
+     * @return true if job execution has failed and has been handed over to failed job handling
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    protected void unacquire() {
+        processEngineConfiguration.getCommandExecutor()
+                                  .execute(new Command<Void>() {
+                                      @Override
+                                      public Void execute(CommandContext commandContext) {
+                                          commandContext.getJobManager().unacquire(job);
+                                          return null;
+                                      }
+                                  });
+    }
+
+    class FindLockAndExecuteJobCmd implements Command<JobEntity> {
+
+        @Override
+        public JobEntity execute(CommandContext commandContext) {
+            JobEntity jobEntity = commandContext.getJobEntityManager()
+                                                .findById(jobId);
+            if (jobEntity == null) {
+                return null;
+            }
+
+            job = jobEntity;
+
+            if (jobEntity.isExclusive()) {
+                new LockExclusiveJobCmd(jobEntity).execute(commandContext);
+            }
+
+            locked = true;
+
+            // Job entity is already in the command context cache, so there is no extra lookup
+            new ExecuteAsyncJobCmd(jobId).execute(commandContext);
+
+            if (jobEntity.isExclusive()) {
+                new UnlockExclusiveJobCmd(jobEntity).execute(commandContext);
+            }
+
+            return jobEntity;
+        }
+    }
+
+}
@@ -17,20 +17,32 @@
 package org.activiti.cloud.services.job.executor;
 
 import org.activiti.cloud.services.events.configuration.RuntimeBundleProperties;
+import org.activiti.cloud.services.events.message.MessageBuilderAppender;
 import org.activiti.cloud.services.events.message.MessageBuilderAppenderChain;
 import org.activiti.cloud.services.events.message.RuntimeBundleInfoMessageBuilderAppender;
 import org.activiti.engine.runtime.Job;
+import org.springframework.messaging.support.MessageBuilder;
 
 public class JobMessageBuilderFactory {
 
-    private final RuntimeBundleProperties properties;
+    private final RuntimeBundleInfoMessageBuilderAppender runtimeBundleInfoMessageBuilderAppender;
 
     public JobMessageBuilderFactory(RuntimeBundleProperties properties) {
-        this.properties = properties;
+        this.runtimeBundleInfoMessageBuilderAppender = new RuntimeBundleInfoMessageBuilderAppender(properties);
     }
 
     public MessageBuilderAppenderChain create(Job job) {
-        return new MessageBuilderAppenderChain().chain(new RuntimeBundleInfoMessageBuilderAppender(properties))
-                                                .chain(new JobMessageBuilderAppender(job));
+        return new MessageBuilderAppenderChain().chain(runtimeBundleInfoMessageBuilderAppender)
+                                                .chain(new JobMessageBuilderAppender(job))
+                                                .chain(new JobMessageTimestampBuilderAppender());
+    }
+
+    // Let's stamp message creation time to measure produce and queue latency
+    static class JobMessageTimestampBuilderAppender implements MessageBuilderAppender {
+
+        @Override
+        public <P> MessageBuilder<P> apply(MessageBuilder<P> request) {
+            return request.setHeader(JobMessageHeaders.JOB_MESSAGE_TIMESTAMP, System.currentTimeMillis());
+        }
     }
 }
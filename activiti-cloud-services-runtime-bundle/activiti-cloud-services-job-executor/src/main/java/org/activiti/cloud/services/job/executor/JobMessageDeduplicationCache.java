@@ -0,0 +1,122 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.cloud.services.job.executor;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.util.Assert;
+
+/**
+ * Bounded, time expiring registry of recently received job ids used to drop  
+ * duplicate job messages before they reach the process engine.
+ *
+ */
+public class JobMessageDeduplicationCache {
+
+    public static final String DEDUPLICATION_HITS = "activiti.job.executor.deduplication.hits";
+    public static final String DEDUPLICATION_MISSES = "activiti.job.executor.deduplication.misses";
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Counter hits;
+    private final Counter misses;
+
+    // Entries are kept in expiration order, so expired entries are always at the head 
+    private final Map<String, Long> entries = new LinkedHashMap<String, Long>() {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > maxSize;
+        }
+    };
+
+    public JobMessageDeduplicationCache(int maxSize,
+                                        Duration ttl,
+                                        MeterRegistry meterRegistry) {
+        Assert.isTrue(maxSize > 0, "maxSize must be greater than zero");
+        Assert.notNull(ttl, "ttl must not be null");
+
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl.toMillis();
+        this.hits = Counter.builder(DEDUPLICATION_HITS)
+                           .description("Number of duplicate job messages dropped")
+                           .register(meterRegistry);
+        this.misses = Counter.builder(DEDUPLICATION_MISSES)
+                             .description("Number of job messages passed to the process engine")
+                             .register(meterRegistry);
+    }
+
+    /**
+     * Registers job id as in-flight
+     * 
+     * @return false if job id is already in-flight or has recently completed
+     */
+    public synchronized boolean begin(String jobId) {
+        long now = currentTimeMillis();
+
+        evictExpired(now);
+
+        if (entries.containsKey(jobId)) {
+            hits.increment();
+
+            return false;
+        }
+
+        entries.put(jobId, now + ttlMillis);
+        misses.increment();
+
+        return true;
+    }
+
+    /**
+     * Marks job id as completed, so that duplicates are dropped until it expires 
+     */
+    public synchronized void complete(String jobId) {
+        entries.remove(jobId);
+        entries.put(jobId, currentTimeMillis() + ttlMillis);
+    }
+
+    /**
+     * Forgets job id, so that the next message for the job is processed 
+     */
+    public synchronized void release(String jobId) {
+        entries.remove(jobId);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    private void evictExpired(long now) {
+        Iterator<Long> iterator = entries.values().iterator();
+
+        while (iterator.hasNext() && iterator.next() <= now) {
+            iterator.remove();
+        }
+    }
+
+}
@@ -16,6 +16,8 @@
 
 package org.activiti.cloud.services.job.executor;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import org.activiti.engine.ActivitiException;
 import org.activiti.engine.impl.asyncexecutor.ExecuteAsyncRunnable;
 import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
@@ -24,6 +26,7 @@ import org.activiti.engine.impl.interceptor.CommandContext;
 import org.activiti.engine.impl.persistence.entity.JobEntity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageHandler;
 import org.springframework.messaging.MessagingException;
@@ -33,40 +36,140 @@ public class JobMessageHandler  implements MessageHandler {
     private static final Logger logger = LoggerFactory.getLogger(JobMessageHandler.class);
 
     private final ProcessEngineConfigurationImpl processEngineConfiguration;
+    private final JobMessageDeduplicationCache deduplicationCache;
+    private final JobMessageMetrics metrics;
+    private final boolean fusedExecutionEnabled;
 
     public JobMessageHandler(ProcessEngineConfigurationImpl processEngineConfiguration) {
+        this(processEngineConfiguration, null);
+    }
+
+    public JobMessageHandler(ProcessEngineConfigurationImpl processEngineConfiguration,
+                             @Nullable JobMessageDeduplicationCache deduplicationCache) {
+        this(processEngineConfiguration, deduplicationCache, null);
+    }
+
+    public JobMessageHandler(ProcessEngineConfigurationImpl processEngineConfiguration,
+                             @Nullable JobMessageDeduplicationCache deduplicationCache,
+                             @Nullable JobMessageMetrics metrics) {
+        this(processEngineConfiguration, deduplicationCache, metrics, false);
+    }
+
+    public JobMessageHandler(ProcessEngineConfigurationImpl processEngineConfiguration,
+                             @Nullable JobMessageDeduplicationCache deduplicationCache,
+                             @Nullable JobMessageMetrics metrics,
+                             boolean fusedExecutionEnabled) {
         this.processEngineConfiguration = processEngineConfiguration;
+        this.deduplicationCache = deduplicationCache;
+        this.metrics = metrics;
+        this.fusedExecutionEnabled = fusedExecutionEnabled;
     }
 
     @Override
     public void handleMessage(Message<?> message) throws MessagingException {
         logger.debug("Handling job message: {} ", message);
 
-        try {
+        String jobId = resolveJobId(message);
+
+        if (metrics != null) {
+            metrics.recordReceived(message);
+        }
+
+        if (deduplicationCache != null && !deduplicationCache.begin(jobId)) {
+            logger.info("Job " + jobId + " is already in-flight or completed. Duplicate job message has been dropped.");
+            
+            if (metrics != null) {
+                metrics.recordDropped(message, JobMessageMetrics.DROPPED_DUPLICATE);
+            }
+            return;
+        }
 
-            String jobId = new String((byte[]) message.getPayload());
+        boolean completed = false;
+        long startTime = System.nanoTime();
+
+        // Unacquired job is re-sent with the same id right away, so let's forget it before the message is sent
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable beforeUnacquire = () -> {
+            if (deduplicationCache != null) {
+                deduplicationCache.release(jobId);
+            }
+            released.set(true);
+        };
+
+        try {
 
             logger.info("Received job message with id: " + jobId);
             
-            JobEntity job = findJobById(jobId);
+            boolean executed;
+            String outcome = JobMessageMetrics.OUTCOME_SUCCESS;
+
+            if (fusedExecutionEnabled) {
+                FusedExecuteAsyncRunnable executeAsyncRunnable = new FusedExecuteAsyncRunnable(jobId,
+                                                                                               processEngineConfiguration,
+                                                                                               beforeUnacquire);
+                executed = executeAsyncRunnable.execute();
+                outcome = outcomeOf(executeAsyncRunnable);
+            } else {
+                JobEntity job = findJobById(jobId);
 
-            if(job != null) {
-                logger.debug("Found existing job: {}", job);
+                executed = job != null;
+                if (executed) {
+                    logger.debug("Found existing job: {}", job);
 
-                executeJob(job);
+                    executeJob(job, beforeUnacquire);
 
-                logger.debug("Job executed: {}", job);
+                    if (released.get()) {
+                        outcome = JobMessageMetrics.OUTCOME_UNACQUIRED;
+                    }
+                }
+            }
+            completed = true;
+
+            if(executed) {
+                logger.debug("Job executed: {}", jobId);
+                
+                if (metrics != null) {
+                    metrics.recordExecuted(message, System.nanoTime() - startTime, outcome);
+                }
             } else {
                 logger.info("Job " + jobId + " does not exist. Job message has been dropped.");
+
+                if (metrics != null) {
+                    metrics.recordDropped(message, JobMessageMetrics.DROPPED_NOT_FOUND);
+                }
             }
 
         } catch (Exception cause) {
+            if (metrics != null) {
+                metrics.recordExecuted(message, System.nanoTime() - startTime, JobMessageMetrics.OUTCOME_FAILURE);
+            }
             logger.error("Exception '{}' when handling job message {}", cause.getMessage(), message);
 
             throw new ActivitiException("Exception when handling message from job queue", cause);
+        } finally {
+            if (deduplicationCache != null && !released.get()) {
+                if (completed) {
+                    deduplicationCache.complete(jobId);
+                } else {
+                    deduplicationCache.release(jobId);
+                }
+            }
         }
     }
     
+    protected String outcomeOf(FusedExecuteAsyncRunnable executeAsyncRunnable) {
+        if (executeAsyncRunnable.isUnacquired()) {
+            return JobMessageMetrics.OUTCOME_UNACQUIRED;
+        }
+        return executeAsyncRunnable.isFailed() ? JobMessageMetrics.OUTCOME_FAILURE : JobMessageMetrics.OUTCOME_SUCCESS;
+    }
+
+    protected String resolveJobId(Message<?> message) {
+        Object jobId = message.getHeaders().get(JobMessageHeaders.JOB_ID);
+        
+        return jobId != null ? jobId.toString() : new String((byte[]) message.getPayload());
+    }
+    
     public JobEntity findJobById(String jobId) {
         return processEngineConfiguration.getCommandExecutor()
                                          .execute(new Command<JobEntity>() {
@@ -77,6 +180,16 @@ public class JobMessageHandler  implements MessageHandler {
                                          });
     }
     
+    /**
+     * Finds, locks and executes job in one command context
+     * 
+     * @return false if job does not exist
+     */
+    public boolean executeJob(String jobId) {
+        return new FusedExecuteAsyncRunnable(jobId, 
+                                             processEngineConfiguration).execute();
+    }
+    
     public void executeJob(JobEntity job) {
         ExecuteAsyncRunnable executeAsyncRunnable = new ExecuteAsyncRunnable(job, 
                                                                              processEngineConfiguration);
@@ -84,4 +197,17 @@ public class JobMessageHandler  implements MessageHandler {
         executeAsyncRunnable.run();
     }
 
+    protected void executeJob(JobEntity job, Runnable beforeUnacquire) {
+        ExecuteAsyncRunnable executeAsyncRunnable = new ExecuteAsyncRunnable(job, 
+                                                                             processEngineConfiguration) {
+            @Override
+            protected void unacquireJob() {
+                beforeUnacquire.run();
+                super.unacquireJob();
+            }
+        };
+
+        executeAsyncRunnable.run();
+    }
+
 }
\ No newline at end of file
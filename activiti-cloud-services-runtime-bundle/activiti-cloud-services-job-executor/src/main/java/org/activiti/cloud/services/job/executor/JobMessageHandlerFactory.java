@@ -1,9 +1,20 @@
 package org.activiti.cloud.services.job.executor;
 
+import org.activiti.cloud.services.job.executor.JobMessageLaneProperties.Lane;
 import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.springframework.lang.Nullable;
 import org.springframework.messaging.MessageHandler;
 
 public interface JobMessageHandlerFactory {
 
     MessageHandler create(ProcessEngineConfigurationImpl configuration);
+
+    /**
+     * Creates job message handler for a lane
+     * 
+     * @param lane lane properties or null for default lane
+     */
+    default MessageHandler create(ProcessEngineConfigurationImpl configuration, @Nullable Lane lane) {
+        return create(configuration);
+    }
 }
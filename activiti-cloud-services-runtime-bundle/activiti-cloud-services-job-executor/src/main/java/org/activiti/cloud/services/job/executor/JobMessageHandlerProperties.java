@@ -0,0 +1,135 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.cloud.services.job.executor;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the execution stage between job message receipt and job execution  
+ *
+ */
+public class JobMessageHandlerProperties {
+
+    public enum OverflowPolicy {
+        /**
+         * Block the consumer thread until there is room in the queue 
+         */
+        BLOCK,
+        /**
+         * Reject the message, so that it is nacked and redelivered by the binder  
+         */
+        REJECT
+    }
+
+    private boolean executorEnabled = false;
+
+    private int maxInFlight = 10;
+
+    private int queueCapacity = 100;
+
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+    private Duration shutdownTimeout = Duration.ofSeconds(30);
+
+    private boolean fusedExecutionEnabled = false;
+
+    private boolean deduplicationEnabled = false;
+
+    private int deduplicationMaxSize = 10000;
+
+    private Duration deduplicationTtl = Duration.ofMinutes(5);
+
+    public boolean isExecutorEnabled() {
+        return executorEnabled;
+    }
+
+    public void setExecutorEnabled(boolean executorEnabled) {
+        this.executorEnabled = executorEnabled;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public Duration getShutdownTimeout() {
+        return shutdownTimeout;
+    }
+
+    public void setShutdownTimeout(Duration shutdownTimeout) {
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    /**
+     * Finds, locks and executes a job in one command context, see {@link FusedExecuteAsyncRunnable}.
+     * 
+     * It saves two transactions per job, but the exclusive lock is not committed before the job is executed, 
+     * so the process instance row stays locked in the database for the whole job execution and concurrent 
+     * exclusive jobs of the same process instance wait on it, instead of failing fast and being unacquired.
+     */
+    public boolean isFusedExecutionEnabled() {
+        return fusedExecutionEnabled;
+    }
+
+    public void setFusedExecutionEnabled(boolean fusedExecutionEnabled) {
+        this.fusedExecutionEnabled = fusedExecutionEnabled;
+    }
+
+    public boolean isDeduplicationEnabled() {
+        return deduplicationEnabled;
+    }
+
+    public void setDeduplicationEnabled(boolean deduplicationEnabled) {
+        this.deduplicationEnabled = deduplicationEnabled;
+    }
+
+    public int getDeduplicationMaxSize() {
+        return deduplicationMaxSize;
+    }
+
+    public void setDeduplicationMaxSize(int deduplicationMaxSize) {
+        this.deduplicationMaxSize = deduplicationMaxSize;
+    }
+
+    public Duration getDeduplicationTtl() {
+        return deduplicationTtl;
+    }
+
+    public void setDeduplicationTtl(Duration deduplicationTtl) {
+        this.deduplicationTtl = deduplicationTtl;
+    }
+
+}
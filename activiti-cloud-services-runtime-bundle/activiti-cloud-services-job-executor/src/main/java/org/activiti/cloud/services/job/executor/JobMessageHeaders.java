@@ -33,5 +33,6 @@ public final class JobMessageHeaders {
     public static final String JOB_EXCEPTION_MESSAGE = "jobExceptionMessage";
     public static final String JOB_HANDLER_TYPE = "jobHandlerType";
     public static final String JOB_HANDLER_CONFIGURATION = "jobHandlerConfiguration";
+    public static final String JOB_MESSAGE_TIMESTAMP = "jobMessageTimestamp";
 
 }
\ No newline at end of file
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.cloud.services.job.executor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.activiti.engine.runtime.Job;
+import org.springframework.cloud.stream.binder.ConsumerProperties;
+
+/**
+ * Holds job message lanes, i.e. separate destinations with their own consumer bindings 
+ * for jobs matching configured job types and/or job handler types.
+ * 
+ * Every lane is bound to input channel named <code>asyncExecutorJobs-{lane}</code>, so binder specific 
+ * consumer settings, i.e. Rabbit prefetch, can be configured with 
+ * <code>spring.cloud.stream.rabbit.bindings.asyncExecutorJobs-{lane}.consumer.prefetch</code>  
+ * 
+ * When the job message executor is enabled, every lane gets its own executor, sized by lane 
+ * <code>max-in-flight</code> and <code>queue-capacity</code> or by the message job handler defaults.  
+ *
+ */
+public class JobMessageLaneProperties {
+
+    private Map<String, Lane> lanes = new LinkedHashMap<>();
+
+    public Map<String, Lane> getLanes() {
+        return lanes;
+    }
+
+    public void setLanes(Map<String, Lane> lanes) {
+        this.lanes = lanes;
+    }
+
+    public static class Lane {
+
+        private List<String> jobTypes = new ArrayList<>();
+
+        private List<String> jobHandlerTypes = new ArrayList<>();
+
+        private ConsumerProperties consumer = new ConsumerProperties();
+
+        private Integer maxInFlight;
+
+        private Integer queueCapacity;
+
+        public boolean matches(Job job) {
+            if (jobTypes.isEmpty() && jobHandlerTypes.isEmpty()) {
+                return false;
+            }
+
+            return (jobTypes.isEmpty() || jobTypes.contains(job.getJobType()))
+                    && (jobHandlerTypes.isEmpty() || jobHandlerTypes.contains(job.getJobHandlerType()));
+        }
+
+        public List<String> getJobTypes() {
+            return jobTypes;
+        }
+
+        public void setJobTypes(List<String> jobTypes) {
+            this.jobTypes = jobTypes;
+        }
+
+        public List<String> getJobHandlerTypes() {
+            return jobHandlerTypes;
+        }
+
+        public void setJobHandlerTypes(List<String> jobHandlerTypes) {
+            this.jobHandlerTypes = jobHandlerTypes;
+        }
+
+        public ConsumerProperties getConsumer() {
+            return consumer;
+        }
+
+        public void setConsumer(ConsumerProperties consumer) {
+            this.consumer = consumer;
+        }
+
+        public Integer getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public void setMaxInFlight(Integer maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+
+        public Integer getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(Integer queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.cloud.services.job.executor;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+
+/**
+ * Records job message pipeline metrics, tagged by job type and job handler type:
+ * <ul>
+ * <li>produce latency from message creation in the engine transaction until it is sent after commit</li>
+ * <li>sent and failed messages</li>
+ * <li>queue latency from message creation until the job message handler starts</li>
+ * <li>job execution duration</li>
+ * <li>dropped messages by reason</li>
+ * </ul>
+ */
+public class JobMessageMetrics {
+
+    public static final String PRODUCE_LATENCY = "activiti.job.executor.produce.latency";
+    public static final String MESSAGES_SENT = "activiti.job.executor.messages.sent";
+    public static final String MESSAGES_FAILED = "activiti.job.executor.messages.failed";
+    public static final String QUEUE_LATENCY = "activiti.job.executor.queue.latency";
+    public static final String EXECUTION_DURATION = "activiti.job.executor.execution.duration";
+    public static final String MESSAGES_DROPPED = "activiti.job.executor.messages.dropped";
+
+    public static final String DROPPED_DUPLICATE = "duplicate";
+    public static final String DROPPED_NOT_FOUND = "not-found";
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_FAILURE = "failure";
+    public static final String OUTCOME_UNACQUIRED = "unacquired";
+
+    private static final String JOB_TYPE_TAG = "jobType";
+    private static final String JOB_HANDLER_TYPE_TAG = "jobHandlerType";
+    private static final String REASON_TAG = "reason";
+    private static final String OUTCOME_TAG = "outcome";
+    private static final String NONE = "none";
+
+    private final MeterRegistry meterRegistry;
+
+    public JobMessageMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener
+    public void onJobMessageSent(JobMessageSentEvent event) {
+        Message<?> message = event.getMessage();
+        Tags tags = tags(message.getHeaders());
+
+        meterRegistry.counter(MESSAGES_SENT, tags)
+                     .increment();
+
+        recordSince(PRODUCE_LATENCY, message.getHeaders(), tags);
+    }
+
+    @EventListener
+    public void onJobMessageFailed(JobMessageFailedEvent event) {
+        meterRegistry.counter(MESSAGES_FAILED, tags(event.getMessage().getHeaders()))
+                     .increment();
+    }
+
+    public void recordReceived(Message<?> message) {
+        recordSince(QUEUE_LATENCY, message.getHeaders(), tags(message.getHeaders()));
+    }
+
+    public void recordExecuted(Message<?> message, long durationNanos, String outcome) {
+        meterRegistry.timer(EXECUTION_DURATION, tags(message.getHeaders()).and(OUTCOME_TAG, outcome))
+                     .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordDropped(Message<?> message, String reason) {
+        meterRegistry.counter(MESSAGES_DROPPED, tags(message.getHeaders()).and(REASON_TAG, reason))
+                     .increment();
+    }
+
+    protected void recordSince(String name, MessageHeaders headers, Tags tags) {
+        Long timestamp = resolveTimestamp(headers.get(JobMessageHeaders.JOB_MESSAGE_TIMESTAMP));
+
+        if (timestamp != null) {
+            meterRegistry.timer(name, tags)
+                         .record(Math.max(0, System.currentTimeMillis() - timestamp), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    protected Tags tags(MessageHeaders headers) {
+        return Tags.of(JOB_TYPE_TAG, valueOf(headers.get(JobMessageHeaders.JOB_TYPE)),
+                       JOB_HANDLER_TYPE_TAG, valueOf(headers.get(JobMessageHeaders.JOB_HANDLER_TYPE)));
+    }
+
+    private String valueOf(Object value) {
+        return value != null ? value.toString() : NONE;
+    }
+
+    private Long resolveTimestamp(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        } else if (value != null) {
+            try {
+                return Long.valueOf(value.toString());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+}
@@ -16,9 +16,12 @@
 
 package org.activiti.cloud.services.job.executor;
 
+import java.util.Collections;
 import java.util.Date;
+import java.util.Map;
 
 import org.activiti.cloud.services.events.configuration.RuntimeBundleProperties;
+import org.activiti.cloud.services.job.executor.JobMessageLaneProperties.Lane;
 import org.activiti.engine.impl.asyncexecutor.DefaultJobManager;
 import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.activiti.engine.impl.persistence.entity.JobEntity;
@@ -30,19 +33,32 @@ public class MessageBasedJobManager extends DefaultJobManager {
     private static final Logger logger = LoggerFactory.getLogger(MessageBasedJobManager.class);
     
     private static final String DEFAULT_INPUT_CHANNEL_NAME = "asyncExecutorJobs";
+    private static final String LANE_DELIMITER = "-";
     
     private final RuntimeBundleProperties runtimeBundleProperties;
     private final JobMessageProducer jobMessageProducer;
+    private final Map<String, Lane> lanes;
     
     private String inputChannelName = DEFAULT_INPUT_CHANNEL_NAME;
 
     public MessageBasedJobManager(ProcessEngineConfigurationImpl processEngineConfiguration,
                                   RuntimeBundleProperties runtimeBundleProperties,
                                   JobMessageProducer jobMessageProducer) {
+        this(processEngineConfiguration,
+             runtimeBundleProperties,
+             jobMessageProducer,
+             Collections.emptyMap());
+    }
+
+    public MessageBasedJobManager(ProcessEngineConfigurationImpl processEngineConfiguration,
+                                  RuntimeBundleProperties runtimeBundleProperties,
+                                  JobMessageProducer jobMessageProducer,
+                                  Map<String, Lane> lanes) {
         super(processEngineConfiguration);
         
         this.runtimeBundleProperties = runtimeBundleProperties;
         this.jobMessageProducer = jobMessageProducer;
+        this.lanes = lanes;
     }
 
     @Override
@@ -77,10 +93,40 @@ public class MessageBasedJobManager extends DefaultJobManager {
         return runtimeBundleProperties.getServiceName() + "." + this.getInputChannelName();
     }
    
+    /**
+     * Scoped destination name for job message lane, or default destination if lane is null 
+     * 
+     */
+    public String getDestination(String lane) {
+        return runtimeBundleProperties.getServiceName() + "." + this.getInputChannelName(lane);
+    }
+   
     public String getInputChannelName() {
         return inputChannelName;
     }
 
+    public String getInputChannelName(String lane) {
+        return lane != null ? inputChannelName + LANE_DELIMITER + lane : inputChannelName;
+    }
+    
+    public Map<String, Lane> getLanes() {
+        return lanes;
+    }
+    
+    /**
+     * Resolves the first lane matching job type and job handler type 
+     * 
+     * @return lane name or null for default lane 
+     */
+    public String resolveLane(Job job) {
+        return lanes.entrySet()
+                    .stream()
+                    .filter(entry -> entry.getValue().matches(job))
+                    .map(Map.Entry::getKey)
+                    .findFirst()
+                    .orElse(null);
+    }
+
     public void setInputChannelName(String inputChannelName) {
         this.inputChannelName = inputChannelName;
     }
@@ -88,6 +134,6 @@ public class MessageBasedJobManager extends DefaultJobManager {
     public void sendMessage(final Job job) {
         logger.debug("sendMessage for job: {}", job);
         
-        jobMessageProducer.sendMessage(getDestination(), job);
+        jobMessageProducer.sendMessage(getDestination(resolveLane(job)), job);
     }
 }
\ No newline at end of file
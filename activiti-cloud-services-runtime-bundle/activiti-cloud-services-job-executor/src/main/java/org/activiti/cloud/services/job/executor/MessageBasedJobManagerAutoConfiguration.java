@@ -16,7 +16,11 @@
 
 package org.activiti.cloud.services.job.executor;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 import org.activiti.cloud.services.events.configuration.RuntimeBundleProperties;
+import org.activiti.cloud.services.events.message.CachingDestinationResolver;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -29,6 +33,8 @@ import org.springframework.cloud.stream.config.BindingServiceProperties;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.core.DestinationResolver;
 
 @Configuration
 @ConditionalOnProperty(name = "spring.activiti.asyncExecutorActivate", havingValue = "true", matchIfMissing = true)
@@ -55,27 +61,89 @@ public class MessageBasedJobManagerAutoConfiguration {
         return new JobMessageInputChannelFactory(bindingTargetFactory, bindingServiceProperties, beanFactory);
     }    
     
+    @Bean
+    @ConditionalOnMissingBean
+    @ConfigurationProperties(prefix = "spring.activiti.cloud.rb.job-executor")
+    public JobMessageLaneProperties jobMessageLaneProperties() {
+        return new JobMessageLaneProperties();
+    }
+    
     @Bean
     @ConditionalOnMissingBean
     public MessageBasedJobManagerFactory messageBasedJobManagerFactory(RuntimeBundleProperties runtimeBundleProperties,
-                                                                       JobMessageProducer jobMessageProducer) {
-        return new DefaultMessageBasedJobManagerFactory(runtimeBundleProperties, jobMessageProducer);
+                                                                       JobMessageProducer jobMessageProducer,
+                                                                       JobMessageLaneProperties jobMessageLaneProperties) {
+        return new DefaultMessageBasedJobManagerFactory(runtimeBundleProperties, jobMessageProducer, jobMessageLaneProperties);
     }
     
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "spring.activiti.cloud.rb.job-executor.message-job-producer.batch-enabled", havingValue = "true")
+    public JobMessageProducer batchingJobMessageProducer(BinderAwareChannelResolver resolver,
+                                                         ObjectProvider<CachingDestinationResolver> cachingDestinationResolver,
+                                                         ApplicationEventPublisher eventPublisher,
+                                                         JobMessageBuilderFactory jobMessageBuilderFactory,
+                                                         ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BatchingJobMessageProducer(destinationResolver(resolver, cachingDestinationResolver),
+                                              eventPublisher,
+                                              jobMessageBuilderFactory,
+                                              meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
     @Bean
     @ConditionalOnMissingBean
     public JobMessageProducer jobMessageProducer(BinderAwareChannelResolver resolver,
+                                                 ObjectProvider<CachingDestinationResolver> cachingDestinationResolver,
                                                  ApplicationEventPublisher eventPublisher,
                                                  JobMessageBuilderFactory jobMessageBuilderFactory) {
-        return new DefaultJobMessageProducer(resolver,
+        return new DefaultJobMessageProducer(destinationResolver(resolver, cachingDestinationResolver),
                                              eventPublisher,
                                              jobMessageBuilderFactory);
     }
 
     @Bean
     @ConditionalOnMissingBean
-    public JobMessageHandlerFactory jobMessageHandlerFactory() {
-        return new DefaultJobMessageHandlerFactory();
+    @ConfigurationProperties(prefix = "spring.activiti.cloud.rb.job-executor.message-job-handler")
+    public JobMessageHandlerProperties jobMessageHandlerProperties() {
+        return new JobMessageHandlerProperties();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "spring.activiti.cloud.rb.job-executor.message-job-handler.deduplication-enabled", havingValue = "true")
+    public JobMessageDeduplicationCache jobMessageDeduplicationCache(JobMessageHandlerProperties jobMessageHandlerProperties,
+                                                                     ObjectProvider<MeterRegistry> meterRegistry) {
+        return new JobMessageDeduplicationCache(jobMessageHandlerProperties.getDeduplicationMaxSize(),
+                                                jobMessageHandlerProperties.getDeduplicationTtl(),
+                                                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "spring.activiti.cloud.rb.job-executor.metrics-enabled", havingValue = "true", matchIfMissing = true)
+    public JobMessageMetrics jobMessageMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new JobMessageMetrics(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "spring.activiti.cloud.rb.job-executor.message-job-handler.executor-enabled", havingValue = "true")
+    public JobMessageHandlerFactory executorJobMessageHandlerFactory(JobMessageHandlerProperties jobMessageHandlerProperties,
+                                                                     ObjectProvider<JobMessageDeduplicationCache> jobMessageDeduplicationCache,
+                                                                     ObjectProvider<JobMessageMetrics> jobMessageMetrics) {
+        return new ExecutorJobMessageHandlerFactory(jobMessageHandlerProperties,
+                                                    jobMessageDeduplicationCache.getIfAvailable(),
+                                                    jobMessageMetrics.getIfAvailable());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public JobMessageHandlerFactory jobMessageHandlerFactory(JobMessageHandlerProperties jobMessageHandlerProperties,
+                                                             ObjectProvider<JobMessageDeduplicationCache> jobMessageDeduplicationCache,
+                                                             ObjectProvider<JobMessageMetrics> jobMessageMetrics) {
+        return new DefaultJobMessageHandlerFactory(jobMessageDeduplicationCache.getIfAvailable(),
+                                                   jobMessageMetrics.getIfAvailable(),
+                                                   jobMessageHandlerProperties.isFusedExecutionEnabled());
     }
     
     @Bean
@@ -94,4 +162,12 @@ public class MessageBasedJobManagerAutoConfiguration {
                                                       messageJobConsumerProperties);
     }
 
+    private DestinationResolver<MessageChannel> destinationResolver(BinderAwareChannelResolver resolver,
+                                                                    ObjectProvider<CachingDestinationResolver> cachingDestinationResolver) {
+        // Let's send job messages via cached destinations, if enabled
+        CachingDestinationResolver destinationResolver = cachingDestinationResolver.getIfAvailable();
+
+        return destinationResolver != null ? destinationResolver : resolver;
+    }
+
 }
@@ -16,6 +16,9 @@
 
 package org.activiti.cloud.services.job.executor;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.activiti.engine.cfg.ProcessEngineConfigurator;
 import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.slf4j.Logger;
@@ -24,6 +27,7 @@ import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.cloud.stream.binder.ConsumerProperties;
 import org.springframework.cloud.stream.binding.BindingService;
 import org.springframework.cloud.stream.config.BindingProperties;
+import org.springframework.context.Lifecycle;
 import org.springframework.context.SmartLifecycle;
 import org.springframework.messaging.MessageHandler;
 import org.springframework.messaging.SubscribableChannel;
@@ -44,8 +48,9 @@ public class MessageBasedJobManagerConfigurator implements ProcessEngineConfigur
     private final ConfigurableListableBeanFactory beanFactory;
     
     private MessageBasedJobManager messageBasedJobManager;
-    private MessageHandler jobMessageHandler;
-    private SubscribableChannel inputChannel;
+    private final Map<String, SubscribableChannel> inputChannels = new LinkedHashMap<>();
+    private final Map<String, String> inputChannelLanes = new LinkedHashMap<>();
+    private final Map<String, MessageHandler> jobMessageHandlers = new LinkedHashMap<>();
     private ProcessEngineConfigurationImpl configuration;
     
     private boolean running = false;    
@@ -65,9 +70,20 @@ public class MessageBasedJobManagerConfigurator implements ProcessEngineConfigur
     }
     
     protected MessageHandler createJobMessageHandler(ProcessEngineConfigurationImpl configuration) {
-        MessageHandler messageHandler = jobMessageHandlerFactory.create(configuration);
+        return createJobMessageHandler(configuration, null);
+    }
+
+    /**
+     * Creates job message handler for a lane, so that every lane has its own execution stage
+     * 
+     * @param lane lane name or null for default lane 
+     */
+    protected MessageHandler createJobMessageHandler(ProcessEngineConfigurationImpl configuration, String lane) {
+        MessageHandler messageHandler = jobMessageHandlerFactory.create(configuration, 
+                                                                        lane != null ? messageBasedJobManager.getLanes().get(lane) : null);
         
-        return registerBean(JOB_MESSAGE_HANDLER, messageHandler);
+        return registerBean(lane != null ? JOB_MESSAGE_HANDLER + "-" + lane : JOB_MESSAGE_HANDLER, 
+                            messageHandler);
     }
 
     protected MessageBasedJobManager createMessageBasedJobManager(ProcessEngineConfigurationImpl configuration) {
@@ -93,14 +109,21 @@ public class MessageBasedJobManagerConfigurator implements ProcessEngineConfigur
     }
 
     /**
-     * Configures input channel 
+     * Configures input channels for default and configured lanes 
      */
     @Override
     public void configure(ProcessEngineConfigurationImpl configuration) {
         this.configuration = configuration;
         
-        String channelName = messageBasedJobManager.getInputChannelName();
-        String destination = messageBasedJobManager.getDestination();
+        configureInputChannel(null, consumerProperties);
+        
+        messageBasedJobManager.getLanes()
+                              .forEach((lane, properties) -> configureInputChannel(lane, properties.getConsumer()));
+    }
+    
+    protected void configureInputChannel(String lane, ConsumerProperties consumerProperties) {
+        String channelName = messageBasedJobManager.getInputChannelName(lane);
+        String destination = messageBasedJobManager.getDestination(lane);
 
         BindingProperties bindingProperties = new BindingProperties();
         bindingProperties.setConsumer(consumerProperties);
@@ -110,10 +133,10 @@ public class MessageBasedJobManagerConfigurator implements ProcessEngineConfigur
         bindingProperties.setDestination(destination);
 
         // Let's create input channel 
-        inputChannel = inputChannelFactory.createInputChannel(channelName, bindingProperties);
+        inputChannels.put(channelName, inputChannelFactory.createInputChannel(channelName, bindingProperties));
+        inputChannelLanes.put(channelName, lane);
 
         logger.info("Configured message job input channel '{}' with bindings: {}", channelName, bindingProperties);
-        
     }
 
     @Override
@@ -123,13 +146,24 @@ public class MessageBasedJobManagerConfigurator implements ProcessEngineConfigur
 
     @Override
     public void start() {
-        logger.info("Subscribing job message handler to input channel {}", messageBasedJobManager.getInputChannelName());
-
-        jobMessageHandler = createJobMessageHandler(configuration);
+        logger.info("Subscribing job message handler to input channels {}", inputChannels.keySet());
+
+        // Let's create handlers once, and restart their execution stages on subsequent starts
+        if (jobMessageHandlers.isEmpty()) {
+            inputChannelLanes.forEach((channelName, lane) -> jobMessageHandlers.put(channelName, 
+                                                                                    createJobMessageHandler(configuration, lane)));
+        } else {
+            jobMessageHandlers.values()
+                              .stream()
+                              .filter(Lifecycle.class::isInstance)
+                              .forEach(handler -> ((Lifecycle) handler).start());
+        }
         
-        // Let's subscribe and bind consumer channel   
-        inputChannel.subscribe(jobMessageHandler);
-        bindingService.bindConsumer(inputChannel, messageBasedJobManager.getInputChannelName());
+        // Let's subscribe and bind consumer channels   
+        inputChannels.forEach((channelName, inputChannel) -> {
+            inputChannel.subscribe(jobMessageHandlers.get(channelName));
+            bindingService.bindConsumer(inputChannel, channelName);
+        });
 
         // Now start async executor
         if (!configuration.getAsyncExecutor().isActive()) {
@@ -142,12 +176,20 @@ public class MessageBasedJobManagerConfigurator implements ProcessEngineConfigur
 
     @Override
     public void stop() {
-        logger.info("Unsubscribing job message handler to input channel {}", messageBasedJobManager.getInputChannelName());
+        logger.info("Unsubscribing job message handler from input channels {}", inputChannels.keySet());
         
         try {
-            // Let's unbind consumer from input channel
-            bindingService.unbindConsumers(messageBasedJobManager.getInputChannelName());
-            inputChannel.unsubscribe(jobMessageHandler);
+            // Let's unbind consumers from input channels
+            inputChannels.forEach((channelName, inputChannel) -> {
+                bindingService.unbindConsumers(channelName);
+                inputChannel.unsubscribe(jobMessageHandlers.get(channelName));
+            });
+
+            // Let's drain in-flight jobs if handlers have their own execution stages
+            jobMessageHandlers.values()
+                              .stream()
+                              .filter(Lifecycle.class::isInstance)
+                              .forEach(handler -> ((Lifecycle) handler).stop());
 
             // Let's gracefully shutdown executor
             if (configuration.getAsyncExecutor().isActive()) {
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.activiti.cloud.services.job.executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+import java.util.List;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.activiti.cloud.services.events.configuration.RuntimeBundleProperties;
+import org.activiti.engine.runtime.Job;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.core.DestinationResolver;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+public class BatchingJobMessageProducerTest {
+
+    private MessageChannel messageChannel;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private BatchingJobMessageProducer subject;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        messageChannel = mock(MessageChannel.class);
+        given(messageChannel.send(any())).willReturn(true);
+
+        DestinationResolver<MessageChannel> resolver = mock(DestinationResolver.class);
+        given(resolver.resolveDestination(any())).willReturn(messageChannel);
+
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        meterRegistry = new SimpleMeterRegistry();
+
+        subject = new BatchingJobMessageProducer(resolver,
+                                                 eventPublisher,
+                                                 new JobMessageBuilderFactory(new RuntimeBundleProperties()),
+                                                 meterRegistry);
+
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @After
+    public void tearDown() {
+        TransactionSynchronizationManager.unbindResourceIfPossible(subject);
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    public void sendMessageShouldSendAllMessagesOfTransactionOnlyAfterCommit() {
+        // when
+        subject.sendMessage("destination", job("first"));
+        subject.sendMessage("destination", job("second"));
+
+        // then
+        verifyZeroInteractions(messageChannel);
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).hasSize(1);
+
+        // when
+        TransactionSynchronizationUtils.triggerAfterCommit();
+
+        // then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Message<String>> messages = ArgumentCaptor.forClass(Message.class);
+        verify(messageChannel, times(2)).send(messages.capture());
+        assertThat(messages.getAllValues()).extracting(Message::getPayload)
+                                           .containsExactly("first", "second");
+        assertThat(meterRegistry.get(BatchingJobMessageProducer.MESSAGES_PER_COMMIT)
+                                .summary()
+                                .totalAmount()).isEqualTo(2);
+    }
+
+    @Test
+    public void sendMessageShouldNotSendMessagesOnRollback() {
+        // given
+        subject.sendMessage("destination", job("first"));
+
+        // when
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations,
+                                                              TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // then
+        verify(messageChannel, never()).send(any());
+        verifyZeroInteractions(eventPublisher);
+        assertThat(TransactionSynchronizationManager.hasResource(subject)).isFalse();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void sendMessageShouldRequireActiveTransactionSynchronization() {
+        // given
+        TransactionSynchronizationManager.clearSynchronization();
+
+        try {
+            // when
+            subject.sendMessage("destination", job("first"));
+        } finally {
+            TransactionSynchronizationManager.initSynchronization();
+        }
+    }
+
+    private Job job(String id) {
+        Job job = mock(Job.class);
+        given(job.getId()).willReturn(id);
+
+        return job;
+    }
+
+}
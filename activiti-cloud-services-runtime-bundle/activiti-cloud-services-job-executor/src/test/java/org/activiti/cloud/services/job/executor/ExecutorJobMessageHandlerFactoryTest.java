@@ -0,0 +1,69 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.activiti.cloud.services.job.executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.activiti.cloud.services.job.executor.JobMessageHandlerProperties.OverflowPolicy;
+import org.activiti.cloud.services.job.executor.JobMessageLaneProperties.Lane;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ExecutorJobMessageHandlerFactoryTest {
+
+    private JobMessageHandlerProperties properties;
+
+    private ExecutorJobMessageHandlerFactory subject;
+
+    @Before
+    public void setUp() {
+        properties = new JobMessageHandlerProperties();
+        properties.setMaxInFlight(10);
+        properties.setQueueCapacity(100);
+        properties.setOverflowPolicy(OverflowPolicy.REJECT);
+        properties.setShutdownTimeout(Duration.ofSeconds(5));
+
+        subject = new ExecutorJobMessageHandlerFactory(properties);
+    }
+
+    @Test
+    public void lanePropertiesShouldUseDefaultsForDefaultLane() {
+        assertThat(subject.laneProperties(null)).isSameAs(properties);
+        assertThat(subject.laneProperties(new Lane())).isSameAs(properties);
+    }
+
+    @Test
+    public void lanePropertiesShouldSizeExecutorFromLane() {
+        // given
+        Lane lane = new Lane();
+        lane.setMaxInFlight(2);
+
+        // when
+        JobMessageHandlerProperties laneProperties = subject.laneProperties(lane);
+
+        // then
+        assertThat(laneProperties.getMaxInFlight()).isEqualTo(2);
+        assertThat(laneProperties.getQueueCapacity()).isEqualTo(100);
+        assertThat(laneProperties.getOverflowPolicy()).isEqualTo(OverflowPolicy.REJECT);
+        assertThat(laneProperties.getShutdownTimeout()).isEqualTo(Duration.ofSeconds(5));
+        assertThat(properties.getMaxInFlight()).isEqualTo(10);
+    }
+
+}
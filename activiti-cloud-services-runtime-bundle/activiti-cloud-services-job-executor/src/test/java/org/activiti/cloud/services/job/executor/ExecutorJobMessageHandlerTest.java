@@ -0,0 +1,189 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.activiti.cloud.services.job.executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.activiti.cloud.services.job.executor.JobMessageHandlerProperties.OverflowPolicy;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.support.MessageBuilder;
+
+public class ExecutorJobMessageHandlerTest {
+
+    private ExecutorJobMessageHandler subject;
+
+    @After
+    public void tearDown() {
+        if (subject != null) {
+            subject.stop();
+        }
+    }
+
+    @Test
+    public void handleMessageShouldReturnOnlyAfterJobHasBeenExecuted() {
+        // given
+        List<Object> executed = new CopyOnWriteArrayList<>();
+        subject = new ExecutorJobMessageHandler(message -> executed.add(message.getPayload()),
+                                                properties(2, 2, OverflowPolicy.BLOCK));
+
+        // when
+        subject.handleMessage(message("jobId"));
+
+        // then
+        assertThat(executed).containsExactly("jobId");
+        assertThat(subject.getInFlight()).isZero();
+        assertThat(subject.getQueueDepth()).isZero();
+    }
+
+    @Test
+    public void handleMessageShouldPassJobFailureBackToBinder() {
+        // given
+        subject = new ExecutorJobMessageHandler(message -> {
+            throw new IllegalStateException("job failed");
+        }, properties(2, 2, OverflowPolicy.BLOCK));
+
+        // when
+        Throwable thrown = catchThrowable(() -> subject.handleMessage(message("jobId")));
+
+        // then
+        assertThat(thrown).isInstanceOf(MessagingException.class)
+                          .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(subject.getQueueDepth()).isZero();
+    }
+
+    @Test
+    public void handleMessageShouldRejectMessageWhenQueueIsFull() throws Exception {
+        // given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        subject = new ExecutorJobMessageHandler(blockingHandler(started, release),
+                                                properties(1, 0, OverflowPolicy.REJECT));
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> subject.handleMessage(message("first")));
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // when
+        Throwable thrown = catchThrowable(() -> subject.handleMessage(message("second")));
+
+        // then
+        assertThat(thrown).isInstanceOf(MessagingException.class)
+                          .hasMessageContaining("queue is full");
+
+        release.countDown();
+        first.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void stopShouldCancelQueuedMessagesWhenShutdownTimesOut() throws Exception {
+        // given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        JobMessageHandlerProperties properties = properties(1, 1, OverflowPolicy.BLOCK);
+        properties.setShutdownTimeout(Duration.ofMillis(100));
+        subject = new ExecutorJobMessageHandler(blockingHandler(started, release), properties);
+
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> subject.handleMessage(message("first")));
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Void> queued = CompletableFuture.runAsync(() -> subject.handleMessage(message("queued")));
+        while (subject.getQueueDepth() == 0) {
+            Thread.sleep(10);
+        }
+
+        // when
+        subject.stop();
+
+        // then
+        Throwable thrown = catchThrowable(() -> queued.get(10, TimeUnit.SECONDS));
+        assertThat(thrown).isInstanceOf(ExecutionException.class)
+                          .hasCauseInstanceOf(MessagingException.class);
+        assertThat(catchThrowable(() -> first.get(10, TimeUnit.SECONDS))).isInstanceOf(ExecutionException.class);
+        assertThat(subject.isRunning()).isFalse();
+    }
+
+    @Test
+    public void startShouldRecreateExecutorAfterStop() {
+        // given
+        List<Object> executed = new CopyOnWriteArrayList<>();
+        subject = new ExecutorJobMessageHandler(message -> executed.add(message.getPayload()),
+                                                properties(1, 1, OverflowPolicy.BLOCK));
+        subject.stop();
+
+        // when
+        subject.start();
+        subject.handleMessage(message("jobId"));
+
+        // then
+        assertThat(subject.isRunning()).isTrue();
+        assertThat(executed).containsExactly("jobId");
+    }
+
+    @Test
+    public void handleMessageShouldFailWhenStopped() {
+        // given
+        subject = new ExecutorJobMessageHandler(message -> { }, properties(1, 1, OverflowPolicy.BLOCK));
+        subject.stop();
+
+        // when
+        Throwable thrown = catchThrowable(() -> subject.handleMessage(message("jobId")));
+
+        // then
+        assertThat(thrown).isInstanceOf(MessagingException.class)
+                          .hasMessageContaining("not running");
+    }
+
+    private MessageHandler blockingHandler(CountDownLatch started, CountDownLatch release) {
+        return message -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException cause) {
+                Thread.currentThread().interrupt();
+
+                throw new MessagingException(message, cause);
+            }
+        };
+    }
+
+    private JobMessageHandlerProperties properties(int maxInFlight, int queueCapacity, OverflowPolicy overflowPolicy) {
+        JobMessageHandlerProperties properties = new JobMessageHandlerProperties();
+        properties.setMaxInFlight(maxInFlight);
+        properties.setQueueCapacity(queueCapacity);
+        properties.setOverflowPolicy(overflowPolicy);
+
+        return properties;
+    }
+
+    private Message<String> message(String jobId) {
+        return MessageBuilder.withPayload(jobId)
+                             .setHeader(JobMessageHeaders.JOB_ID, jobId)
+                             .build();
+    }
+
+}
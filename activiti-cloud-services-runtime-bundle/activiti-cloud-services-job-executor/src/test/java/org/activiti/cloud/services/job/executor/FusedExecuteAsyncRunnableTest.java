@@ -0,0 +1,176 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.activiti.cloud.services.job.executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.activiti.engine.ActivitiOptimisticLockingException;
+import org.activiti.engine.delegate.event.ActivitiEventDispatcher;
+import org.activiti.engine.impl.asyncexecutor.JobManager;
+import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.interceptor.CommandExecutor;
+import org.activiti.engine.impl.persistence.entity.ExecutionEntity;
+import org.activiti.engine.impl.persistence.entity.ExecutionEntityManager;
+import org.activiti.engine.impl.persistence.entity.JobEntity;
+import org.activiti.engine.impl.persistence.entity.JobEntityManager;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FusedExecuteAsyncRunnableTest {
+
+    private static final String JOB_ID = "jobId";
+
+    private ProcessEngineConfigurationImpl processEngineConfiguration;
+
+    private CommandContext commandContext;
+
+    private JobEntityManager jobEntityManager;
+
+    private ExecutionEntityManager executionEntityManager;
+
+    private JobManager jobManager;
+
+    private JobEntity jobEntity;
+
+    private final List<Throwable> failures = new ArrayList<>();
+
+    private int unacquires;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        processEngineConfiguration = mock(ProcessEngineConfigurationImpl.class);
+        commandContext = mock(CommandContext.class);
+        jobEntityManager = mock(JobEntityManager.class);
+        executionEntityManager = mock(ExecutionEntityManager.class);
+        jobManager = mock(JobManager.class);
+        jobEntity = mock(JobEntity.class);
+
+        CommandExecutor commandExecutor = mock(CommandExecutor.class);
+        given(commandExecutor.execute(any(Command.class))).willAnswer(invocation -> invocation.<Command<?>>getArgument(0)
+                                                                                              .execute(commandContext));
+        given(processEngineConfiguration.getCommandExecutor()).willReturn(commandExecutor);
+        ActivitiEventDispatcher eventDispatcher = mock(ActivitiEventDispatcher.class);
+        given(processEngineConfiguration.getEventDispatcher()).willReturn(eventDispatcher);
+
+        given(commandContext.getProcessEngineConfiguration()).willReturn(processEngineConfiguration);
+        given(commandContext.getEventDispatcher()).willReturn(eventDispatcher);
+        given(commandContext.getJobEntityManager()).willReturn(jobEntityManager);
+        given(commandContext.getExecutionEntityManager()).willReturn(executionEntityManager);
+        given(commandContext.getJobManager()).willReturn(jobManager);
+
+        given(jobEntity.getId()).willReturn(JOB_ID);
+        given(jobEntity.isExclusive()).willReturn(true);
+    }
+
+    @Test
+    public void executeShouldReturnFalseWhenJobDoesNotExist() {
+        // when
+        boolean executed = subject().execute();
+
+        // then
+        assertThat(executed).isFalse();
+        verify(jobManager, never()).execute(any());
+    }
+
+    @Test
+    public void executeShouldExecuteJobInOneCommand() {
+        // given
+        given(jobEntityManager.findById(JOB_ID)).willReturn(jobEntity);
+
+        // when
+        FusedExecuteAsyncRunnable subject = subject();
+        boolean executed = subject.execute();
+
+        // then
+        assertThat(executed).isTrue();
+        assertThat(subject.isFailed()).isFalse();
+        assertThat(subject.isUnacquired()).isFalse();
+        verify(jobManager).execute(jobEntity);
+    }
+
+    @Test
+    public void executeShouldHandOverFailedJobToFailedJobHandling() {
+        // given
+        RuntimeException failure = new RuntimeException("job failed");
+        given(jobEntityManager.findById(JOB_ID)).willReturn(jobEntity);
+        willThrow(failure).given(jobManager).execute(jobEntity);
+
+        // when
+        FusedExecuteAsyncRunnable subject = subject();
+        boolean executed = subject.execute();
+
+        // then
+        assertThat(executed).isTrue();
+        assertThat(subject.isFailed()).isTrue();
+        assertThat(subject.isUnacquired()).isFalse();
+        assertThat(failures).containsExactly(failure);
+        assertThat(unacquires).isZero();
+    }
+
+    @Test
+    public void executeShouldUnacquireJobWhenExclusiveLockFails() {
+        // given
+        ExecutionEntity execution = mock(ExecutionEntity.class);
+        given(execution.getProcessInstanceId()).willReturn("processInstanceId");
+        given(jobEntity.getExecutionId()).willReturn("executionId");
+        given(jobEntity.getProcessInstanceId()).willReturn("processInstanceId");
+        given(executionEntityManager.findById("executionId")).willReturn(execution);
+        given(jobEntityManager.findById(JOB_ID)).willReturn(jobEntity);
+        willThrow(new ActivitiOptimisticLockingException("process instance is locked")).given(executionEntityManager)
+                                                                                      .updateProcessInstanceLockTime("processInstanceId");
+
+        // when
+        FusedExecuteAsyncRunnable subject = subject();
+        boolean executed = subject.execute();
+
+        // then
+        assertThat(executed).isTrue();
+        assertThat(subject.isUnacquired()).isTrue();
+        assertThat(subject.isFailed()).isFalse();
+        assertThat(unacquires).isEqualTo(1);
+        assertThat(failures).isEmpty();
+        verify(jobManager, never()).execute(any());
+    }
+
+    private FusedExecuteAsyncRunnable subject() {
+        return new FusedExecuteAsyncRunnable(JOB_ID, processEngineConfiguration) {
+            @Override
+            protected void handleFailedJob(Throwable exception) {
+                failures.add(exception);
+            }
+
+            @Override
+            protected void unacquire() {
+                unacquires++;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.activiti.cloud.services.job.executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import org.activiti.cloud.services.events.configuration.RuntimeBundleProperties;
+import org.activiti.engine.runtime.Job;
+import org.junit.Test;
+import org.springframework.messaging.Message;
+
+public class JobMessageBuilderFactoryTest {
+
+    private JobMessageBuilderFactory subject = new JobMessageBuilderFactory(new RuntimeBundleProperties());
+
+    @Test
+    public void createShouldStampMessageCreationTime() {
+        // given
+        Job job = mock(Job.class);
+        given(job.getId()).willReturn("jobId");
+        given(job.getJobType()).willReturn("message");
+        long before = System.currentTimeMillis();
+
+        // when
+        Message<String> message = subject.create(job)
+                                         .withPayload(job.getId())
+                                         .build();
+
+        // then
+        assertThat(message.getHeaders().get(JobMessageHeaders.JOB_MESSAGE_TIMESTAMP, Long.class)).isBetween(before, System.currentTimeMillis());
+        assertThat(message.getHeaders()).containsEntry(JobMessageHeaders.JOB_ID, "jobId")
+                                        .containsEntry(JobMessageHeaders.JOB_TYPE, "message");
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.activiti.cloud.services.job.executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JobMessageDeduplicationCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private long now;
+
+    private JobMessageDeduplicationCache subject;
+
+    @Before
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        subject = cache(3, Duration.ofSeconds(10));
+    }
+
+    @Test
+    public void beginShouldDropInFlightAndCompletedJobs() {
+        // given
+        assertThat(subject.begin("jobId")).isTrue();
+
+        // then
+        assertThat(subject.begin("jobId")).isFalse();
+
+        // when
+        subject.complete("jobId");
+
+        // then
+        assertThat(subject.begin("jobId")).isFalse();
+        assertThat(meterRegistry.get(JobMessageDeduplicationCache.DEDUPLICATION_HITS).counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(JobMessageDeduplicationCache.DEDUPLICATION_MISSES).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void beginShouldAcceptJobAgainAfterRelease() {
+        // given
+        subject.begin("jobId");
+
+        // when
+        subject.release("jobId");
+
+        // then
+        assertThat(subject.begin("jobId")).isTrue();
+    }
+
+    @Test
+    public void beginShouldAcceptJobAgainAfterTtlHasExpired() {
+        // given
+        subject.begin("jobId");
+        subject.complete("jobId");
+
+        // when
+        now += 10_000;
+
+        // then
+        assertThat(subject.begin("jobId")).isTrue();
+        assertThat(subject.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void completeShouldRestartTtl() {
+        // given
+        subject.begin("jobId");
+        now += 5_000;
+
+        // when
+        subject.complete("jobId");
+        now += 5_000;
+
+        // then
+        assertThat(subject.begin("jobId")).isFalse();
+    }
+
+    @Test
+    public void beginShouldEvictEldestEntryWhenMaxSizeIsExceeded() {
+        // given
+        subject.begin("first");
+        subject.begin("second");
+        subject.begin("third");
+
+        // when
+        subject.begin("fourth");
+
+        // then
+        assertThat(subject.size()).isEqualTo(3);
+        assertThat(subject.begin("first")).isTrue();
+        assertThat(subject.begin("fourth")).isFalse();
+    }
+
+    private JobMessageDeduplicationCache cache(int maxSize, Duration ttl) {
+        return new JobMessageDeduplicationCache(maxSize, ttl, meterRegistry) {
+            @Override
+            protected long currentTimeMillis() {
+                return now;
+            }
+        };
+    }
+
+}
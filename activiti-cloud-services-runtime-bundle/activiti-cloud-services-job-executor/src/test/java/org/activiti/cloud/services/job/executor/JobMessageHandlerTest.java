@@ -0,0 +1,164 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.activiti.cloud.services.job.executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.activiti.engine.ActivitiOptimisticLockingException;
+import org.activiti.engine.delegate.event.ActivitiEventDispatcher;
+import org.activiti.engine.impl.asyncexecutor.JobManager;
+import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.interceptor.CommandExecutor;
+import org.activiti.engine.impl.persistence.entity.ExecutionEntity;
+import org.activiti.engine.impl.persistence.entity.ExecutionEntityManager;
+import org.activiti.engine.impl.persistence.entity.JobEntity;
+import org.activiti.engine.impl.persistence.entity.JobEntityManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+public class JobMessageHandlerTest {
+
+    private static final String JOB_ID = "jobId";
+
+    private ProcessEngineConfigurationImpl processEngineConfiguration;
+
+    private ExecutionEntityManager executionEntityManager;
+
+    private JobManager jobManager;
+
+    private JobEntity jobEntity;
+
+    private JobMessageDeduplicationCache deduplicationCache;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ExecutorService redeliveries;
+
+    private JobMessageHandler subject;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        processEngineConfiguration = mock(ProcessEngineConfigurationImpl.class);
+        CommandContext commandContext = mock(CommandContext.class);
+        JobEntityManager jobEntityManager = mock(JobEntityManager.class);
+        executionEntityManager = mock(ExecutionEntityManager.class);
+        jobManager = mock(JobManager.class);
+        jobEntity = mock(JobEntity.class);
+        ActivitiEventDispatcher eventDispatcher = mock(ActivitiEventDispatcher.class);
+
+        CommandExecutor commandExecutor = mock(CommandExecutor.class);
+        given(commandExecutor.execute(any(Command.class))).willAnswer(invocation -> invocation.<Command<?>>getArgument(0)
+                                                                                              .execute(commandContext));
+        given(processEngineConfiguration.getCommandExecutor()).willReturn(commandExecutor);
+        given(processEngineConfiguration.getEventDispatcher()).willReturn(eventDispatcher);
+
+        given(commandContext.getProcessEngineConfiguration()).willReturn(processEngineConfiguration);
+        given(commandContext.getEventDispatcher()).willReturn(eventDispatcher);
+        given(commandContext.getJobEntityManager()).willReturn(jobEntityManager);
+        given(commandContext.getExecutionEntityManager()).willReturn(executionEntityManager);
+        given(commandContext.getJobManager()).willReturn(jobManager);
+
+        ExecutionEntity execution = mock(ExecutionEntity.class);
+        given(execution.getProcessInstanceId()).willReturn("processInstanceId");
+        given(executionEntityManager.findById("executionId")).willReturn(execution);
+
+        given(jobEntity.getId()).willReturn(JOB_ID);
+        given(jobEntity.isExclusive()).willReturn(true);
+        given(jobEntity.getExecutionId()).willReturn("executionId");
+        given(jobEntity.getProcessInstanceId()).willReturn("processInstanceId");
+        given(jobEntityManager.findById(JOB_ID)).willReturn(jobEntity);
+
+        meterRegistry = new SimpleMeterRegistry();
+        deduplicationCache = new JobMessageDeduplicationCache(100, Duration.ofMinutes(5), meterRegistry);
+        redeliveries = Executors.newSingleThreadExecutor();
+
+        subject = new JobMessageHandler(processEngineConfiguration, deduplicationCache, null, true);
+    }
+
+    @After
+    public void tearDown() {
+        redeliveries.shutdownNow();
+    }
+
+    @Test
+    public void handleMessageShouldDropDuplicateOfCompletedJob() {
+        // given
+        subject.handleMessage(message());
+
+        // when
+        subject.handleMessage(message());
+
+        // then
+        verify(jobManager, times(1)).execute(jobEntity);
+        assertThat(meterRegistry.get(JobMessageDeduplicationCache.DEDUPLICATION_HITS)
+                                .counter()
+                                .count()).isEqualTo(1);
+    }
+
+    @Test
+    public void handleMessageShouldProcessMessageResentByUnacquireWhileFirstDeliveryIsStillInFlight() {
+        // given
+        willThrow(new ActivitiOptimisticLockingException("process instance is locked")).willAnswer(invocation -> null)
+                                                                                      .given(executionEntityManager)
+                                                                                      .updateProcessInstanceLockTime("processInstanceId");
+
+        // Unacquired job message is redelivered to another consumer before the first delivery returns
+        willAnswer(invocation -> redeliveries.submit(() -> subject.handleMessage(message()))
+                                             .get(10, TimeUnit.SECONDS))
+                .given(jobManager).unacquire(jobEntity);
+
+        // when
+        subject.handleMessage(message());
+
+        // then
+        verify(jobManager).unacquire(jobEntity);
+        verify(jobManager, times(1)).execute(jobEntity);
+        assertThat(meterRegistry.get(JobMessageDeduplicationCache.DEDUPLICATION_HITS)
+                                .counter()
+                                .count()).isZero();
+
+        // The redelivered job has completed, so further duplicates must still be dropped
+        assertThat(deduplicationCache.begin(JOB_ID)).isFalse();
+    }
+
+    private Message<String> message() {
+        return MessageBuilder.withPayload(JOB_ID)
+                             .setHeader(JobMessageHeaders.JOB_ID, JOB_ID)
+                             .build();
+    }
+
+}
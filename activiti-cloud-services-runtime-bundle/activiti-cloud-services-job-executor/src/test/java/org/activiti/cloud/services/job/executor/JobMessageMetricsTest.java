@@ -0,0 +1,128 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.activiti.cloud.services.job.executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+public class JobMessageMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private JobMessageMetrics subject;
+
+    @Before
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        subject = new JobMessageMetrics(meterRegistry);
+    }
+
+    @Test
+    public void onJobMessageSentShouldCountMessageAndRecordProduceLatencyTaggedByJobType() {
+        // when
+        subject.onJobMessageSent(new JobMessageSentEvent(message(System.currentTimeMillis() - 50), this));
+
+        // then
+        assertThat(meterRegistry.get(JobMessageMetrics.MESSAGES_SENT)
+                                .tag("jobType", "message")
+                                .tag("jobHandlerType", "async-continuation")
+                                .counter()
+                                .count()).isEqualTo(1);
+        assertThat(meterRegistry.get(JobMessageMetrics.PRODUCE_LATENCY)
+                                .tag("jobType", "message")
+                                .timer()
+                                .totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(50);
+    }
+
+    @Test
+    public void onJobMessageFailedShouldCountFailedMessage() {
+        // when
+        subject.onJobMessageFailed(new JobMessageFailedEvent(message(System.currentTimeMillis()), new RuntimeException(), this));
+
+        // then
+        assertThat(meterRegistry.get(JobMessageMetrics.MESSAGES_FAILED)
+                                .tag("jobHandlerType", "async-continuation")
+                                .counter()
+                                .count()).isEqualTo(1);
+    }
+
+    @Test
+    public void recordExecutedShouldTagOutcome() {
+        // when
+        subject.recordExecuted(message(System.currentTimeMillis()), TimeUnit.MILLISECONDS.toNanos(10), JobMessageMetrics.OUTCOME_UNACQUIRED);
+
+        // then
+        assertThat(meterRegistry.get(JobMessageMetrics.EXECUTION_DURATION)
+                                .tag("jobType", "message")
+                                .tag("outcome", JobMessageMetrics.OUTCOME_UNACQUIRED)
+                                .timer()
+                                .count()).isEqualTo(1);
+    }
+
+    @Test
+    public void recordDroppedShouldTagReason() {
+        // when
+        subject.recordDropped(message(System.currentTimeMillis()), JobMessageMetrics.DROPPED_DUPLICATE);
+
+        // then
+        assertThat(meterRegistry.get(JobMessageMetrics.MESSAGES_DROPPED)
+                                .tag("reason", JobMessageMetrics.DROPPED_DUPLICATE)
+                                .counter()
+                                .count()).isEqualTo(1);
+    }
+
+    @Test
+    public void recordReceivedShouldSkipQueueLatencyWithoutTimestamp() {
+        // when
+        subject.recordReceived(MessageBuilder.withPayload("jobId").build());
+
+        // then
+        assertThat(meterRegistry.find(JobMessageMetrics.QUEUE_LATENCY).timer()).isNull();
+    }
+
+    @Test
+    public void recordReceivedShouldTagMissingJobTypesAsNone() {
+        // when
+        subject.recordReceived(MessageBuilder.withPayload("jobId")
+                                             .setHeader(JobMessageHeaders.JOB_MESSAGE_TIMESTAMP, String.valueOf(System.currentTimeMillis()))
+                                             .build());
+
+        // then
+        assertThat(meterRegistry.get(JobMessageMetrics.QUEUE_LATENCY)
+                                .tag("jobType", "none")
+                                .tag("jobHandlerType", "none")
+                                .timer()
+                                .count()).isEqualTo(1);
+    }
+
+    private Message<String> message(long timestamp) {
+        return MessageBuilder.withPayload("jobId")
+                             .setHeader(JobMessageHeaders.JOB_TYPE, "message")
+                             .setHeader(JobMessageHeaders.JOB_HANDLER_TYPE, "async-continuation")
+                             .setHeader(JobMessageHeaders.JOB_MESSAGE_TIMESTAMP, timestamp)
+                             .build();
+    }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.cloud.services.job.executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.activiti.cloud.services.events.configuration.RuntimeBundleProperties;
+import org.activiti.cloud.services.job.executor.JobMessageLaneProperties.Lane;
+import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.activiti.engine.impl.persistence.entity.JobEntity;
+import org.activiti.engine.runtime.Job;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MessageBasedJobManagerTest {
+
+    private JobMessageProducer jobMessageProducer;
+
+    private MessageBasedJobManager subject;
+
+    @Before
+    public void setUp() {
+        RuntimeBundleProperties runtimeBundleProperties = new RuntimeBundleProperties();
+        runtimeBundleProperties.setRbSpringAppName("rb");
+        jobMessageProducer = mock(JobMessageProducer.class);
+
+        Map<String, Lane> lanes = new LinkedHashMap<>();
+        lanes.put("timers", lane(Arrays.asList(Job.JOB_TYPE_TIMER), Arrays.asList()));
+        lanes.put("continuations", lane(Arrays.asList(), Arrays.asList("async-continuation")));
+        lanes.put("messages", lane(Arrays.asList(Job.JOB_TYPE_MESSAGE), Arrays.asList("async-continuation", "event")));
+        lanes.put("empty", lane(Arrays.asList(), Arrays.asList()));
+
+        subject = new MessageBasedJobManager(mock(ProcessEngineConfigurationImpl.class),
+                                             runtimeBundleProperties,
+                                             jobMessageProducer,
+                                             lanes);
+    }
+
+    @Test
+    public void resolveLaneShouldMatchJobType() {
+        // given
+        Job job = job(Job.JOB_TYPE_TIMER, "trigger-timer");
+
+        // then
+        assertThat(subject.resolveLane(job)).isEqualTo("timers");
+    }
+
+    @Test
+    public void resolveLaneShouldMatchJobHandlerType() {
+        // given
+        Job job = job(Job.JOB_TYPE_MESSAGE, "async-continuation");
+
+        // then
+        assertThat(subject.resolveLane(job)).isEqualTo("continuations");
+    }
+
+    @Test
+    public void resolveLaneShouldMatchJobTypeAndJobHandlerType() {
+        // given
+        Job job = job(Job.JOB_TYPE_MESSAGE, "event");
+
+        // then
+        assertThat(subject.resolveLane(job)).isEqualTo("messages");
+    }
+
+    @Test
+    public void resolveLaneShouldFallBackToDefaultLaneWhenNoLaneMatches() {
+        // given
+        Job job = job(Job.JOB_TYPE_MESSAGE, "process-event");
+
+        // then
+        assertThat(subject.resolveLane(job)).isNull();
+    }
+
+    @Test
+    public void getDestinationShouldScopeEachLaneByServiceName() {
+        // then
+        assertThat(subject.getDestination()).isEqualTo("rb.asyncExecutorJobs");
+        assertThat(subject.getDestination(null)).isEqualTo("rb.asyncExecutorJobs");
+        assertThat(subject.getDestination("timers")).isEqualTo("rb.asyncExecutorJobs-timers");
+        assertThat(subject.getDestination("continuations")).isEqualTo("rb.asyncExecutorJobs-continuations");
+        assertThat(subject.getDestination("messages")).isEqualTo("rb.asyncExecutorJobs-messages");
+    }
+
+    @Test
+    public void sendMessageShouldSendJobToDestinationOfResolvedLane() {
+        // given
+        Job timer = job(Job.JOB_TYPE_TIMER, "trigger-timer");
+        Job other = job(Job.JOB_TYPE_MESSAGE, "process-event");
+
+        // when
+        subject.sendMessage(timer);
+        subject.sendMessage(other);
+
+        // then
+        verify(jobMessageProducer).sendMessage("rb.asyncExecutorJobs-timers", timer);
+        verify(jobMessageProducer).sendMessage("rb.asyncExecutorJobs", other);
+    }
+
+    private static Lane lane(List<String> jobTypes, List<String> jobHandlerTypes) {
+        Lane lane = new Lane();
+        lane.setJobTypes(jobTypes);
+        lane.setJobHandlerTypes(jobHandlerTypes);
+        return lane;
+    }
+
+    private static Job job(String jobType, String jobHandlerType) {
+        JobEntity job = mock(JobEntity.class);
+        given(job.getJobType()).willReturn(jobType);
+        given(job.getJobHandlerType()).willReturn(jobHandlerType);
+        return job;
+    }
+}
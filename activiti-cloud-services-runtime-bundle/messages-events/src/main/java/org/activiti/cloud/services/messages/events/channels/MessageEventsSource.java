@@ -21,7 +21,9 @@ import org.springframework.messaging.MessageChannel;
 
 public interface MessageEventsSource {
 
-    @Output
+    String MESSAGE_EVENTS_OUTPUT = "messageEvents";
+
+    @Output(MESSAGE_EVENTS_OUTPUT)
     MessageChannel messageEvents();
 
 }
@@ -17,6 +17,7 @@
 package org.activiti.cloud.services.messages.events.config;
 
 import org.activiti.cloud.services.events.configuration.RuntimeBundleProperties;
+import org.activiti.cloud.services.events.outbox.MessageOutbox;
 import org.activiti.cloud.services.messages.events.channels.MessageEventsSource;
 import org.activiti.cloud.services.messages.events.producer.BpmnMessageReceivedEventMessageProducer;
 import org.activiti.cloud.services.messages.events.producer.BpmnMessageSentEventMessageProducer;
@@ -26,8 +27,10 @@ import org.activiti.cloud.services.messages.events.producer.StartMessageDeployed
 import org.activiti.cloud.services.messages.events.support.BpmnMessageEventMessageBuilderFactory;
 import org.activiti.cloud.services.messages.events.support.MessageEventsDispatcher;
 import org.activiti.cloud.services.messages.events.support.MessageSubscriptionEventMessageBuilderFactory;
+import org.activiti.cloud.services.messages.events.support.OutboxMessageEventsDispatcher;
 import org.activiti.cloud.services.messages.events.support.StartMessageDeployedEventMessageBuilderFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cloud.stream.annotation.EnableBinding;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -41,6 +44,16 @@ import org.springframework.context.annotation.PropertySource;
 public class MessageEventsAutoConfiguration {
 
     
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "activiti.cloud.runtime-bundle.outbox.enabled", havingValue = "true")
+    public MessageEventsDispatcher outboxMessageEventsDispatcher(MessageEventsSource messageEventsSource,
+                                                                 MessageOutbox messageOutbox) {
+        return new OutboxMessageEventsDispatcher(messageEventsSource.messageEvents(),
+                                                 messageOutbox,
+                                                 MessageEventsSource.MESSAGE_EVENTS_OUTPUT);
+    }
+
     @Bean
     @ConditionalOnMissingBean
     public MessageEventsDispatcher messageEventsDispatcher(MessageEventsSource messageEventsSource) {
@@ -23,14 +23,14 @@ import org.activiti.cloud.services.events.message.RuntimeBundleInfoMessageBuilde
 
 public class BpmnMessageEventMessageBuilderFactory {
 
-    private final RuntimeBundleProperties properties;
+    private final RuntimeBundleInfoMessageBuilderAppender runtimeBundleInfoMessageBuilderAppender;
 
     public BpmnMessageEventMessageBuilderFactory(RuntimeBundleProperties properties) {
-        this.properties = properties;
+        this.runtimeBundleInfoMessageBuilderAppender = new RuntimeBundleInfoMessageBuilderAppender(properties);
     }
 
     public MessageBuilderAppenderChain create(BPMNMessage bpmnMessage) {
-        return new MessageBuilderAppenderChain().chain(new RuntimeBundleInfoMessageBuilderAppender(properties))
+        return new MessageBuilderAppenderChain().chain(runtimeBundleInfoMessageBuilderAppender)
                                                 .chain(new MessageEventPayloadMessageBuilderAppender(bpmnMessage.getMessagePayload()));
     }
 }
@@ -23,14 +23,14 @@ import org.activiti.cloud.services.events.message.RuntimeBundleInfoMessageBuilde
 
 public class MessageSubscriptionEventMessageBuilderFactory {
 
-    private final RuntimeBundleProperties properties;
+    private final RuntimeBundleInfoMessageBuilderAppender runtimeBundleInfoMessageBuilderAppender;
 
     public MessageSubscriptionEventMessageBuilderFactory(RuntimeBundleProperties properties) {
-        this.properties = properties;
+        this.runtimeBundleInfoMessageBuilderAppender = new RuntimeBundleInfoMessageBuilderAppender(properties);
     }
 
     public MessageBuilderAppenderChain create(MessageSubscription messageSubscription) {
-        return new MessageBuilderAppenderChain().chain(new RuntimeBundleInfoMessageBuilderAppender(properties))
+        return new MessageBuilderAppenderChain().chain(runtimeBundleInfoMessageBuilderAppender)
                                                 .chain(new MessageSubscriptionMessageBuilderAppender(messageSubscription));
     }
 }
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2019 Alfresco, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.cloud.services.messages.events.support;
+
+import org.activiti.cloud.services.events.outbox.MessageOutbox;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Writes bpmn message events into the outbox within the engine transaction 
+ * instead of sending them after commit.
+ */
+public class OutboxMessageEventsDispatcher extends MessageEventsDispatcher {
+
+    private final MessageOutbox outbox;
+    private final String destination;
+
+    public OutboxMessageEventsDispatcher(MessageChannel messageEvents,
+                                         MessageOutbox outbox,
+                                         String destination) {
+        super(messageEvents);
+        this.outbox = outbox;
+        this.destination = destination;
+    }
+
+    @Override
+    public void dispatch(Message<?> message) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("requires active transaction");
+        }
+
+        outbox.append(destination, message);
+    }
+}
@@ -23,14 +23,14 @@ import org.activiti.cloud.services.events.message.RuntimeBundleInfoMessageBuilde
 
 public class StartMessageDeployedEventMessageBuilderFactory {
 
-    private final RuntimeBundleProperties properties;
+    private final RuntimeBundleInfoMessageBuilderAppender runtimeBundleInfoMessageBuilderAppender;
 
     public StartMessageDeployedEventMessageBuilderFactory(RuntimeBundleProperties properties) {
-        this.properties = properties;
+        this.runtimeBundleInfoMessageBuilderAppender = new RuntimeBundleInfoMessageBuilderAppender(properties);
     }
 
     public MessageBuilderAppenderChain create(StartMessageDeployedEvent messageDeployedEvent) {
-        return new MessageBuilderAppenderChain().chain(new RuntimeBundleInfoMessageBuilderAppender(properties))
+        return new MessageBuilderAppenderChain().chain(runtimeBundleInfoMessageBuilderAppender)
                                                 .chain(new StartMessageDeploymentDefinitionMessageBuilderAppender(messageDeployedEvent.getEntity()));
     }
 }